@@ -17,17 +17,24 @@ package org.codehaus.jackson;
 import java.io.*;
 import java.lang.ref.SoftReference;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
 
 import org.codehaus.jackson.format.InputAccessor;
 import org.codehaus.jackson.format.MatchStrength;
 import org.codehaus.jackson.io.*;
 import org.codehaus.jackson.impl.ByteSourceBootstrapper;
+import org.codehaus.jackson.impl.NonBlockingUtf8Parser;
 import org.codehaus.jackson.impl.ReaderBasedParser;
 import org.codehaus.jackson.impl.Utf8Generator;
 import org.codehaus.jackson.impl.WriterBasedGenerator;
 import org.codehaus.jackson.sym.BytesToNameCanonicalizer;
 import org.codehaus.jackson.sym.CharsToNameCanonicalizer;
+import org.codehaus.jackson.sym.SymbolTableStats;
 import org.codehaus.jackson.util.BufferRecycler;
+import org.codehaus.jackson.util.BufferRecyclerPool;
 import org.codehaus.jackson.util.VersionUtil;
 
 /**
@@ -80,7 +87,11 @@ public class JsonFactory implements Versioned
      * This <code>ThreadLocal</code> contains a {@link java.lang.ref.SoftRerefence}
      * to a {@link BufferRecycler} used to provide a low-cost
      * buffer recycling between reader and writer instances.
+     *
+     * @deprecated Since 1.10 recyclers are managed by {@link BufferRecyclerPool};
+     *   this field is no longer used.
      */
+    @Deprecated
     final protected static ThreadLocal<SoftReference<BufferRecycler>> _recyclerRef
         = new ThreadLocal<SoftReference<BufferRecycler>>();
 
@@ -149,6 +160,15 @@ public class JsonFactory implements Versioned
      * @since 1.8
      */
     protected OutputDecorator _outputDecorator;
+
+    /**
+     * Pool used for acquiring {@link BufferRecycler}s for parsers and
+     * generators created by this factory. Defaults to a thread-local
+     * pool.
+     *
+     * @since 1.10
+     */
+    protected BufferRecyclerPool _bufferRecyclerPool = BufferRecyclerPool.threadLocalPool();
     
     /*
     /**********************************************************
@@ -478,6 +498,106 @@ public class JsonFactory implements Versioned
 
     public ObjectCodec getCodec() { return _objectCodec; }
 
+    /**
+     * Method for changing pool used for acquiring {@link BufferRecycler}s
+     * for parsers and generators this factory constructs. Default pool
+     * is thread-local ({@link BufferRecyclerPool#threadLocalPool()});
+     * with large number of short-lived (or virtual) threads a shared
+     * pool ({@link BufferRecyclerPool#boundedPool(int)}) usually works better.
+     *
+     * @since 1.10
+     */
+    public JsonFactory setBufferRecyclerPool(BufferRecyclerPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Can not pass null BufferRecyclerPool");
+        }
+        _bufferRecyclerPool = pool;
+        return this;
+    }
+
+    /**
+     * Accessor for pool used for buffer recyclers; can be used for
+     * checking its hit and miss counts.
+     *
+     * @since 1.10
+     */
+    public BufferRecyclerPool getBufferRecyclerPool() {
+        return _bufferRecyclerPool;
+    }
+
+    /**
+     * Method for changing limits of field name symbol tables that parsers
+     * constructed by this factory use (both for byte- and character-based
+     * input). Limits only affect parsers constructed after the call.
+     *
+     * @param maxTableSize Maximum size of a symbol table hash area;
+     *   tables that would need to grow beyond it are flushed instead.
+     *   Zero or negative value means that default (64k) is used.
+     * @param maxSharedSymbols Maximum number of distinct names a parser
+     *   may have seen for its names to be merged back into the shared
+     *   symbol table of this factory; if exceeded, shared table is flushed.
+     *   Zero or negative value means that default is used.
+     *
+     * @since 1.10
+     */
+    public JsonFactory setSymbolTableLimits(int maxTableSize, int maxSharedSymbols) {
+        _rootCharSymbols.setSizeLimits(maxTableSize, maxSharedSymbols);
+        _rootByteSymbols.setSizeLimits(maxTableSize, maxSharedSymbols);
+        return this;
+    }
+
+    /**
+     * Method for pre-loading shared symbol tables of this factory with
+     * given field names, so that parsers created later on need not
+     * construct and canonicalize these names when they first see them.
+     * This is useful for names known to be common (for example, property
+     * names of data-bound types), to avoid cost of warming up symbol
+     * tables for the first documents parsed.
+     *<p>
+     * Note that symbol table limits (see {@link #setSymbolTableLimits})
+     * apply: if number of names exceeds maximum number of shared symbols,
+     * shared tables are flushed instead.
+     *
+     * @since 1.10
+     */
+    public JsonFactory preloadFieldNames(Collection<String> names)
+    {
+        final boolean intern = isEnabled(JsonParser.Feature.INTERN_FIELD_NAMES);
+        CharsToNameCanonicalizer charSymbols = _rootCharSymbols.makeChild(true, intern);
+        BytesToNameCanonicalizer byteSymbols = _rootByteSymbols.makeChild(true, intern);
+        for (String name : names) {
+            char[] ch = name.toCharArray();
+            charSymbols.findSymbol(ch, 0, ch.length, charSymbols.calcHash(ch, 0, ch.length));
+            byteSymbols.findOrAddName(name);
+        }
+        // releasing child tables merges names into root tables
+        charSymbols.release();
+        byteSymbols.release();
+        return this;
+    }
+
+    /**
+     * Accessor for statistics of the shared symbol table used by
+     * parsers for character-based input (<code>Reader</code>s,
+     * <code>String</code>s): can be used for monitoring hash collisions.
+     *
+     * @since 1.10
+     */
+    public SymbolTableStats getCharSymbolTableStats() {
+        return _rootCharSymbols.stats();
+    }
+
+    /**
+     * Accessor for statistics of the shared symbol table used by
+     * parsers for byte-based input (<code>InputStream</code>s, byte
+     * arrays): can be used for monitoring hash collisions.
+     *
+     * @since 1.10
+     */
+    public SymbolTableStats getByteSymbolTableStats() {
+        return _rootByteSymbols.stats();
+    }
+
     /*
     /**********************************************************
     /* Reader factories
@@ -629,18 +749,143 @@ public class JsonFactory implements Versioned
     /**
      * Method for constructing parser for parsing
      * contens of given String.
+     *<p>
+     * Note: since 1.10, content is parsed without wrapping it in
+     * a {@link StringReader}; see {@link #createJsonParser(CharSequence)}.
      */
     public JsonParser createJsonParser(String content)
         throws IOException, JsonParseException
     {
-	Reader r = new StringReader(content);
-        // true -> we own the Reader (and must close); not a big deal
-        IOContext ctxt = _createContext(r, true);
+        return createJsonParser((CharSequence) content);
+    }
+
+    /**
+     * Method for constructing parser for parsing contents of given
+     * {@link CharSequence} (such as {@link String} or {@link StringBuilder}).
+     * Content is copied once into a (recycled) buffer that is large
+     * enough to contain all of it, and parsed from there, without
+     * having to use a {@link Reader}.
+     *
+     * @since 1.10
+     */
+    public JsonParser createJsonParser(CharSequence content)
+        throws IOException, JsonParseException
+    {
+        /* Content itself is not used as the source reference, since
+         * it would be included in all location descriptions
+         * (including exception messages)
+         */
+        IOContext ctxt = _createContext(null, true);
         // [JACKSON-512]: allow wrapping with InputDecorator
         if (_inputDecorator != null) {
-            r = _inputDecorator.decorate(ctxt, r);
+            Reader r = _inputDecorator.decorate(ctxt, new StringReader(content.toString()));
+            return _createJsonParser(r, ctxt);
         }
-	return _createJsonParser(r, ctxt);
+        final int len = content.length();
+        char[] buf = ctxt.allocTokenBuffer(len);
+        if (content instanceof String) {
+            ((String) content).getChars(0, len, buf, 0);
+        } else if (content instanceof StringBuilder) {
+            ((StringBuilder) content).getChars(0, len, buf, 0);
+        } else {
+            for (int i = 0; i < len; ++i) {
+                buf[i] = content.charAt(i);
+            }
+        }
+        return _createJsonParser(buf, 0, len, ctxt, true);
+    }
+
+    /**
+     * Method for constructing parser for parsing contents of given
+     * char array, from specified offset. Content is parsed directly
+     * from the array, without copying; caller must not modify contents
+     * of the array until parser is closed.
+     *
+     * @since 1.10
+     */
+    public JsonParser createJsonParser(char[] content, int offset, int len)
+        throws IOException, JsonParseException
+    {
+        IOContext ctxt = _createContext(content, true);
+        // [JACKSON-512]: allow wrapping with InputDecorator
+        if (_inputDecorator != null) {
+            Reader r = _inputDecorator.decorate(ctxt, new CharArrayReader(content, offset, len));
+            return _createJsonParser(r, ctxt);
+        }
+        return _createJsonParser(content, offset, len, ctxt, false);
+    }
+
+    /**
+     * Method for constructing parser for parsing contents of given
+     * {@link ByteBuffer}, between its current position and limit.
+     * Position of the buffer is not modified.
+     *<p>
+     * If buffer has an accessible backing array (heap buffers), parser
+     * reads content directly from that array; otherwise (direct and
+     * memory-mapped buffers) content is read using bulk gets from the
+     * buffer, without need for system calls.
+     *
+     * @since 1.10
+     */
+    public JsonParser createJsonParser(ByteBuffer buffer)
+        throws IOException, JsonParseException
+    {
+        if (buffer.hasArray()) {
+            return createJsonParser(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+        }
+        IOContext ctxt = _createContext(buffer, true);
+        InputStream in = new ByteBufferInputStream(buffer.duplicate());
+        // [JACKSON-512]: allow wrapping with InputDecorator
+        if (_inputDecorator != null) {
+            in = _inputDecorator.decorate(ctxt, in);
+        }
+        return _createJsonParser(in, ctxt);
+    }
+
+    /**
+     * Method for constructing parser for parsing contents of given
+     * file channel, starting from its current position: file is
+     * memory-mapped, and parser reads content directly from mapped
+     * region(s), without system calls for reading.
+     *<p>
+     * Channel is NOT owned by the parser (same as with
+     * {@link InputStream}s), so it will only be closed when parser
+     * is closed if {@link JsonParser.Feature#AUTO_CLOSE_SOURCE} is enabled.
+     *
+     * @since 1.10
+     */
+    public JsonParser createJsonParser(FileChannel channel)
+        throws IOException, JsonParseException
+    {
+        IOContext ctxt = _createContext(channel, false);
+        InputStream in = new MappedFileInputStream(channel);
+        // [JACKSON-512]: allow wrapping with InputDecorator
+        if (_inputDecorator != null) {
+            in = _inputDecorator.decorate(ctxt, in);
+        }
+        return _createJsonParser(in, ctxt);
+    }
+
+    /**
+     * Method for constructing a non-blocking parser for UTF-8 encoded
+     * JSON content: instead of reading content from a source, content
+     * is fed to parser using {@link NonBlockingInputFeeder} (accessed
+     * using {@link JsonParser#getNonBlockingInputFeeder}), and parser
+     * returns {@link JsonToken#NOT_AVAILABLE} if it needs more content
+     * to complete the next token.
+     *<p>
+     * Note that input decorators (if any) are not used for non-blocking
+     * parsers, since there is no input source to decorate.
+     *
+     * @since 1.10
+     */
+    public JsonParser createNonBlockingJsonParser()
+        throws IOException, JsonParseException
+    {
+        IOContext ctxt = _createContext(null, false);
+        ctxt.setEncoding(JsonEncoding.UTF8);
+        return _createNonBlockingJsonParser(ctxt);
     }
 
     /*
@@ -726,6 +971,45 @@ public class JsonFactory implements Versioned
         return createJsonGenerator(out, JsonEncoding.UTF8);
     }
     
+    /**
+     * Method for constructing JSON generator for writing JSON content
+     * to specified channel (such as {@link java.nio.channels.FileChannel}
+     * or {@link java.nio.channels.SocketChannel}), using specified encoding.
+     * Contents of generator's output buffer are written to the channel
+     * as they are flushed. Channel must be in blocking mode.
+     *<p>
+     * Underlying channel <b>is NOT owned</b> by the generator constructed,
+     * so that generator will NOT close the channel when
+     * {@link JsonGenerator#close} is called (unless auto-closing
+     * feature,
+     * {@link org.codehaus.jackson.JsonGenerator.Feature#AUTO_CLOSE_TARGET}
+     * is enabled).
+     *<p>
+     * Note: to write into a {@link java.nio.ByteBuffer}, construct a
+     * {@link ByteBufferOutputStream} and pass it as an {@link OutputStream}.
+     *
+     * @param channel Channel to write JSON content to; must be in blocking mode
+     * @param enc Character encoding to use
+     *
+     * @since 1.10
+     */
+    public JsonGenerator createJsonGenerator(WritableByteChannel channel, JsonEncoding enc)
+        throws IOException
+    {
+        return createJsonGenerator(new ChannelOutputStream(channel), enc);
+    }
+
+    /**
+     * Convenience method for constructing generator that writes to
+     * given channel using default encoding of the format (UTF-8 for JSON
+     * and most other data formats).
+     *
+     * @since 1.10
+     */
+    public JsonGenerator createJsonGenerator(WritableByteChannel channel) throws IOException {
+        return createJsonGenerator(channel, JsonEncoding.UTF8);
+    }
+
     /**
      * Method for constructing JSON generator for writing JSON content
      * to specified file, overwriting contents it might have (or creating
@@ -804,6 +1088,31 @@ public class JsonFactory implements Versioned
                     isEnabled(JsonParser.Feature.INTERN_FIELD_NAMES)));
     }
 
+    /**
+     * Overridable factory method that actually instantiates parser
+     * for parsing content that is fully contained in given char array.
+     *<p>
+     * This method is specifically designed to remain
+     * compatible between minor versions so that sub-classes can count
+     * on it being called as expected. That is, it is part of official
+     * interface from sub-class perspective, although not a public
+     * method available to users of factory implementations.
+     *
+     * @param recyclable Whether buffer was allocated as the token buffer
+     *   of given context (and is to be released once parser is done)
+     *
+     * @since 1.10
+     */
+    protected JsonParser _createJsonParser(char[] data, int offset, int len, IOContext ctxt,
+            boolean recyclable)
+        throws IOException, JsonParseException
+    {
+        return new ReaderBasedParser(ctxt, _parserFeatures, null, _objectCodec,
+                _rootCharSymbols.makeChild(isEnabled(JsonParser.Feature.CANONICALIZE_FIELD_NAMES),
+                    isEnabled(JsonParser.Feature.INTERN_FIELD_NAMES)),
+                data, offset, offset+len, recyclable);
+    }
+
     /**
      * Overridable factory method that actually instantiates parser
      * using given {@link Reader} object for reading content
@@ -822,6 +1131,29 @@ public class JsonFactory implements Versioned
                 _objectCodec, _rootByteSymbols, _rootCharSymbols);
     }
 
+    /**
+     * Overridable factory method that actually instantiates non-blocking
+     * parser, to which content will be fed by caller.
+     *<p>
+     * This method is specifically designed to remain
+     * compatible between minor versions so that sub-classes can count
+     * on it being called as expected. That is, it is part of official
+     * interface from sub-class perspective, although not a public
+     * method available to users of factory implementations.
+     *
+     * @since 1.10
+     */
+    protected JsonParser _createNonBlockingJsonParser(IOContext ctxt)
+        throws IOException, JsonParseException
+    {
+        /* Byte-based symbol table requires canonicalization; and since
+         * we can not fall back to a char-based parser, must enable it
+         */
+        int features = _parserFeatures | JsonParser.Feature.CANONICALIZE_FIELD_NAMES.getMask();
+        return new NonBlockingUtf8Parser(ctxt, features, _objectCodec,
+                _rootByteSymbols.makeChild(true, isEnabled(JsonParser.Feature.INTERN_FIELD_NAMES)));
+    }
+
     /*
     /**********************************************************
     /* Factory methods used by factory for creating generator instances,
@@ -891,25 +1223,35 @@ public class JsonFactory implements Versioned
      */
     protected IOContext _createContext(Object srcRef, boolean resourceManaged)
     {
-        return new IOContext(_getBufferRecycler(), srcRef, resourceManaged);
+        BufferRecyclerPool pool = _bufferRecyclerPool;
+        return new IOContext(pool.acquireBufferRecycler(), pool, srcRef, resourceManaged);
     }
 
     /**
      * Method used by factory to create buffer recycler instances
      * for parsers and generators.
+     * Recycler is acquired from the configured {@link BufferRecyclerPool};
+     * caller should return it using {@link #_releaseBufferRecycler}
+     * once done with it.
      *<p>
      * Note: only public to give access for <code>ObjectMapper</code>
      */
     public BufferRecycler _getBufferRecycler()
     {
-        SoftReference<BufferRecycler> ref = _recyclerRef.get();
-        BufferRecycler br = (ref == null) ? null : ref.get();
+        return _bufferRecyclerPool.acquireBufferRecycler();
+    }
 
-        if (br == null) {
-            br = new BufferRecycler();
-            _recyclerRef.set(new SoftReference<BufferRecycler>(br));
-        }
-        return br;
+    /**
+     * Method for returning recycler obtained using {@link #_getBufferRecycler}
+     * back to the pool.
+     *<p>
+     * Note: only public to give access for <code>ObjectMapper</code>
+     *
+     * @since 1.10
+     */
+    public void _releaseBufferRecycler(BufferRecycler br)
+    {
+        _bufferRecyclerPool.releaseBufferRecycler(br);
     }
     
     /**
@@ -20,6 +20,7 @@ import java.math.BigInteger;
 
 import org.codehaus.jackson.io.CharacterEscapes;
 import org.codehaus.jackson.io.SerializedString;
+import org.codehaus.jackson.util.ByteArrayBuilder;
 
 /**
  * Base class that defines public API for writing JSON content.
@@ -460,6 +461,81 @@ public abstract class JsonGenerator
     public abstract void writeEndArray()
         throws IOException, JsonGenerationException;
 
+    /**
+     * Method for writing given section of an int array as a complete
+     * JSON Array value. Default implementation simply writes start marker,
+     * elements using {@link #writeNumber(int)}, and end marker; generators
+     * for binary formats may override it to use a more compact
+     * representation.
+     *
+     * @param array Array that contains values to write
+     * @param offset Offset of the first element to write
+     * @param length Number of elements to write
+     *
+     * @since 1.10
+     */
+    public void writeArray(int[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        _verifyArrayOffsets(array.length, offset, length);
+        writeStartArray();
+        for (int i = offset, end = offset+length; i < end; ++i) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    /**
+     * Method for writing given section of a long array as a complete
+     * JSON Array value; see {@link #writeArray(int[],int,int)} for details.
+     *
+     * @since 1.10
+     */
+    public void writeArray(long[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        _verifyArrayOffsets(array.length, offset, length);
+        writeStartArray();
+        for (int i = offset, end = offset+length; i < end; ++i) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    /**
+     * Method for writing given section of a float array as a complete
+     * JSON Array value; see {@link #writeArray(int[],int,int)} for details.
+     *
+     * @since 1.10
+     */
+    public void writeArray(float[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        _verifyArrayOffsets(array.length, offset, length);
+        writeStartArray();
+        for (int i = offset, end = offset+length; i < end; ++i) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
+    /**
+     * Method for writing given section of a double array as a complete
+     * JSON Array value; see {@link #writeArray(int[],int,int)} for details.
+     *
+     * @since 1.10
+     */
+    public void writeArray(double[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        _verifyArrayOffsets(array.length, offset, length);
+        writeStartArray();
+        for (int i = offset, end = offset+length; i < end; ++i) {
+            writeNumber(array[i]);
+        }
+        writeEndArray();
+    }
+
     /**
      * Method for writing starting marker of a JSON Object value
      * (character '{'; plus possible white space decoration
@@ -561,6 +637,48 @@ public abstract class JsonGenerator
     public abstract void writeString(char[] text, int offset, int len)
         throws IOException, JsonGenerationException;
 
+    /**
+     * Method for outputting a String value, reading its contents from given
+     * {@link Reader}, so that long textual content need not be fully
+     * held in memory. Contents are escaped as with other
+     * <code>writeString</code> methods.
+     *<p>
+     * Default implementation reads all content before calling
+     * {@link #writeString(char[],int,int)}; sub-classes should override it
+     * to write content in chunks, if possible.
+     *
+     * @param reader Reader to read contents from; will not be closed
+     * @param len Number of characters to read and write; or -1 to indicate
+     *   that all content until end of input is to be written
+     *
+     * @since 1.10
+     */
+    public void writeString(Reader reader, int len)
+        throws IOException, JsonGenerationException
+    {
+        char[] buf = new char[(len >= 0) ? len : 4000];
+        int ptr = 0;
+        while (true) {
+            if (ptr >= buf.length) {
+                if (len >= 0) {
+                    break;
+                }
+                char[] old = buf;
+                buf = new char[old.length * 2];
+                System.arraycopy(old, 0, buf, 0, ptr);
+            }
+            int count = reader.read(buf, ptr, buf.length - ptr);
+            if (count < 0) {
+                break;
+            }
+            ptr += count;
+        }
+        if (len > 0 && ptr < len) {
+            throw new JsonGenerationException("Too few characters available: missing "+(len-ptr)+" characters (out of "+len+")");
+        }
+        writeString(buf, 0, ptr);
+    }
+
     /**
      * Method similar to {@link #writeString(String)}, but that takes
      * {@link SerializableString} which can make this potentially
@@ -704,6 +822,23 @@ public abstract class JsonGenerator
     public abstract void writeRawValue(char[] text, int offset, int len)
         throws IOException, JsonGenerationException;
 
+    /**
+     * Method similar to {@link #writeRawValue(String)}, but for content
+     * that is already UTF-8 encoded; such as content read using
+     * {@link JsonParser#readRawValue(OutputStream)}.
+     *<p>
+     * Default implementation decodes content and calls
+     * {@link #writeRawValue(String)}; generators that produce UTF-8
+     * encoded output override it to copy bytes as is.
+     *
+     * @since 1.10
+     */
+    public void writeRawValue(byte[] utf8, int offset, int len)
+        throws IOException, JsonGenerationException
+    {
+        writeRawValue(new String(utf8, offset, len, "UTF-8"));
+    }
+
     /**
      * Method that will output given chunk of binary data as base64
      * encoded, as a complete String value (surrounded by double quotes).
@@ -752,6 +887,75 @@ public abstract class JsonGenerator
         writeBinary(Base64Variants.getDefaultVariant(), data, 0, data.length);
     }
 
+    /**
+     * Method similar to {@link #writeBinary(Base64Variant,byte[],int,int)},
+     * but where input is provided through a stream, allowing for incremental
+     * writes without holding the whole input in memory.
+     *<p>
+     * Default implementation reads all content in memory and then calls
+     * {@link #writeBinary(Base64Variant,byte[],int,int)}; generators
+     * override it to encode content in chunks.
+     *
+     * @param b64variant Base64 variant to use
+     * @param data InputStream to use for reading binary data to write.
+     *    Will not be closed after successful write operation
+     * @param dataLength (optional) number of bytes that will be available;
+     *    or -1 to indicate it is not known. Note that implementations
+     *    need not support cases where length is not known in advance; this
+     *    depends on underlying data format: JSON output does NOT require length,
+     *    other formats may (in which case content is buffered)
+     *
+     * @return Number of bytes read from <code>data</code> and written as binary payload
+     *
+     * @since 1.10
+     */
+    public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength)
+        throws IOException, JsonGenerationException
+    {
+        // read content directly in segments of the builder
+        ByteArrayBuilder bb = new ByteArrayBuilder();
+        byte[] buf = bb.resetAndGetFirstSegment();
+        int ptr = 0;
+        int left = dataLength;
+        while (left != 0) {
+            if (ptr >= buf.length) {
+                buf = bb.finishCurrentSegment();
+                ptr = 0;
+            }
+            int toRead = buf.length - ptr;
+            if (left > 0 && left < toRead) {
+                toRead = left;
+            }
+            int count = data.read(buf, ptr, toRead);
+            if (count < 0) {
+                break;
+            }
+            ptr += count;
+            if (left > 0) {
+                left -= count;
+            }
+        }
+        if (left > 0) {
+            throw new JsonGenerationException("Too few bytes available: missing "+left+" bytes (out of "+dataLength+")");
+        }
+        byte[] bytes = bb.completeAndCoalesce(ptr);
+        writeBinary(b64variant, bytes, 0, bytes.length);
+        return bytes.length;
+    }
+
+    /**
+     * Similar to {@link #writeBinary(Base64Variant,InputStream,int)},
+     * but assumes default to using the Jackson default Base64 variant 
+     * (which is {@link Base64Variants#MIME_NO_LINEFEEDS}).
+     *
+     * @since 1.10
+     */
+    public int writeBinary(InputStream data, int dataLength)
+        throws IOException, JsonGenerationException
+    {
+        return writeBinary(Base64Variants.getDefaultVariant(), data, dataLength);
+    }
+
     /*
     /**********************************************************
     /* Public API, write methods, other value types
@@ -1194,4 +1398,24 @@ public abstract class JsonGenerator
     @Override
     public abstract void close()
         throws IOException;
+
+    /*
+    /**********************************************************
+    /* Helper methods for sub-classes
+    /**********************************************************
+     */
+
+    /**
+     * Helper method for verifying that given section is within bounds
+     * of an array to write.
+     *
+     * @since 1.10
+     */
+    protected final void _verifyArrayOffsets(int arrayLength, int offset, int length)
+    {
+        if (offset < 0 || length < 0 || (offset + length) > arrayLength || (offset + length) < 0) {
+            throw new IllegalArgumentException("Invalid argument(s) (offset="+offset+", length="+length
+                    +") for input array of "+arrayLength+" elements");
+        }
+    }
 }
@@ -20,7 +20,9 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Iterator;
 
+import org.codehaus.jackson.sym.FieldNameMatcher;
 import org.codehaus.jackson.type.TypeReference;
+import org.codehaus.jackson.util.ByteArrayBuilder;
 
 /**
  * Base class that defines public API for reading JSON content.
@@ -215,6 +217,20 @@ public abstract class JsonParser
          */
         CANONICALIZE_FIELD_NAMES(true),
 
+        // // // Number handling
+
+        /**
+         * Feature that determines whether floating-point values are
+         * converted into doubles directly from parser buffers, using
+         * an allocation-free (and considerably faster) conversion method,
+         * instead of constructing a {@link String} and calling
+         * {@link Double#parseDouble}. Results are identical in both cases;
+         * but since the default method is more battle-tested, this
+         * feature is disabled by default.
+         *
+         * @since 1.10
+         */
+        USE_FAST_DOUBLE_PARSER(false),
 
             ;
 
@@ -372,7 +388,20 @@ public abstract class JsonParser
     public Object getInputSource() {
         return null;
     }
-    
+
+    /**
+     * Method that can be used to access object through which content
+     * is fed to non-blocking parsers (ones that return
+     * {@link JsonToken#NOT_AVAILABLE} if they can not complete
+     * the next token with content available so far).
+     * Blocking parsers will return null.
+     *
+     * @since 1.10
+     */
+    public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+        return null;
+    }
+
     /*
     /**********************************************************
     /* Closeable implementation
@@ -593,6 +622,31 @@ public abstract class JsonParser
         return (nextToken() == JsonToken.FIELD_NAME) && str.getValue().equals(getCurrentName());
     }
 
+    /**
+     * Method that fetches next token (as if calling {@link #nextToken}) and
+     * if it is {@link JsonToken#FIELD_NAME}, returns index of the name as
+     * matched by given {@link FieldNameMatcher}; or one of "miss" markers
+     * ({@link FieldNameMatcher#MATCH_UNKNOWN_NAME} for names not known to
+     * the matcher, {@link FieldNameMatcher#MATCH_END_OBJECT} for
+     * {@link JsonToken#END_OBJECT} and {@link FieldNameMatcher#MATCH_ODD_TOKEN}
+     * for anything else).
+     *<p>
+     * Default implementation simply matches <code>String</code> returned by
+     * {@link #getCurrentName}; byte-based parsers can match canonicalized
+     * symbols directly, without accessing or hashing the name String.
+     * 
+     * @since 1.10
+     */
+    public int nextFieldName(FieldNameMatcher matcher)
+        throws IOException, JsonParseException
+    {
+        JsonToken t = nextToken();
+        if (t == JsonToken.FIELD_NAME) {
+            return matcher.matchName(getCurrentName());
+        }
+        return (t == JsonToken.END_OBJECT) ? FieldNameMatcher.MATCH_END_OBJECT : FieldNameMatcher.MATCH_ODD_TOKEN;
+    }
+
     /**
      * Method that fetches next token (as if calling {@link #nextToken}) and
      * if it is {@link JsonToken#VALUE_STRING} returns contained String value;
@@ -694,6 +748,54 @@ public abstract class JsonParser
      */
     public abstract JsonParser skipChildren()
         throws IOException, JsonParseException;
+
+    /**
+     * Method that will copy source representation of the value that the parser
+     * currently points to (Object, Array or scalar value) to given stream
+     * as is, without decoding and re-encoding it. This is useful for
+     * efficiently passing sections of content through unchanged.
+     * After call, parser will point to the last token of the value:
+     * for Objects and Arrays this is the <b>matching</b>
+     * {@link JsonToken#END_OBJECT} or {@link JsonToken#END_ARRAY}
+     * (similar to {@link #skipChildren}), and for scalar values the value
+     * token itself.
+     *<p>
+     * Default implementation does nothing and returns -1 to indicate
+     * that operation is not supported; parsers for byte-based content
+     * override it.
+     *
+     * @return -1 if the underlying content source is not byte based
+     *   (and raw content can not be accessed); otherwise number of
+     *   bytes written
+     *
+     * @since 1.10
+     */
+    public int readRawValue(OutputStream out)
+        throws IOException, JsonParseException
+    {
+        return -1;
+    }
+
+    /**
+     * Convenience method that calls {@link #readRawValue(OutputStream)},
+     * and returns copied content as a byte array.
+     *
+     * @return Source representation of the current value; or null if
+     *   the underlying content source is not byte based
+     *
+     * @since 1.10
+     */
+    public byte[] readRawValue()
+        throws IOException, JsonParseException
+    {
+        ByteArrayBuilder bb = new ByteArrayBuilder();
+        if (readRawValue(bb) < 0) {
+            return null;
+        }
+        byte[] result = bb.toByteArray();
+        bb.release();
+        return result;
+    }
     
     /**
      * Method that can be called to determine whether this parser
@@ -845,6 +947,40 @@ public abstract class JsonParser
     public abstract String getText()
         throws IOException, JsonParseException;
 
+    /**
+     * Method to read the textual representation of the current token in chunks and
+     * pass it to the given Writer.
+     * Functionally same as calling:
+     *<pre>
+     *  writer.write(parser.getText());
+     *</pre>
+     * but should typically be more efficient as longer content does not need to
+     * be combined into a single <code>String</code> to return, and write
+     * can occur directly from intermediate buffers Jackson uses.
+     *<p>
+     * Note that for String values that have not yet been accessed, implementations
+     * may decode content directly into the Writer, in bounded chunks; if so, the
+     * value is not retained and can not be accessed again with {@link #getText}
+     * or similar methods.
+     *<p>
+     * Default implementation simply calls {@link #getText} and writes the
+     * result; sub-classes are encouraged to override it.
+     *
+     * @return The number of characters written to the Writer
+     *
+     * @since 1.10
+     */
+    public int getText(Writer writer)
+        throws IOException, JsonParseException
+    {
+        String str = getText();
+        if (str == null) {
+            return 0;
+        }
+        writer.write(str);
+        return str.length();
+    }
+
     /**
      * Method similar to {@link #getText}, but that will return
      * underlying (unmodifiable) character array that contains
@@ -1158,6 +1294,104 @@ public abstract class JsonParser
         return getBinaryValue(Base64Variants.getDefaultVariant());
     }
 
+    /**
+     * Method that can be used as an alternative to {@link #getBinaryValue(Base64Variant)},
+     * especially when value can be large. The main difference (beyond method
+     * of returning content using {@link OutputStream} instead of as byte array)
+     * is that content will NOT remain accessible after method returns: any content
+     * processed will be consumed and is not buffered in any way. If caller needs
+     * buffering, it has to implement it.
+     *<p>
+     * Default implementation simply calls {@link #getBinaryValue(Base64Variant)}
+     * and writes the result; parsers override it to decode content in chunks.
+     *
+     * @param b64variant Base64 variant to use when decoding textual content
+     * @param out Output stream to use for passing decoded binary data
+     *
+     * @return Number of bytes that were decoded and written via {@link OutputStream}
+     *
+     * @since 1.10
+     */
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out)
+        throws IOException, JsonParseException
+    {
+        byte[] data = getBinaryValue(b64variant);
+        out.write(data);
+        return data.length;
+    }
+
+    /**
+     * Similar to {@link #readBinaryValue(Base64Variant,OutputStream)} but
+     * uses the default {@link Base64Variant} for decoding.
+     *
+     * @since 1.10
+     */
+    public int readBinaryValue(OutputStream out)
+        throws IOException, JsonParseException
+    {
+        return readBinaryValue(Base64Variants.getDefaultVariant(), out);
+    }
+
+    /**
+     * Method that can be called when the current token is
+     * {@link JsonToken#START_ARRAY}, to read the whole Array as an
+     * <code>int[]</code> in one call, if the parser has access to it in
+     * a packed representation that can be read in bulk (such as
+     * packed primitive arrays of binary data formats). If so, parser
+     * will point to the matching {@link JsonToken#END_ARRAY} after the call.
+     * If not, null is returned and parser state is not changed: in that case
+     * caller has to read elements as separate tokens.
+     *<p>
+     * Default implementation simply returns null; parsers for formats that
+     * support packed arrays override it.
+     *
+     * @return Contents of the current Array, if available as packed;
+     *   null if not
+     *
+     * @since 1.10
+     */
+    public int[] readIntArray()
+        throws IOException, JsonParseException
+    {
+        return null;
+    }
+
+    /**
+     * Method similar to {@link #readIntArray}, but for reading
+     * <code>long[]</code> values.
+     *
+     * @since 1.10
+     */
+    public long[] readLongArray()
+        throws IOException, JsonParseException
+    {
+        return null;
+    }
+
+    /**
+     * Method similar to {@link #readIntArray}, but for reading
+     * <code>float[]</code> values.
+     *
+     * @since 1.10
+     */
+    public float[] readFloatArray()
+        throws IOException, JsonParseException
+    {
+        return null;
+    }
+
+    /**
+     * Method similar to {@link #readIntArray}, but for reading
+     * <code>double[]</code> values.
+     *
+     * @since 1.10
+     */
+    public double[] readDoubleArray()
+        throws IOException, JsonParseException
+    {
+        return null;
+    }
+
     /*
     /**********************************************************
     /* Public API, access to token information, coercion/conversion
@@ -0,0 +1,57 @@
+package org.codehaus.jackson;
+
+import java.io.IOException;
+
+/**
+ * Interface used by non-blocking ("push") parsers, for accepting
+ * content to parse in chunks, as it becomes available.
+ * Instead of parser reading content from a blocking source (like
+ * {@link java.io.InputStream}), caller feeds content using
+ * {@link #feedInput}, and then calls {@link JsonParser#nextToken}
+ * until it returns {@link JsonToken#NOT_AVAILABLE} (meaning that
+ * more content is needed to complete the next token), at which point
+ * more content can be fed. Once all content has been fed,
+ * {@link #endOfInput} is to be called to let parser know that
+ * no more content is coming, so that it can complete the last
+ * token (if any) and report end-of-input.
+ *<p>
+ * Feeders are obtained from parsers that support non-blocking
+ * operation, using {@link JsonParser#getNonBlockingInputFeeder}.
+ *
+ * @since 1.10
+ */
+public interface NonBlockingInputFeeder
+{
+    /**
+     * Method called to check whether parser has processed all content
+     * that has been fed so far: if true, caller may (and should) call
+     * {@link #feedInput}; if false, caller must not feed more content
+     * but rather call {@link JsonParser#nextToken} to process remaining
+     * content first.
+     */
+    public boolean needMoreInput();
+
+    /**
+     * Method for feeding the next chunk of content to parse.
+     * Parser does NOT copy contents of the buffer, so caller must not modify
+     * contents within the specified range until parser has
+     * consumed all of it (that is, until {@link #needMoreInput}
+     * returns true).
+     *
+     * @param data Buffer that contains data to parse
+     * @param offset Offset of the first data byte within buffer
+     * @param len Length of contents to parse within buffer
+     *
+     * @throws IOException if content is fed before previously fed
+     *   content has been processed, or after {@link #endOfInput} has
+     *   been called
+     */
+    public void feedInput(byte[] data, int offset, int len) throws IOException;
+
+    /**
+     * Method called to indicate that no more content will be fed:
+     * parser will then complete the last token (if any) and return
+     * null from {@link JsonParser#nextToken} after it.
+     */
+    public void endOfInput();
+}
@@ -197,6 +197,9 @@ public final class ByteSourceBootstrapper
 
         case UTF16_BE:
         case UTF16_LE:
+            return new UTF16Reader(_context, _in, _inputBuffer, _inputPtr, _inputEnd,
+                                   _context.getEncoding().isBigEndian());
+
         case UTF8: // only in non-common case where we don't want to do direct mapping
             {
                 // First: do we have a Stream? If not, need to create one:
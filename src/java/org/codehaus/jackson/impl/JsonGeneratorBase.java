@@ -471,6 +471,22 @@ public abstract class JsonGeneratorBase
 
     protected abstract void _releaseBuffers();
 
+    /**
+     * Method called by sub-classes when generator is reset to write
+     * another document, to reset output context (root context and its
+     * cached children are reused).
+     *
+     * @since 1.10
+     */
+    protected void _resetForReuse()
+    {
+        JsonWriteContext ctxt = _writeContext;
+        while (ctxt.getParent() != null) {
+            ctxt = ctxt.getParent();
+        }
+        _writeContext = ctxt.resetRoot();
+    }
+
     protected abstract void _verifyValueWrite(String typeMsg)
         throws IOException, JsonGenerationException;
 
@@ -480,6 +496,47 @@ public abstract class JsonGeneratorBase
         throw new JsonGenerationException(msg);
     }
 
+    /**
+     * Helper method used for incremental writing of binary content:
+     * moves content not yet processed (between <code>inputPtr</code>
+     * and <code>inputEnd</code>) to the beginning of the buffer, and then
+     * reads more content until at least <code>minAvailable</code> bytes
+     * are available, or end of input is reached.
+     *
+     * @param maxRead Maximum number of bytes to read; or -1 if there is no limit
+     *
+     * @return Number of bytes available in buffer, starting at offset 0
+     *
+     * @since 1.10
+     */
+    protected final int _readMore(InputStream in, byte[] readBuffer, int inputPtr, int inputEnd,
+            int maxRead, int minAvailable)
+        throws IOException
+    {
+        // anything to shift to front?
+        int i = 0;
+        while (inputPtr < inputEnd) {
+            readBuffer[i++] = readBuffer[inputPtr++];
+        }
+        inputEnd = i;
+        int max = readBuffer.length - i;
+        if (maxRead >= 0 && maxRead < max) {
+            max = maxRead;
+        }
+        while (max > 0) {
+            int count = in.read(readBuffer, inputEnd, max);
+            if (count < 0) {
+                break;
+            }
+            inputEnd += count;
+            max -= count;
+            if (inputEnd >= minAvailable) {
+                break;
+            }
+        }
+        return inputEnd;
+    }
+
     protected void _cantHappen()
     {
         throw new RuntimeException("Internal error: should never end up through this code path");
@@ -40,6 +40,24 @@ public abstract class JsonParserBase
      */
     protected boolean _closed;
 
+    /**
+     * Flag set while parser is being closed due to reaching end of
+     * input (see {@link #_closeAtEOF}), in which case parser can still
+     * be reset for reuse.
+     *
+     * @since 1.10
+     */
+    protected boolean _closingAtEOF;
+
+    /**
+     * Flag set when parser has been closed by an explicit call to
+     * {@link #close} (and not just due to reaching end of input),
+     * after which it can not be reset.
+     *
+     * @since 1.10
+     */
+    protected boolean _closedExplicitly;
+
     /*
     /**********************************************************
     /* Current input data
@@ -117,6 +135,17 @@ public abstract class JsonParserBase
     /**********************************************************
      */
 
+    /**
+     * Bitmask of features that allow content in which Object/Array
+     * boundary markers may appear outside of regular (double-quoted)
+     * String values: if any of these is enabled, child content can not
+     * be skipped by just tracking markers and String boundaries.
+     *
+     * @since 1.10
+     */
+    protected final static int FEAT_MASK_NO_FAST_SKIP =
+        Feature.ALLOW_COMMENTS.getMask() | Feature.ALLOW_SINGLE_QUOTES.getMask();
+
     /**
      * Information about parser context, context in which
      * the next token is to be parsed (root, array, object).
@@ -141,7 +170,7 @@ public abstract class JsonParserBase
      * field names if necessary (name split across boundary,
      * contains escape sequence, or access needed to char array)
      */
-    protected final TextBuffer _textBuffer;
+    protected TextBuffer _textBuffer;
 
     /**
      * Temporary buffer that is needed if field name is accessed
@@ -343,6 +372,28 @@ public abstract class JsonParserBase
                 _releaseBuffers();
             }
         }
+        if (!_closingAtEOF) {
+            _closedExplicitly = true;
+        }
+        _ioContext.releaseBufferRecycler();
+    }
+
+    /**
+     * Method called when end of input is reached: closes parser the
+     * same way as {@link #close} (including release of buffer recycler),
+     * except that parser can still be reset for reuse; if so, recycler
+     * is acquired again.
+     *
+     * @since 1.10
+     */
+    protected void _closeAtEOF() throws IOException
+    {
+        _closingAtEOF = true;
+        try {
+            close();
+        } finally {
+            _closingAtEOF = false;
+        }
     }
 
     @Override
@@ -460,7 +511,65 @@ public abstract class JsonParserBase
             _ioContext.releaseNameCopyBuffer(buf);
         }
     }
-    
+
+    /**
+     * Method called by sub-classes when parser is reset to read another
+     * document from given source: current input is closed the same way
+     * as by {@link #close} (but without releasing buffers), and all
+     * token, location and parsing context state is reset. Buffers
+     * and symbol table are retained for the new document.
+     *<p>
+     * Parser that was closed due to reaching end of input is reopened
+     * (buffers it released are re-allocated on demand); but one that
+     * has been explicitly closed can not be reset.
+     *
+     * @throws IllegalStateException If parser has been explicitly closed
+     *
+     * @since 1.10
+     */
+    protected void _resetForReuse(Object sourceRef, boolean managedResource)
+        throws IOException
+    {
+        if (_closedExplicitly) {
+            throw new IllegalStateException("Can not reset a closed parser");
+        }
+        _closeInput();
+        _closed = false;
+        _ioContext.resetSource(sourceRef, managedResource);
+        // recycler was released at end of input; text buffer must use the new one
+        if (_ioContext.reacquireBufferRecycler()) {
+            _textBuffer = _ioContext.constructTextBuffer();
+        }
+
+        _inputPtr = 0;
+        _inputEnd = 0;
+        _currInputProcessed = 0L;
+        _currInputRow = 1;
+        _currInputRowStart = 0;
+        _tokenInputTotal = 0L;
+        _tokenInputRow = 1;
+        _tokenInputCol = 0;
+
+        // reuse root context (and its cached children) as well
+        JsonReadContext ctxt = _parsingContext;
+        while (ctxt.getParent() != null) {
+            ctxt = ctxt.getParent();
+        }
+        ctxt.resetRoot(1, 0);
+        _parsingContext = ctxt;
+
+        _currToken = null;
+        _lastClearedToken = null;
+        _nextToken = null;
+        _textBuffer.resetWithEmpty();
+        _nameCopied = false;
+        _binaryValue = null;
+        if (_byteArrayBuilder != null) {
+            _byteArrayBuilder.reset();
+        }
+        _numTypesValid = NR_UNKNOWN;
+    }
+
     /**
      * Method called when an EOF is encountered between tokens.
      * If so, it may be a legitimate EOF, but only iff there
@@ -474,6 +583,37 @@ public abstract class JsonParserBase
         }
     }
 
+    /**
+     * Method called by fast {@link #skipChildren} implementations once
+     * the matching end marker for current Object/Array has been
+     * read, to update token location and parsing context as if
+     * end marker had been returned by {@link #nextToken}.
+     *
+     * @param ch End marker that closed skipped content
+     *
+     * @since 1.10
+     */
+    protected final void _finishSkipChildren(int ch) throws JsonParseException
+    {
+        _numTypesValid = NR_UNKNOWN;
+        _binaryValue = null;
+        _tokenInputTotal = _currInputProcessed + _inputPtr - 1;
+        _tokenInputRow = _currInputRow;
+        _tokenInputCol = _inputPtr - _currInputRowStart - 1;
+        if (ch == INT_RBRACKET) {
+            if (!_parsingContext.inArray()) {
+                _reportMismatchedEndMarker(ch, '}');
+            }
+            _currToken = JsonToken.END_ARRAY;
+        } else {
+            if (!_parsingContext.inObject()) {
+                _reportMismatchedEndMarker(ch, ']');
+            }
+            _currToken = JsonToken.END_OBJECT;
+        }
+        _parsingContext = _parsingContext.getParent();
+    }
+
     /*
     /**********************************************************
     /* Internal/package methods: Error reporting
@@ -782,7 +922,7 @@ public abstract class JsonParserBase
                 _numTypesValid = NR_BIGDECIMAL;
             } else {
                 // Otherwise double has to do
-                _numberDouble = _textBuffer.contentsAsDouble();
+                _numberDouble = _textBuffer.contentsAsDouble(isEnabled(Feature.USE_FAST_DOUBLE_PARSER));
                 _numTypesValid = NR_DOUBLE;
             }
         } catch (NumberFormatException nex) {
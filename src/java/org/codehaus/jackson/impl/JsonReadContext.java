@@ -58,6 +58,17 @@ public final class JsonReadContext
         _currentName = null;
     }
 
+    /**
+     * Method for resetting root context for reuse, when parser is reset
+     * to read another document.
+     *
+     * @since 1.10
+     */
+    protected final void resetRoot(int lineNr, int colNr)
+    {
+        reset(TYPE_ROOT, lineNr, colNr);
+    }
+
     // // // Factory methods
 
     public static JsonReadContext createRootContext(int lineNr, int colNr)
@@ -64,6 +64,16 @@ public class JsonWriteContext
         _currentName = null;
         return this;
     }
+
+    /**
+     * Method for resetting root context for reuse, when generator is reset
+     * to write another document.
+     *
+     * @since 1.10
+     */
+    protected final JsonWriteContext resetRoot() {
+        return reset(TYPE_ROOT);
+    }
     
     public final JsonWriteContext createChildArrayContext()
     {
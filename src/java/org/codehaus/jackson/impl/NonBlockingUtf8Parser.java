@@ -0,0 +1,1976 @@
+package org.codehaus.jackson.impl;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.io.IOContext;
+import org.codehaus.jackson.sym.*;
+import org.codehaus.jackson.util.*;
+
+/**
+ * Non-blocking ("push") parser implementation for UTF-8 encoded JSON content.
+ * Instead of reading content from a blocking source, content is fed by caller
+ * in chunks (see {@link NonBlockingInputFeeder}), and
+ * {@link #nextToken} returns {@link JsonToken#NOT_AVAILABLE} if it can not
+ * complete the next token using content fed so far.
+ *<p>
+ * Parser uses same symbol table ({@link BytesToNameCanonicalizer}),
+ * text buffer and parsing context as {@link Utf8StreamParser}; the main
+ * difference is that decoding is done using an explicit state machine
+ * that can suspend at any byte boundary, and resume once more content
+ * is fed.
+ *<p>
+ * Some non-standard features are not (yet) supported by this parser:
+ * comments, single-quoted Strings, unquoted field names and non-numeric
+ * numbers (NaN, INF); if such content is encountered, an exception
+ * is thrown even if matching {@link JsonParser.Feature} is enabled.
+ *
+ * @since 1.10
+ */
+public final class NonBlockingUtf8Parser
+    extends JsonParserBase
+    implements NonBlockingInputFeeder
+{
+    private final static int[] sInputCodesUtf8 = CharTypes.getInputCodeUtf8();
+
+    private final static int[] sInputCodesLatin1 = CharTypes.getInputCodeLatin1();
+
+    private final static byte[] NO_BYTES = new byte[0];
+
+    /*
+    /**********************************************************
+    /* Parsing states
+    /**********************************************************
+     */
+
+    /* Major states indicate what kind of token (or separator) is expected
+     * next, based on enclosing context
+     */
+
+    private final static int MAJOR_INITIAL = 0;
+    private final static int MAJOR_ROOT = 1;
+    private final static int MAJOR_OBJECT_FIELD_FIRST = 2;
+    private final static int MAJOR_OBJECT_FIELD_NEXT = 3;
+    private final static int MAJOR_OBJECT_VALUE = 4;
+    private final static int MAJOR_ARRAY_ELEMENT_FIRST = 5;
+    private final static int MAJOR_ARRAY_ELEMENT_NEXT = 6;
+    private final static int MAJOR_CLOSED = 7;
+
+    /* Minor states indicate where within a token (or leading white space
+     * or separator) we are, if current token is incomplete
+     */
+
+    private final static int MINOR_ROOT_BOM = 1;
+
+    private final static int MINOR_FIELD_LEADING_WS = 2;
+    private final static int MINOR_FIELD_LEADING_COMMA = 3;
+    private final static int MINOR_FIELD_NAME = 4;
+    private final static int MINOR_FIELD_NAME_ESCAPE = 5;
+
+    private final static int MINOR_VALUE_LEADING_WS = 6;
+    private final static int MINOR_VALUE_EXPECTING_COMMA = 7;
+    private final static int MINOR_VALUE_EXPECTING_COLON = 8;
+
+    private final static int MINOR_VALUE_TOKEN_NULL = 9;
+    private final static int MINOR_VALUE_TOKEN_TRUE = 10;
+    private final static int MINOR_VALUE_TOKEN_FALSE = 11;
+
+    private final static int MINOR_NUMBER_MINUS = 12;
+    private final static int MINOR_NUMBER_ZERO = 13;
+    private final static int MINOR_NUMBER_INTEGER_DIGITS = 14;
+    private final static int MINOR_NUMBER_FRACTION_DIGITS = 15;
+    private final static int MINOR_NUMBER_EXPONENT_MARKER = 16;
+    private final static int MINOR_NUMBER_EXPONENT_DIGITS = 17;
+
+    private final static int MINOR_VALUE_STRING = 18;
+    private final static int MINOR_VALUE_STRING_ESCAPE = 19;
+    private final static int MINOR_VALUE_STRING_UTF8_2 = 20;
+    private final static int MINOR_VALUE_STRING_UTF8_3 = 21;
+    private final static int MINOR_VALUE_STRING_UTF8_4 = 22;
+
+    /*
+    /**********************************************************
+    /* Configuration
+    /**********************************************************
+     */
+
+    /**
+     * Codec used for data binding when (if) requested; typically full
+     * <code>ObjectMapper</code>, but that abstract is not part of core
+     * package.
+     */
+    protected ObjectCodec _objectCodec;
+
+    /**
+     * Symbol table that contains field names encountered so far
+     */
+    final protected BytesToNameCanonicalizer _symbols;
+
+    /*
+    /**********************************************************
+    /* Parsing state
+    /**********************************************************
+     */
+
+    /**
+     * Temporary buffer used for name parsing.
+     */
+    protected int[] _quadBuffer = new int[16];
+
+    /**
+     * Number of complete quads in {@link #_quadBuffer}, for field name
+     * being parsed.
+     */
+    protected int _quadLength;
+
+    /**
+     * Current main decoding state
+     */
+    protected int _majorState;
+
+    /**
+     * Main decoding state to use after successful decoding of
+     * a value (scalar or end marker of structured value)
+     */
+    protected int _majorStateAfterValue;
+
+    /**
+     * Additional indicator within state; contextually relevant for just
+     * that state, if current token is incomplete
+     */
+    protected int _minorState;
+
+    /**
+     * Contents of partially decoded multi-byte character, quad
+     * of a field name, or number of characters matched for a literal
+     * token (depending on state)
+     */
+    protected int _pending32;
+
+    /**
+     * Number of bytes pending in {@link #_pending32}.
+     */
+    protected int _pendingBytes;
+
+    /**
+     * Partially decoded value of a (possibly split) escape sequence.
+     */
+    protected int _quoted32;
+
+    /**
+     * Number of hex digits of (possibly split) escape sequence decoded
+     * so far; -1 to indicate that only backslash has been seen.
+     */
+    protected int _quotedDigits;
+
+    /**
+     * Since we can not use look-ahead to combine CR+LF into one linefeed,
+     * we will count CRs separately; row number is then the bigger one
+     * of LF and CR counts.
+     */
+    protected int _currInputRowAlt = 1;
+
+    /**
+     * Flag that is set when caller has indicated that there will
+     * be no more input to parse.
+     */
+    protected boolean _endOfInput = false;
+
+    /*
+    /**********************************************************
+    /* Current input data
+    /**********************************************************
+     */
+
+    /**
+     * Buffer that contains the chunk of content most recently fed;
+     * owned by caller, so it is neither modified nor recycled.
+     */
+    protected byte[] _inputBuffer = NO_BYTES;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    public NonBlockingUtf8Parser(IOContext ctxt, int features, ObjectCodec codec,
+            BytesToNameCanonicalizer sym)
+    {
+        super(ctxt, features);
+        _objectCodec = codec;
+        _symbols = sym;
+        _majorState = MAJOR_INITIAL;
+        _majorStateAfterValue = MAJOR_ROOT;
+        // 'stream' contents are known to be UTF-8 but we also need canonicalization:
+        if (!JsonParser.Feature.CANONICALIZE_FIELD_NAMES.enabledIn(features)) {
+            _throwInternal();
+        }
+    }
+
+    @Override
+    public ObjectCodec getCodec() {
+        return _objectCodec;
+    }
+
+    @Override
+    public void setCodec(ObjectCodec c) {
+        _objectCodec = c;
+    }
+
+    @Override
+    public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+        return this;
+    }
+
+    @Override
+    public int releaseBuffered(OutputStream out) throws IOException
+    {
+        int count = _inputEnd - _inputPtr;
+        if (count < 1) {
+            return 0;
+        }
+        out.write(_inputBuffer, _inputPtr, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+        // Merge found symbols, if any:
+        _symbols.release();
+    }
+
+    /*
+    /**********************************************************
+    /* NonBlockingInputFeeder implementation
+    /**********************************************************
+     */
+
+    public boolean needMoreInput() {
+        return (_inputPtr >= _inputEnd) && !_endOfInput;
+    }
+
+    public void feedInput(byte[] data, int offset, int len) throws IOException
+    {
+        // Must not have remaining input
+        if (_inputPtr < _inputEnd) {
+            _reportError("Still have "+(_inputEnd - _inputPtr)+" undecoded bytes, should not call 'feedInput'");
+        }
+        if (_endOfInput) {
+            _reportError("Already closed, can not feed more input");
+        }
+        if (len < 0) {
+            _reportError("Input length ("+len+") can not be negative");
+        }
+        /* Offsets are kept relative to buffer start, so need to
+         * translate processed count and row start as buffer changes
+         */
+        _currInputProcessed += (_inputEnd - offset);
+        _currInputRowStart = offset - (_inputEnd - _currInputRowStart);
+        _inputBuffer = data;
+        _inputPtr = offset;
+        _inputEnd = offset+len;
+    }
+
+    public void endOfInput() {
+        _endOfInput = true;
+    }
+
+    /*
+    /**********************************************************
+    /* Abstract methods from JsonParserBase
+    /**********************************************************
+     */
+
+    @Override
+    protected boolean loadMore() throws IOException {
+        // never blocks to read more content; caller has to feed it
+        return false;
+    }
+
+    @Override
+    protected void _finishString() throws IOException, JsonParseException {
+        // nothing to do: String values are always fully decoded
+    }
+
+    @Override
+    protected void _closeInput() throws IOException {
+        // Input buffer is owned by caller; just need to mark it as consumed
+        _endOfInput = true;
+        _inputPtr = _inputEnd;
+        _majorState = MAJOR_CLOSED;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, location access
+    /**********************************************************
+     */
+
+    @Override
+    public JsonLocation getCurrentLocation()
+    {
+        int col = _inputPtr - _currInputRowStart + 1; // 1-based
+        int row = Math.max(_currInputRow, _currInputRowAlt);
+        return new JsonLocation(_ioContext.getSourceReference(),
+                                _currInputProcessed + _inputPtr - 1,
+                                row, col);
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, data access
+    /**********************************************************
+     */
+
+    @Override
+    public String getText() throws IOException, JsonParseException
+    {
+        JsonToken t = _currToken;
+        if (t == JsonToken.VALUE_STRING) {
+            return _textBuffer.contentsAsString();
+        }
+        if (t == null) {
+            return null;
+        }
+        switch (t) {
+        case FIELD_NAME:
+            return _parsingContext.getCurrentName();
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return _textBuffer.contentsAsString();
+        }
+        return t.asString();
+    }
+
+    @Override
+    public char[] getTextCharacters() throws IOException, JsonParseException
+    {
+        if (_currToken != null) { // null only before/after document
+            switch (_currToken) {
+            case FIELD_NAME:
+                if (!_nameCopied) {
+                    String name = _parsingContext.getCurrentName();
+                    int nameLen = name.length();
+                    if (_nameCopyBuffer == null) {
+                        _nameCopyBuffer = _ioContext.allocNameCopyBuffer(nameLen);
+                    } else if (_nameCopyBuffer.length < nameLen) {
+                        _nameCopyBuffer = new char[nameLen];
+                    }
+                    name.getChars(0, nameLen, _nameCopyBuffer, 0);
+                    _nameCopied = true;
+                }
+                return _nameCopyBuffer;
+            case VALUE_STRING:
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return _textBuffer.getTextBuffer();
+            default:
+                return _currToken.asCharArray();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getTextLength() throws IOException, JsonParseException
+    {
+        if (_currToken != null) { // null only before/after document
+            switch (_currToken) {
+            case FIELD_NAME:
+                return _parsingContext.getCurrentName().length();
+            case VALUE_STRING:
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return _textBuffer.size();
+            default:
+                char[] ch = _currToken.asCharArray();
+                return (ch == null) ? 0 : ch.length;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int getTextOffset() throws IOException, JsonParseException
+    {
+        if (_currToken != null) {
+            switch (_currToken) {
+            case VALUE_STRING:
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return _textBuffer.getTextOffset();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public byte[] getBinaryValue(Base64Variant b64variant) throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.VALUE_STRING) {
+            _reportError("Current token ("+_currToken+") not VALUE_STRING, can not access as binary");
+        }
+        if (_binaryValue == null) {
+            ByteArrayBuilder builder = _getByteArrayBuilder();
+            _decodeBase64(getText(), builder, b64variant);
+            _binaryValue = builder.toByteArray();
+        }
+        return _binaryValue;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, traversal
+    /**********************************************************
+     */
+
+    /**
+     * Main iteration method: returns the next token if it can be fully
+     * decoded from content fed so far; {@link JsonToken#NOT_AVAILABLE}
+     * if more content is needed; or null if end-of-input has been
+     * indicated (see {@link #endOfInput}) and all content has been
+     * processed.
+     */
+    @Override
+    public JsonToken nextToken() throws IOException, JsonParseException
+    {
+        // First: regardless of where we are, we need at least one more byte
+        if (_inputPtr >= _inputEnd) {
+            if (_closed) {
+                return null;
+            }
+            if (_endOfInput) {
+                // either need to complete the pending token, or get the real EOF
+                if (_currToken == JsonToken.NOT_AVAILABLE) {
+                    return _finishTokenWithEOF();
+                }
+                return _eofAsNextToken();
+            }
+            // note: current token is NOT changed, state is retained as is
+            return JsonToken.NOT_AVAILABLE;
+        }
+        // In the middle of tokenization?
+        if (_currToken == JsonToken.NOT_AVAILABLE) {
+            return _finishToken();
+        }
+        // No, fresh new token
+        _numTypesValid = NR_UNKNOWN;
+        _binaryValue = null;
+        int ch = _inputBuffer[_inputPtr++] & 0xFF;
+
+        switch (_majorState) {
+        case MAJOR_INITIAL:
+            _majorState = MAJOR_ROOT;
+            if (ch == 0xEF) { // UTF-8 BOM?
+                return _finishBOM(1);
+            }
+            return _startValue(ch);
+        case MAJOR_ROOT:
+        case MAJOR_ARRAY_ELEMENT_FIRST:
+            return _startValue(ch);
+        case MAJOR_ARRAY_ELEMENT_NEXT:
+            return _startValueExpectComma(ch);
+        case MAJOR_OBJECT_FIELD_FIRST:
+            return _startFieldName(ch);
+        case MAJOR_OBJECT_FIELD_NEXT:
+            return _startFieldNameAfterComma(ch);
+        case MAJOR_OBJECT_VALUE:
+            return _startValueExpectColon(ch);
+        }
+        _throwInternal();
+        return null;
+    }
+
+    /**
+     * Since resuming partially decoded token is not possible when
+     * skipping content, non-blocking parser can only skip children
+     * if all content of the value has been fed.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_OBJECT
+            && _currToken != JsonToken.START_ARRAY) {
+            return this;
+        }
+        int open = 1;
+        while (true) {
+            JsonToken t = nextToken();
+            if (t == null) {
+                _handleEOF();
+                return this;
+            }
+            switch (t) {
+            case NOT_AVAILABLE:
+                _reportError("Not enough content available to skip children of "+_parsingContext.getTypeDesc());
+                break;
+            case START_OBJECT:
+            case START_ARRAY:
+                ++open;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                if (--open == 0) {
+                    return this;
+                }
+                break;
+            }
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, state dispatching
+    /**********************************************************
+     */
+
+    /**
+     * Method called to resume decoding of an incomplete token,
+     * when there is at least one more byte available.
+     */
+    private final JsonToken _finishToken() throws IOException, JsonParseException
+    {
+        switch (_minorState) {
+        case MINOR_ROOT_BOM:
+            return _finishBOM(_pending32);
+        case MINOR_FIELD_LEADING_WS:
+            return _startFieldName(_inputBuffer[_inputPtr++] & 0xFF);
+        case MINOR_FIELD_LEADING_COMMA:
+            return _startFieldNameAfterComma(_inputBuffer[_inputPtr++] & 0xFF);
+        case MINOR_FIELD_NAME:
+            return _parseFieldName(_quadLength, _pending32, _pendingBytes);
+        case MINOR_FIELD_NAME_ESCAPE:
+            return _finishFieldWithEscape();
+
+        case MINOR_VALUE_LEADING_WS:
+            return _startValue(_inputBuffer[_inputPtr++] & 0xFF);
+        case MINOR_VALUE_EXPECTING_COMMA:
+            return _startValueExpectComma(_inputBuffer[_inputPtr++] & 0xFF);
+        case MINOR_VALUE_EXPECTING_COLON:
+            return _startValueExpectColon(_inputBuffer[_inputPtr++] & 0xFF);
+
+        case MINOR_VALUE_TOKEN_NULL:
+            return _finishKeywordToken("null", _pending32, JsonToken.VALUE_NULL, MINOR_VALUE_TOKEN_NULL);
+        case MINOR_VALUE_TOKEN_TRUE:
+            return _finishKeywordToken("true", _pending32, JsonToken.VALUE_TRUE, MINOR_VALUE_TOKEN_TRUE);
+        case MINOR_VALUE_TOKEN_FALSE:
+            return _finishKeywordToken("false", _pending32, JsonToken.VALUE_FALSE, MINOR_VALUE_TOKEN_FALSE);
+
+        case MINOR_NUMBER_MINUS:
+            return _finishNumberMinus(_inputBuffer[_inputPtr++] & 0xFF);
+        case MINOR_NUMBER_ZERO:
+            return _finishNumberLeadingZeroes();
+        case MINOR_NUMBER_INTEGER_DIGITS:
+            return _finishNumberIntegerPart(_textBuffer.getCurrentSegment(), _textBuffer.getCurrentSegmentSize());
+        case MINOR_NUMBER_FRACTION_DIGITS:
+            return _finishFloatFraction(_textBuffer.getCurrentSegment(), _textBuffer.getCurrentSegmentSize());
+        case MINOR_NUMBER_EXPONENT_MARKER:
+            return _finishFloatExponent(true, _textBuffer.getCurrentSegment(), _textBuffer.getCurrentSegmentSize());
+        case MINOR_NUMBER_EXPONENT_DIGITS:
+            return _finishFloatExponent(false, _textBuffer.getCurrentSegment(), _textBuffer.getCurrentSegmentSize());
+
+        case MINOR_VALUE_STRING:
+            return _finishRegularString();
+        case MINOR_VALUE_STRING_ESCAPE:
+            {
+                int c = _decodeSplitEscaped(_quoted32, _quotedDigits);
+                if (c < 0) {
+                    return JsonToken.NOT_AVAILABLE;
+                }
+                _textBuffer.append((char) c);
+            }
+            return _finishRegularString();
+        case MINOR_VALUE_STRING_UTF8_2:
+            _textBuffer.append((char) _decodeUTF8_2(_pending32, _inputBuffer[_inputPtr++]));
+            return _finishRegularString();
+        case MINOR_VALUE_STRING_UTF8_3:
+            if (!_decodeSplitUTF8_3(_pending32, _pendingBytes, _inputBuffer[_inputPtr++])) {
+                return JsonToken.NOT_AVAILABLE;
+            }
+            return _finishRegularString();
+        case MINOR_VALUE_STRING_UTF8_4:
+            if (!_decodeSplitUTF8_4(_pending32, _pendingBytes, _inputBuffer[_inputPtr++])) {
+                return JsonToken.NOT_AVAILABLE;
+            }
+            return _finishRegularString();
+        }
+        _throwInternal();
+        return null;
+    }
+
+    /**
+     * Method called when end-of-input has been indicated, and there
+     * is an incomplete token: some of these (numbers, literals) may
+     * be completed, others are errors.
+     */
+    private final JsonToken _finishTokenWithEOF() throws IOException, JsonParseException
+    {
+        switch (_minorState) {
+        case MINOR_ROOT_BOM:
+        case MINOR_FIELD_LEADING_WS:
+        case MINOR_FIELD_LEADING_COMMA:
+        case MINOR_VALUE_LEADING_WS:
+        case MINOR_VALUE_EXPECTING_COMMA:
+        case MINOR_VALUE_EXPECTING_COLON:
+            // just white space (or separator) in between tokens
+            return _eofAsNextToken();
+
+        case MINOR_VALUE_TOKEN_NULL:
+            return _finishKeywordTokenWithEOF("null", _pending32, JsonToken.VALUE_NULL);
+        case MINOR_VALUE_TOKEN_TRUE:
+            return _finishKeywordTokenWithEOF("true", _pending32, JsonToken.VALUE_TRUE);
+        case MINOR_VALUE_TOKEN_FALSE:
+            return _finishKeywordTokenWithEOF("false", _pending32, JsonToken.VALUE_FALSE);
+
+        case MINOR_NUMBER_ZERO:
+            return _finishNumberZero();
+        case MINOR_NUMBER_INTEGER_DIGITS:
+            return _valueComplete(resetInt(_numberNegative, _intLength));
+        case MINOR_NUMBER_FRACTION_DIGITS:
+            if (_fractLength == 0) {
+                _reportInvalidEOFInValue();
+            }
+            return _valueComplete(resetFloat(_numberNegative, _intLength, _fractLength, _expLength));
+        case MINOR_NUMBER_EXPONENT_DIGITS:
+            if (_expLength == 0) {
+                _reportInvalidEOFInValue();
+            }
+            return _valueComplete(resetFloat(_numberNegative, _intLength, _fractLength, _expLength));
+
+        case MINOR_FIELD_NAME:
+        case MINOR_FIELD_NAME_ESCAPE:
+            _reportInvalidEOF(" in field name");
+            break;
+        case MINOR_VALUE_STRING:
+        case MINOR_VALUE_STRING_ESCAPE:
+        case MINOR_VALUE_STRING_UTF8_2:
+        case MINOR_VALUE_STRING_UTF8_3:
+        case MINOR_VALUE_STRING_UTF8_4:
+            _reportInvalidEOF(": was expecting closing quote for a string value");
+            break;
+        default:
+            _reportInvalidEOFInValue();
+        }
+        return null;
+    }
+
+    private final JsonToken _eofAsNextToken() throws IOException, JsonParseException
+    {
+        _majorState = MAJOR_CLOSED;
+        if (!_parsingContext.inRoot()) {
+            _handleEOF();
+        }
+        close();
+        return (_currToken = null);
+    }
+
+    private final JsonToken _valueComplete(JsonToken t)
+    {
+        _majorState = _majorStateAfterValue;
+        _currToken = t;
+        return t;
+    }
+
+    private final JsonToken _fieldComplete(String name)
+    {
+        _majorState = MAJOR_OBJECT_VALUE;
+        _parsingContext.setCurrentName(name);
+        _nameCopied = false; // need to invalidate if it was copied
+        return (_currToken = JsonToken.FIELD_NAME);
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, root level, white space, separators
+    /**********************************************************
+     */
+
+    private final JsonToken _finishBOM(int bytesHandled) throws IOException, JsonParseException
+    {
+        // Caller has already verified that the first byte is 0xEF
+        while (_inputPtr < _inputEnd) {
+            int ch = _inputBuffer[_inputPtr++] & 0xFF;
+            switch (bytesHandled) {
+            case 3: // BOM all done, proceed with the first real token
+                return _startValue(ch);
+            case 2:
+                if (ch != 0xBF) {
+                    _reportError("Unexpected byte 0x"+Integer.toHexString(ch)
+                            +" following 0xEF 0xBB; should get 0xBF as third byte of UTF-8 BOM");
+                }
+                break;
+            case 1:
+                if (ch != 0xBB) {
+                    _reportError("Unexpected byte 0x"+Integer.toHexString(ch)
+                            +" following 0xEF; should get 0xBB as second byte of UTF-8 BOM");
+                }
+                break;
+            }
+            ++bytesHandled;
+        }
+        _pending32 = bytesHandled;
+        _minorState = MINOR_ROOT_BOM;
+        return (_currToken = JsonToken.NOT_AVAILABLE);
+    }
+
+    /**
+     * Method called to skip white space, starting with given (white space)
+     * character; returns the first non-white-space character, or 0 if
+     * all available input was consumed (in which case current token
+     * is set to {@link JsonToken#NOT_AVAILABLE}).
+     */
+    private final int _skipWS(int ch) throws IOException, JsonParseException
+    {
+        do {
+            if (ch != INT_SPACE) {
+                if (ch == INT_LF) {
+                    ++_currInputRow;
+                    _currInputRowStart = _inputPtr;
+                } else if (ch == INT_CR) {
+                    ++_currInputRowAlt;
+                    _currInputRowStart = _inputPtr;
+                } else if (ch != INT_TAB) {
+                    _throwInvalidSpace(ch);
+                }
+            }
+            if (_inputPtr >= _inputEnd) {
+                _currToken = JsonToken.NOT_AVAILABLE;
+                return 0;
+            }
+            ch = _inputBuffer[_inputPtr++] & 0xFF;
+        } while (ch <= INT_SPACE);
+        return ch;
+    }
+
+    private final void _updateTokenLocation()
+    {
+        _tokenInputRow = Math.max(_currInputRow, _currInputRowAlt);
+        final int ptr = _inputPtr;
+        _tokenInputTotal = _currInputProcessed + (ptr - 1);
+        _tokenInputCol = ptr - _currInputRowStart - 1;
+    }
+
+    /**
+     * Method called to start decoding of a value (or end of array, for
+     * the first element) when no separator is expected.
+     */
+    private final JsonToken _startValue(int ch) throws IOException, JsonParseException
+    {
+        if (ch <= INT_SPACE) {
+            ch = _skipWS(ch);
+            if (ch <= 0) {
+                _minorState = MINOR_VALUE_LEADING_WS;
+                return _currToken;
+            }
+        }
+        _updateTokenLocation();
+        if (ch == INT_RBRACKET) {
+            if (_majorState == MAJOR_ARRAY_ELEMENT_FIRST || _majorState == MAJOR_ROOT) {
+                return _closeArrayScope();
+            }
+        } else if (ch == INT_RCURLY) {
+            if (_majorState == MAJOR_ROOT) {
+                return _closeObjectScope();
+            }
+        }
+        if (_majorState != MAJOR_OBJECT_VALUE) {
+            _parsingContext.expectComma();
+        }
+        switch (ch) {
+        case INT_QUOTE:
+            return _startString();
+        case INT_MINUS:
+            return _startNegativeNumber();
+        case INT_0:
+            _numberNegative = false;
+            return _finishNumberLeadingZeroes();
+        case INT_1:
+        case INT_2:
+        case INT_3:
+        case INT_4:
+        case INT_5:
+        case INT_6:
+        case INT_7:
+        case INT_8:
+        case INT_9:
+            return _startPositiveNumber(ch);
+        case INT_f:
+            return _finishKeywordToken("false", 1, JsonToken.VALUE_FALSE, MINOR_VALUE_TOKEN_FALSE);
+        case INT_n:
+            return _finishKeywordToken("null", 1, JsonToken.VALUE_NULL, MINOR_VALUE_TOKEN_NULL);
+        case INT_t:
+            return _finishKeywordToken("true", 1, JsonToken.VALUE_TRUE, MINOR_VALUE_TOKEN_TRUE);
+        case INT_LBRACKET:
+            return _startArrayScope();
+        case INT_LCURLY:
+            return _startObjectScope();
+        }
+        return _startUnexpectedValue(ch);
+    }
+
+    /**
+     * Method called to start decoding of the next array element, when
+     * a comma (or end of array) is expected.
+     */
+    private final JsonToken _startValueExpectComma(int ch) throws IOException, JsonParseException
+    {
+        if (ch != INT_COMMA) {
+            if (ch <= INT_SPACE) {
+                ch = _skipWS(ch);
+                if (ch <= 0) {
+                    _minorState = MINOR_VALUE_EXPECTING_COMMA;
+                    return _currToken;
+                }
+            }
+            if (ch != INT_COMMA) {
+                _updateTokenLocation();
+                if (ch == INT_RBRACKET) {
+                    return _closeArrayScope();
+                }
+                if (ch == INT_RCURLY) {
+                    return _closeObjectScope();
+                }
+                _reportUnexpectedChar(ch, "was expecting comma to separate "+_parsingContext.getTypeDesc()+" entries");
+            }
+        }
+        if (_inputPtr >= _inputEnd) {
+            _minorState = MINOR_VALUE_LEADING_WS;
+            return (_currToken = JsonToken.NOT_AVAILABLE);
+        }
+        return _startValue(_inputBuffer[_inputPtr++] & 0xFF);
+    }
+
+    /**
+     * Method called to start decoding of a field value, when a colon
+     * is expected.
+     */
+    private final JsonToken _startValueExpectColon(int ch) throws IOException, JsonParseException
+    {
+        if (ch != INT_COLON) {
+            if (ch <= INT_SPACE) {
+                ch = _skipWS(ch);
+                if (ch <= 0) {
+                    _minorState = MINOR_VALUE_EXPECTING_COLON;
+                    return _currToken;
+                }
+            }
+            if (ch != INT_COLON) {
+                _reportUnexpectedChar(ch, "was expecting a colon to separate field name and value");
+            }
+        }
+        if (_inputPtr >= _inputEnd) {
+            _minorState = MINOR_VALUE_LEADING_WS;
+            return (_currToken = JsonToken.NOT_AVAILABLE);
+        }
+        return _startValue(_inputBuffer[_inputPtr++] & 0xFF);
+    }
+
+    private final JsonToken _startUnexpectedValue(int ch) throws IOException, JsonParseException
+    {
+        switch (ch) {
+        case INT_RBRACKET:
+        case INT_RCURLY:
+            _reportUnexpectedChar(ch, "expected a value");
+            break;
+        case INT_APOSTROPHE:
+            if (isEnabled(Feature.ALLOW_SINGLE_QUOTES)) {
+                _reportUnsupportedFeature("Single-quoted String values");
+            }
+            break;
+        case INT_SLASH:
+            if (isEnabled(Feature.ALLOW_COMMENTS)) {
+                _reportUnsupportedFeature("Comments");
+            }
+            break;
+        case 'N':
+        case 'I':
+        case INT_PLUS:
+            if (isEnabled(Feature.ALLOW_NON_NUMERIC_NUMBERS)) {
+                _reportUnsupportedFeature("Non-standard numeric values ('NaN', 'INF')");
+            }
+            break;
+        }
+        _reportUnexpectedChar(ch, "expected a valid value (number, String, array, object, 'true', 'false' or 'null')");
+        return null;
+    }
+
+    private final void _reportUnsupportedFeature(String desc) throws JsonParseException
+    {
+        _reportError(desc+" not (yet) supported by non-blocking parser");
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, structured values
+    /**********************************************************
+     */
+
+    private final JsonToken _startArrayScope()
+    {
+        _parsingContext = _parsingContext.createChildArrayContext(_tokenInputRow, _tokenInputCol);
+        _majorState = MAJOR_ARRAY_ELEMENT_FIRST;
+        _majorStateAfterValue = MAJOR_ARRAY_ELEMENT_NEXT;
+        return (_currToken = JsonToken.START_ARRAY);
+    }
+
+    private final JsonToken _startObjectScope()
+    {
+        _parsingContext = _parsingContext.createChildObjectContext(_tokenInputRow, _tokenInputCol);
+        _majorState = MAJOR_OBJECT_FIELD_FIRST;
+        _majorStateAfterValue = MAJOR_OBJECT_FIELD_NEXT;
+        return (_currToken = JsonToken.START_OBJECT);
+    }
+
+    private final JsonToken _closeArrayScope() throws JsonParseException
+    {
+        if (!_parsingContext.inArray()) {
+            _reportMismatchedEndMarker(INT_RBRACKET, '}');
+        }
+        return _closeScope(JsonToken.END_ARRAY);
+    }
+
+    private final JsonToken _closeObjectScope() throws JsonParseException
+    {
+        if (!_parsingContext.inObject()) {
+            _reportMismatchedEndMarker(INT_RCURLY, ']');
+        }
+        return _closeScope(JsonToken.END_OBJECT);
+    }
+
+    private final JsonToken _closeScope(JsonToken endMarker)
+    {
+        _parsingContext = _parsingContext.getParent();
+        int st;
+        if (_parsingContext.inObject()) {
+            st = MAJOR_OBJECT_FIELD_NEXT;
+        } else if (_parsingContext.inArray()) {
+            st = MAJOR_ARRAY_ELEMENT_NEXT;
+        } else {
+            st = MAJOR_ROOT;
+        }
+        _majorState = st;
+        _majorStateAfterValue = st;
+        return (_currToken = endMarker);
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, field names
+    /**********************************************************
+     */
+
+    private final JsonToken _startFieldName(int ch) throws IOException, JsonParseException
+    {
+        if (ch <= INT_SPACE) {
+            ch = _skipWS(ch);
+            if (ch <= 0) {
+                _minorState = MINOR_FIELD_LEADING_WS;
+                return _currToken;
+            }
+        }
+        _updateTokenLocation();
+        if (ch != INT_QUOTE) {
+            if (ch == INT_RCURLY && _majorState == MAJOR_OBJECT_FIELD_FIRST) {
+                return _closeObjectScope();
+            }
+            if (ch == INT_RBRACKET) {
+                return _closeArrayScope();
+            }
+            return _handleOddName(ch);
+        }
+        _parsingContext.expectComma();
+        return _parseFieldName(0, 0, 0);
+    }
+
+    private final JsonToken _startFieldNameAfterComma(int ch) throws IOException, JsonParseException
+    {
+        if (ch != INT_COMMA) {
+            if (ch <= INT_SPACE) {
+                ch = _skipWS(ch);
+                if (ch <= 0) {
+                    _minorState = MINOR_FIELD_LEADING_COMMA;
+                    return _currToken;
+                }
+            }
+            if (ch != INT_COMMA) {
+                _updateTokenLocation();
+                if (ch == INT_RCURLY) {
+                    return _closeObjectScope();
+                }
+                if (ch == INT_RBRACKET) {
+                    return _closeArrayScope();
+                }
+                _reportUnexpectedChar(ch, "was expecting comma to separate "+_parsingContext.getTypeDesc()+" entries");
+            }
+        }
+        if (_inputPtr >= _inputEnd) {
+            _minorState = MINOR_FIELD_LEADING_WS;
+            return (_currToken = JsonToken.NOT_AVAILABLE);
+        }
+        return _startFieldName(_inputBuffer[_inputPtr++] & 0xFF);
+    }
+
+    private final JsonToken _handleOddName(int ch) throws IOException, JsonParseException
+    {
+        if (ch == INT_APOSTROPHE && isEnabled(Feature.ALLOW_SINGLE_QUOTES)) {
+            _reportUnsupportedFeature("Single-quoted field names");
+        }
+        if (isEnabled(Feature.ALLOW_UNQUOTED_FIELD_NAMES)) {
+            _reportUnsupportedFeature("Unquoted field names");
+        }
+        _reportUnexpectedChar(ch, "was expecting double-quote to start field name");
+        return null;
+    }
+
+    /**
+     * Method that decodes (rest of) a field name. Like
+     * {@link Utf8StreamParser}, this does NOT do UTF-8 decoding,
+     * only accumulates bytes into quads, since decoding is only
+     * needed when adding a new name to the symbol table.
+     */
+    private final JsonToken _parseFieldName(int qlen, int currQuad, int currQuadBytes)
+        throws IOException, JsonParseException
+    {
+        int[] quads = _quadBuffer;
+        final int[] codes = sInputCodesLatin1;
+
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                _quadLength = qlen;
+                _pending32 = currQuad;
+                _pendingBytes = currQuadBytes;
+                _minorState = MINOR_FIELD_NAME;
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            int ch = _inputBuffer[_inputPtr++] & 0xFF;
+            if (codes[ch] != 0) {
+                if (ch == INT_QUOTE) { // we are done
+                    break;
+                }
+                // Unquoted white space?
+                if (ch != INT_BACKSLASH) {
+                    // As per [JACKSON-208], call can now return:
+                    _throwUnquotedSpace(ch, "name");
+                } else {
+                    // Escape sequences may be split, so need to keep state in fields:
+                    _quadLength = qlen;
+                    _pending32 = currQuad;
+                    _pendingBytes = currQuadBytes;
+                    ch = _decodeSplitEscaped(0, -1);
+                    if (ch < 0) {
+                        _minorState = MINOR_FIELD_NAME_ESCAPE;
+                        return (_currToken = JsonToken.NOT_AVAILABLE);
+                    }
+                    _appendEscapedNameChar(ch);
+                    quads = _quadBuffer;
+                    qlen = _quadLength;
+                    currQuad = _pending32;
+                    currQuadBytes = _pendingBytes;
+                    continue;
+                }
+            }
+            if (currQuadBytes < 4) {
+                ++currQuadBytes;
+                currQuad = (currQuad << 8) | ch;
+            } else {
+                if (qlen >= quads.length) {
+                    _quadBuffer = quads = Utf8StreamParser.growArrayBy(quads, quads.length);
+                }
+                quads[qlen++] = currQuad;
+                currQuad = ch;
+                currQuadBytes = 1;
+            }
+        }
+
+        if (currQuadBytes == 0) { // empty name
+            return _fieldComplete("");
+        }
+        if (qlen >= quads.length) {
+            _quadBuffer = quads = Utf8StreamParser.growArrayBy(quads, quads.length);
+        }
+        quads[qlen++] = currQuad;
+        Name name = _symbols.findName(quads, qlen);
+        if (name == null) {
+            name = _addName(quads, qlen, currQuadBytes);
+        }
+        return _fieldComplete(name.getName());
+    }
+
+    private final JsonToken _finishFieldWithEscape() throws IOException, JsonParseException
+    {
+        int ch = _decodeSplitEscaped(_quoted32, _quotedDigits);
+        if (ch < 0) {
+            _minorState = MINOR_FIELD_NAME_ESCAPE;
+            return JsonToken.NOT_AVAILABLE;
+        }
+        _appendEscapedNameChar(ch);
+        return _parseFieldName(_quadLength, _pending32, _pendingBytes);
+    }
+
+    /**
+     * Helper method for appending an unescaped character into the quad buffer;
+     * needs to UTF-8 (re-)encode it, if it's beyond 7-bit ascii.
+     */
+    private final void _appendEscapedNameChar(int ch)
+    {
+        if (ch > 127) {
+            if (ch < 0x800) { // 2-byte
+                _appendNameByte(0xc0 | (ch >> 6));
+            } else { // 3 bytes; no need to worry about surrogates here
+                _appendNameByte(0xe0 | (ch >> 12));
+                _appendNameByte(0x80 | ((ch >> 6) & 0x3f));
+            }
+            ch = 0x80 | (ch & 0x3f);
+        }
+        _appendNameByte(ch);
+    }
+
+    private final void _appendNameByte(int b)
+    {
+        if (_pendingBytes < 4) {
+            ++_pendingBytes;
+            _pending32 = (_pending32 << 8) | b;
+        } else {
+            int[] quads = _quadBuffer;
+            if (_quadLength >= quads.length) {
+                _quadBuffer = quads = Utf8StreamParser.growArrayBy(quads, quads.length);
+            }
+            quads[_quadLength++] = _pending32;
+            _pending32 = b;
+            _pendingBytes = 1;
+        }
+    }
+
+    /**
+     * This is the main workhorse method used when we take a symbol
+     * table miss. It needs to demultiplex individual bytes, decode
+     * multi-byte chars (if any), and then construct Name instance
+     * and add it to the symbol table.
+     */
+    private final Name _addName(int[] quads, int qlen, int lastQuadBytes)
+        throws JsonParseException
+    {
+        // 4 bytes per quad, except last one maybe less
+        int byteLen = (qlen << 2) - 4 + lastQuadBytes;
+
+        /* And last one is not correctly aligned (leading zero bytes instead
+         * need to shift a bit, instead of trailing). Only need to shift it
+         * for UTF-8 decoding; need revert for storage (since key will not
+         * be aligned, to optimize lookup speed)
+         */
+        int lastQuad;
+
+        if (lastQuadBytes < 4) {
+            lastQuad = quads[qlen-1];
+            // 8/16/24 bit left shift
+            quads[qlen-1] = (lastQuad << ((4 - lastQuadBytes) << 3));
+        } else {
+            lastQuad = 0;
+        }
+
+        // Need some working space, TextBuffer works well:
+        char[] cbuf = _textBuffer.emptyAndGetCurrentSegment();
+        int cix = 0;
+
+        for (int ix = 0; ix < byteLen; ) {
+            int ch = quads[ix >> 2]; // current quad, need to shift+mask
+            int byteIx = (ix & 3);
+            ch = (ch >> ((3 - byteIx) << 3)) & 0xFF;
+            ++ix;
+
+            if (ch > 127) { // multi-byte
+                int needed;
+                if ((ch & 0xE0) == 0xC0) { // 2 bytes (0x0080 - 0x07FF)
+                    ch &= 0x1F;
+                    needed = 1;
+                } else if ((ch & 0xF0) == 0xE0) { // 3 bytes (0x0800 - 0xFFFF)
+                    ch &= 0x0F;
+                    needed = 2;
+                } else if ((ch & 0xF8) == 0xF0) { // 4 bytes; double-char with surrogates and all...
+                    ch &= 0x07;
+                    needed = 3;
+                } else { // 5- and 6-byte chars not valid xml chars
+                    _reportInvalidInitial(ch);
+                    needed = ch = 1; // never really gets this far
+                }
+                if ((ix + needed) > byteLen) {
+                    _reportInvalidEOF(" in field name");
+                }
+
+                // Ok, always need at least one more:
+                int ch2 = quads[ix >> 2]; // current quad, need to shift+mask
+                byteIx = (ix & 3);
+                ch2 = (ch2 >> ((3 - byteIx) << 3));
+                ++ix;
+
+                if ((ch2 & 0xC0) != 0x080) {
+                    _reportInvalidOther(ch2);
+                }
+                ch = (ch << 6) | (ch2 & 0x3F);
+                if (needed > 1) {
+                    ch2 = quads[ix >> 2];
+                    byteIx = (ix & 3);
+                    ch2 = (ch2 >> ((3 - byteIx) << 3));
+                    ++ix;
+
+                    if ((ch2 & 0xC0) != 0x080) {
+                        _reportInvalidOther(ch2);
+                    }
+                    ch = (ch << 6) | (ch2 & 0x3F);
+                    if (needed > 2) { // 4 bytes? (need surrogates on output)
+                        ch2 = quads[ix >> 2];
+                        byteIx = (ix & 3);
+                        ch2 = (ch2 >> ((3 - byteIx) << 3));
+                        ++ix;
+                        if ((ch2 & 0xC0) != 0x080) {
+                            _reportInvalidOther(ch2 & 0xFF);
+                        }
+                        ch = (ch << 6) | (ch2 & 0x3F);
+                    }
+                }
+                if (needed > 2) { // surrogate pair? once again, let's output one here, one later on
+                    ch -= 0x10000; // to normalize it starting with 0x0
+                    if (cix >= cbuf.length) {
+                        cbuf = _textBuffer.expandCurrentSegment();
+                    }
+                    cbuf[cix++] = (char) (0xD800 + (ch >> 10));
+                    ch = 0xDC00 | (ch & 0x03FF);
+                }
+            }
+            if (cix >= cbuf.length) {
+                cbuf = _textBuffer.expandCurrentSegment();
+            }
+            cbuf[cix++] = (char) ch;
+        }
+
+        // Ok. Now we have the character array, and can construct the String
+        String baseName = new String(cbuf, 0, cix);
+        // And finally, un-align if necessary
+        if (lastQuadBytes < 4) {
+            quads[qlen-1] = lastQuad;
+        }
+        return _symbols.addName(baseName, quads, qlen);
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, literal tokens
+    /**********************************************************
+     */
+
+    private final JsonToken _finishKeywordToken(String expToken, int matched, JsonToken result,
+            int minorState)
+        throws IOException, JsonParseException
+    {
+        final int end = expToken.length();
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                _pending32 = matched;
+                _minorState = minorState;
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            int ch = _inputBuffer[_inputPtr] & 0xFF;
+            if (matched == end) { // need to verify trailing separator
+                if (ch < INT_0 || ch == INT_RBRACKET || ch == INT_RCURLY) { // expected/allowed chars
+                    return _valueComplete(result);
+                }
+                // but actually only alphanums are problematic
+                if (!Character.isJavaIdentifierPart((char) ch)) {
+                    return _valueComplete(result);
+                }
+                break;
+            }
+            if (ch != expToken.charAt(matched)) {
+                break;
+            }
+            ++matched;
+            ++_inputPtr;
+        }
+        _reportInvalidToken(expToken.substring(0, matched));
+        return null;
+    }
+
+    private final JsonToken _finishKeywordTokenWithEOF(String expToken, int matched, JsonToken result)
+        throws IOException, JsonParseException
+    {
+        if (matched == expToken.length()) {
+            return _valueComplete(result);
+        }
+        _reportInvalidToken(expToken.substring(0, matched));
+        return null;
+    }
+
+    private final void _reportInvalidToken(String matchedPart)
+        throws IOException, JsonParseException
+    {
+        StringBuilder sb = new StringBuilder(matchedPart);
+        // Can only include whatever content we have available
+        while (_inputPtr < _inputEnd) {
+            char c = (char) (_inputBuffer[_inputPtr++] & 0xFF);
+            if (!Character.isJavaIdentifierPart(c)) {
+                break;
+            }
+            sb.append(c);
+        }
+        _reportError("Unrecognized token '"+sb.toString()+"': was expecting 'null', 'true' or 'false'");
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, numbers
+    /**********************************************************
+     */
+
+    private final JsonToken _startPositiveNumber(int ch) throws IOException, JsonParseException
+    {
+        _numberNegative = false;
+        char[] outBuf = _textBuffer.emptyAndGetCurrentSegment();
+        outBuf[0] = (char) ch;
+        _intLength = 1;
+        return _finishNumberIntegerPart(outBuf, 1);
+    }
+
+    private final JsonToken _startNegativeNumber() throws IOException, JsonParseException
+    {
+        _numberNegative = true;
+        if (_inputPtr >= _inputEnd) {
+            _minorState = MINOR_NUMBER_MINUS;
+            return (_currToken = JsonToken.NOT_AVAILABLE);
+        }
+        return _finishNumberMinus(_inputBuffer[_inputPtr++] & 0xFF);
+    }
+
+    private final JsonToken _finishNumberMinus(int ch) throws IOException, JsonParseException
+    {
+        if (ch <= INT_0) {
+            if (ch == INT_0) {
+                return _finishNumberLeadingZeroes();
+            }
+            reportUnexpectedNumberChar(ch, "expected digit (0-9) to follow minus sign, for valid numeric value");
+        } else if (ch > INT_9) {
+            if (ch == 'I' && isEnabled(Feature.ALLOW_NON_NUMERIC_NUMBERS)) {
+                _reportUnsupportedFeature("Non-standard numeric values ('NaN', 'INF')");
+            }
+            reportUnexpectedNumberChar(ch, "expected digit (0-9) to follow minus sign, for valid numeric value");
+        }
+        char[] outBuf = _textBuffer.emptyAndGetCurrentSegment();
+        outBuf[0] = '-';
+        outBuf[1] = (char) ch;
+        _intLength = 1;
+        return _finishNumberIntegerPart(outBuf, 2);
+    }
+
+    /**
+     * Method called after a leading zero (possibly preceded by minus sign)
+     * has been consumed.
+     */
+    private final JsonToken _finishNumberLeadingZeroes() throws IOException, JsonParseException
+    {
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_NUMBER_ZERO;
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            int ch = _inputBuffer[_inputPtr] & 0xFF;
+            if (ch < INT_0 || ch > INT_9) {
+                if (ch == INT_DECIMAL_POINT || ch == INT_e || ch == INT_E) {
+                    char[] outBuf = _textBuffer.emptyAndGetCurrentSegment();
+                    int outPtr = 0;
+                    if (_numberNegative) {
+                        outBuf[outPtr++] = '-';
+                    }
+                    outBuf[outPtr++] = '0';
+                    _intLength = 1;
+                    return _startFloat(outBuf, outPtr, ch);
+                }
+                return _finishNumberZero();
+            }
+            // [JACKSON-358]: we may want to allow leading zeroes
+            if (!isEnabled(Feature.ALLOW_NUMERIC_LEADING_ZEROS)) {
+                reportInvalidNumber("Leading zeroes not allowed");
+            }
+            ++_inputPtr;
+            if (ch != INT_0) { // no more zeroes, rest is regular integer part
+                char[] outBuf = _textBuffer.emptyAndGetCurrentSegment();
+                int outPtr = 0;
+                if (_numberNegative) {
+                    outBuf[outPtr++] = '-';
+                }
+                outBuf[outPtr++] = (char) ch;
+                _intLength = 1;
+                return _finishNumberIntegerPart(outBuf, outPtr);
+            }
+        }
+    }
+
+    private final JsonToken _finishNumberZero()
+    {
+        char[] outBuf = _textBuffer.emptyAndGetCurrentSegment();
+        int outPtr = 0;
+        if (_numberNegative) {
+            outBuf[outPtr++] = '-';
+        }
+        outBuf[outPtr++] = '0';
+        _textBuffer.setCurrentLength(outPtr);
+        return _valueComplete(resetInt(_numberNegative, 1));
+    }
+
+    private final JsonToken _finishNumberIntegerPart(char[] outBuf, int outPtr)
+        throws IOException, JsonParseException
+    {
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_NUMBER_INTEGER_DIGITS;
+                _textBuffer.setCurrentLength(outPtr);
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            int ch = _inputBuffer[_inputPtr] & 0xFF;
+            if (ch < INT_0 || ch > INT_9) {
+                if (ch == INT_DECIMAL_POINT || ch == INT_e || ch == INT_E) {
+                    return _startFloat(outBuf, outPtr, ch);
+                }
+                break;
+            }
+            ++_inputPtr;
+            if (outPtr >= outBuf.length) {
+                outBuf = _textBuffer.finishCurrentSegment();
+                outPtr = 0;
+            }
+            outBuf[outPtr++] = (char) ch;
+            ++_intLength;
+        }
+        _textBuffer.setCurrentLength(outPtr);
+        return _valueComplete(resetInt(_numberNegative, _intLength));
+    }
+
+    /**
+     * Method called when decimal point or exponent marker (which has
+     * not yet been consumed) follows integer part.
+     */
+    private final JsonToken _startFloat(char[] outBuf, int outPtr, int ch)
+        throws IOException, JsonParseException
+    {
+        ++_inputPtr;
+        _fractLength = 0;
+        _expLength = 0;
+        if (outPtr >= outBuf.length) {
+            outBuf = _textBuffer.finishCurrentSegment();
+            outPtr = 0;
+        }
+        outBuf[outPtr++] = (char) ch;
+        if (ch == INT_DECIMAL_POINT) {
+            return _finishFloatFraction(outBuf, outPtr);
+        }
+        return _finishFloatExponent(true, outBuf, outPtr);
+    }
+
+    private final JsonToken _finishFloatFraction(char[] outBuf, int outPtr)
+        throws IOException, JsonParseException
+    {
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_NUMBER_FRACTION_DIGITS;
+                _textBuffer.setCurrentLength(outPtr);
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            int ch = _inputBuffer[_inputPtr] & 0xFF;
+            if (ch < INT_0 || ch > INT_9) {
+                // must be followed by sequence of ints, one minimum
+                if (_fractLength == 0) {
+                    reportUnexpectedNumberChar(ch, "Decimal point not followed by a digit");
+                }
+                if (ch == INT_e || ch == INT_E) {
+                    ++_inputPtr;
+                    if (outPtr >= outBuf.length) {
+                        outBuf = _textBuffer.finishCurrentSegment();
+                        outPtr = 0;
+                    }
+                    outBuf[outPtr++] = (char) ch;
+                    return _finishFloatExponent(true, outBuf, outPtr);
+                }
+                break;
+            }
+            ++_inputPtr;
+            if (outPtr >= outBuf.length) {
+                outBuf = _textBuffer.finishCurrentSegment();
+                outPtr = 0;
+            }
+            outBuf[outPtr++] = (char) ch;
+            ++_fractLength;
+        }
+        _textBuffer.setCurrentLength(outPtr);
+        return _valueComplete(resetFloat(_numberNegative, _intLength, _fractLength, _expLength));
+    }
+
+    private final JsonToken _finishFloatExponent(boolean checkSign, char[] outBuf, int outPtr)
+        throws IOException, JsonParseException
+    {
+        if (checkSign) {
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_NUMBER_EXPONENT_MARKER;
+                _textBuffer.setCurrentLength(outPtr);
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            int ch = _inputBuffer[_inputPtr] & 0xFF;
+            if (ch == INT_MINUS || ch == INT_PLUS) {
+                ++_inputPtr;
+                if (outPtr >= outBuf.length) {
+                    outBuf = _textBuffer.finishCurrentSegment();
+                    outPtr = 0;
+                }
+                outBuf[outPtr++] = (char) ch;
+            }
+        }
+        int ch;
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_NUMBER_EXPONENT_DIGITS;
+                _textBuffer.setCurrentLength(outPtr);
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            ch = _inputBuffer[_inputPtr] & 0xFF;
+            if (ch < INT_0 || ch > INT_9) {
+                break;
+            }
+            ++_inputPtr;
+            if (outPtr >= outBuf.length) {
+                outBuf = _textBuffer.finishCurrentSegment();
+                outPtr = 0;
+            }
+            outBuf[outPtr++] = (char) ch;
+            ++_expLength;
+        }
+        // must be followed by sequence of ints, one minimum
+        if (_expLength == 0) {
+            reportUnexpectedNumberChar(ch, "Exponent indicator not followed by a digit");
+        }
+        _textBuffer.setCurrentLength(outPtr);
+        return _valueComplete(resetFloat(_numberNegative, _intLength, _fractLength, _expLength));
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, Strings
+    /**********************************************************
+     */
+
+    private final JsonToken _startString() throws IOException, JsonParseException
+    {
+        _textBuffer.emptyAndGetCurrentSegment();
+        return _finishRegularString();
+    }
+
+    private final JsonToken _finishRegularString() throws IOException, JsonParseException
+    {
+        int c;
+
+        // Here we do want to do full decoding, hence:
+        final int[] codes = sInputCodesUtf8;
+        final byte[] inputBuffer = _inputBuffer;
+
+        char[] outBuf = _textBuffer.getCurrentSegment();
+        int outPtr = _textBuffer.getCurrentSegmentSize();
+        int ptr = _inputPtr;
+        // escapes and multi-byte chars need up to 5 more bytes; if less, may be split
+        final int safeEnd = _inputEnd - 5;
+
+        main_loop:
+        while (true) {
+            // Then the tight ascii non-funny-char loop:
+            ascii_loop:
+            while (true) {
+                if (ptr >= _inputEnd) {
+                    _inputPtr = ptr;
+                    _minorState = MINOR_VALUE_STRING;
+                    _textBuffer.setCurrentLength(outPtr);
+                    return (_currToken = JsonToken.NOT_AVAILABLE);
+                }
+                if (outPtr >= outBuf.length) {
+                    outPtr = 0;
+                    outBuf = _textBuffer.finishCurrentSegment();
+                }
+                final int max = Math.min(_inputEnd, (ptr + (outBuf.length - outPtr)));
+                while (ptr < max) {
+                    c = inputBuffer[ptr++] & 0xFF;
+                    if (codes[c] != 0) {
+                        break ascii_loop;
+                    }
+                    outBuf[outPtr++] = (char) c;
+                }
+            }
+            // Ok: end marker, escape or multi-byte?
+            if (c == INT_QUOTE) {
+                _inputPtr = ptr;
+                _textBuffer.setCurrentLength(outPtr);
+                return _valueComplete(JsonToken.VALUE_STRING);
+            }
+            // If possibly split, use off-lined longer version
+            if (ptr >= safeEnd) {
+                _inputPtr = ptr;
+                _textBuffer.setCurrentLength(outPtr);
+                if (!_decodeSplitMultiByte(c, codes[c], ptr < _inputEnd)) {
+                    return (_currToken = JsonToken.NOT_AVAILABLE);
+                }
+                outBuf = _textBuffer.getCurrentSegment();
+                outPtr = _textBuffer.getCurrentSegmentSize();
+                ptr = _inputPtr;
+                continue main_loop;
+            }
+            // otherwise use inlined
+            switch (codes[c]) {
+            case 1: // backslash
+                _inputPtr = ptr;
+                c = _decodeFastCharEscape(); // since we know it's not split
+                ptr = _inputPtr;
+                break;
+            case 2: // 2-byte UTF
+                c = _decodeUTF8_2(c, inputBuffer[ptr++]);
+                break;
+            case 3: // 3-byte UTF
+                c = _decodeUTF8_3(c, inputBuffer[ptr++], inputBuffer[ptr++]);
+                break;
+            case 4: // 4-byte UTF
+                c = _decodeUTF8_4(c, inputBuffer[ptr++], inputBuffer[ptr++], inputBuffer[ptr++]);
+                // Let's add first part right away:
+                outBuf[outPtr++] = (char) (0xD800 | (c >> 10));
+                if (outPtr >= outBuf.length) {
+                    outBuf = _textBuffer.finishCurrentSegment();
+                    outPtr = 0;
+                }
+                c = 0xDC00 | (c & 0x3FF);
+                // And let the other char output down below
+                break;
+            default:
+                if (c < INT_SPACE) {
+                    // As per [JACKSON-208], call can now return:
+                    _throwUnquotedSpace(c, "string value");
+                } else {
+                    // Is this good enough error message?
+                    _reportInvalidChar(c);
+                }
+            }
+            // Need more room?
+            if (outPtr >= outBuf.length) {
+                outBuf = _textBuffer.finishCurrentSegment();
+                outPtr = 0;
+            }
+            // Ok, let's add char to output:
+            outBuf[outPtr++] = (char) c;
+        }
+    }
+
+    /**
+     * Method called to decode an escape sequence or multi-byte character
+     * that may be split across input chunks. Returns true if decoding
+     * was completed (and character appended to text buffer); false if more
+     * content is needed (in which case state is updated accordingly).
+     */
+    private final boolean _decodeSplitMultiByte(int c, int type, boolean gotNext)
+        throws IOException, JsonParseException
+    {
+        switch (type) {
+        case 1:
+            c = _decodeSplitEscaped(0, -1);
+            if (c < 0) {
+                _minorState = MINOR_VALUE_STRING_ESCAPE;
+                return false;
+            }
+            _textBuffer.append((char) c);
+            return true;
+        case 2:
+            if (gotNext) {
+                // always succeeds:
+                c = _decodeUTF8_2(c, _inputBuffer[_inputPtr++]);
+                _textBuffer.append((char) c);
+                return true;
+            }
+            _minorState = MINOR_VALUE_STRING_UTF8_2;
+            _pending32 = c;
+            return false;
+        case 3:
+            c &= 0x0F;
+            if (gotNext) {
+                return _decodeSplitUTF8_3(c, 1, _inputBuffer[_inputPtr++]);
+            }
+            _minorState = MINOR_VALUE_STRING_UTF8_3;
+            _pending32 = c;
+            _pendingBytes = 1;
+            return false;
+        case 4:
+            c &= 0x07;
+            if (gotNext) {
+                return _decodeSplitUTF8_4(c, 1, _inputBuffer[_inputPtr++]);
+            }
+            _pending32 = c;
+            _pendingBytes = 1;
+            _minorState = MINOR_VALUE_STRING_UTF8_4;
+            return false;
+        default:
+            if (c < INT_SPACE) {
+                // As per [JACKSON-208], call can now return:
+                _throwUnquotedSpace(c, "string value");
+            } else {
+                // Is this good enough error message?
+                _reportInvalidChar(c);
+            }
+            _textBuffer.append((char) c);
+            return true;
+        }
+    }
+
+    /**
+     * Method for decoding a (possibly split) escape sequence: either
+     * starting right after backslash (if <code>bytesRead</code> is -1),
+     * or continuing decoding of hex digits.
+     *
+     * @return Decoded character, if complete; -1 if more input is needed
+     */
+    private final int _decodeSplitEscaped(int value, int bytesRead)
+        throws IOException, JsonParseException
+    {
+        if (_inputPtr >= _inputEnd) {
+            _quoted32 = value;
+            _quotedDigits = bytesRead;
+            return -1;
+        }
+        int c = _inputBuffer[_inputPtr++];
+        if (bytesRead == -1) { // expecting first char after backslash
+            switch (c) {
+                // First, ones that are mapped
+            case INT_b:
+                return '\b';
+            case INT_t:
+                return '\t';
+            case INT_n:
+                return '\n';
+            case INT_f:
+                return '\f';
+            case INT_r:
+                return '\r';
+
+                // And these are to be returned as they are
+            case INT_QUOTE:
+            case INT_SLASH:
+            case INT_BACKSLASH:
+                return c;
+
+            case INT_u: // and finally hex-escaped
+                break;
+
+            default:
+                return _handleUnrecognizedCharacterEscape((char) (c & 0xFF));
+            }
+            if (_inputPtr >= _inputEnd) {
+                _quotedDigits = 0;
+                _quoted32 = 0;
+                return -1;
+            }
+            c = _inputBuffer[_inputPtr++];
+            bytesRead = 0;
+        }
+        c &= 0xFF;
+        while (true) {
+            int digit = CharTypes.charToHex(c);
+            if (digit < 0) {
+                _reportUnexpectedChar(c, "expected a hex-digit for character escape sequence");
+            }
+            value = (value << 4) | digit;
+            if (++bytesRead == 4) {
+                return value;
+            }
+            if (_inputPtr >= _inputEnd) {
+                _quotedDigits = bytesRead;
+                _quoted32 = value;
+                return -1;
+            }
+            c = _inputBuffer[_inputPtr++] & 0xFF;
+        }
+    }
+
+    /**
+     * Method for decoding an escape sequence, when caller has verified
+     * that the whole sequence is available in the current chunk.
+     */
+    private final int _decodeFastCharEscape() throws IOException, JsonParseException
+    {
+        int c = _inputBuffer[_inputPtr++];
+        switch (c) {
+            // First, ones that are mapped
+        case INT_b:
+            return '\b';
+        case INT_t:
+            return '\t';
+        case INT_n:
+            return '\n';
+        case INT_f:
+            return '\f';
+        case INT_r:
+            return '\r';
+
+            // And these are to be returned as they are
+        case INT_QUOTE:
+        case INT_SLASH:
+        case INT_BACKSLASH:
+            return (char) c;
+
+        case INT_u: // and finally hex-escaped
+            break;
+
+        default:
+            return _handleUnrecognizedCharacterEscape((char) (c & 0xFF));
+        }
+
+        // Ok, a hex escape. Need 4 characters
+        int value = 0;
+        for (int i = 0; i < 4; ++i) {
+            int ch = _inputBuffer[_inputPtr++];
+            int digit = CharTypes.charToHex(ch);
+            if (digit < 0) {
+                _reportUnexpectedChar(ch, "expected a hex-digit for character escape sequence");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, UTF-8 decoding
+    /**********************************************************
+     */
+
+    private final int _decodeUTF8_2(int c, int d) throws JsonParseException
+    {
+        if ((d & 0xC0) != 0x080) {
+            _reportInvalidOther(d & 0xFF);
+        }
+        return ((c & 0x1F) << 6) | (d & 0x3F);
+    }
+
+    private final int _decodeUTF8_3(int c, int d, int e) throws JsonParseException
+    {
+        c &= 0x0F;
+        if ((d & 0xC0) != 0x080) {
+            _reportInvalidOther(d & 0xFF);
+        }
+        c = (c << 6) | (d & 0x3F);
+        if ((e & 0xC0) != 0x080) {
+            _reportInvalidOther(e & 0xFF);
+        }
+        return (c << 6) | (e & 0x3F);
+    }
+
+    /**
+     * @return Character value <b>minus 0x10000</b>; this so that caller
+     *    can readily expand it to actual surrogates
+     */
+    private final int _decodeUTF8_4(int c, int d, int e, int f) throws JsonParseException
+    {
+        if ((d & 0xC0) != 0x080) {
+            _reportInvalidOther(d & 0xFF);
+        }
+        c = ((c & 0x07) << 6) | (d & 0x3F);
+        if ((e & 0xC0) != 0x080) {
+            _reportInvalidOther(e & 0xFF);
+        }
+        c = (c << 6) | (e & 0x3F);
+        if ((f & 0xC0) != 0x080) {
+            _reportInvalidOther(f & 0xFF);
+        }
+        return ((c << 6) | (f & 0x3F)) - 0x10000;
+    }
+
+    private final boolean _decodeSplitUTF8_3(int prev, int prevCount, int next)
+        throws JsonParseException
+    {
+        if (prevCount == 1) {
+            if ((next & 0xC0) != 0x080) {
+                _reportInvalidOther(next & 0xFF);
+            }
+            prev = (prev << 6) | (next & 0x3F);
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_VALUE_STRING_UTF8_3;
+                _pending32 = prev;
+                _pendingBytes = 2;
+                return false;
+            }
+            next = _inputBuffer[_inputPtr++];
+        }
+        if ((next & 0xC0) != 0x080) {
+            _reportInvalidOther(next & 0xFF);
+        }
+        _textBuffer.append((char) ((prev << 6) | (next & 0x3F)));
+        return true;
+    }
+
+    private final boolean _decodeSplitUTF8_4(int prev, int prevCount, int next)
+        throws JsonParseException
+    {
+        if (prevCount == 1) {
+            if ((next & 0xC0) != 0x080) {
+                _reportInvalidOther(next & 0xFF);
+            }
+            prev = (prev << 6) | (next & 0x3F);
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_VALUE_STRING_UTF8_4;
+                _pending32 = prev;
+                _pendingBytes = 2;
+                return false;
+            }
+            prevCount = 2;
+            next = _inputBuffer[_inputPtr++];
+        }
+        if (prevCount == 2) {
+            if ((next & 0xC0) != 0x080) {
+                _reportInvalidOther(next & 0xFF);
+            }
+            prev = (prev << 6) | (next & 0x3F);
+            if (_inputPtr >= _inputEnd) {
+                _minorState = MINOR_VALUE_STRING_UTF8_4;
+                _pending32 = prev;
+                _pendingBytes = 3;
+                return false;
+            }
+            next = _inputBuffer[_inputPtr++];
+        }
+        if ((next & 0xC0) != 0x080) {
+            _reportInvalidOther(next & 0xFF);
+        }
+        int c = ((prev << 6) | (next & 0x3F)) - 0x10000;
+        // Need to add surrogate pair
+        _textBuffer.append((char) (0xD800 | (c >> 10)));
+        _textBuffer.append((char) (0xDC00 | (c & 0x3FF)));
+        return true;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, error reporting
+    /**********************************************************
+     */
+
+    protected void _reportInvalidChar(int c)
+        throws JsonParseException
+    {
+        // Either invalid WS or illegal UTF-8 start char
+        if (c < INT_SPACE) {
+            _throwInvalidSpace(c);
+        }
+        _reportInvalidInitial(c);
+    }
+
+    protected void _reportInvalidInitial(int mask)
+        throws JsonParseException
+    {
+        _reportError("Invalid UTF-8 start byte 0x"+Integer.toHexString(mask));
+    }
+
+    protected void _reportInvalidOther(int mask)
+        throws JsonParseException
+    {
+        _reportError("Invalid UTF-8 middle byte 0x"+Integer.toHexString(mask));
+    }
+}
@@ -34,6 +34,17 @@ public final class ReaderBasedParser
      */
     protected char[] _inputBuffer;
 
+    /**
+     * Flag that indicates whether the input buffer is recycable (and
+     * needs to be returned to recycler once we are done) or not.
+     *<p>
+     * If it is not, it also means that parser can NOT modify underlying
+     * buffer.
+     *
+     * @since 1.10
+     */
+    protected boolean _bufferRecyclable;
+
     /*
     /**********************************************************
     /* Configuration
@@ -44,6 +55,22 @@ public final class ReaderBasedParser
 
     final protected CharsToNameCanonicalizer _symbols;
 
+    /**
+     * Seed for calculating field name hash codes; needs to
+     * match that of {@link #_symbols}.
+     *
+     * @since 1.10
+     */
+    final protected int _hashSeed;
+
+    /**
+     * Multiplier for calculating field name hash codes; needs to
+     * match that of {@link #_symbols}.
+     *
+     * @since 1.10
+     */
+    final protected int _hashMult;
+
     /*
     /**********************************************************
     /* Parsing state
@@ -69,8 +96,48 @@ public final class ReaderBasedParser
         super(ctxt, features);
         _reader = r;
         _inputBuffer = ctxt.allocTokenBuffer();
+        _bufferRecyclable = true;
+        _objectCodec = codec;
+        _symbols = st;
+        _hashSeed = st.hashSeed();
+        _hashMult = st.hashMultiplier();
+    }
+
+    /**
+     * Constructor used when all content is already available in a
+     * character array (or a pre-loaded buffer is otherwise handed to
+     * the parser): content is tokenized directly from given buffer,
+     * without copying it.
+     *<p>
+     * Location information (character offsets, columns) is calculated
+     * relative to <code>start</code>, not to the beginning of the buffer.
+     *
+     * @param r Reader to read more content from once buffer has been
+     *   consumed, if any; null if buffer contains all of the content
+     * @param bufferRecyclable Whether buffer was allocated from the
+     *   token buffer of given context, and needs to be released back
+     *   to it once parser is done with it
+     *
+     * @since 1.10
+     */
+    public ReaderBasedParser(IOContext ctxt, int features, Reader r,
+            ObjectCodec codec, CharsToNameCanonicalizer st,
+            char[] inputBuffer, int start, int end,
+            boolean bufferRecyclable)
+    {
+        super(ctxt, features);
+        _reader = r;
+        _inputBuffer = inputBuffer;
+        _inputPtr = start;
+        _inputEnd = end;
+        // so that offsets and columns are relative to start of content:
+        _currInputProcessed = -start;
+        _currInputRowStart = start;
+        _bufferRecyclable = bufferRecyclable;
         _objectCodec = codec;
         _symbols = st;
+        _hashSeed = st.hashSeed();
+        _hashMult = st.hashMultiplier();
     }
 
     /*
@@ -89,6 +156,64 @@ public final class ReaderBasedParser
         _objectCodec = c;
     }
 
+    /**
+     * Method for reusing this parser instance for parsing another
+     * document, read from given Reader. Current input source is
+     * closed (if parser owns it, or {@link Feature#AUTO_CLOSE_SOURCE}
+     * is enabled), and parsing state is reset; buffers and symbol table
+     * are retained.
+     *<p>
+     * Parser can be reset any number of times before it is closed;
+     * {@link #close} releases buffers as usual, after which parser
+     * can not be reset.
+     *
+     * @throws IllegalStateException If parser has already been closed
+     *
+     * @since 1.10
+     */
+    public void reset(Reader r) throws IOException
+    {
+        _resetForReuse(r, false);
+        _tokenIncomplete = false;
+        _reader = r;
+        // need a new buffer if we didn't own one, or if it was released at end-of-input
+        if (!_bufferRecyclable || _inputBuffer == null) {
+            _inputBuffer = _ioContext.allocTokenBuffer();
+            _bufferRecyclable = true;
+        }
+    }
+
+    /**
+     * Method for reusing this parser instance for parsing another
+     * document, contained in given character array; see {@link #reset(Reader)}
+     * for details. Content is parsed directly from given array, which
+     * must not be modified until parsing is complete.
+     *
+     * @throws IllegalStateException If parser has already been closed
+     *
+     * @since 1.10
+     */
+    public void reset(char[] data, int offset, int len) throws IOException
+    {
+        _resetForReuse(data, true);
+        _tokenIncomplete = false;
+        _reader = null;
+        if (_bufferRecyclable) {
+            // can not keep the token buffer, since we don't use it for input
+            char[] buf = _inputBuffer;
+            if (buf != null) {
+                _ioContext.releaseTokenBuffer(buf);
+            }
+            _bufferRecyclable = false;
+        }
+        _inputBuffer = data;
+        _inputPtr = offset;
+        _inputEnd = offset + len;
+        // so that offsets and columns are relative to start of content:
+        _currInputProcessed = -offset;
+        _currInputRowStart = offset;
+    }
+
     @Override
     public int releaseBuffered(Writer w) throws IOException
     {
@@ -170,10 +295,12 @@ public final class ReaderBasedParser
         throws IOException
     {
         super._releaseBuffers();
-        char[] buf = _inputBuffer;
-        if (buf != null) {
-            _inputBuffer = null;
-            _ioContext.releaseTokenBuffer(buf);
+        if (_bufferRecyclable) {
+            char[] buf = _inputBuffer;
+            if (buf != null) {
+                _inputBuffer = null;
+                _ioContext.releaseTokenBuffer(buf);
+            }
         }
     }
     
@@ -203,6 +330,20 @@ public final class ReaderBasedParser
         }
         return _getText2(t);
     }
+
+    @Override
+    public int getText(Writer writer)
+        throws IOException, JsonParseException
+    {
+        if (_currToken == JsonToken.VALUE_STRING) {
+            if (_tokenIncomplete) {
+                _tokenIncomplete = false;
+                return _finishString(writer);
+            }
+            return _textBuffer.contentsToWriter(writer);
+        }
+        return super.getText(writer);
+    }
     
     protected final String _getText2(JsonToken t)
     {
@@ -338,6 +479,33 @@ public final class ReaderBasedParser
         }
         return _binaryValue;
     }
+
+    /**
+     * Implementation decodes content incrementally if it has not yet been
+     * accessed, without buffering the whole value.
+     *
+     * @since 1.10
+     */
+    @Override
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out)
+        throws IOException, JsonParseException
+    {
+        // if we have already read the token, just use whatever we may have
+        if (!_tokenIncomplete || _currToken != JsonToken.VALUE_STRING) {
+            byte[] b = getBinaryValue(b64variant);
+            out.write(b);
+            return b.length;
+        }
+        // otherwise do "real" incremental parsing...
+        byte[] buf = _ioContext.allocBase64Buffer();
+        try {
+            return _readBinary(b64variant, out, buf);
+        } catch (IllegalArgumentException iae) {
+            throw _constructError("Failed to decode VALUE_STRING as base64 ("+b64variant+"): "+iae.getMessage());
+        } finally {
+            _ioContext.releaseBase64Buffer(buf);
+        }
+    }
     
     /*
     /**********************************************************
@@ -370,7 +538,7 @@ public final class ReaderBasedParser
             /* 19-Feb-2009, tatu: Should actually close/release things
              *    like input source, symbol table and recyclable buffers now.
              */
-            close();
+            _closeAtEOF();
             return (_currToken = null);
         }
 
@@ -629,6 +797,63 @@ public final class ReaderBasedParser
         _symbols.release();
     }
 
+    /**
+     * Implementation overridden to skip child content more efficiently
+     * than by iterating over tokens: only Object/Array boundary markers
+     * and String boundaries are tracked, and no content (Strings, field
+     * names, numbers) is decoded. As a consequence, skipped content is
+     * not fully validated; only matching of the outermost end marker
+     * is checked.
+     *<p>
+     * If features that allow comments or single-quoted Strings are
+     * enabled, regular token-by-token skipping is used instead.
+     *
+     * @since 1.10
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_OBJECT
+            && _currToken != JsonToken.START_ARRAY) {
+            return this;
+        }
+        if ((_features & FEAT_MASK_NO_FAST_SKIP) != 0) {
+            return super.skipChildren();
+        }
+        int open = 1;
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                if (!loadMore()) {
+                    _handleEOF();
+                    return this;
+                }
+            }
+            char ch = _inputBuffer[_inputPtr++];
+            switch (ch) {
+            case '"':
+                _skipStringFast();
+                break;
+            case '[':
+            case '{':
+                ++open;
+                break;
+            case ']':
+            case '}':
+                if (--open == 0) {
+                    _finishSkipChildren(ch);
+                    return this;
+                }
+                break;
+            case '\n':
+                _skipLF();
+                break;
+            case '\r':
+                _skipCR();
+                break;
+            }
+        }
+    }
+
     /*
     /**********************************************************
     /* Internal methods, number parsing
@@ -981,7 +1206,7 @@ public final class ReaderBasedParser
          * sequences.
          */
         int ptr = _inputPtr;
-        int hash = 0;
+        int hash = _hashSeed;
         final int inputLen = _inputEnd;
 
         if (ptr < inputLen) {
@@ -998,7 +1223,7 @@ public final class ReaderBasedParser
                     }
                     break;
                 }
-                hash = (hash * 31) + ch;
+                hash = (hash * _hashMult) + ch;
                 ++ptr;
             } while (ptr < inputLen);
         }
@@ -1043,7 +1268,7 @@ public final class ReaderBasedParser
                     }
                 }
             }
-            hash = (hash * 31) + i;
+            hash = (hash * _hashMult) + i;
             // Ok, let's add char to output:
             outBuf[outPtr++] = c;
 
@@ -1098,7 +1323,7 @@ public final class ReaderBasedParser
             _reportUnexpectedChar(i, "was expecting either valid name character (for unquoted name) or double-quote (for quoted) to start field name");
         }
         int ptr = _inputPtr;
-        int hash = 0;
+        int hash = _hashSeed;
         final int inputLen = _inputEnd;
 
         if (ptr < inputLen) {
@@ -1115,7 +1340,7 @@ public final class ReaderBasedParser
                     _inputPtr = ptr;
                     return _symbols.findSymbol(_inputBuffer, start, ptr - start, hash);
                 }
-                hash = (hash * 31) + ch;
+                hash = (hash * _hashMult) + ch;
                 ++ptr;
             } while (ptr < inputLen);
         }
@@ -1129,7 +1354,7 @@ public final class ReaderBasedParser
     {
         // Note: mostly copy of_parseFieldName
         int ptr = _inputPtr;
-        int hash = 0;
+        int hash = _hashSeed;
         final int inputLen = _inputEnd;
 
         if (ptr < inputLen) {
@@ -1146,7 +1371,7 @@ public final class ReaderBasedParser
                 if (ch < maxCode && codes[ch] != 0) {
                     break;
                 }
-                hash = (hash * 31) + ch;
+                hash = (hash * _hashMult) + ch;
                 ++ptr;
             } while (ptr < inputLen);
         }
@@ -1271,7 +1496,7 @@ public final class ReaderBasedParser
                 break;
             }
             ++_inputPtr;
-            hash = (hash * 31) + i;
+            hash = (hash * _hashMult) + i;
             // Ok, let's add char to output:
             outBuf[outPtr++] = c;
 
@@ -1371,6 +1596,65 @@ public final class ReaderBasedParser
         _textBuffer.setCurrentLength(outPtr);
     }
 
+    /**
+     * Method called to decode rest of unparsed String value directly into
+     * given Writer: spans of characters that need no unescaping are written
+     * directly from the input buffer; decoded contents are not retained.
+     *
+     * @return Number of characters written
+     *
+     * @since 1.10
+     */
+    protected int _finishString(Writer writer)
+        throws IOException, JsonParseException
+    {
+        final int[] codes = CharTypes.getInputCodeLatin1();
+        final int maxCode = codes.length;
+        int total = 0;
+
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                if (!loadMore()) {
+                    _reportInvalidEOF(": was expecting closing quote for a string value");
+                }
+            }
+            final char[] inputBuffer = _inputBuffer;
+            final int start = _inputPtr;
+            final int end = _inputEnd;
+            int ptr = start;
+            char c = 0;
+            while (ptr < end) {
+                c = inputBuffer[ptr];
+                if (c < maxCode && codes[c] != 0) {
+                    break;
+                }
+                ++ptr;
+            }
+            if (ptr > start) {
+                writer.write(inputBuffer, start, ptr-start);
+                total += (ptr-start);
+            }
+            _inputPtr = ptr;
+            if (ptr >= end) {
+                continue;
+            }
+            ++_inputPtr;
+            if (c == INT_QUOTE) {
+                break;
+            }
+            if (c == INT_BACKSLASH) {
+                c = _decodeEscaped();
+            } else if (c < INT_SPACE) {
+                _throwUnquotedSpace(c, "string value");
+            }
+            writer.write(c);
+            ++total;
+        }
+        // contents were not retained, so need to make sure they are not exposed
+        _textBuffer.resetWithEmpty();
+        return total;
+    }
+
     /**
      * Method called to skim through rest of unparsed String value,
      * if it is not needed. This can be done bit faster if contents
@@ -1426,6 +1710,38 @@ public final class ReaderBasedParser
     /**********************************************************
      */
     
+    /**
+     * Method for skipping contents of a String value when skipping
+     * child content: only looks for closing quote, skipping escaped
+     * characters; does not decode or validate contents.
+     *
+     * @since 1.10
+     */
+    private final void _skipStringFast() throws IOException, JsonParseException
+    {
+        while (true) {
+            final char[] buf = _inputBuffer;
+            int ptr = _inputPtr;
+            final int end = _inputEnd;
+            while (ptr < end) {
+                char c = buf[ptr++];
+                if (c == '"') {
+                    _inputPtr = ptr;
+                    return;
+                }
+                if (c == '\\') { // escaped char may be in the next buffer
+                    ++ptr;
+                }
+            }
+            int skip = ptr - end;
+            _inputPtr = end;
+            if (!loadMore()) {
+                _reportInvalidEOF(": was expecting closing quote for a string value");
+            }
+            _inputPtr += skip;
+        }
+    }
+
     /**
      * We actually need to check the character value here
      * (to see if we have \n following \r).
@@ -1782,6 +2098,140 @@ public final class ReaderBasedParser
         }
     }
 
+    /**
+     * Method for incremental decoding of base64-encoded textual content
+     * into given output stream, using given buffer for temporarily
+     * holding decoded data.
+     *
+     * @since 1.10
+     */
+    protected int _readBinary(Base64Variant b64variant, OutputStream out, byte[] buffer)
+        throws IOException, JsonParseException
+    {
+        int outputPtr = 0;
+        final int outputEnd = buffer.length - 3;
+        int outputCount = 0;
+
+        //main_loop:
+        while (true) {
+            // first, we'll skip preceding white space, if any
+            char ch;
+            do {
+                if (_inputPtr >= _inputEnd) {
+                    loadMoreGuaranteed();
+                }
+                ch = _inputBuffer[_inputPtr++];
+            } while (ch <= INT_SPACE);
+            int bits = b64variant.decodeBase64Char(ch);
+            if (bits < 0) {
+                if (ch == '"') { // reached the end, fair and square?
+                    break;
+                }
+                bits = _decodeBase64Escape(b64variant, ch, 0);
+                if (bits < 0) { // white space to skip
+                    continue;
+                }
+            }
+            // enough room? If not, flush
+            if (outputPtr > outputEnd) {
+                outputCount += outputPtr;
+                out.write(buffer, 0, outputPtr);
+                outputPtr = 0;
+            }
+            int decodedData = bits;
+            
+            // then second base64 char; can't get padding yet, nor ws
+            
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            ch = _inputBuffer[_inputPtr++];
+            bits = b64variant.decodeBase64Char(ch);
+            if (bits < 0) {
+                bits = _decodeBase64Escape(b64variant, ch, 1);
+            }
+            decodedData = (decodedData << 6) | bits;
+            
+            // third base64 char; can be padding, but not ws
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            ch = _inputBuffer[_inputPtr++];
+            bits = b64variant.decodeBase64Char(ch);
+
+            // First branch: can get padding (-> 1 byte)
+            if (bits < 0) {
+                if (bits != Base64Variant.BASE64_VALUE_PADDING) {
+                    // as per [JACKSON-631], could also just be 'missing'  padding
+                    if (ch == '"' && !b64variant.usesPadding()) {
+                        decodedData >>= 4;
+                        buffer[outputPtr++] = (byte) decodedData;
+                        break;
+                    }
+                    bits = _decodeBase64Escape(b64variant, ch, 2);
+                }
+                if (bits == Base64Variant.BASE64_VALUE_PADDING) {
+                    // Ok, must get more padding chars, then
+                    if (_inputPtr >= _inputEnd) {
+                        loadMoreGuaranteed();
+                    }
+                    ch = _inputBuffer[_inputPtr++];
+                    if (!b64variant.usesPaddingChar(ch)) {
+                        throw reportInvalidBase64Char(b64variant, ch, 3, "expected padding character '"+b64variant.getPaddingChar()+"'");
+                    }
+                    // Got 12 bits, only need 8, need to shift
+                    decodedData >>= 4;
+                    buffer[outputPtr++] = (byte) decodedData;
+                    continue;
+                }
+                // otherwise we got escaped other char, to be processed below
+            }
+            // Nope, 2 or 3 bytes
+            decodedData = (decodedData << 6) | bits;
+            // fourth and last base64 char; can be padding, but not ws
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            ch = _inputBuffer[_inputPtr++];
+            bits = b64variant.decodeBase64Char(ch);
+            if (bits < 0) {
+                if (bits != Base64Variant.BASE64_VALUE_PADDING) {
+                    // as per [JACKSON-631], could also just be 'missing'  padding
+                    if (ch == '"' && !b64variant.usesPadding()) {
+                        decodedData >>= 2;
+                        buffer[outputPtr++] = (byte) (decodedData >> 8);
+                        buffer[outputPtr++] = (byte) decodedData;
+                        break;
+                    }
+                    bits = _decodeBase64Escape(b64variant, ch, 3);
+                }
+                if (bits == Base64Variant.BASE64_VALUE_PADDING) {
+                    // With padding we only get 2 bytes; but we have
+                    // to shift it a bit so it is identical to triplet
+                    // case with partial output.
+                    // 3 chars gives 3x6 == 18 bits, of which 2 are
+                    // dummies, need to discard:
+                    decodedData >>= 2;
+                    buffer[outputPtr++] = (byte) (decodedData >> 8);
+                    buffer[outputPtr++] = (byte) decodedData;
+                    continue;
+                }
+                // otherwise we got escaped other char, to be processed below
+            }
+            // otherwise, our triplet is now complete
+            decodedData = (decodedData << 6) | bits;
+            buffer[outputPtr++] = (byte) (decodedData >> 16);
+            buffer[outputPtr++] = (byte) (decodedData >> 8);
+            buffer[outputPtr++] = (byte) decodedData;
+        }
+        _tokenIncomplete = false;
+        if (outputPtr > 0) {
+            outputCount += outputPtr;
+            out.write(buffer, 0, outputPtr);
+        }
+        return outputCount;
+    }
+
     /*
     /**********************************************************
     /* Error reporting
@@ -60,7 +60,7 @@ public class Utf8Generator
     /**
      * Underlying output stream used for writing JSON content.
      */
-    final protected OutputStream _outputStream;
+    protected OutputStream _outputStream;
 
     /*
     /**********************************************************
@@ -599,6 +599,35 @@ public class Utf8Generator
         _outputBuffer[_outputTail++] = BYTE_QUOTE;
     }
 
+    @Override
+    public void writeString(Reader reader, int len)
+        throws IOException, JsonGenerationException
+    {
+        _verifyValueWrite("write text value");
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = BYTE_QUOTE;
+        // read and write in chunks that fit in the char buffer
+        final char[] buf = _charBuffer;
+        int left = (len >= 0) ? len : Integer.MAX_VALUE;
+        while (left > 0) {
+            int count = reader.read(buf, 0, Math.min(left, buf.length));
+            if (count <= 0) {
+                break;
+            }
+            _writeStringSegments(buf, 0, count);
+            left -= count;
+        }
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = BYTE_QUOTE;
+        if (len > 0 && left > 0) {
+            _reportError("Too few characters available: missing "+left+" characters (out of "+len+")");
+        }
+    }
+
     @Override
     public void writeString(char[] text, int offset, int len)
         throws IOException, JsonGenerationException
@@ -777,6 +806,19 @@ public class Utf8Generator
         }
     }
 
+    /**
+     * Since output is UTF-8 encoded, content can be copied as is.
+     *
+     * @since 1.10
+     */
+    @Override
+    public void writeRawValue(byte[] utf8, int offset, int len)
+        throws IOException, JsonGenerationException
+    {
+        _verifyValueWrite("write raw value");
+        _writeBytes(utf8, offset, len);
+    }
+
     /**
      * Helper method called when it is possible that output of raw section
      * to output may cross buffer boundary
@@ -840,6 +882,34 @@ public class Utf8Generator
         }
         _outputBuffer[_outputTail++] = BYTE_QUOTE;
     }
+
+    @Override
+    public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength)
+        throws IOException, JsonGenerationException
+    {
+        _verifyValueWrite("write binary value");
+        // Starting quotes
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = BYTE_QUOTE;
+        byte[] encodingBuffer = _ioContext.allocBase64Buffer();
+        int bytes;
+        try {
+            bytes = _writeBinary(b64variant, data, encodingBuffer, dataLength);
+        } finally {
+            _ioContext.releaseBase64Buffer(encodingBuffer);
+        }
+        if (dataLength > 0 && bytes < dataLength) {
+            _reportError("Too few bytes available: missing "+(dataLength - bytes)+" bytes (out of "+dataLength+")");
+        }
+        // and closing quotes
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = BYTE_QUOTE;
+        return bytes;
+    }
     
     /*
     /**********************************************************
@@ -916,32 +986,40 @@ public class Utf8Generator
     public void writeNumber(double d)
         throws IOException, JsonGenerationException
     {
+        _verifyValueWrite("write number");
+        if ((_outputTail + NumberOutput.MAX_DOUBLE_CHARS + 2) >= _outputEnd) {
+            _flushBuffer();
+        }
         if (_cfgNumbersAsStrings ||
             // [JACKSON-139]
             (((Double.isNaN(d) || Double.isInfinite(d))
                 && isEnabled(Feature.QUOTE_NON_NUMERIC_NUMBERS)))) {
-            writeString(String.valueOf(d));
+            _outputBuffer[_outputTail++] = BYTE_QUOTE;
+            _outputTail = NumberOutput.outputDouble(d, _outputBuffer, _outputTail);
+            _outputBuffer[_outputTail++] = BYTE_QUOTE;
             return;
         }
-        // What is the max length for doubles? 40 chars?
-        _verifyValueWrite("write number");
-        writeRaw(String.valueOf(d));
+        _outputTail = NumberOutput.outputDouble(d, _outputBuffer, _outputTail);
     }
 
     @Override
     public void writeNumber(float f)
         throws IOException, JsonGenerationException
     {
+        _verifyValueWrite("write number");
+        if ((_outputTail + NumberOutput.MAX_FLOAT_CHARS + 2) >= _outputEnd) {
+            _flushBuffer();
+        }
         if (_cfgNumbersAsStrings ||
             // [JACKSON-139]
             (((Float.isNaN(f) || Float.isInfinite(f))
                 && isEnabled(Feature.QUOTE_NON_NUMERIC_NUMBERS)))) {
-            writeString(String.valueOf(f));
+            _outputBuffer[_outputTail++] = BYTE_QUOTE;
+            _outputTail = NumberOutput.outputFloat(f, _outputBuffer, _outputTail);
+            _outputBuffer[_outputTail++] = BYTE_QUOTE;
             return;
         }
-        // What is the max length for floats?
-        _verifyValueWrite("write number");
-        writeRaw(String.valueOf(f));
+        _outputTail = NumberOutput.outputFloat(f, _outputBuffer, _outputTail);
     }
 
     @Override
@@ -1098,7 +1176,48 @@ public class Utf8Generator
         throws IOException
     {
         super.close();
+        _closeOutput();
+        // Internal buffer(s) generator has can now be released as well
+        _releaseBuffers();
+        _ioContext.releaseBufferRecycler();
+    }
+
+    /**
+     * Method for reusing this generator instance for writing another
+     * document into given stream. Current document is completed the same
+     * way as by {@link #close} (including closing of the current target,
+     * if generator owns it or {@link Feature#AUTO_CLOSE_TARGET} is enabled),
+     * but buffers are retained for the new document.
+     *<p>
+     * Generator can be reset any number of times before it is closed;
+     * {@link #close} releases buffers as usual, after which generator
+     * can not be reset.
+     *
+     * @throws IllegalStateException If generator has already been closed
+     *
+     * @since 1.10
+     */
+    public void reset(OutputStream out) throws IOException
+    {
+        if (_closed) {
+            throw new IllegalStateException("Can not reset a closed generator");
+        }
+        _closeOutput();
+        _ioContext.resetSource(out, false);
+        _resetForReuse();
+        _outputStream = out;
+    }
 
+    /**
+     * Helper method called to complete current document: closes open
+     * scopes (if enabled), flushes buffered content, and closes or
+     * flushes the underlying target.
+     *
+     * @since 1.10
+     */
+    protected void _closeOutput()
+        throws IOException
+    {
         /* 05-Dec-2008, tatu: To add [JACKSON-27], need to close open
          *   scopes.
          */
@@ -1132,8 +1251,6 @@ public class Utf8Generator
                 _outputStream.flush();
             }
         }
-        // Internal buffer(s) generator has can now be released as well
-        _releaseBuffers();
     }
 
     @Override
@@ -1264,6 +1381,21 @@ public class Utf8Generator
         final byte[] outputBuffer = _outputBuffer;
         final int[] escCodes = _outputEscapes;
 
+        // Copy runs of plain ASCII four chars at a time, with a single check per quad
+        for (final int len4 = len-3; offset < len4; offset += 4, outputPtr += 4) {
+            int c0 = cbuf[offset];
+            int c1 = cbuf[offset+1];
+            int c2 = cbuf[offset+2];
+            int c3 = cbuf[offset+3];
+            if ((c0 | c1 | c2 | c3) > 0x7F
+                    || (escCodes[c0] | escCodes[c1] | escCodes[c2] | escCodes[c3]) != 0) {
+                break;
+            }
+            outputBuffer[outputPtr] = (byte) c0;
+            outputBuffer[outputPtr+1] = (byte) c1;
+            outputBuffer[outputPtr+2] = (byte) c2;
+            outputBuffer[outputPtr+3] = (byte) c3;
+        }
         while (offset < len) {
             int ch = cbuf[offset];
             // note: here we know that (ch > 0x7F) will cover case of escaping non-ASCII too:
@@ -1625,6 +1757,72 @@ public class Utf8Generator
         }
     }
 
+    /**
+     * Method for incremental encoding of binary content read from given
+     * stream, using given buffer for reading content.
+     *
+     * @param bytesLeft Number of bytes to read and encode; or -1 to read
+     *    until end of input
+     *
+     * @return Number of bytes read and encoded
+     *
+     * @since 1.10
+     */
+    protected int _writeBinary(Base64Variant b64variant, InputStream data, byte[] readBuffer, int bytesLeft)
+        throws IOException, JsonGenerationException
+    {
+        int inputPtr = 0;
+        int inputEnd = 0;
+        int bytesDone = 0;
+        // Let's also reserve room for possible (and quoted) lf char each round
+        int safeOutputEnd = _outputEnd - 6;
+        int chunksBeforeLF = b64variant.getMaxLineLength() >> 2;
+
+        while (true) {
+            // need to read more for a full triplet?
+            if ((inputEnd - inputPtr) < 3) {
+                int left = inputEnd - inputPtr;
+                inputEnd = _readMore(data, readBuffer, inputPtr, inputEnd, bytesLeft, 3);
+                inputPtr = 0;
+                if (bytesLeft > 0) {
+                    bytesLeft -= (inputEnd - left);
+                }
+                if (inputEnd < 3) { // end of input: 0, 1 or 2 leftover bytes
+                    break;
+                }
+            }
+            if (_outputTail > safeOutputEnd) { // need to flush
+                _flushBuffer();
+            }
+            // First, mash 3 bytes into lsb of 32-bit int
+            int b24 = ((int) readBuffer[inputPtr++]) << 8;
+            b24 |= ((int) readBuffer[inputPtr++]) & 0xFF;
+            b24 = (b24 << 8) | (((int) readBuffer[inputPtr++]) & 0xFF);
+            bytesDone += 3;
+            _outputTail = b64variant.encodeBase64Chunk(b24, _outputBuffer, _outputTail);
+            if (--chunksBeforeLF <= 0) {
+                // note: must quote in JSON value
+                _outputBuffer[_outputTail++] = '\\';
+                _outputBuffer[_outputTail++] = 'n';
+                chunksBeforeLF = b64variant.getMaxLineLength() >> 2;
+            }
+        }
+
+        // And then we may have 1 or 2 leftover bytes to encode
+        if (inputEnd > 0) {
+            if (_outputTail > safeOutputEnd) { // don't really need 6 bytes but...
+                _flushBuffer();
+            }
+            int b24 = ((int) readBuffer[0]) << 16;
+            if (inputEnd == 2) {
+                b24 |= (((int) readBuffer[1]) & 0xFF) << 8;
+            }
+            bytesDone += inputEnd;
+            _outputTail = b64variant.encodeBase64Partial(b24, inputEnd, _outputBuffer, _outputTail);
+        }
+        return bytesDone;
+    }
+
     /*
     /**********************************************************
     /* Internal methods, character escapes/encoding
@@ -4,6 +4,7 @@ import java.io.*;
 
 import org.codehaus.jackson.*;
 import org.codehaus.jackson.io.IOContext;
+import org.codehaus.jackson.io.JsonStringEncoder;
 import org.codehaus.jackson.sym.*;
 import org.codehaus.jackson.util.*;
 
@@ -94,6 +95,36 @@ public final class Utf8StreamParser
      * buffer.
      */
     protected boolean _bufferRecyclable;
+
+    /*
+    /**********************************************************
+    /* Raw value capture
+    /**********************************************************
+     */
+
+    /**
+     * Stream to which raw content of the current value is copied to
+     * during {@link #readRawValue(OutputStream)}, if any: content is
+     * copied from input buffer before it gets overwritten.
+     *
+     * @since 1.10
+     */
+    protected OutputStream _rawOutput;
+
+    /**
+     * Offset within {@link #_inputBuffer} of the first byte not yet
+     * copied to {@link #_rawOutput}.
+     *
+     * @since 1.10
+     */
+    protected int _rawStart;
+
+    /**
+     * Number of bytes copied to {@link #_rawOutput} so far
+     *
+     * @since 1.10
+     */
+    protected int _rawCount;
     
     /*
     /**********************************************************
@@ -131,6 +162,77 @@ public final class Utf8StreamParser
         _objectCodec = c;
     }
 
+    /*
+    /**********************************************************
+    /* Reset for reuse
+    /**********************************************************
+     */
+
+    /**
+     * Method for reusing this parser instance for parsing another
+     * document, read from given stream. Current input source is
+     * closed (if parser owns it, or {@link Feature#AUTO_CLOSE_SOURCE}
+     * is enabled), and parsing state is reset; buffers and symbol table
+     * are retained. Content must be UTF-8 encoded, without byte order mark.
+     *<p>
+     * Parser can be reset any number of times before it is closed;
+     * {@link #close} releases buffers as usual, after which parser
+     * can not be reset.
+     *
+     * @throws IllegalStateException If parser has already been closed
+     *
+     * @since 1.10
+     */
+    public void reset(InputStream in) throws IOException
+    {
+        _resetForReuse(in, false);
+        _resetState();
+        _inputStream = in;
+        // need a new buffer if we didn't own one, or if it was released at end-of-input
+        if (!_bufferRecyclable || _inputBuffer == null) {
+            _inputBuffer = _ioContext.allocReadIOBuffer();
+            _bufferRecyclable = true;
+        }
+    }
+
+    /**
+     * Method for reusing this parser instance for parsing another
+     * document, contained in given byte array; see {@link #reset(InputStream)}
+     * for details. Content is parsed directly from given array, which
+     * must not be modified until parsing is complete.
+     *
+     * @throws IllegalStateException If parser has already been closed
+     *
+     * @since 1.10
+     */
+    public void reset(byte[] data, int offset, int len) throws IOException
+    {
+        _resetForReuse(data, true);
+        _resetState();
+        _inputStream = null;
+        if (_bufferRecyclable) {
+            // can not keep the read buffer, since we don't use it for input
+            byte[] buf = _inputBuffer;
+            if (buf != null) {
+                _ioContext.releaseReadIOBuffer(buf);
+            }
+            _bufferRecyclable = false;
+        }
+        _inputBuffer = data;
+        _inputPtr = offset;
+        _inputEnd = offset + len;
+        // so that offsets and columns are relative to start of content:
+        _currInputProcessed = -offset;
+        _currInputRowStart = offset;
+    }
+
+    private final void _resetState()
+    {
+        _tokenIncomplete = false;
+        _rawOutput = null;
+        _rawCount = 0;
+    }
+
     /*
     /**********************************************************
     /* Former StreamBasedParserBase methods
@@ -165,6 +267,11 @@ public final class Utf8StreamParser
     protected final boolean loadMore()
         throws IOException
     {
+        // Need to copy raw value content before it gets overwritten?
+        if (_rawOutput != null) {
+            _copyRaw(_inputEnd);
+            _rawStart = 0;
+        }
         _currInputProcessed += _inputEnd;
         _currInputRowStart -= _inputEnd;
         
@@ -280,6 +387,20 @@ public final class Utf8StreamParser
         return _getText2(t);
     }
 
+    @Override
+    public int getText(Writer writer)
+        throws IOException, JsonParseException
+    {
+        if (_currToken == JsonToken.VALUE_STRING) {
+            if (_tokenIncomplete) {
+                _tokenIncomplete = false;
+                return _finishString(writer);
+            }
+            return _textBuffer.contentsToWriter(writer);
+        }
+        return super.getText(writer);
+    }
+
     protected final String _getText2(JsonToken t)
     {
         if (t == null) {
@@ -414,6 +535,33 @@ public final class Utf8StreamParser
         }
         return _binaryValue;
     }
+
+    /**
+     * Implementation decodes content incrementally if it has not yet been
+     * accessed, without buffering the whole value.
+     *
+     * @since 1.10
+     */
+    @Override
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out)
+        throws IOException, JsonParseException
+    {
+        // if we have already read the token, just use whatever we may have
+        if (!_tokenIncomplete || _currToken != JsonToken.VALUE_STRING) {
+            byte[] b = getBinaryValue(b64variant);
+            out.write(b);
+            return b.length;
+        }
+        // otherwise do "real" incremental parsing...
+        byte[] buf = _ioContext.allocBase64Buffer();
+        try {
+            return _readBinary(b64variant, out, buf);
+        } catch (IllegalArgumentException iae) {
+            throw _constructError("Failed to decode VALUE_STRING as base64 ("+b64variant+"): "+iae.getMessage());
+        } finally {
+            _ioContext.releaseBase64Buffer(buf);
+        }
+    }
     
     /*
     /**********************************************************
@@ -446,7 +594,7 @@ public final class Utf8StreamParser
             /* 19-Feb-2009, tatu: Should actually close/release things
              *    like input source, symbol table and recyclable buffers now.
              */
-            close();
+            _closeAtEOF();
             return (_currToken = null);
         }
 
@@ -627,7 +775,129 @@ public final class Utf8StreamParser
         // Merge found symbols, if any:
         _symbols.release();
     }
+
+    /**
+     * Implementation overridden to skip child content more efficiently
+     * than by iterating over tokens: only Object/Array boundary markers
+     * and String boundaries are tracked, and no content (Strings, field
+     * names, numbers) is decoded. As a consequence, skipped content is
+     * not fully validated; only matching of the outermost end marker
+     * is checked.
+     *<p>
+     * If features that allow comments or single-quoted Strings are
+     * enabled, regular token-by-token skipping is used instead.
+     *
+     * @since 1.10
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_OBJECT
+            && _currToken != JsonToken.START_ARRAY) {
+            return this;
+        }
+        if ((_features & FEAT_MASK_NO_FAST_SKIP) != 0) {
+            return super.skipChildren();
+        }
+        int open = 1;
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                if (!loadMore()) {
+                    _handleEOF();
+                    return this;
+                }
+            }
+            int ch = _inputBuffer[_inputPtr++];
+            switch (ch) {
+            case INT_QUOTE:
+                _skipStringFast();
+                break;
+            case INT_LBRACKET:
+            case INT_LCURLY:
+                ++open;
+                break;
+            case INT_RBRACKET:
+            case INT_RCURLY:
+                if (--open == 0) {
+                    _finishSkipChildren(ch);
+                    return this;
+                }
+                break;
+            case INT_LF:
+                _skipLF();
+                break;
+            case INT_CR:
+                _skipCR();
+                break;
+            }
+        }
+    }
     
+    /**
+     * Implementation copies bytes of the current value directly from
+     * the input buffer, for Object and Array values as well as String
+     * values whose contents have not yet been accessed. For other scalar
+     * values, textual representation is written instead; for numbers
+     * and boolean/null literals this is identical to the source,
+     * but for already decoded Strings escaping may differ.
+     *
+     * @since 1.10
+     */
+    @Override
+    public int readRawValue(OutputStream out)
+        throws IOException, JsonParseException
+    {
+        JsonToken t = _currToken;
+        if (t == null || t == JsonToken.FIELD_NAME
+                || t == JsonToken.END_OBJECT || t == JsonToken.END_ARRAY) {
+            _reportError("Current token ("+t+") not the first token of a value; can not read raw value");
+        }
+        if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY
+                || (t == JsonToken.VALUE_STRING && _tokenIncomplete)) {
+            // opening marker (or quote) was the last byte consumed
+            _rawOutput = out;
+            _rawStart = _inputPtr - 1;
+            _rawCount = 0;
+            try {
+                if (t == JsonToken.VALUE_STRING) {
+                    _skipString();
+                } else {
+                    skipChildren();
+                }
+                _copyRaw(_inputPtr);
+            } finally {
+                _rawOutput = null;
+            }
+            return _rawCount;
+        }
+        if (t == JsonToken.VALUE_STRING) {
+            byte[] quoted = JsonStringEncoder.getInstance().quoteAsUTF8(getText());
+            int len = quoted.length;
+            out.write('"');
+            out.write(quoted, 0, len);
+            out.write('"');
+            return len+2;
+        }
+        byte[] text = getText().getBytes("UTF-8");
+        out.write(text);
+        return text.length;
+    }
+
+    /**
+     * Helper method called to copy raw content of the current value
+     * from input buffer, up to given offset
+     *
+     * @since 1.10
+     */
+    private final void _copyRaw(int end) throws IOException
+    {
+        int count = end - _rawStart;
+        if (count > 0) {
+            _rawOutput.write(_inputBuffer, _rawStart, count);
+            _rawCount += count;
+        }
+    }
+
     /*
     /**********************************************************
     /* Public API, traversal, nextXxxValue/nextFieldName
@@ -650,7 +920,7 @@ public final class Utf8StreamParser
         }
         int i = _skipWSOrEnd();
         if (i < 0) { // end-of-input
-            close();
+            _closeAtEOF();
             _currToken = null;
             return false;
         }
@@ -725,12 +995,79 @@ public final class Utf8StreamParser
         return false;
     }
 
+    @Override
+    public int nextFieldName(FieldNameMatcher matcher)
+        throws IOException, JsonParseException
+    {
+        // // // Note: most of code below is copied from nextToken()
+
+        _numTypesValid = NR_UNKNOWN;
+        if (_currToken == JsonToken.FIELD_NAME) { // can't have name right after name
+            _nextAfterName();
+            return FieldNameMatcher.MATCH_ODD_TOKEN;
+        }
+        if (_tokenIncomplete) {
+            _skipString();
+        }
+        int i = _skipWSOrEnd();
+        if (i < 0) { // end-of-input
+            _closeAtEOF();
+            _currToken = null;
+            return FieldNameMatcher.MATCH_ODD_TOKEN;
+        }
+        _tokenInputTotal = _currInputProcessed + _inputPtr - 1;
+        _tokenInputRow = _currInputRow;
+        _tokenInputCol = _inputPtr - _currInputRowStart - 1;
+
+        // finally: clear any data retained so far
+        _binaryValue = null;
+
+        // Closing scope?
+        if (i == INT_RBRACKET) {
+            if (!_parsingContext.inArray()) {
+                _reportMismatchedEndMarker(i, '}');
+            }
+            _parsingContext = _parsingContext.getParent();
+            _currToken = JsonToken.END_ARRAY;
+            return FieldNameMatcher.MATCH_ODD_TOKEN;
+        }
+        if (i == INT_RCURLY) {
+            if (!_parsingContext.inObject()) {
+                _reportMismatchedEndMarker(i, ']');
+            }
+            _parsingContext = _parsingContext.getParent();
+            _currToken = JsonToken.END_OBJECT;
+            return FieldNameMatcher.MATCH_END_OBJECT;
+        }
+
+        // Nope: do we then expect a comma?
+        if (_parsingContext.expectComma()) {
+            if (i != INT_COMMA) {
+                _reportUnexpectedChar(i, "was expecting comma to separate "+_parsingContext.getTypeDesc()+" entries");
+            }
+            i = _skipWS();
+        }
+
+        if (!_parsingContext.inObject()) {
+            _nextTokenNotInObject(i);
+            return FieldNameMatcher.MATCH_ODD_TOKEN;
+        }
+
+        // // // This part differs: match canonical name, not String
+        Name n = _parseFieldName(i);
+        _parsingContext.setCurrentName(n.getName());
+        _currToken = JsonToken.FIELD_NAME;
+        _isNextTokenNameYes();
+        return matcher.matchName(n);
+    }
+
     private final void _isNextTokenNameYes()
         throws IOException, JsonParseException
     {
         // very first thing: common case, colon, value, no white space
         int i;
-        if (_inputPtr < _inputEnd && _inputBuffer[_inputPtr] == INT_COLON) { // fast case first
+        // (need room for both colon and the first value byte)
+        if ((_inputPtr + 1) < _inputEnd && _inputBuffer[_inputPtr] == INT_COLON) { // fast case first
             ++_inputPtr;
             i = _inputBuffer[_inputPtr++];
             if (i == INT_QUOTE) {
@@ -1888,6 +2225,20 @@ public final class Utf8StreamParser
 
         final int max = Math.min(_inputEnd, (ptr + outBuf.length));
         final byte[] inputBuffer = _inputBuffer;
+        // Skip runs of plain ASCII four bytes at a time, with a single check per quad
+        for (final int max4 = max-3; ptr < max4; ptr += 4, outPtr += 4) {
+            int c0 = (int) inputBuffer[ptr] & 0xFF;
+            int c1 = (int) inputBuffer[ptr+1] & 0xFF;
+            int c2 = (int) inputBuffer[ptr+2] & 0xFF;
+            int c3 = (int) inputBuffer[ptr+3] & 0xFF;
+            if ((codes[c0] | codes[c1] | codes[c2] | codes[c3]) != 0) {
+                break;
+            }
+            outBuf[outPtr] = (char) c0;
+            outBuf[outPtr+1] = (char) c1;
+            outBuf[outPtr+2] = (char) c2;
+            outBuf[outPtr+3] = (char) c3;
+        }
         while (ptr < max) {
             int c = (int) inputBuffer[ptr] & 0xFF;
             if (codes[c] != 0) {
@@ -1929,6 +2280,19 @@ public final class Utf8StreamParser
                     outPtr = 0;
                 }
                 final int max = Math.min(_inputEnd, (ptr + (outBuf.length - outPtr)));
+                for (final int max4 = max-3; ptr < max4; ptr += 4, outPtr += 4) {
+                    int c0 = (int) inputBuffer[ptr] & 0xFF;
+                    int c1 = (int) inputBuffer[ptr+1] & 0xFF;
+                    int c2 = (int) inputBuffer[ptr+2] & 0xFF;
+                    int c3 = (int) inputBuffer[ptr+3] & 0xFF;
+                    if ((codes[c0] | codes[c1] | codes[c2] | codes[c3]) != 0) {
+                        break;
+                    }
+                    outBuf[outPtr] = (char) c0;
+                    outBuf[outPtr+1] = (char) c1;
+                    outBuf[outPtr+2] = (char) c2;
+                    outBuf[outPtr+3] = (char) c3;
+                }
                 while (ptr < max) {
                     c = (int) inputBuffer[ptr++] & 0xFF;
                     if (codes[c] != 0) {
@@ -1989,6 +2353,102 @@ public final class Utf8StreamParser
         _textBuffer.setCurrentLength(outPtr);
     }
 
+    /**
+     * Method called to decode rest of unparsed String value directly into
+     * given Writer, using the current segment of the text buffer as
+     * the bounded intermediate buffer; decoded contents are not retained.
+     *
+     * @return Number of characters written
+     *
+     * @since 1.10
+     */
+    protected int _finishString(Writer writer)
+        throws IOException, JsonParseException
+    {
+        char[] outBuf = _textBuffer.emptyAndGetCurrentSegment();
+        int outPtr = 0;
+        int total = 0;
+        int c;
+
+        final int[] codes = sInputCodesUtf8;
+        final byte[] inputBuffer = _inputBuffer;
+
+        main_loop:
+        while (true) {
+            ascii_loop:
+            while (true) {
+                int ptr = _inputPtr;
+                if (ptr >= _inputEnd) {
+                    loadMoreGuaranteed();
+                    ptr = _inputPtr;
+                }
+                if (outPtr >= outBuf.length) {
+                    writer.write(outBuf, 0, outPtr);
+                    total += outPtr;
+                    outPtr = 0;
+                }
+                final int max = Math.min(_inputEnd, (ptr + (outBuf.length - outPtr)));
+                while (ptr < max) {
+                    c = (int) inputBuffer[ptr++] & 0xFF;
+                    if (codes[c] != 0) {
+                        _inputPtr = ptr;
+                        break ascii_loop;
+                    }
+                    outBuf[outPtr++] = (char) c;
+                }
+                _inputPtr = ptr;
+            }
+            if (c == INT_QUOTE) {
+                break main_loop;
+            }
+
+            switch (codes[c]) {
+            case 1: // backslash
+                c = _decodeEscaped();
+                break;
+            case 2: // 2-byte UTF
+                c = _decodeUtf8_2(c);
+                break;
+            case 3: // 3-byte UTF
+                if ((_inputEnd - _inputPtr) >= 2) {
+                    c = _decodeUtf8_3fast(c);
+                } else {
+                    c = _decodeUtf8_3(c);
+                }
+                break;
+            case 4: // 4-byte UTF
+                c = _decodeUtf8_4(c);
+                outBuf[outPtr++] = (char) (0xD800 | (c >> 10));
+                if (outPtr >= outBuf.length) {
+                    writer.write(outBuf, 0, outPtr);
+                    total += outPtr;
+                    outPtr = 0;
+                }
+                c = 0xDC00 | (c & 0x3FF);
+                break;
+            default:
+                if (c < INT_SPACE) {
+                    _throwUnquotedSpace(c, "string value");
+                } else {
+                    _reportInvalidChar(c);
+                }
+            }
+            if (outPtr >= outBuf.length) {
+                writer.write(outBuf, 0, outPtr);
+                total += outPtr;
+                outPtr = 0;
+            }
+            outBuf[outPtr++] = (char) c;
+        }
+        if (outPtr > 0) {
+            writer.write(outBuf, 0, outPtr);
+            total += outPtr;
+        }
+        // contents were not retained, so need to make sure they are not exposed
+        _textBuffer.resetWithEmpty();
+        return total;
+    }
+
     /**
      * Method called to skim through rest of unparsed String value,
      * if it is not needed. This can be done bit faster if contents
@@ -2359,6 +2819,7 @@ public final class Utf8StreamParser
                 switch (i) {
                 case INT_SPACE:
                 case INT_TAB:
+                    break;
                 case INT_CR:
                     _skipCR();
                     break;
@@ -2374,11 +2835,11 @@ public final class Utf8StreamParser
                     }
                     break space_loop;
                 }
+                if (_inputPtr >= _inputEnd) {
+                    loadMoreGuaranteed();
+                }
+                i = _inputBuffer[_inputPtr++] & 0xFF;
             }
-            if (_inputPtr >= _inputEnd) {
-                loadMoreGuaranteed();
-            }
-            i = _inputBuffer[_inputPtr++] & 0xFF;
             if (i != INT_COLON) {
                 _reportUnexpectedChar(i, "was expecting a colon to separate field name and value");
             }
@@ -2766,6 +3227,38 @@ public final class Utf8StreamParser
         }
     }
 
+    /**
+     * Method for skipping contents of a String value when skipping
+     * child content: only looks for closing quote, skipping escaped
+     * characters; does not decode or validate contents.
+     *
+     * @since 1.10
+     */
+    private final void _skipStringFast() throws IOException, JsonParseException
+    {
+        while (true) {
+            final byte[] buf = _inputBuffer;
+            int ptr = _inputPtr;
+            final int end = _inputEnd;
+            while (ptr < end) {
+                int c = buf[ptr++];
+                if (c == INT_QUOTE) {
+                    _inputPtr = ptr;
+                    return;
+                }
+                if (c == INT_BACKSLASH) { // escaped char may be in the next buffer
+                    ++ptr;
+                }
+            }
+            int skip = ptr - end;
+            _inputPtr = end;
+            if (!loadMore()) {
+                _reportInvalidEOF(": was expecting closing quote for a string value");
+            }
+            _inputPtr += skip;
+        }
+    }
+
     /*
     /**********************************************************
     /* Internal methods, input loading
@@ -2966,4 +3459,137 @@ public final class Utf8StreamParser
             builder.appendThreeBytes(decodedData);
         }
     }
+
+    /**
+     * Method for incremental decoding of base64-encoded textual content
+     * into given output stream, using given buffer for temporarily
+     * holding decoded data.
+     *
+     * @since 1.10
+     */
+    protected int _readBinary(Base64Variant b64variant, OutputStream out, byte[] buffer)
+        throws IOException, JsonParseException
+    {
+        int outputPtr = 0;
+        final int outputEnd = buffer.length - 3;
+        int outputCount = 0;
+
+        //main_loop:
+        while (true) {
+            // first, we'll skip preceding white space, if any
+            int ch;
+            do {
+                if (_inputPtr >= _inputEnd) {
+                    loadMoreGuaranteed();
+                }
+                ch = (int) _inputBuffer[_inputPtr++] & 0xFF;
+            } while (ch <= INT_SPACE);
+            int bits = b64variant.decodeBase64Char(ch);
+            if (bits < 0) { // reached the end, fair and square?
+                if (ch == INT_QUOTE) {
+                    break;
+                }
+                bits = _decodeBase64Escape(b64variant, ch, 0);
+                if (bits < 0) { // white space to skip
+                    continue;
+                }
+            }
+            // enough room? If not, flush
+            if (outputPtr > outputEnd) {
+                outputCount += outputPtr;
+                out.write(buffer, 0, outputPtr);
+                outputPtr = 0;
+            }
+            int decodedData = bits;
+            
+            // then second base64 char; can't get padding yet, nor ws
+            
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            ch = _inputBuffer[_inputPtr++] & 0xFF;
+            bits = b64variant.decodeBase64Char(ch);
+            if (bits < 0) {
+                bits = _decodeBase64Escape(b64variant, ch, 1);
+            }
+            decodedData = (decodedData << 6) | bits;
+            
+            // third base64 char; can be padding, but not ws
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            ch = _inputBuffer[_inputPtr++] & 0xFF;
+            bits = b64variant.decodeBase64Char(ch);
+
+            // First branch: can get padding (-> 1 byte)
+            if (bits < 0) {
+                if (bits != Base64Variant.BASE64_VALUE_PADDING) {
+                    // as per [JACKSON-631], could also just be 'missing'  padding
+                    if (ch == '"' && !b64variant.usesPadding()) {
+                        decodedData >>= 4;
+                        buffer[outputPtr++] = (byte) decodedData;
+                        break;
+                    }
+                    bits = _decodeBase64Escape(b64variant, ch, 2);
+                }
+                if (bits == Base64Variant.BASE64_VALUE_PADDING) {
+                    // Ok, must get padding
+                    if (_inputPtr >= _inputEnd) {
+                        loadMoreGuaranteed();
+                    }
+                    ch = _inputBuffer[_inputPtr++] & 0xFF;
+                    if (!b64variant.usesPaddingChar(ch)) {
+                        throw reportInvalidBase64Char(b64variant, ch, 3, "expected padding character '"+b64variant.getPaddingChar()+"'");
+                    }
+                    // Got 12 bits, only need 8, need to shift
+                    decodedData >>= 4;
+                    buffer[outputPtr++] = (byte) decodedData;
+                    continue;
+                }
+            }
+            // Nope, 2 or 3 bytes
+            decodedData = (decodedData << 6) | bits;
+            // fourth and last base64 char; can be padding, but not ws
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            ch = _inputBuffer[_inputPtr++] & 0xFF;
+            bits = b64variant.decodeBase64Char(ch);
+            if (bits < 0) {
+                if (bits != Base64Variant.BASE64_VALUE_PADDING) {
+                    // as per [JACKSON-631], could also just be 'missing'  padding
+                    if (ch == '"' && !b64variant.usesPadding()) {
+                        decodedData >>= 2;
+                        buffer[outputPtr++] = (byte) (decodedData >> 8);
+                        buffer[outputPtr++] = (byte) decodedData;
+                        break;
+                    }
+                    bits = _decodeBase64Escape(b64variant, ch, 3);
+                }
+                if (bits == Base64Variant.BASE64_VALUE_PADDING) {
+                    /* With padding we only get 2 bytes; but we have
+                     * to shift it a bit so it is identical to triplet
+                     * case with partial output.
+                     * 3 chars gives 3x6 == 18 bits, of which 2 are
+                     * dummies, need to discard:
+                     */
+                    decodedData >>= 2;
+                    buffer[outputPtr++] = (byte) (decodedData >> 8);
+                    buffer[outputPtr++] = (byte) decodedData;
+                    continue;
+                }
+            }
+            // otherwise, our triplet is now complete
+            decodedData = (decodedData << 6) | bits;
+            buffer[outputPtr++] = (byte) (decodedData >> 16);
+            buffer[outputPtr++] = (byte) (decodedData >> 8);
+            buffer[outputPtr++] = (byte) decodedData;
+        }
+        _tokenIncomplete = false;
+        if (outputPtr > 0) {
+            outputCount += outputPtr;
+            out.write(buffer, 0, outputPtr);
+        }
+        return outputCount;
+    }
 }
@@ -33,7 +33,7 @@ public final class WriterBasedGenerator
 
     final protected IOContext _ioContext;
 
-    final protected Writer _writer;
+    protected Writer _writer;
     
     /*
     /**********************************************************
@@ -453,6 +453,39 @@ public final class WriterBasedGenerator
         _outputBuffer[_outputTail++] = '"';
     }
 
+    @Override
+    public void writeString(Reader reader, int len)
+        throws IOException, JsonGenerationException
+    {
+        _verifyValueWrite("write text value");
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = '"';
+        // read and write in chunks, using a recycled buffer
+        char[] buf = _ioContext.allocTokenBuffer();
+        int left = (len >= 0) ? len : Integer.MAX_VALUE;
+        try {
+            while (left > 0) {
+                int count = reader.read(buf, 0, Math.min(left, buf.length));
+                if (count <= 0) {
+                    break;
+                }
+                _writeString(buf, 0, count);
+                left -= count;
+            }
+        } finally {
+            _ioContext.releaseTokenBuffer(buf);
+        }
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = '"';
+        if (len > 0 && left > 0) {
+            _reportError("Too few characters available: missing "+left+" characters (out of "+len+")");
+        }
+    }
+
     @Override
     public void writeString(char[] text, int offset, int len)
         throws IOException, JsonGenerationException
@@ -643,6 +676,34 @@ public final class WriterBasedGenerator
         _outputBuffer[_outputTail++] = '"';
     }
 
+    @Override
+    public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength)
+        throws IOException, JsonGenerationException
+    {
+        _verifyValueWrite("write binary value");
+        // Starting quotes
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = '"';
+        byte[] encodingBuffer = _ioContext.allocBase64Buffer();
+        int bytes;
+        try {
+            bytes = _writeBinary(b64variant, data, encodingBuffer, dataLength);
+        } finally {
+            _ioContext.releaseBase64Buffer(encodingBuffer);
+        }
+        if (dataLength > 0 && bytes < dataLength) {
+            _reportError("Too few bytes available: missing "+(dataLength - bytes)+" bytes (out of "+dataLength+")");
+        }
+        // and closing quotes
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = '"';
+        return bytes;
+    }
+
     /*
     /**********************************************************
     /* Output method implementations, primitive
@@ -720,32 +781,40 @@ public final class WriterBasedGenerator
     public void writeNumber(double d)
         throws IOException, JsonGenerationException
     {
+        _verifyValueWrite("write number");
+        if ((_outputTail + NumberOutput.MAX_DOUBLE_CHARS + 2) >= _outputEnd) {
+            _flushBuffer();
+        }
         if (_cfgNumbersAsStrings ||
             // [JACKSON-139]
             (((Double.isNaN(d) || Double.isInfinite(d))
                 && isEnabled(Feature.QUOTE_NON_NUMERIC_NUMBERS)))) {
-            writeString(String.valueOf(d));
+            _outputBuffer[_outputTail++] = '"';
+            _outputTail = NumberOutput.outputDouble(d, _outputBuffer, _outputTail);
+            _outputBuffer[_outputTail++] = '"';
             return;
         }
-        // What is the max length for doubles? 40 chars?
-        _verifyValueWrite("write number");
-        writeRaw(String.valueOf(d));
+        _outputTail = NumberOutput.outputDouble(d, _outputBuffer, _outputTail);
     }
 
     @Override
     public void writeNumber(float f)
         throws IOException, JsonGenerationException
     {
+        _verifyValueWrite("write number");
+        if ((_outputTail + NumberOutput.MAX_FLOAT_CHARS + 2) >= _outputEnd) {
+            _flushBuffer();
+        }
         if (_cfgNumbersAsStrings ||
             // [JACKSON-139]
             (((Float.isNaN(f) || Float.isInfinite(f))
                 && isEnabled(Feature.QUOTE_NON_NUMERIC_NUMBERS)))) {
-            writeString(String.valueOf(f));
+            _outputBuffer[_outputTail++] = '"';
+            _outputTail = NumberOutput.outputFloat(f, _outputBuffer, _outputTail);
+            _outputBuffer[_outputTail++] = '"';
             return;
         }
-        // What is the max length for floats?
-        _verifyValueWrite("write number");
-        writeRaw(String.valueOf(f));
+        _outputTail = NumberOutput.outputFloat(f, _outputBuffer, _outputTail);
     }
 
     @Override
@@ -913,7 +982,48 @@ public final class WriterBasedGenerator
         throws IOException
     {
         super.close();
+        _closeOutput();
+        // Internal buffer(s) generator has can now be released as well
+        _releaseBuffers();
+        _ioContext.releaseBufferRecycler();
+    }
 
+    /**
+     * Method for reusing this generator instance for writing another
+     * document into given Writer. Current document is completed the same
+     * way as by {@link #close} (including closing of the current target,
+     * if generator owns it or {@link Feature#AUTO_CLOSE_TARGET} is enabled),
+     * but buffers are retained for the new document.
+     *<p>
+     * Generator can be reset any number of times before it is closed;
+     * {@link #close} releases buffers as usual, after which generator
+     * can not be reset.
+     *
+     * @throws IllegalStateException If generator has already been closed
+     *
+     * @since 1.10
+     */
+    public void reset(Writer w) throws IOException
+    {
+        if (_closed) {
+            throw new IllegalStateException("Can not reset a closed generator");
+        }
+        _closeOutput();
+        _ioContext.resetSource(w, false);
+        _resetForReuse();
+        _writer = w;
+    }
+
+    /**
+     * Helper method called to complete current document: closes open
+     * scopes (if enabled), flushes buffered content, and closes or
+     * flushes the underlying target.
+     *
+     * @since 1.10
+     */
+    protected void _closeOutput()
+        throws IOException
+    {
         /* 05-Dec-2008, tatu: To add [JACKSON-27], need to close open
          *   scopes.
          */
@@ -947,8 +1057,6 @@ public final class WriterBasedGenerator
                 _writer.flush();
             }
         }
-        // Internal buffer(s) generator has can now be released as well
-        _releaseBuffers();
     }
 
     @Override
@@ -1531,6 +1639,72 @@ public final class WriterBasedGenerator
         }
     }
 
+    /**
+     * Method for incremental encoding of binary content read from given
+     * stream, using given buffer for reading content.
+     *
+     * @param bytesLeft Number of bytes to read and encode; or -1 to read
+     *    until end of input
+     *
+     * @return Number of bytes read and encoded
+     *
+     * @since 1.10
+     */
+    protected int _writeBinary(Base64Variant b64variant, InputStream data, byte[] readBuffer, int bytesLeft)
+        throws IOException, JsonGenerationException
+    {
+        int inputPtr = 0;
+        int inputEnd = 0;
+        int bytesDone = 0;
+        // Let's also reserve room for possible (and quoted) lf char each round
+        int safeOutputEnd = _outputEnd - 6;
+        int chunksBeforeLF = b64variant.getMaxLineLength() >> 2;
+
+        while (true) {
+            // need to read more for a full triplet?
+            if ((inputEnd - inputPtr) < 3) {
+                int left = inputEnd - inputPtr;
+                inputEnd = _readMore(data, readBuffer, inputPtr, inputEnd, bytesLeft, 3);
+                inputPtr = 0;
+                if (bytesLeft > 0) {
+                    bytesLeft -= (inputEnd - left);
+                }
+                if (inputEnd < 3) { // end of input: 0, 1 or 2 leftover bytes
+                    break;
+                }
+            }
+            if (_outputTail > safeOutputEnd) { // need to flush
+                _flushBuffer();
+            }
+            // First, mash 3 bytes into lsb of 32-bit int
+            int b24 = ((int) readBuffer[inputPtr++]) << 8;
+            b24 |= ((int) readBuffer[inputPtr++]) & 0xFF;
+            b24 = (b24 << 8) | (((int) readBuffer[inputPtr++]) & 0xFF);
+            bytesDone += 3;
+            _outputTail = b64variant.encodeBase64Chunk(b24, _outputBuffer, _outputTail);
+            if (--chunksBeforeLF <= 0) {
+                // note: must quote in JSON value
+                _outputBuffer[_outputTail++] = '\\';
+                _outputBuffer[_outputTail++] = 'n';
+                chunksBeforeLF = b64variant.getMaxLineLength() >> 2;
+            }
+        }
+
+        // And then we may have 1 or 2 leftover bytes to encode
+        if (inputEnd > 0) {
+            if (_outputTail > safeOutputEnd) { // don't really need 6 bytes but...
+                _flushBuffer();
+            }
+            int b24 = ((int) readBuffer[0]) << 16;
+            if (inputEnd == 2) {
+                b24 |= (((int) readBuffer[1]) & 0xFF) << 8;
+            }
+            bytesDone += inputEnd;
+            _outputTail = b64variant.encodeBase64Partial(b24, inputEnd, _outputBuffer, _outputTail);
+        }
+        return bytesDone;
+    }
+
     /*
     /**********************************************************
     /* Internal methods, low-level writing, other
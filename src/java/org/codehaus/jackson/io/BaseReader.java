@@ -30,6 +30,15 @@ abstract class BaseReader
     protected int _ptr;
     protected int _length;
 
+    /**
+     * Flag that indicates whether input buffer was allocated from
+     * {@link IOContext} and can be recycled; not true when reading
+     * from a caller-provided byte array (in which case there is no stream).
+     *
+     * @since 1.10
+     */
+    protected final boolean _bufferRecyclable;
+
     /*
     /**********************************************************
     /* Life-cycle
@@ -44,6 +53,7 @@ abstract class BaseReader
         _buffer = buf;
         _ptr = ptr;
         _length = len;
+        _bufferRecyclable = (in != null);
     }
 
     /*
@@ -99,7 +109,9 @@ abstract class BaseReader
         byte[] buf = _buffer;
         if (buf != null) {
             _buffer = null;
-            _context.releaseReadIOBuffer(buf);
+            if (_bufferRecyclable) {
+                _context.releaseReadIOBuffer(buf);
+            }
         }
     }
 
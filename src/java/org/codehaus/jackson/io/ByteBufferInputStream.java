@@ -0,0 +1,117 @@
+package org.codehaus.jackson.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Simple {@link InputStream} implementation that exposes contents of a
+ * {@link ByteBuffer} (heap or direct); used for feeding buffers that
+ * do not expose a backing byte array (direct and memory-mapped buffers)
+ * to stream-based parsers. Reads are done using bulk get operations,
+ * so there are no system calls involved.
+ *<p>
+ * Sub-classes may override {@link #nextBuffer} to chain multiple buffers.
+ *
+ * @since 1.10
+ */
+public class ByteBufferInputStream
+    extends InputStream
+{
+    protected ByteBuffer _buffer;
+
+    /**
+     * @param buffer Buffer to read contents from; contents between
+     *   its current position and limit are exposed, and position
+     *   will be advanced as content is read
+     */
+    public ByteBufferInputStream(ByteBuffer buffer)
+    {
+        _buffer = buffer;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        ByteBuffer buf = _buffer;
+        return (buf == null) ? 0 : buf.remaining();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        _buffer = null;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        ByteBuffer buf = _buffer;
+        if (buf == null || !buf.hasRemaining()) {
+            if (!nextBuffer()) {
+                return -1;
+            }
+            buf = _buffer;
+        }
+        return buf.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len <= 0) {
+            return 0;
+        }
+        ByteBuffer buf = _buffer;
+        if (buf == null || !buf.hasRemaining()) {
+            if (!nextBuffer()) {
+                return -1;
+            }
+            buf = _buffer;
+        }
+        int avail = buf.remaining();
+        if (len > avail) {
+            len = avail;
+        }
+        buf.get(b, off, len);
+        return len;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        long count = 0L;
+        while (n > 0L) {
+            ByteBuffer buf = _buffer;
+            if (buf == null || !buf.hasRemaining()) {
+                if (!nextBuffer()) {
+                    break;
+                }
+                buf = _buffer;
+            }
+            int amount = (int) Math.min(n, (long) buf.remaining());
+            buf.position(buf.position() + amount);
+            count += amount;
+            n -= amount;
+        }
+        return count;
+    }
+
+    /**
+     * Method called when the current buffer has been fully read, to
+     * check whether there is more content to read. Default implementation
+     * simply returns false, to indicate end of content.
+     *
+     * @return True if {@link #_buffer} was replaced with one that has
+     *   more content; false if there is no more content
+     */
+    protected boolean nextBuffer() throws IOException
+    {
+        return false;
+    }
+}
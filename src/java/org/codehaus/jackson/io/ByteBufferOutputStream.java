@@ -0,0 +1,97 @@
+package org.codehaus.jackson.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link OutputStream} implementation that writes content into a
+ * {@link ByteBuffer} (heap or direct), starting from its current
+ * position. If buffer runs out of room, it is replaced with a bigger
+ * buffer of the same kind (direct buffer is replaced with a direct
+ * buffer), so caller must access the buffer that contains output
+ * using {@link #getBuffer} once writing is complete.
+ *<p>
+ * Can be used with any generator factory method that accepts an
+ * {@link OutputStream}. Note that content is still copied into the
+ * buffer from the output buffer of the generator.
+ *
+ * @since 1.10
+ */
+public class ByteBufferOutputStream
+    extends OutputStream
+{
+    /**
+     * Let's limit growth to 256k at a time, to avoid overallocation
+     * with big documents
+     */
+    final static int MAX_INCREMENT = 256 * 1024;
+
+    protected ByteBuffer _buffer;
+
+    /**
+     * @param buffer Buffer to write content to, starting from its
+     *   current position
+     */
+    public ByteBufferOutputStream(ByteBuffer buffer)
+    {
+        _buffer = buffer;
+    }
+
+    /**
+     * @param initialSize Initial capacity of buffer to allocate
+     * @param direct Whether to allocate direct buffers (true) or
+     *   heap buffers (false)
+     */
+    public ByteBufferOutputStream(int initialSize, boolean direct)
+    {
+        this(direct ? ByteBuffer.allocateDirect(initialSize) : ByteBuffer.allocate(initialSize));
+    }
+
+    /**
+     * Accessor for getting the buffer that contains content written
+     * so far (between its start and current position); may be different
+     * from the buffer stream was constructed with, if it had to be expanded.
+     */
+    public ByteBuffer getBuffer() { return _buffer; }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (!_buffer.hasRemaining()) {
+            _expand(1);
+        }
+        _buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException
+    {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        if (_buffer.remaining() < len) {
+            _expand(len);
+        }
+        _buffer.put(b, off, len);
+    }
+
+    private final void _expand(int needed)
+    {
+        ByteBuffer old = _buffer;
+        int oldCapacity = old.capacity();
+        int newCapacity = oldCapacity + Math.max(16, Math.min(oldCapacity, MAX_INCREMENT));
+        int minCapacity = old.position() + needed;
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+        ByteBuffer buf = old.isDirect() ? ByteBuffer.allocateDirect(newCapacity)
+                : ByteBuffer.allocate(newCapacity);
+        buf.order(old.order());
+        old.flip();
+        buf.put(old);
+        _buffer = buf;
+    }
+}
@@ -0,0 +1,74 @@
+package org.codehaus.jackson.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Simple {@link OutputStream} implementation that writes content to a
+ * {@link WritableByteChannel}: byte arrays passed are wrapped (not copied)
+ * as {@link ByteBuffer}s and written to the channel as is. Since
+ * generators only write full (or final) contents of their output buffers,
+ * this results in one channel write per buffer flush.
+ *<p>
+ * Channel must be in blocking mode: non-blocking
+ * {@link SelectableChannel}s are not accepted, and a write that makes
+ * no progress (as may happen with other non-blocking channels) is
+ * reported as an {@link IOException}, instead of retrying it.
+ *
+ * @since 1.10
+ */
+public class ChannelOutputStream
+    extends OutputStream
+{
+    protected final WritableByteChannel _channel;
+
+    /**
+     * @param channel Channel to write content to; must be in blocking mode
+     *
+     * @throws IllegalArgumentException If channel is a non-blocking
+     *   {@link SelectableChannel}
+     */
+    public ChannelOutputStream(WritableByteChannel channel)
+    {
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Can not write to a non-blocking channel ("
+                    +channel.getClass().getName()+")");
+        }
+        _channel = channel;
+    }
+
+    public WritableByteChannel getChannel() { return _channel; }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException
+    {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+        while (buf.hasRemaining()) {
+            // blocking channels write at least one byte; otherwise we would just spin
+            if (_channel.write(buf) == 0) {
+                throw new IOException("Channel ("+_channel.getClass().getName()
+                        +") accepted no content, with "+buf.remaining()+" bytes left to write: non-blocking channels are not supported");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        _channel.close();
+    }
+}
@@ -2,6 +2,7 @@ package org.codehaus.jackson.io;
 
 import org.codehaus.jackson.JsonEncoding;
 import org.codehaus.jackson.util.BufferRecycler;
+import org.codehaus.jackson.util.BufferRecyclerPool;
 import org.codehaus.jackson.util.TextBuffer;
 
 /**
@@ -12,6 +13,17 @@ import org.codehaus.jackson.util.TextBuffer;
  */
 public final class IOContext
 {
+    /**
+     * Maximum length of token buffer that is returned to the recycler
+     * when released: longer buffers are only allocated to hold all of
+     * the content of big documents (see {@link #allocTokenBuffer(int)}),
+     * and retaining them would keep that much memory reserved for
+     * each thread.
+     *
+     * @since 1.10
+     */
+    public final static int MAX_RECYCLED_TOKEN_BUFFER_LEN = 16000;
+
     /*
     /**********************************************************
     /* Configuration
@@ -22,7 +34,7 @@ public final class IOContext
      * Reference to the source object, which can be used for displaying
      * location information
      */
-    protected final Object _sourceRef;
+    protected Object _sourceRef;
 
     /**
      * Encoding used by the underlying stream, if known.
@@ -37,7 +49,7 @@ public final class IOContext
      * feature is enabled for the parser/generator in question; in which
      * case it acts like the owner).
      */
-    protected final boolean _managedResource;
+    protected boolean _managedResource;
 
     /*
     /**********************************************************
@@ -48,7 +60,24 @@ public final class IOContext
     /**
      * Recycler used for actual allocation/deallocation/reuse
      */
-    protected final BufferRecycler _bufferRecycler;
+    protected BufferRecycler _bufferRecycler;
+
+    /**
+     * Pool from which {@link #_bufferRecycler} was acquired, and to which
+     * it is to be released once owner of this context is closed;
+     * null if recycler was not acquired from a pool.
+     *
+     * @since 1.10
+     */
+    protected final BufferRecyclerPool _bufferRecyclerPool;
+
+    /**
+     * Flag set once owner has released {@link #_bufferRecycler} (back
+     * to the pool, if any), to guard against releasing it more than once.
+     *
+     * @since 1.10
+     */
+    protected boolean _bufferRecyclerReleased;
 
     /**
      * Reference to the allocated I/O buffer for low-level input reading,
@@ -61,6 +90,14 @@ public final class IOContext
      * encoding-related buffering.
      */
     protected byte[] _writeEncodingBuffer = null;
+
+    /**
+     * Reference to the buffer used for streaming base64 encoding
+     * and decoding, if any allocated.
+     *
+     * @since 1.10
+     */
+    protected byte[] _base64Buffer = null;
     
     /**
      * Reference to the buffer allocated for tokenization purposes,
@@ -91,8 +128,21 @@ public final class IOContext
      */
 
     public IOContext(BufferRecycler br, Object sourceRef, boolean managedResource)
+    {
+        this(br, null, sourceRef, managedResource);
+    }
+
+    /**
+     * @param pool Pool from which recycler was acquired, if any; if not null,
+     *   recycler is released to it by {@link #releaseBufferRecycler}
+     *
+     * @since 1.10
+     */
+    public IOContext(BufferRecycler br, BufferRecyclerPool pool,
+            Object sourceRef, boolean managedResource)
     {
         _bufferRecycler = br;
+        _bufferRecyclerPool = pool;
         _sourceRef = sourceRef;
         _managedResource = managedResource;
     }
@@ -102,6 +152,20 @@ public final class IOContext
         _encoding = enc;
     }
 
+    /**
+     * Method called by owner (parser, generator) of this context when it
+     * is being reset to read from a new source (or write to a new target),
+     * to update information about it. Buffers allocated via this context
+     * are not affected.
+     *
+     * @since 1.10
+     */
+    public void resetSource(Object sourceRef, boolean managedResource)
+    {
+        _sourceRef = sourceRef;
+        _managedResource = managedResource;
+    }
+
     /*
     /**********************************************************
     /* Public API, accessors
@@ -111,6 +175,14 @@ public final class IOContext
     public final Object getSourceReference() { return _sourceRef; }
     public final JsonEncoding getEncoding() { return _encoding; }
     public final boolean isResourceManaged() { return _managedResource; }
+
+    /**
+     * @return True if owner of this context has released buffer recycler
+     *   (see {@link #releaseBufferRecycler}), and can no longer use it
+     *
+     * @since 1.10
+     */
+    public final boolean isBufferRecyclerReleased() { return _bufferRecyclerReleased; }
     
     /*
     /**********************************************************
@@ -118,6 +190,71 @@ public final class IOContext
     /**********************************************************
      */
 
+    /**
+     * Method called by the owner (parser, generator) of this context when
+     * it is closed (or has reached end of input), to release the buffer
+     * recycler back to the pool it came from (if any); recycler is
+     * released at most once.
+     * Buffers allocated via this context that are released after this
+     * call are not returned to the recycler if it is shared between
+     * threads.
+     *
+     * @since 1.10
+     */
+    public final void releaseBufferRecycler()
+    {
+        if (!_bufferRecyclerReleased) {
+            _bufferRecyclerReleased = true;
+            BufferRecyclerPool pool = _bufferRecyclerPool;
+            if (pool != null) {
+                pool.releaseBufferRecycler(_bufferRecycler);
+            }
+        }
+    }
+
+    /**
+     * Method called by the owner of this context when it is reset for
+     * reuse after having released buffer recycler (see
+     * {@link #releaseBufferRecycler}), to acquire a recycler from the pool
+     * again. Helper objects that refer to the recycler (like
+     * {@link TextBuffer}s) need to be reconstructed if this method
+     * returns true.
+     *
+     * @return True if a different recycler is now used; false if
+     *   the same recycler is used as before (or if it was not released)
+     *
+     * @since 1.10
+     */
+    public final boolean reacquireBufferRecycler()
+    {
+        if (!_bufferRecyclerReleased) {
+            return false;
+        }
+        _bufferRecyclerReleased = false;
+        BufferRecyclerPool pool = _bufferRecyclerPool;
+        if (pool == null) {
+            return false;
+        }
+        BufferRecycler br = pool.acquireBufferRecycler();
+        if (br == _bufferRecycler) {
+            return false;
+        }
+        _bufferRecycler = br;
+        return true;
+    }
+
+    /**
+     * Accessor that owners can use to check whether they may keep their
+     * own helper objects in per-thread storage: this is the case unless
+     * recycler was acquired from a pool that shares recyclers between
+     * threads.
+     *
+     * @since 1.10
+     */
+    public final boolean isBufferRecyclerThreadLocal() {
+        return (_bufferRecyclerPool == null) || _bufferRecyclerPool.isThreadLocal();
+    }
+
     public final TextBuffer constructTextBuffer() {
         return new TextBuffer(_bufferRecycler);
     }
@@ -145,6 +282,18 @@ public final class IOContext
         return _writeEncodingBuffer;
     }
     
+    /**
+     * @since 1.10
+     */
+    public final byte[] allocBase64Buffer()
+    {
+        if (_base64Buffer != null) {
+            throw new IllegalStateException("Trying to call allocBase64Buffer() second time");
+        }
+        _base64Buffer = _bufferRecycler.allocByteBuffer(BufferRecycler.ByteBufferType.BASE64_CODEC_BUFFER);
+        return _base64Buffer;
+    }
+    
     public final char[] allocTokenBuffer()
     {
         if (_tokenCBuffer != null) {
@@ -154,6 +303,23 @@ public final class IOContext
         return _tokenCBuffer;
     }
 
+    /**
+     * Variant of {@link #allocTokenBuffer()} used when caller needs a
+     * buffer of at least specified size (for example, to hold all of
+     * the content to parse). Note that buffers longer than
+     * {@link #MAX_RECYCLED_TOKEN_BUFFER_LEN} are not recycled when released.
+     *
+     * @since 1.10
+     */
+    public final char[] allocTokenBuffer(int minSize)
+    {
+        if (_tokenCBuffer != null) {
+            throw new IllegalStateException("Trying to call allocTokenBuffer() second time");
+        }
+        _tokenCBuffer = _bufferRecycler.allocCharBuffer(BufferRecycler.CharBufferType.TOKEN_BUFFER, minSize);
+        return _tokenCBuffer;
+    }
+
     public final char[] allocConcatBuffer()
     {
         if (_concatCBuffer != null) {
@@ -186,7 +352,9 @@ public final class IOContext
                 throw new IllegalArgumentException("Trying to release buffer not owned by the context");
             }
             _readIOBuffer = null;
-            _bufferRecycler.releaseByteBuffer(BufferRecycler.ByteBufferType.READ_IO_BUFFER, buf);
+            if (_mayRecycle()) {
+                _bufferRecycler.releaseByteBuffer(BufferRecycler.ByteBufferType.READ_IO_BUFFER, buf);
+            }
         }
     }
 
@@ -200,7 +368,25 @@ public final class IOContext
                 throw new IllegalArgumentException("Trying to release buffer not owned by the context");
             }
             _writeEncodingBuffer = null;
-            _bufferRecycler.releaseByteBuffer(BufferRecycler.ByteBufferType.WRITE_ENCODING_BUFFER, buf);
+            if (_mayRecycle()) {
+                _bufferRecycler.releaseByteBuffer(BufferRecycler.ByteBufferType.WRITE_ENCODING_BUFFER, buf);
+            }
+        }
+    }
+    
+    /**
+     * @since 1.10
+     */
+    public final void releaseBase64Buffer(byte[] buf)
+    {
+        if (buf != null) {
+            if (buf != _base64Buffer) {
+                throw new IllegalArgumentException("Trying to release buffer not owned by the context");
+            }
+            _base64Buffer = null;
+            if (_mayRecycle()) {
+                _bufferRecycler.releaseByteBuffer(BufferRecycler.ByteBufferType.BASE64_CODEC_BUFFER, buf);
+            }
         }
     }
     
@@ -211,7 +397,10 @@ public final class IOContext
                 throw new IllegalArgumentException("Trying to release buffer not owned by the context");
             }
             _tokenCBuffer = null;
-            _bufferRecycler.releaseCharBuffer(BufferRecycler.CharBufferType.TOKEN_BUFFER, buf);
+            // buffers enlarged to hold all of a big document are not retained
+            if (_mayRecycle() && buf.length <= MAX_RECYCLED_TOKEN_BUFFER_LEN) {
+                _bufferRecycler.releaseCharBuffer(BufferRecycler.CharBufferType.TOKEN_BUFFER, buf);
+            }
         }
     }
 
@@ -222,7 +411,9 @@ public final class IOContext
                 throw new IllegalArgumentException("Trying to release buffer not owned by the context");
             }
             _concatCBuffer = null;
-            _bufferRecycler.releaseCharBuffer(BufferRecycler.CharBufferType.CONCAT_BUFFER, buf);
+            if (_mayRecycle()) {
+                _bufferRecycler.releaseCharBuffer(BufferRecycler.CharBufferType.CONCAT_BUFFER, buf);
+            }
         }
     }
 
@@ -233,7 +424,28 @@ public final class IOContext
                 throw new IllegalArgumentException("Trying to release buffer not owned by the context");
             }
             _nameCopyBuffer = null;
-            _bufferRecycler.releaseCharBuffer(BufferRecycler.CharBufferType.NAME_COPY_BUFFER, buf);
+            if (_mayRecycle()) {
+                _bufferRecycler.releaseCharBuffer(BufferRecycler.CharBufferType.NAME_COPY_BUFFER, buf);
+            }
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    /**
+     * Buffers can be returned to the recycler unless it has already been
+     * released to a pool that may hand it to another thread.
+     */
+    private boolean _mayRecycle()
+    {
+        if (!_bufferRecyclerReleased) {
+            return true;
         }
+        BufferRecyclerPool pool = _bufferRecyclerPool;
+        return (pool == null) || pool.isThreadLocal();
     }
 }
@@ -0,0 +1,85 @@
+package org.codehaus.jackson.io;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@link InputStream} implementation that exposes contents of a
+ * {@link FileChannel} by memory-mapping it: content is read directly from
+ * mapped region, without system calls for reads. Since a single mapping
+ * is limited to 2 gigabytes, file is mapped in windows of
+ * {@link #DEFAULT_WINDOW_SIZE} bytes, each mapped only when previous one
+ * has been fully read.
+ *<p>
+ * Content is read starting from the current position of the channel, up
+ * to end of file as of construction of the stream; position of the
+ * channel itself is not modified.
+ *
+ * @since 1.10
+ */
+public final class MappedFileInputStream
+    extends ByteBufferInputStream
+{
+    /**
+     * Size of windows to map; large enough to make cost of mapping
+     * negligible, but small enough to work well on 32-bit platforms
+     * as well
+     */
+    public final static int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    protected final FileChannel _channel;
+
+    protected final int _windowSize;
+
+    /**
+     * Offset within file of the first byte not yet mapped
+     */
+    protected long _nextOffset;
+
+    /**
+     * Offset within file of end of content to read
+     */
+    protected final long _endOffset;
+
+    public MappedFileInputStream(FileChannel channel) throws IOException
+    {
+        this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedFileInputStream(FileChannel channel, int windowSize) throws IOException
+    {
+        super(null);
+        _channel = channel;
+        _windowSize = windowSize;
+        _nextOffset = channel.position();
+        _endOffset = channel.size();
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        long left = (_endOffset - _nextOffset) + super.available();
+        return (left > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) left;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+        _nextOffset = _endOffset;
+        _channel.close();
+    }
+
+    @Override
+    protected boolean nextBuffer() throws IOException
+    {
+        long left = _endOffset - _nextOffset;
+        if (left <= 0L) {
+            return false;
+        }
+        int len = (int) Math.min(left, (long) _windowSize);
+        _buffer = _channel.map(FileChannel.MapMode.READ_ONLY, _nextOffset, len);
+        _nextOffset += len;
+        return true;
+    }
+}
@@ -1,5 +1,7 @@
 package org.codehaus.jackson.io;
 
+import java.math.BigInteger;
+
 public final class NumberInput
 {
     /**
@@ -300,4 +302,266 @@ public final class NumberInput
         }
         return Double.parseDouble(numStr);
     }
+
+    /**
+     * Method for parsing a double value from given character segment
+     * without constructing a {@link String}, for common cases: values
+     * with at most 19 significant digits, and exponents that are
+     * within range of normal (non-denormalized) doubles. Conversion is
+     * done using exact algorithms (Clinger's fast path for values that
+     * can be computed with a single floating-point operation, and
+     * Eisel-Lemire algorithm for others), so results are identical to
+     * those of {@link Double#parseDouble}; for the remaining (rare)
+     * cases, as well as for anything that is not a plain JSON number,
+     * {@link #parseDouble(String)} is called.
+     *
+     * @since 1.10
+     */
+    public final static double parseDouble(char[] buf, int offset, int len)
+        throws NumberFormatException
+    {
+        final int end = offset + len;
+        int ptr = offset;
+        boolean negative = false;
+        if (ptr < end && buf[ptr] == '-') {
+            negative = true;
+            ++ptr;
+        }
+        long mantissa = 0L;
+        int digits = 0;
+        int sigDigits = 0;
+        int exp10 = 0;
+
+        // First integral part, then fractional part, if any
+        for (; ptr < end; ++ptr) {
+            int d = buf[ptr] - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            ++digits;
+            if (mantissa != 0L || d != 0) {
+                if (++sigDigits > MAX_FAST_DOUBLE_DIGITS) {
+                    return parseDouble(new String(buf, offset, len));
+                }
+                mantissa = (mantissa * 10) + d;
+            }
+        }
+        if (ptr < end && buf[ptr] == '.') {
+            while (++ptr < end) {
+                int d = buf[ptr] - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                ++digits;
+                --exp10;
+                if (mantissa != 0L || d != 0) {
+                    if (++sigDigits > MAX_FAST_DOUBLE_DIGITS) {
+                        return parseDouble(new String(buf, offset, len));
+                    }
+                    mantissa = (mantissa * 10) + d;
+                }
+            }
+        }
+        if (digits == 0) {
+            return parseDouble(new String(buf, offset, len));
+        }
+        // and then exponent
+        if (ptr < end && (buf[ptr] == 'e' || buf[ptr] == 'E')) {
+            boolean expNegative = false;
+            if (++ptr < end) {
+                char c = buf[ptr];
+                if (c == '-') {
+                    expNegative = true;
+                    ++ptr;
+                } else if (c == '+') {
+                    ++ptr;
+                }
+            }
+            final int expStart = ptr;
+            int exp = 0;
+            for (; ptr < end; ++ptr) {
+                int d = buf[ptr] - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                if (exp < 100000) { // no need to be exact beyond this
+                    exp = (exp * 10) + d;
+                }
+            }
+            if (ptr == expStart) {
+                return parseDouble(new String(buf, offset, len));
+            }
+            exp10 += expNegative ? -exp : exp;
+        }
+        // trailing garbage, or something JDK accepts (like type suffix)?
+        if (ptr != end) {
+            return parseDouble(new String(buf, offset, len));
+        }
+        if (mantissa == 0L) {
+            return negative ? -0.0 : 0.0;
+        }
+        double d = _computeDouble(mantissa, exp10, negative);
+        if (Double.isNaN(d)) {
+            return parseDouble(new String(buf, offset, len));
+        }
+        return d;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, exact double conversion
+    /**********************************************************
+     */
+
+    /**
+     * Maximum number of significant digits that fit in the (unsigned)
+     * 64-bit mantissa used by the fast double parsing
+     */
+    private final static int MAX_FAST_DOUBLE_DIGITS = 19;
+
+    /**
+     * Largest integral value that can be exactly represented as double
+     */
+    private final static long MAX_EXACT_DOUBLE_INT = 1L << 53;
+
+    private final static double[] EXACT_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Method that computes closest double for value of
+     * <code>mantissa * 10^exp10</code>, where mantissa is a non-zero
+     * unsigned 64-bit value; or, if this can not be done reliably,
+     * returns {@link Double#NaN} to indicate that slower method
+     * needs to be used.
+     */
+    private static double _computeDouble(long mantissa, int exp10, boolean negative)
+    {
+        // Clinger's fast path: both mantissa and power of ten are exact doubles
+        if (mantissa > 0L && mantissa <= MAX_EXACT_DOUBLE_INT
+                && exp10 >= -22 && exp10 <= 22) {
+            double d = (double) mantissa;
+            if (exp10 < 0) {
+                d /= EXACT_POWERS_OF_TEN[-exp10];
+            } else {
+                d *= EXACT_POWERS_OF_TEN[exp10];
+            }
+            return negative ? -d : d;
+        }
+        if (exp10 < Powers5.MIN_EXP || exp10 > Powers5.MAX_EXP) {
+            return Double.NaN;
+        }
+        // Otherwise Eisel-Lemire: multiply by 128-bit approximation of 5^exp10
+        final int index = exp10 - Powers5.MIN_EXP;
+        final long factorHigh = Powers5.HIGH[index];
+        int lz = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= lz;
+        long lower = mantissa * factorHigh;
+        long upper = _multiplyHigh(mantissa, factorHigh);
+        if ((upper & 0x1FF) == 0x1FF && _unsignedLess(lower + mantissa, lower)) {
+            // inexact: need to consider lower half of approximation too
+            final long factorLow = Powers5.LOW[index];
+            long productLow = mantissa * factorLow;
+            long productMiddle = lower + _multiplyHigh(mantissa, factorLow);
+            if (_unsignedLess(productMiddle, lower)) {
+                ++upper;
+            }
+            if ((productMiddle + 1L) == 0L && (upper & 0x1FF) == 0x1FF
+                    && _unsignedLess(productLow + mantissa, productLow)) {
+                return Double.NaN;
+            }
+            lower = productMiddle;
+        }
+        final int upperBit = (int) (upper >>> 63);
+        long bits = upper >>> (upperBit + 9);
+        lz += 1 ^ upperBit;
+        // exactly half-way between two doubles? need exact rounding
+        if (lower == 0L && (upper & 0x1FF) == 0 && (bits & 3) == 1) {
+            return Double.NaN;
+        }
+        bits += bits & 1;
+        bits >>>= 1;
+        if (bits >= MAX_EXACT_DOUBLE_INT) {
+            bits = 1L << 52;
+            --lz;
+        }
+        bits &= ~(1L << 52);
+        // floor(exp10 * log2(10)), plus bias (1023) and shift (63)
+        long exp2 = (((152170L + 65536L) * exp10) >> 16) + 1024 + 63 - lz;
+        if (exp2 < 1 || exp2 > 2046) { // denormalized, or overflow
+            return Double.NaN;
+        }
+        bits |= (exp2 << 52);
+        if (negative) {
+            bits |= Long.MIN_VALUE;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Helper method for calculating high 64 bits of the 128-bit product
+     * of two unsigned 64-bit values.
+     */
+    private static long _multiplyHigh(long a, long b)
+    {
+        final long MASK = 0xFFFFFFFFL;
+        long aLo = a & MASK;
+        long aHi = a >>> 32;
+        long bLo = b & MASK;
+        long bHi = b >>> 32;
+        long loLo = aLo * bLo;
+        long hiLo = aHi * bLo;
+        long loHi = aLo * bHi;
+        long cross = (loLo >>> 32) + (hiLo & MASK) + (loHi & MASK);
+        return (aHi * bHi) + (hiLo >>> 32) + (loHi >>> 32) + (cross >>> 32);
+    }
+
+    private static boolean _unsignedLess(long a, long b) {
+        return (a + Long.MIN_VALUE) < (b + Long.MIN_VALUE);
+    }
+
+    /**
+     * Holder for the table of 128-bit truncated approximations of
+     * powers of five, needed by the Eisel-Lemire algorithm. Table is
+     * only calculated when first needed.
+     */
+    private final static class Powers5
+    {
+        final static int MIN_EXP = -342;
+        final static int MAX_EXP = 308;
+
+        final static long[] HIGH = new long[MAX_EXP - MIN_EXP + 1];
+        final static long[] LOW = new long[MAX_EXP - MIN_EXP + 1];
+
+        static {
+            final BigInteger TWO_127 = BigInteger.ONE.shiftLeft(127);
+            final BigInteger TWO_128 = BigInteger.ONE.shiftLeft(128);
+            final BigInteger FIVE = BigInteger.valueOf(5);
+            for (int q = MIN_EXP; q <= MAX_EXP; ++q) {
+                BigInteger c;
+                if (q < 0) {
+                    BigInteger pow5 = FIVE.pow(-q);
+                    int z = pow5.bitLength();
+                    // 1/5^q, rounded up, with 128 most significant bits
+                    int b = (q >= -27) ? (z + 127) : (2 * z + 128);
+                    c = BigInteger.ONE.shiftLeft(b).divide(pow5).add(BigInteger.ONE);
+                    int excess = c.bitLength() - 128;
+                    if (excess > 0) {
+                        c = c.shiftRight(excess);
+                    }
+                } else {
+                    c = FIVE.pow(q);
+                    if (c.compareTo(TWO_127) < 0) {
+                        c = c.shiftLeft(128 - c.bitLength());
+                    } else if (c.compareTo(TWO_128) >= 0) {
+                        c = c.shiftRight(c.bitLength() - 128);
+                    }
+                }
+                int ix = q - MIN_EXP;
+                HIGH[ix] = c.shiftRight(64).longValue();
+                LOW[ix] = c.longValue();
+            }
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package org.codehaus.jackson.io;
 
+import java.math.BigInteger;
+
 public final class NumberOutput
 {
     private final static char NULL_CHAR = (char) 0;
@@ -56,6 +58,43 @@ public final class NumberOutput
         "-1","-2","-3","-4","-5","-6","-7","-8","-9","-10"
     };
 
+    /**
+     * Maximum number of characters {@link #outputDouble} may output
+     * (for example, "-2.2250738585072014E-308")
+     *
+     * @since 1.10
+     */
+    public final static int MAX_DOUBLE_CHARS = 24;
+
+    /**
+     * Maximum number of characters {@link #outputFloat} may output
+     * (for example, "-1.17549435E-38")
+     *
+     * @since 1.10
+     */
+    public final static int MAX_FLOAT_CHARS = 15;
+
+    /* Constants for shortest (Schubfach) double/float conversion: minimum
+     * (normalized) significand, minimum binary exponent, and limit below
+     * which subnormal significands need one more digit of precision
+     */
+    private final static long D_C_MIN = 1L << 52;
+    private final static int D_Q_MIN = -1074;
+    private final static long D_C_TINY = 3;
+
+    private final static int F_C_MIN = 1 << 23;
+    private final static int F_Q_MIN = -149;
+    private final static int F_C_TINY = 8;
+
+    private final static long[] POWERS_OF_TEN_L = new long[19];
+    static {
+        long l = 1L;
+        for (int i = 0; i < POWERS_OF_TEN_L.length; ++i) {
+            POWERS_OF_TEN_L[i] = l;
+            l *= 10;
+        }
+    }
+
     /*
     /**********************************************************
     /* Efficient serialization methods using raw buffers
@@ -280,6 +319,212 @@ public final class NumberOutput
         return offset;
     }
     
+    /**
+     * Method for outputting shortest textual representation of given
+     * double value that will round-trip back to the same value;
+     * output uses same format as {@link Double#toString(double)}.
+     *<p>
+     * Caller has to ensure there is room for at least
+     * {@link #MAX_DOUBLE_CHARS} characters.
+     *
+     * @return Offset within buffer after outputting double
+     *
+     * @since 1.10
+     */
+    public static int outputDouble(double value, char[] buffer, int offset)
+    {
+        final long bits = Double.doubleToRawLongBits(value);
+        final int bq = (int) (bits >>> 52) & 0x7FF;
+        final long t = bits & ((1L << 52) - 1);
+        if (bq == 0x7FF) { // NaN or infinity
+            return _outputSpecial(Double.toString(value), buffer, offset);
+        }
+        if (bits < 0L) {
+            buffer[offset++] = '-';
+        }
+        if (bq == 0 && t == 0L) {
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+        long f;
+        int e;
+        if (bq != 0) { // normal
+            int q = bq - 1075;
+            long c = D_C_MIN | t;
+            // Fast path: integral value with at most 53 bits
+            if (q < 0 && q > -53 && ((c >> -q) << -q) == c) {
+                f = c >> -q;
+                e = 0;
+            } else {
+                e = _decimalExponent(q, c, D_C_MIN, D_Q_MIN);
+                f = _doubleToDecimal(q, c, e);
+            }
+        } else { // subnormal
+            if (t < D_C_TINY) {
+                e = _decimalExponent(D_Q_MIN, 10 * t, D_C_MIN, D_Q_MIN);
+                f = _doubleToDecimal(D_Q_MIN, 10 * t, e);
+                --e;
+            } else {
+                e = _decimalExponent(D_Q_MIN, t, D_C_MIN, D_Q_MIN);
+                f = _doubleToDecimal(D_Q_MIN, t, e);
+            }
+        }
+        return _outputDecimal(f, e, buffer, offset);
+    }
+
+    /**
+     * @return Offset within buffer after outputting double
+     *
+     * @since 1.10
+     */
+    public static int outputDouble(double value, byte[] buffer, int offset)
+    {
+        final long bits = Double.doubleToRawLongBits(value);
+        final int bq = (int) (bits >>> 52) & 0x7FF;
+        final long t = bits & ((1L << 52) - 1);
+        if (bq == 0x7FF) { // NaN or infinity
+            return _outputSpecial(Double.toString(value), buffer, offset);
+        }
+        if (bits < 0L) {
+            buffer[offset++] = '-';
+        }
+        if (bq == 0 && t == 0L) {
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+        long f;
+        int e;
+        if (bq != 0) { // normal
+            int q = bq - 1075;
+            long c = D_C_MIN | t;
+            // Fast path: integral value with at most 53 bits
+            if (q < 0 && q > -53 && ((c >> -q) << -q) == c) {
+                f = c >> -q;
+                e = 0;
+            } else {
+                e = _decimalExponent(q, c, D_C_MIN, D_Q_MIN);
+                f = _doubleToDecimal(q, c, e);
+            }
+        } else { // subnormal
+            if (t < D_C_TINY) {
+                e = _decimalExponent(D_Q_MIN, 10 * t, D_C_MIN, D_Q_MIN);
+                f = _doubleToDecimal(D_Q_MIN, 10 * t, e);
+                --e;
+            } else {
+                e = _decimalExponent(D_Q_MIN, t, D_C_MIN, D_Q_MIN);
+                f = _doubleToDecimal(D_Q_MIN, t, e);
+            }
+        }
+        return _outputDecimal(f, e, buffer, offset);
+    }
+
+    /**
+     * Method for outputting shortest textual representation of given
+     * float value that will round-trip back to the same value;
+     * output uses same format as {@link Float#toString(float)}.
+     *<p>
+     * Caller has to ensure there is room for at least
+     * {@link #MAX_FLOAT_CHARS} characters.
+     *
+     * @return Offset within buffer after outputting float
+     *
+     * @since 1.10
+     */
+    public static int outputFloat(float value, char[] buffer, int offset)
+    {
+        final int bits = Float.floatToRawIntBits(value);
+        final int bq = (bits >>> 23) & 0xFF;
+        final int t = bits & ((1 << 23) - 1);
+        if (bq == 0xFF) { // NaN or infinity
+            return _outputSpecial(Float.toString(value), buffer, offset);
+        }
+        if (bits < 0) {
+            buffer[offset++] = '-';
+        }
+        if (bq == 0 && t == 0) {
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+        long f;
+        int e;
+        if (bq != 0) { // normal
+            int q = bq - 150;
+            int c = F_C_MIN | t;
+            // Fast path: integral value with at most 24 bits
+            if (q < 0 && q > -24 && ((c >> -q) << -q) == c) {
+                f = c >> -q;
+                e = 0;
+            } else {
+                e = _decimalExponent(q, c, F_C_MIN, F_Q_MIN);
+                f = _floatToDecimal(q, c, e);
+            }
+        } else { // subnormal
+            if (t < F_C_TINY) {
+                e = _decimalExponent(F_Q_MIN, 10 * t, F_C_MIN, F_Q_MIN);
+                f = _floatToDecimal(F_Q_MIN, 10 * t, e);
+                --e;
+            } else {
+                e = _decimalExponent(F_Q_MIN, t, F_C_MIN, F_Q_MIN);
+                f = _floatToDecimal(F_Q_MIN, t, e);
+            }
+        }
+        return _outputDecimal(f, e, buffer, offset);
+    }
+
+    /**
+     * @return Offset within buffer after outputting float
+     *
+     * @since 1.10
+     */
+    public static int outputFloat(float value, byte[] buffer, int offset)
+    {
+        final int bits = Float.floatToRawIntBits(value);
+        final int bq = (bits >>> 23) & 0xFF;
+        final int t = bits & ((1 << 23) - 1);
+        if (bq == 0xFF) { // NaN or infinity
+            return _outputSpecial(Float.toString(value), buffer, offset);
+        }
+        if (bits < 0) {
+            buffer[offset++] = '-';
+        }
+        if (bq == 0 && t == 0) {
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+        long f;
+        int e;
+        if (bq != 0) { // normal
+            int q = bq - 150;
+            int c = F_C_MIN | t;
+            // Fast path: integral value with at most 24 bits
+            if (q < 0 && q > -24 && ((c >> -q) << -q) == c) {
+                f = c >> -q;
+                e = 0;
+            } else {
+                e = _decimalExponent(q, c, F_C_MIN, F_Q_MIN);
+                f = _floatToDecimal(q, c, e);
+            }
+        } else { // subnormal
+            if (t < F_C_TINY) {
+                e = _decimalExponent(F_Q_MIN, 10 * t, F_C_MIN, F_Q_MIN);
+                f = _floatToDecimal(F_Q_MIN, 10 * t, e);
+                --e;
+            } else {
+                e = _decimalExponent(F_Q_MIN, t, F_C_MIN, F_Q_MIN);
+                f = _floatToDecimal(F_Q_MIN, t, e);
+            }
+        }
+        return _outputDecimal(f, e, buffer, offset);
+    }
+
     /*
     /**********************************************************
     /* Secondary convenience serialization methods
@@ -316,7 +561,17 @@ public final class NumberOutput
 
     public static String toString(double value)
     {
-        return Double.toString(value);
+        char[] buffer = new char[MAX_DOUBLE_CHARS];
+        return new String(buffer, 0, outputDouble(value, buffer, 0));
+    }
+
+    /**
+     * @since 1.10
+     */
+    public static String toString(float value)
+    {
+        char[] buffer = new char[MAX_FLOAT_CHARS];
+        return new String(buffer, 0, outputFloat(value, buffer, 0));
     }
 
     /*
@@ -375,6 +630,374 @@ public final class NumberOutput
         return offset;
     }
     
+    /*
+    /**********************************************************
+    /* Internal methods, floating-point conversion
+    /**********************************************************
+     */
+
+    /* Conversion is based on the Schubfach algorithm by Raffaello Giulietti
+     * ("The Schubfach way to render doubles"): given value c*2^q, closest
+     * shortest decimal in rounding interval is determined using a single
+     * 126-bit approximation g of a power of ten, without iteration.
+     */
+
+    /**
+     * Helper method that determines decimal exponent k used for converting
+     * value c*2^q: k is floor(log10(2^q)), or, for values right above a
+     * power of two (where rounding interval is asymmetric),
+     * floor(log10(3/4 * 2^q)).
+     */
+    private static int _decimalExponent(int q, long c, long cMin, int qMin)
+    {
+        if (c != cMin || q == qMin) {
+            return (int) ((q * 661971961083L) >> 41);
+        }
+        return (int) ((q * 661971961083L - 274743187321L) >> 41);
+    }
+
+    /**
+     * @return floor(log2(10^e))
+     */
+    private static int _flog2pow10(int e) {
+        return (int) ((e * 913124641741L) >> 38);
+    }
+
+    /**
+     * @return Decimal significand f such that f*10^k is the shortest
+     *   decimal value that rounds to c*2^q
+     */
+    private static long _doubleToDecimal(int q, long c, int k)
+    {
+        final int out = (int) c & 0x1;
+        final long cb = c << 2;
+        final long cbr = cb + 2;
+        final long cbl = (c != D_C_MIN || q == D_Q_MIN) ? (cb - 2) : (cb - 1);
+        final int h = q + _flog2pow10(-k) + 2;
+
+        final int index = k - Powers10.K_MIN;
+        final long g1 = Powers10.G1[index];
+        final long g0 = Powers10.G0[index];
+
+        final long vb = _roundOdd(g1, g0, cb << h);
+        final long vbl = _roundOdd(g1, g0, cbl << h);
+        final long vbr = _roundOdd(g1, g0, cbr << h);
+
+        final long s = vb >> 2;
+        if (s >= 100) {
+            // s' = floor(s / 10); is one digit shorter value within interval?
+            long sp10 = 10 * _multiplyHigh(s, 115292150460684698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = (vbl + out) <= (sp10 << 2);
+            boolean wpin = ((tp10 << 2) + out) <= vbr;
+            if (upin != wpin) {
+                return upin ? sp10 : tp10;
+            }
+        }
+        final long t = s + 1;
+        boolean uin = (vbl + out) <= (s << 2);
+        boolean win = ((t << 2) + out) <= vbr;
+        if (uin != win) {
+            return uin ? s : t;
+        }
+        // both within interval: pick closer one (or even one, if tie)
+        long cmp = vb - ((s + t) << 1);
+        return (cmp < 0 || (cmp == 0 && (s & 0x1) == 0)) ? s : t;
+    }
+
+    private static long _floatToDecimal(int q, int c, int k)
+    {
+        final int out = c & 0x1;
+        final long cb = ((long) c) << 2;
+        final long cbr = cb + 2;
+        final long cbl = (c != F_C_MIN || q == F_Q_MIN) ? (cb - 2) : (cb - 1);
+        final int h = q + _flog2pow10(-k) + 33;
+
+        final long g = Powers10.G1[k - Powers10.K_MIN] + 1;
+
+        final int vb = _roundOdd(g, cb << h);
+        final int vbl = _roundOdd(g, cbl << h);
+        final int vbr = _roundOdd(g, cbr << h);
+
+        final int s = vb >> 2;
+        if (s >= 100) {
+            int sp10 = 10 * (int) ((s * 1717986919L) >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = (vbl + out) <= (sp10 << 2);
+            boolean wpin = ((tp10 << 2) + out) <= vbr;
+            if (upin != wpin) {
+                return upin ? sp10 : tp10;
+            }
+        }
+        final int t = s + 1;
+        boolean uin = (vbl + out) <= (s << 2);
+        boolean win = ((t << 2) + out) <= vbr;
+        if (uin != win) {
+            return uin ? s : t;
+        }
+        int cmp = vb - ((s + t) << 1);
+        return (cmp < 0 || (cmp == 0 && (s & 0x1) == 0)) ? s : t;
+    }
+
+    /**
+     * Computes cp*g*2^-127 (where g = g1*2^63 + g0), rounded to odd
+     */
+    private static long _roundOdd(long g1, long g0, long cp)
+    {
+        long x1 = _multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = _multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (((z & Long.MAX_VALUE) + Long.MAX_VALUE) >>> 63);
+    }
+
+    /**
+     * Computes cp*g*2^-95, rounded to odd
+     */
+    private static int _roundOdd(long g, long cp)
+    {
+        long x1 = _multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+        return (int) (vbp | (((x1 & 0xFFFFFFFFL) + 0xFFFFFFFFL) >>> 32));
+    }
+
+    /**
+     * Helper method for calculating high 64 bits of the 128-bit product
+     * of two non-negative 64-bit values.
+     */
+    private static long _multiplyHigh(long a, long b)
+    {
+        final long MASK = 0xFFFFFFFFL;
+        long aLo = a & MASK;
+        long aHi = a >>> 32;
+        long bLo = b & MASK;
+        long bHi = b >>> 32;
+        long loLo = aLo * bLo;
+        long hiLo = aHi * bLo;
+        long loHi = aLo * bHi;
+        long cross = (loLo >>> 32) + (hiLo & MASK) + (loHi & MASK);
+        return (aHi * bHi) + (hiLo >>> 32) + (loHi >>> 32) + (cross >>> 32);
+    }
+
+    /**
+     * Method that outputs value f*10^e using the format of
+     * {@link Double#toString(double)}: plain notation for values
+     * from 10^-3 (inclusive) to 10^7 (exclusive), "computerized
+     * scientific notation" for others; and always at least one
+     * digit after decimal point.
+     */
+    private static int _outputDecimal(long f, int e, char[] buffer, int offset)
+    {
+        while ((f % 10L) == 0L) {
+            f /= 10L;
+            ++e;
+        }
+        int len = _digitCount(f);
+        // position of decimal point, relative to first digit
+        final int point = e + len;
+        if (point > 0 && point <= 7) { // plain, no leading zeroes
+            if (len <= point) {
+                offset = _outputDigits(f, len, buffer, offset);
+                for (int i = len; i < point; ++i) {
+                    buffer[offset++] = '0';
+                }
+                buffer[offset++] = '.';
+                buffer[offset++] = '0';
+                return offset;
+            }
+            long pow = POWERS_OF_TEN_L[len - point];
+            offset = _outputDigits(f / pow, point, buffer, offset);
+            buffer[offset++] = '.';
+            return _outputDigits(f % pow, len - point, buffer, offset);
+        }
+        if (point > -3 && point <= 0) { // plain, with leading zeroes
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            for (int i = point; i < 0; ++i) {
+                buffer[offset++] = '0';
+            }
+            return _outputDigits(f, len, buffer, offset);
+        }
+        // scientific notation
+        long pow = POWERS_OF_TEN_L[len - 1];
+        buffer[offset++] = (char) ('0' + (int) (f / pow));
+        buffer[offset++] = '.';
+        if (len == 1) {
+            buffer[offset++] = '0';
+        } else {
+            offset = _outputDigits(f % pow, len - 1, buffer, offset);
+        }
+        buffer[offset++] = 'E';
+        int exp = point - 1;
+        if (exp < 0) {
+            buffer[offset++] = '-';
+            exp = -exp;
+        }
+        if (exp >= 100) {
+            return outputFullTriplet(exp, buffer, offset);
+        }
+        if (exp >= 10) {
+            buffer[offset++] = (char) ('0' + (exp / 10));
+            exp %= 10;
+        }
+        buffer[offset++] = (char) ('0' + exp);
+        return offset;
+    }
+
+    private static int _outputDecimal(long f, int e, byte[] buffer, int offset)
+    {
+        while ((f % 10L) == 0L) {
+            f /= 10L;
+            ++e;
+        }
+        int len = _digitCount(f);
+        // position of decimal point, relative to first digit
+        final int point = e + len;
+        if (point > 0 && point <= 7) { // plain, no leading zeroes
+            if (len <= point) {
+                offset = _outputDigits(f, len, buffer, offset);
+                for (int i = len; i < point; ++i) {
+                    buffer[offset++] = '0';
+                }
+                buffer[offset++] = '.';
+                buffer[offset++] = '0';
+                return offset;
+            }
+            long pow = POWERS_OF_TEN_L[len - point];
+            offset = _outputDigits(f / pow, point, buffer, offset);
+            buffer[offset++] = '.';
+            return _outputDigits(f % pow, len - point, buffer, offset);
+        }
+        if (point > -3 && point <= 0) { // plain, with leading zeroes
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            for (int i = point; i < 0; ++i) {
+                buffer[offset++] = '0';
+            }
+            return _outputDigits(f, len, buffer, offset);
+        }
+        // scientific notation
+        long pow = POWERS_OF_TEN_L[len - 1];
+        buffer[offset++] = (byte) ('0' + (int) (f / pow));
+        buffer[offset++] = '.';
+        if (len == 1) {
+            buffer[offset++] = '0';
+        } else {
+            offset = _outputDigits(f % pow, len - 1, buffer, offset);
+        }
+        buffer[offset++] = 'E';
+        int exp = point - 1;
+        if (exp < 0) {
+            buffer[offset++] = '-';
+            exp = -exp;
+        }
+        if (exp >= 100) {
+            return outputFullTriplet(exp, buffer, offset);
+        }
+        if (exp >= 10) {
+            buffer[offset++] = (byte) ('0' + (exp / 10));
+            exp %= 10;
+        }
+        buffer[offset++] = (byte) ('0' + exp);
+        return offset;
+    }
+
+    /**
+     * Helper method for outputting exactly given number of digits of
+     * given (non-negative) value, including leading zeroes if any.
+     */
+    private static int _outputDigits(long value, int count, char[] buffer, int offset)
+    {
+        int ptr = offset + count;
+        while (value > Integer.MAX_VALUE) {
+            long q = value / 10L;
+            buffer[--ptr] = (char) ('0' + (int) (value - (q * 10L)));
+            value = q;
+        }
+        int ivalue = (int) value;
+        while (ptr > offset) {
+            int q = ivalue / 10;
+            buffer[--ptr] = (char) ('0' + (ivalue - (q * 10)));
+            ivalue = q;
+        }
+        return offset + count;
+    }
+
+    private static int _outputDigits(long value, int count, byte[] buffer, int offset)
+    {
+        int ptr = offset + count;
+        while (value > Integer.MAX_VALUE) {
+            long q = value / 10L;
+            buffer[--ptr] = (byte) ('0' + (int) (value - (q * 10L)));
+            value = q;
+        }
+        int ivalue = (int) value;
+        while (ptr > offset) {
+            int q = ivalue / 10;
+            buffer[--ptr] = (byte) ('0' + (ivalue - (q * 10)));
+            ivalue = q;
+        }
+        return offset + count;
+    }
+
+    private static int _digitCount(long value)
+    {
+        int len = 1;
+        while (len < POWERS_OF_TEN_L.length && value >= POWERS_OF_TEN_L[len]) {
+            ++len;
+        }
+        return len;
+    }
+
+    private static int _outputSpecial(String str, char[] buffer, int offset)
+    {
+        int len = str.length();
+        str.getChars(0, len, buffer, offset);
+        return offset + len;
+    }
+
+    private static int _outputSpecial(String str, byte[] buffer, int offset)
+    {
+        for (int i = 0, len = str.length(); i < len; ++i) {
+            buffer[offset++] = (byte) str.charAt(i);
+        }
+        return offset;
+    }
+
+    /**
+     * Holder for the table of 126-bit approximations of powers of ten
+     * (g = floor(10^-k * 2^-r) + 1, with r such that 2^125 &lt;= g &lt; 2^126),
+     * split into high (G1) and low (G0) 63 bits. Table is only
+     * calculated when first needed.
+     */
+    private final static class Powers10
+    {
+        final static int K_MIN = -324;
+        final static int K_MAX = 292;
+
+        final static long[] G1 = new long[K_MAX - K_MIN + 1];
+        final static long[] G0 = new long[K_MAX - K_MIN + 1];
+
+        static {
+            final BigInteger MASK_63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+            for (int k = K_MIN; k <= K_MAX; ++k) {
+                int r = _flog2pow10(-k) - 125;
+                BigInteger g;
+                if (k <= 0) { // 10^-k is integral
+                    BigInteger pow = BigInteger.TEN.pow(-k);
+                    g = (r >= 0) ? pow.shiftRight(r) : pow.shiftLeft(-r);
+                } else {
+                    g = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+                }
+                g = g.add(BigInteger.ONE);
+                int ix = k - K_MIN;
+                G1[ix] = g.shiftRight(63).longValue();
+                G0[ix] = g.and(MASK_63).longValue();
+            }
+        }
+    }
+
     /**
      *<p>
      * Pre-conditions: posValue is positive, and larger than
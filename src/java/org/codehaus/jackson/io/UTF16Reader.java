@@ -0,0 +1,158 @@
+package org.codehaus.jackson.io;
+
+import java.io.*;
+
+/**
+ * Optimized Reader that decodes UTF-16 (big- or little-endian) encoded
+ * content directly from the input buffer into caller's char buffer;
+ * used instead of JDK {@link InputStreamReader}, to avoid overhead of
+ * generic charset decoding, intermediate buffering and per-read
+ * synchronization.
+ *<p>
+ * Note that surrogate pairs are not validated: since each UTF-16 code
+ * unit maps to exactly one Java char, units are passed through as is
+ * (JDK decoders would replace unpaired surrogates with U+FFFD).
+ *
+ * @since 1.10
+ */
+public final class UTF16Reader
+    extends BaseReader
+{
+    final boolean _bigEndian;
+
+    /**
+     * Total read character count; used for error reporting purposes
+     */
+    int _charCount = 0;
+
+    /**
+     * Total read byte count; used for error reporting purposes
+     */
+    int _byteCount = 0;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    public UTF16Reader(IOContext ctxt,
+                       InputStream in, byte[] buf, int ptr, int len,
+                       boolean isBigEndian)
+    {
+        super(ctxt, in, buf, ptr, len);
+        _bigEndian = isBigEndian;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    @Override
+    public int read(char[] cbuf, int start, int len)
+        throws IOException
+    {
+        // Already EOF?
+        if (_buffer == null) {
+            return -1;
+        }
+        if (len < 1) {
+            return len;
+        }
+        // Let's then ensure there's enough room...
+        if (start < 0 || (start+len) > cbuf.length) {
+            reportBounds(cbuf, start, len);
+        }
+        // Need at least one full char; but let's not block for more than that
+        int left = (_length - _ptr);
+        if (left < 2) {
+            if (!loadMore(left)) { // (legal) EOF?
+                return -1;
+            }
+            left = _length;
+        }
+        // can decode as many full chars as we have, up to requested count:
+        if (len > (left >> 1)) {
+            len = (left >> 1);
+        }
+        final byte[] buf = _buffer;
+        int ptr = _ptr;
+        int outPtr = start;
+        final int end = start + len;
+
+        if (_bigEndian) {
+            while (outPtr < end) {
+                cbuf[outPtr++] = (char) ((buf[ptr] << 8) | (buf[ptr+1] & 0xFF));
+                ptr += 2;
+            }
+        } else {
+            while (outPtr < end) {
+                cbuf[outPtr++] = (char) ((buf[ptr] & 0xFF) | (buf[ptr+1] << 8));
+                ptr += 2;
+            }
+        }
+        _ptr = ptr;
+        _charCount += len;
+        return len;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    private void reportUnexpectedEOF()
+        throws IOException
+    {
+        throw new CharConversionException("Unexpected EOF in the middle of a 2-byte UTF-16 char: got 1, needed 2"
+                                          +", at char #"+_charCount+", byte #"+(_byteCount + _length)+")");
+    }
+
+    /**
+     * @param available Number of "unused" bytes in the input buffer
+     *
+     * @return True, if enough bytes were read to allow decoding of at least
+     *   one full character; false if EOF was encountered instead.
+     */
+    private boolean loadMore(int available)
+        throws IOException
+    {
+        _byteCount += (_length - available);
+
+        // No stream? All content was in the (caller-provided) buffer to begin with
+        if (_in == null) {
+            if (available > 0) {
+                reportUnexpectedEOF();
+            }
+            freeBuffers();
+            return false;
+        }
+        // Byte that needs to be moved to the beginning of buffer?
+        if (available > 0) {
+            _buffer[0] = _buffer[_ptr];
+        }
+        _ptr = 0;
+        _length = available;
+
+        // Need at least 2 bytes; read as much as we can get with a single read
+        while (_length < 2) {
+            int count = _in.read(_buffer, _length, _buffer.length - _length);
+            if (count < 1) {
+                if (count < 0) { // EOF
+                    if (_length > 0) { // in the middle of a char, no good
+                        reportUnexpectedEOF();
+                    }
+                    freeBuffers(); // to help GC?
+                    return false;
+                }
+                // 0 count is no good; let's err out
+                reportStrangeStream();
+            }
+            _length += count;
+        }
+        return true;
+    }
+}
@@ -166,6 +166,15 @@ public final class UTF32Reader
     {
         mByteCount += (_length - available);
 
+        // No stream? All content was in the (caller-provided) buffer to begin with
+        if (_in == null) {
+            if (available > 0) {
+                reportUnexpectedEOF(available, 4);
+            }
+            freeBuffers();
+            return false;
+        }
+
         // Bytes that need to be moved to the beginning of buffer?
         if (available > 0) {
             if (_ptr > 0) {
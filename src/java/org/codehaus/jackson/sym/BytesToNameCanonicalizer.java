@@ -1,8 +1,10 @@
 package org.codehaus.jackson.sym;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.codehaus.jackson.io.JsonStringEncoder;
 import org.codehaus.jackson.util.InternCache;
 
 /**
@@ -12,6 +14,16 @@ import org.codehaus.jackson.util.InternCache;
  * Complications arise from trying to do efficient reuse and merging of
  * symbol tables, to be able to make use of usually shared vocabulary
  * of subsequent parsing runs.
+ *<p>
+ * Since 1.10, table uses open addressing: both hash codes and names are
+ * stored in primary arrays, and collisions are resolved by probing
+ * (using triangular, i.e. quadratic probe sequence) for the next
+ * free slot. Hash codes are calculated from quads (int32s containing
+ * 4 bytes of UTF-8 encoded name) with a per-table random seed, to
+ * make it difficult to produce colliding names. Collision limits
+ * and statistics are based on names that share the same primary
+ * slot, not on lengths of probe sequences (which also depend on
+ * names with other primary slots).
  *
  * @author Tatu Saloranta
  */
@@ -22,14 +34,16 @@ public final class BytesToNameCanonicalizer
     /**
      * Let's not expand symbol tables past some maximum size;
      * this should protected against OOMEs caused by large documents
-     * with unique (~= random) names.
+     * with unique (~= random) names. Default value, may be
+     * changed using {@link #setSizeLimits}.
      */
     protected static final int MAX_TABLE_SIZE = 0x10000; // 64k entries == 256k mem
-    
+
     /**
-     * Let's only share reasonably sized symbol tables. Max size set to 3/4 of 16k;
-     * this corresponds to 64k main hash index. This should allow for enough distinct
-     * names for almost any case.
+     * Let's only share reasonably sized symbol tables. Max size set to 3/4 of 8k;
+     * this corresponds to 8k main hash index. This should allow for enough distinct
+     * names for almost any case. Default value, may be
+     * changed using {@link #setSizeLimits}.
      */
     final static int MAX_ENTRIES_FOR_REUSE = 6000;
 
@@ -37,12 +51,13 @@ public final class BytesToNameCanonicalizer
      * Also: to thwart attacks based on hash collisions (which may or may not
      * be cheap to calculate), we will need to detect "too long"
      * collision chains. Let's start with static value of 255 entries
-     * for the longest legal chain.
+     * for the longest legal chain (number of names with the same
+     * primary slot).
      *<p>
      * Note: longest chain we have been able to produce without malicious
      * intent has been 60 (with "com.fasterxml.jackson.core.main.TestWithTonsaSymbols");
      * our setting should be reasonable here.
-     * 
+     *
      * @since 1.9.9
      */
     final static int MAX_COLL_CHAIN_LENGTH = 255;
@@ -51,28 +66,27 @@ public final class BytesToNameCanonicalizer
      * And to support reduce likelihood of accidental collisions causing
      * exceptions, let's prevent reuse of tables with long collision
      * overflow lists as well.
-     * 
+     *
      * @since 1.9.9
      */
     final static int MAX_COLL_CHAIN_FOR_REUSE  = 63;
 
     /**
-     * No point in trying to construct tiny tables, just need to resize
-     * soon.
+     * Probe sequences may get longer than collision chains, due to
+     * clustering of names with nearby primary slots. If probing for a
+     * free slot takes more steps than this, table is resized when
+     * the next name is added.
+     *
+     * @since 1.10
      */
-    final static int MIN_HASH_SIZE = 16;
+    final static int MAX_PROBE_LENGTH = 63;
 
     /**
-     * We will also need to defin
+     * No point in trying to construct tiny tables, just need to resize
+     * soon.
      */
-    final static int INITIAL_COLLISION_LEN = 32;
+    final static int MIN_HASH_SIZE = 16;
 
-    /**
-     * Bucket index is 8 bits, and value 0 is reserved to represent
-     * 'empty' status.
-     */
-    final static int LAST_VALID_BUCKET = 0xFE;
-    
     /*
     /**********************************************************
     /* Linkage, needed for merging symbol tables
@@ -92,18 +106,44 @@ public final class BytesToNameCanonicalizer
      * Child tables do NOT use the reference.
      */
     final protected AtomicReference<TableInfo> _tableInfo;
-    
+
+    /**
+     * Number of times shared state of the root table has been flushed,
+     * due to a child table exceeding size or collision limits.
+     * Only used by the root table instance.
+     *
+     * @since 1.10
+     */
+    final protected AtomicInteger _flushCount;
+
     /**
      * Seed value we use as the base to make hash codes non-static between
      * different runs, but still stable for lifetime of a single symbol table
      * instance.
      * This is done for security reasons, to avoid potential DoS attack via
      * hash collisions.
-     * 
+     *
      * @since 1.9.9
      */
     final private int _hashSeed;
-    
+
+    /**
+     * Maximum size of the hash area; if table would need to
+     * grow bigger, it will be flushed instead.
+     *
+     * @since 1.10
+     */
+    protected int _maxTableSize = MAX_TABLE_SIZE;
+
+    /**
+     * Maximum number of names a child table may have for it to
+     * be merged back to the root table; bigger tables are not shared
+     * and root table is flushed.
+     *
+     * @since 1.10
+     */
+    protected int _maxEntriesForReuse = MAX_ENTRIES_FOR_REUSE;
+
     /*
     /**********************************************************
     /* Main table state
@@ -115,7 +155,7 @@ public final class BytesToNameCanonicalizer
      * to the table or not
      */
     protected final boolean _intern;
-    
+
     // // // First, global information
 
     /**
@@ -125,14 +165,23 @@ public final class BytesToNameCanonicalizer
     protected int _count;
 
     /**
-     * We need to keep track of the longest collision list; this is needed
-     * both to indicate problems with attacks and to allow flushing for
-     * other cases.
-     * 
+     * We need to keep track of the longest collision list (number of
+     * names with the same primary slot, minus one); this is needed both
+     * to indicate problems with attacks and to allow flushing for other
+     * cases.
+     *
      * @since 1.9.9
      */
     protected int _longestCollisionList;
-    
+
+    /**
+     * Length of the longest probe sequence used for adding a name;
+     * used to bound lookups for names not in table.
+     *
+     * @since 1.10
+     */
+    protected int _longestProbe;
+
     // // // Then information regarding primary hash array and its
     // // // matching Name array
 
@@ -144,10 +193,9 @@ public final class BytesToNameCanonicalizer
     protected int _mainHashMask;
 
     /**
-     * Array of 2^N size, which contains combination
-     * of 24-bits of hash (0 to indicate 'empty' slot),
-     * and 8-bit collision bucket index (0 to indicate empty
-     * collision bucket chain; otherwise subtract one from index)
+     * Array of 2^N size, which contains full 32-bit hash codes of
+     * Names in matching slots of <code>_mainNames</code>; 0 indicates
+     * an empty slot (hash calculation never produces 0).
      */
     protected int[] _mainHash;
 
@@ -158,27 +206,13 @@ public final class BytesToNameCanonicalizer
      */
     protected Name[] _mainNames;
 
-    // // // Then the collision/spill-over area info
-
-    /**
-     * Array of heads of collision bucket chains; size dynamically
-     */
-    protected Bucket[] _collList;
-
     /**
-     * Total number of Names in collision buckets (included in
-     * <code>_count</code> along with primary entries)
+     * Total number of Names whose primary slot is shared with a Name
+     * added earlier (included in <code>_count</code> along with primary
+     * entries)
      */
     protected int _collCount;
 
-    /**
-     * Index of the first unused collision bucket entry (== size of
-     * the used portion of collision list): less than
-     * or equal to 0xFF (255), since max number of entries is 255
-     * (8-bit, minus 0 used as 'empty' marker)
-     */
-    protected int _collEnd;
-
     // // // Info regarding pending rehashing...
 
     /**
@@ -193,33 +227,14 @@ public final class BytesToNameCanonicalizer
     /**********************************************************
      */
 
-    // // // Which of the buffers may be shared (and are copy-on-write)?
-
-    /**
-     * Flag that indicates whether underlying data structures for
-     * the main hash area are shared or not. If they are, then they
-     * need to be handled in copy-on-write way, i.e. if they need
-     * to be modified, a copy needs to be made first; at this point
-     * it will not be shared any more, and can be modified.
-     *<p>
-     * This flag needs to be checked both when adding new main entries,
-     * and when adding new collision list queues (i.e. creating a new
-     * collision list head entry)
-     */
-    private boolean _mainHashShared;
-
-    private boolean _mainNamesShared;
-
     /**
      * Flag that indicates whether underlying data structures for
-     * the collision list are shared or not. If they are, then they
+     * the hash area are shared or not. If they are, then they
      * need to be handled in copy-on-write way, i.e. if they need
      * to be modified, a copy needs to be made first; at this point
      * it will not be shared any more, and can be modified.
-     *<p>
-     * This flag needs to be checked when adding new collision entries.
      */
-    private boolean _collListShared;
+    private boolean _hashShared;
 
     /*
     /**********************************************************
@@ -230,7 +245,7 @@ public final class BytesToNameCanonicalizer
     /**
      * Constructor used for creating per-<code>JsonFactory</code> "root"
      * symbol tables: ones used for merging and sharing common symbols
-     * 
+     *
      * @param hashSize Initial hash area size
      * @param intern Whether Strings contained should be {@link String#intern}ed
      * @param seed Random seed valued used to make it more difficult to cause
@@ -257,6 +272,7 @@ public final class BytesToNameCanonicalizer
             }
         }
         _tableInfo = new AtomicReference<TableInfo>(initTableInfo(hashSize));
+        _flushCount = new AtomicInteger(0);
     }
 
     /**
@@ -269,27 +285,27 @@ public final class BytesToNameCanonicalizer
         _hashSeed = seed;
         _intern = intern;
         _tableInfo = null; // not used by child tables
+        _flushCount = null;
+        _maxTableSize = parent._maxTableSize;
+        _maxEntriesForReuse = parent._maxEntriesForReuse;
 
         // Then copy shared state
         _count = state.count;
         _mainHashMask = state.mainHashMask;
         _mainHash = state.mainHash;
         _mainNames = state.mainNames;
-        _collList = state.collList;
         _collCount = state.collCount;
-        _collEnd = state.collEnd;
         _longestCollisionList = state.longestCollisionList;
+        _longestProbe = state.longestProbe;
 
         // and then set other state to reflect sharing status
         _needRehash = false;
-        _mainHashShared = true;
-        _mainNamesShared = true;
-        _collListShared = true;
+        _hashShared = true;
     }
 
     /*
         public TableInfo(int count, int mainHashMask, int[] mainHash, Name[] mainNames,
-                Bucket[] collList, int collCount, int collEnd, int longestCollisionList)
+                int collCount, int longestCollisionList, int longestProbe)
      */
     private TableInfo initTableInfo(int hashSize)
     {
@@ -297,19 +313,18 @@ public final class BytesToNameCanonicalizer
                 hashSize - 1, // mainHashMask
                 new int[hashSize], // mainHash
                 new Name[hashSize], // mainNames
-                null, // collList
                 0, // collCount,
-                0, // collEnd
-                0 // longestCollisionList
+                0, // longestCollisionList
+                0 // longestProbe
         );
     }
-    
+
     /*
     /**********************************************************
     /* Life-cycle: factory methods, merging
     /**********************************************************
      */
-    
+
     /**
      * Factory method to call to create a symbol table instance with a
      * randomized seed value.
@@ -317,12 +332,14 @@ public final class BytesToNameCanonicalizer
     public static BytesToNameCanonicalizer createRoot()
     {
         /* [Issue-21]: Need to use a variable seed, to thwart hash-collision
-         * based attacks.
+         * based attacks. Time alone is not enough, as factories created
+         * within same millisecond would share the seed; so let's also mix
+         * in identity hash of a new object.
          */
-        long now = System.currentTimeMillis();
+        long now = System.nanoTime() ^ System.currentTimeMillis();
+        int seed = ((int) now) ^ ((int) (now >>> 32)) ^ System.identityHashCode(new Object());
         // ensure it's not 0; and might as well require to be odd so:
-        int seed = (((int) now) + ((int) now >>> 32)) | 1;
-        return createRoot(seed);
+        return createRoot(_mix(seed) | 1);
     }
 
     /**
@@ -332,11 +349,40 @@ public final class BytesToNameCanonicalizer
     protected static BytesToNameCanonicalizer createRoot(int hashSeed) {
         return new BytesToNameCanonicalizer(DEFAULT_TABLE_SIZE, true, hashSeed);
     }
-    
+
+    /**
+     * Method for changing limits of a root table: these will be used by
+     * child tables created after the call.
+     *
+     * @param maxTableSize Maximum size of the hash area (will
+     *   be rounded up to a power of two); tables that would need to grow
+     *   beyond it are flushed instead. Zero or negative value means that
+     *   default limit is used.
+     * @param maxEntriesForReuse Maximum number of names a child table may
+     *   contain for its names to be merged back into the root table.
+     *   Zero or negative value means that default limit is used.
+     *
+     * @since 1.10
+     */
+    public void setSizeLimits(int maxTableSize, int maxEntriesForReuse)
+    {
+        if (maxTableSize <= 0) {
+            maxTableSize = MAX_TABLE_SIZE;
+        } else {
+            int curr = DEFAULT_TABLE_SIZE;
+            while (curr < maxTableSize) {
+                curr += curr;
+            }
+            maxTableSize = curr;
+        }
+        _maxTableSize = maxTableSize;
+        _maxEntriesForReuse = (maxEntriesForReuse <= 0) ? MAX_ENTRIES_FOR_REUSE : maxEntriesForReuse;
+    }
+
     /**
      * Factory method used to create actual symbol table instance to
      * use for parsing.
-     * 
+     *
      * @param intern Whether canonical symbol Strings should be interned
      *   or not
      */
@@ -361,9 +407,7 @@ public final class BytesToNameCanonicalizer
             /* Let's also mark this instance as dirty, so that just in
              * case release was too early, there's no corruption of possibly shared data.
              */
-            _mainHashShared = true;
-            _mainNamesShared = true;
-            _collListShared = true;
+            _hashShared = true;
         }
     }
 
@@ -371,7 +415,7 @@ public final class BytesToNameCanonicalizer
     {
         final int childCount = childState.count;
         TableInfo currState = _tableInfo.get();
-        
+
         // Only makes sense if child actually has more entries
         if (childCount <= currState.count) {
             return;
@@ -383,12 +427,13 @@ public final class BytesToNameCanonicalizer
          * One way to do this is to just purge tables if they grow
          * too large, and that's what we'll do here.
          */
-        if (childCount > MAX_ENTRIES_FOR_REUSE
+        if (childCount > _maxEntriesForReuse
                 || childState.longestCollisionList > MAX_COLL_CHAIN_FOR_REUSE) {
             /* Should there be a way to get notified about this
              * event, to log it or such? (as it's somewhat abnormal
-             * thing to happen)
+             * thing to happen); for now, we just count them
              */
+            _flushCount.incrementAndGet();
             // At any rate, need to clean up the tables
             childState = initTableInfo(DEFAULT_TABLE_SIZE);
         }
@@ -413,30 +458,41 @@ public final class BytesToNameCanonicalizer
     /**
      * @since 1.9.9
      */
-    public int bucketCount() { return _mainHash.length; }
-    
+    public int bucketCount()
+    {
+        if (_tableInfo != null) { // root table
+            return _tableInfo.get().mainHash.length;
+        }
+        return _mainHash.length;
+    }
+
     /**
      * Method called to check to quickly see if a child symbol table
      * may have gotten additional entries. Used for checking to see
      * if a child table should be merged into shared table.
      */
     public boolean maybeDirty() {
-        return !_mainHashShared;
+        return !_hashShared;
     }
 
     /**
      * @since 1.9.9
      */
     public int hashSeed() { return _hashSeed; }
-    
+
     /**
      * Method mostly needed by unit tests; calculates number of
-     * entries that are in collision list. Value can be at most
-     * ({@link #size} - 1), but should usually be much lower, ideally 0.
-     * 
+     * entries whose primary slot is shared with another entry.
+     * Value can be at most ({@link #size} - 1), but should usually be
+     * much lower, ideally 0.
+     *
      * @since 1.9.9
      */
-    public int collisionCount() {
+    public int collisionCount()
+    {
+        if (_tableInfo != null) { // root table
+            return _tableInfo.get().collCount;
+        }
         return _collCount;
     }
 
@@ -444,19 +500,40 @@ public final class BytesToNameCanonicalizer
      * Method mostly needed by unit tests; calculates length of the
      * longest collision chain. This should typically be a low number,
      * but may be up to {@link #size} - 1 in the pathological case
-     * 
+     *
      * @since 1.9.9
      */
-    public int maxCollisionLength() {
+    public int maxCollisionLength()
+    {
+        if (_tableInfo != null) { // root table
+            return _tableInfo.get().longestCollisionList;
+        }
         return _longestCollisionList;
     }
 
+    /**
+     * Method for getting a snapshot of collision statistics of this table;
+     * for root tables this reflects shared names merged from child tables.
+     *
+     * @since 1.10
+     */
+    public SymbolTableStats stats()
+    {
+        if (_tableInfo != null) { // root table
+            TableInfo info = _tableInfo.get();
+            return new SymbolTableStats(info.count, info.mainHash.length, info.collCount,
+                    info.longestCollisionList, _flushCount.get());
+        }
+        return new SymbolTableStats(_count, _mainHash.length, _collCount,
+                _longestCollisionList, 0);
+    }
+
     /*
     /**********************************************************
     /* Public API, accessing symbols:
     /**********************************************************
      */
-    
+
     public static Name getEmptyName()
     {
         return Name1.getEmptyName();
@@ -479,36 +556,21 @@ public final class BytesToNameCanonicalizer
      */
     public Name findName(int firstQuad)
     {
-        int hash = calcHash(firstQuad);
+        final int hash = calcHash(firstQuad);
         int ix = (hash & _mainHashMask);
         int val = _mainHash[ix];
-        
-        /* High 24 bits of the value are low 24 bits of hash (low 8 bits
-         * are bucket index)... match?
-         */
-        if ((((val >> 8) ^ hash) << 8) == 0) { // match
-            // Ok, but do we have an actual match?
+
+        // Primary slot: most lookups should end here
+        if (val == hash) {
             Name name = _mainNames[ix];
-            if (name == null) { // main slot empty; can't find
-                return null;
-            }
             if (name.equals(firstQuad)) {
                 return name;
             }
         } else if (val == 0) { // empty slot? no match
             return null;
         }
-        // Maybe a spill-over?
-        val &= 0xFF;
-        if (val > 0) { // 0 means 'empty'
-            val -= 1; // to convert from 1-based to 0...
-            Bucket bucket = _collList[val];
-            if (bucket != null) {
-                return bucket.find(hash, firstQuad, 0);
-            }
-        }
-        // Nope, no match whatsoever
-        return null;
+        // Nope; need to probe further
+        return _findSecondary(ix, hash, firstQuad, 0);
     }
 
     /**
@@ -528,36 +590,19 @@ public final class BytesToNameCanonicalizer
      */
     public Name findName(int firstQuad, int secondQuad)
     {
-        int hash = (secondQuad == 0) ? calcHash(firstQuad) : calcHash(firstQuad, secondQuad);
+        final int hash = (secondQuad == 0) ? calcHash(firstQuad) : calcHash(firstQuad, secondQuad);
         int ix = (hash & _mainHashMask);
         int val = _mainHash[ix];
-        
-        /* High 24 bits of the value are low 24 bits of hash (low 8 bits
-         * are bucket index)... match?
-         */
-        if ((((val >> 8) ^ hash) << 8) == 0) { // match
-            // Ok, but do we have an actual match?
+
+        if (val == hash) {
             Name name = _mainNames[ix];
-            if (name == null) { // main slot empty; can't find
-                return null;
-            }
             if (name.equals(firstQuad, secondQuad)) {
                 return name;
             }
         } else if (val == 0) { // empty slot? no match
             return null;
         }
-        // Maybe a spill-over?
-        val &= 0xFF;
-        if (val > 0) { // 0 means 'empty'
-            val -= 1; // to convert from 1-based to 0...
-            Bucket bucket = _collList[val];
-            if (bucket != null) {
-                return bucket.find(hash, firstQuad, secondQuad);
-            }
-        }
-        // Nope, no match whatsoever
-        return null;
+        return _findSecondary(ix, hash, firstQuad, secondQuad);
     }
 
     /**
@@ -582,28 +627,19 @@ public final class BytesToNameCanonicalizer
         if (qlen < 3) { // another sanity check
             return findName(quads[0], (qlen < 2) ? 0 : quads[1]);
         }
-        int hash = calcHash(quads, qlen);
+        final int hash = calcHash(quads, qlen);
         // (for rest of comments regarding logic, see method above)
         int ix = (hash & _mainHashMask);
         int val = _mainHash[ix];
-        if ((((val >> 8) ^ hash) << 8) == 0) {
+        if (val == hash) {
             Name name = _mainNames[ix];
-            if (name == null // main slot empty; no collision list then either
-                || name.equals(quads, qlen)) { // should be match, let's verify
+            if (name.equals(quads, qlen)) {
                 return name;
             }
         } else if (val == 0) { // empty slot? no match
             return null;
         }
-        val &= 0xFF;
-        if (val > 0) { // 0 means 'empty'
-            val -= 1; // to convert from 1-based to 0...
-            Bucket bucket = _collList[val];
-            if (bucket != null) {
-                return bucket.find(hash, quads, qlen);
-            }
-        }
-        return null;
+        return _findSecondary(ix, hash, quads, qlen);
     }
 
     /*
@@ -622,7 +658,7 @@ public final class BytesToNameCanonicalizer
         _addSymbol(hash, symbol);
         return symbol;
     }
-    
+
     public Name addName(String symbolStr, int[] quads, int qlen)
     {
         if (_intern) {
@@ -638,7 +674,29 @@ public final class BytesToNameCanonicalizer
         _addSymbol(hash, symbol);
         return symbol;
     }
-    
+
+    /**
+     * Method for finding name that matches given String, adding it to
+     * the table if not yet included. Not meant to be called during parsing
+     * (since it needs to encode name first), but for things like
+     * pre-loading table with names known to be used.
+     *
+     * @since 1.10
+     */
+    public Name findOrAddName(String symbolStr)
+    {
+        if (symbolStr.length() == 0) {
+            return getEmptyName();
+        }
+        int[] quads = calcQuads(JsonStringEncoder.getInstance().encodeAsUTF8(symbolStr));
+        int qlen = quads.length;
+        Name name = findName(quads, qlen);
+        if (name == null) {
+            name = addName(symbolStr, quads, qlen);
+        }
+        return name;
+    }
+
     /*
     /**********************************************************
     /* Helper methods
@@ -649,35 +707,32 @@ public final class BytesToNameCanonicalizer
      * generate collisions automatically; part of this is to avoid
      * simple "multiply-add" algorithm (like JDK String.hashCode()),
      * and add bit of shifting. And other part is to make this
-     * non-linear, at least for shorter symbols.
+     * non-linear, at least for shorter symbols: for these, quads
+     * are combined with the seed using a full avalanche mixing step,
+     * so that similar names (like "x1" and "x2") do not cluster.
+     *<p>
+     * Also note that hash values are never 0, since that is used to
+     * indicate empty slots.
      */
-    
+
     // JDK uses 31; other fine choices are 33 and 65599, let's use 33
     // as it seems to give fewest collisions for us
     // (see [http://www.cse.yorku.ca/~oz/hash.html] for details)
     private final static int MULT = 33;
     private final static int MULT2 = 65599;
     private final static int MULT3 = 31;
-    
+
     public final int calcHash(int firstQuad)
     {
-        int hash = firstQuad ^ _hashSeed;
-        hash += (hash >>> 15); // to xor hi- and low- 16-bits
-        hash ^= (hash >>> 9); // as well as lowest 2 bytes
-        return hash;
+        int hash = _mix(firstQuad ^ _hashSeed);
+        return (hash == 0) ? 1 : hash;
     }
 
     public final int calcHash(int firstQuad, int secondQuad)
     {
-        /* For two quads, let's change algorithm a bit, to spice
-         * things up (can do bit more processing anyway)
-         */
-        int hash = firstQuad;
-        hash ^= (hash >>> 15); // try mixing first and second byte pairs first
-        hash += (secondQuad * MULT); // then add second quad
-        hash ^= _hashSeed;
-        hash += (hash >>> 7); // and shuffle some more
-        return hash;
+        // mix in the seed with first quad, then second quad
+        int hash = _mix(_mix(firstQuad ^ _hashSeed) + secondQuad);
+        return (hash == 0) ? 1 : hash;
     }
 
     public final int calcHash(int[] quads, int qlen)
@@ -700,7 +755,7 @@ public final class BytesToNameCanonicalizer
         hash += (hash >>> 15);
         hash ^= quads[2];
         hash += (hash >>> 17);
-        
+
         for (int i = 3; i < qlen; ++i) {
             hash = (hash * MULT3) ^ quads[i];
             // for longer entries, mess a bit in-between too
@@ -710,10 +765,27 @@ public final class BytesToNameCanonicalizer
         // and finally shuffle some more once done
         hash += (hash >>> 15); // to get high-order bits to mix more
         hash ^= (hash << 9); // as well as lowest 2 bytes
+        return (hash == 0) ? 1 : hash;
+    }
+
+    /**
+     * Finalization step of MurmurHash3, used for mixing bits of short
+     * names: every input bit affects every output bit.
+     */
+    private static int _mix(int hash)
+    {
+        hash ^= (hash >>> 16);
+        hash *= 0x85EBCA6B;
+        hash ^= (hash >>> 13);
+        hash *= 0xC2B2AE35;
+        hash ^= (hash >>> 16);
         return hash;
     }
 
-    // Method only used by unit tests
+    /**
+     * Helper method for splitting UTF-8 encoded name into quads, the same
+     * way parsers do.
+     */
     protected static int[] calcQuads(byte[] wordBytes)
     {
         int blen = wordBytes.length;
@@ -741,44 +813,12 @@ public final class BytesToNameCanonicalizer
     /**********************************************************
      */
 
-    /*
     @Override
     public String toString()
     {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[BytesToNameCanonicalizer, size: ");
-        sb.append(_count);
-        sb.append('/');
-        sb.append(_mainHash.length);
-        sb.append(", ");
-        sb.append(_collCount);
-        sb.append(" coll; avg length: ");
-
-        // Average length: minimum of 1 for all (1 == primary hit);
-        // and then 1 per each traversal for collisions/buckets
-        //int maxDist = 1;
-        int pathCount = _count;
-        for (int i = 0; i < _collEnd; ++i) {
-            int spillLen = _collList[i].length();
-            for (int j = 1; j <= spillLen; ++j) {
-                pathCount += j;
-            }
-        }
-        double avgLength;
-
-        if (_count == 0) {
-            avgLength = 0.0;
-        } else {
-            avgLength = (double) pathCount / (double) _count;
-        }
-        // let's round up a bit (two 2 decimal places)
-        //avgLength -= (avgLength % 0.01);
-
-        sb.append(avgLength);
-        sb.append(']');
-        return sb.toString();
+        return "[BytesToNameCanonicalizer, size: "+size()+"/"+bucketCount()
+            +", "+collisionCount()+" coll; longest chain: "+maxCollisionLength()+"]";
     }
-    */
 
     /*
     /**********************************************************
@@ -786,9 +826,53 @@ public final class BytesToNameCanonicalizer
     /**********************************************************
      */
 
+    /**
+     * Method called to probe for a name that was not found from its
+     * primary slot. Probing can be limited to the length of the longest
+     * probe sequence used so far, since no entries are ever removed
+     * (except by clearing the whole table).
+     */
+    private Name _findSecondary(int ix, int hash, int q1, int q2)
+    {
+        final int[] mainHash = _mainHash;
+        final int mask = _mainHashMask;
+        for (int i = 1, end = _longestProbe; i <= end; ++i) {
+            ix = (ix + i) & mask;
+            int val = mainHash[ix];
+            if (val == hash) {
+                Name name = _mainNames[ix];
+                if (name.equals(q1, q2)) {
+                    return name;
+                }
+            } else if (val == 0) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private Name _findSecondary(int ix, int hash, int[] quads, int qlen)
+    {
+        final int[] mainHash = _mainHash;
+        final int mask = _mainHashMask;
+        for (int i = 1, end = _longestProbe; i <= end; ++i) {
+            ix = (ix + i) & mask;
+            int val = mainHash[ix];
+            if (val == hash) {
+                Name name = _mainNames[ix];
+                if (name.equals(quads, qlen)) {
+                    return name;
+                }
+            } else if (val == 0) {
+                break;
+            }
+        }
+        return null;
+    }
+
     private void _addSymbol(int hash, Name symbol)
     {
-        if (_mainHashShared) { // always have to modify main entry
+        if (_hashShared) { // always have to modify main entry
             unshareMain();
         }
         // First, do we need to rehash?
@@ -801,48 +885,44 @@ public final class BytesToNameCanonicalizer
         /* Ok, enough about set up: now we need to find the slot to add
          * symbol in:
          */
-        int ix = (hash & _mainHashMask);
-        if (_mainNames[ix] == null) { // primary empty?
-            _mainHash[ix] = (hash << 8);
-            if (_mainNamesShared) {
-                unshareNames();
-            }
-            _mainNames[ix] = symbol;
-        } else { // nope, it's a collision, need to spill over
-            /* How about spill-over area... do we already know the bucket
-             * (is the case if it's not the first collision)
+        final int mask = _mainHashMask;
+        int ix = (hash & mask);
+        if (_mainHash[ix] != 0) { // nope, it's a collision, need to probe
+            /* Names with the same primary slot follow the same probe
+             * sequence, so they are all found before the first free slot
              */
-            if (_collListShared) {
-                unshareCollision(); // also allocates if list was null
+            final int home = ix;
+            int chainLen = 0;
+            int probeLen = 0;
+            do {
+                if ((_mainHash[ix] & mask) == home) {
+                    ++chainLen;
+                }
+                ++probeLen;
+                ix = (ix + probeLen) & mask;
+            } while (_mainHash[ix] != 0);
+            _mainHash[ix] = hash;
+            _mainNames[ix] = symbol;
+            if (probeLen > _longestProbe) {
+                _longestProbe = probeLen;
+                // long probes are due to clustering, not collisions; need more room
+                if (probeLen > MAX_PROBE_LENGTH) {
+                    _needRehash = true;
+                }
             }
-            ++_collCount;
-            int entryValue = _mainHash[ix];
-            int bucket = entryValue & 0xFF;
-            if (bucket == 0) { // first spill over?
-                if (_collEnd <= LAST_VALID_BUCKET) { // yup, still unshared bucket
-                    bucket = _collEnd;
-                    ++_collEnd;
-                    // need to expand?
-                    if (bucket >= _collList.length) {
-                        expandCollision();
+            if (chainLen > 0) {
+                ++_collCount;
+                // but, be careful wrt attacks
+                if (chainLen > _longestCollisionList) {
+                    _longestCollisionList = chainLen;
+                    if (chainLen > MAX_COLL_CHAIN_LENGTH) {
+                        reportTooManyCollisions(MAX_COLL_CHAIN_LENGTH);
                     }
-                } else { // nope, have to share... let's find shortest?
-                    bucket = findBestBucket();
                 }
-                // Need to mark the entry... and the spill index is 1-based
-                _mainHash[ix] = (entryValue & ~0xFF) | (bucket + 1);
-            } else {
-                --bucket; // 1-based index in value
-            }
-            
-            // And then just need to link the new bucket entry in
-            Bucket newB = new Bucket(symbol, _collList[bucket]);
-            _collList[bucket] = newB;
-            // but, be careful wrt attacks
-            _longestCollisionList = Math.max(newB.length(), _longestCollisionList);
-            if (_longestCollisionList > MAX_COLL_CHAIN_LENGTH) {
-                reportTooManyCollisions(MAX_COLL_CHAIN_LENGTH);
             }
+        } else {
+            _mainHash[ix] = hash;
+            _mainNames[ix] = symbol;
         }
 
         /* Ok. Now, do we need a rehash next time? Need to have at least
@@ -866,14 +946,8 @@ public final class BytesToNameCanonicalizer
 
     private void rehash()
     {
-        _needRehash = false;        
-        // Note: since we'll make copies, no need to unshare, can just mark as such:
-        _mainNamesShared = false;
+        _needRehash = false;
 
-        /* And then we can first deal with the main hash area. Since we
-         * are expanding linearly (double up), we know there'll be no
-         * collisions during this phase.
-         */
         int[] oldMainHash = _mainHash;
         int len = oldMainHash.length;
         int newLen = len+len;
@@ -881,84 +955,56 @@ public final class BytesToNameCanonicalizer
         /* 13-Mar-2010, tatu: Let's guard against OOME that could be caused by
          *    large documents with unique (or mostly so) names
          */
-        if (newLen > MAX_TABLE_SIZE) {
+        if (newLen > _maxTableSize) {
             nukeSymbols();
             return;
         }
-        
+
         _mainHash = new int[newLen];
-        _mainHashMask = (newLen - 1);
+        final int mask = (newLen - 1);
+        _mainHashMask = mask;
         Name[] oldNames = _mainNames;
         _mainNames = new Name[newLen];
         int symbolsSeen = 0; // let's do a sanity check
+        int collCount = 0;
+        int maxColl = 0;
+        int maxProbe = 0;
+
+        /* Since probe sequences depend on the size, we can not retain
+         * positions; but can just re-insert entries (no need to check
+         * for duplicates)
+         */
         for (int i = 0; i < len; ++i) {
             Name symbol = oldNames[i];
             if (symbol != null) {
                 ++symbolsSeen;
-                int hash = symbol.hashCode();
-                int ix = (hash & _mainHashMask);
-                _mainNames[ix] = symbol;
-                _mainHash[ix] = hash << 8; // will clear spill index
-            }
-        }
-
-        /* And then the spill area. This may cause collisions, although
-         * not necessarily as many as there were earlier. Let's allocate
-         * same amount of space, however
-         */
-        int oldEnd = _collEnd;
-        if (oldEnd == 0) { // no prior collisions...
-            _longestCollisionList = 0;
-            return;
-        }
-
-        _collCount = 0;
-        _collEnd = 0;
-        _collListShared = false;
-
-        int maxColl = 0;
-        
-        Bucket[] oldBuckets = _collList;
-        _collList = new Bucket[oldBuckets.length];
-        for (int i = 0; i < oldEnd; ++i) {
-            for (Bucket curr = oldBuckets[i]; curr != null; curr = curr._next) {
-                ++symbolsSeen;
-                Name symbol = curr._name;
-                int hash = symbol.hashCode();
-                int ix = (hash & _mainHashMask);
-                int val = _mainHash[ix];
-                if (_mainNames[ix] == null) { // no primary entry?
-                    _mainHash[ix] = (hash << 8);
-                    _mainNames[ix] = symbol;
-                } else { // nope, it's a collision, need to spill over
-                    ++_collCount;
-                    int bucket = val & 0xFF;
-                    if (bucket == 0) { // first spill over?
-                        if (_collEnd <= LAST_VALID_BUCKET) { // yup, still unshared bucket
-                            bucket = _collEnd;
-                            ++_collEnd;
-                            // need to expand?
-                            if (bucket >= _collList.length) {
-                                expandCollision();
-                            }
-                        } else { // nope, have to share... let's find shortest?
-                            bucket = findBestBucket();
+                int hash = oldMainHash[i];
+                int ix = (hash & mask);
+                if (_mainHash[ix] != 0) {
+                    final int home = ix;
+                    int chainLen = 0;
+                    int probeLen = 0;
+                    do {
+                        if ((_mainHash[ix] & mask) == home) {
+                            ++chainLen;
                         }
-                        // Need to mark the entry... and the spill index is 1-based
-                        _mainHash[ix] = (val & ~0xFF) | (bucket + 1);
-                    } else {
-                        --bucket; // 1-based index in value
+                        ++probeLen;
+                        ix = (ix + probeLen) & mask;
+                    } while (_mainHash[ix] != 0);
+                    if (chainLen > 0) {
+                        ++collCount;
+                        maxColl = Math.max(maxColl, chainLen);
                     }
-                    // And then just need to link the new bucket entry in
-                    Bucket newB = new Bucket(symbol, _collList[bucket]);
-                    _collList[bucket] = newB;
-                    maxColl = Math.max(maxColl, newB.length());
+                    maxProbe = Math.max(maxProbe, probeLen);
                 }
-            } // for (... buckets in the chain ...)
-        } // for (... list of bucket heads ... )
-
+                _mainHash[ix] = hash;
+                _mainNames[ix] = symbol;
+            }
+        }
+        _collCount = collCount;
         _longestCollisionList = maxColl;
-        
+        _longestProbe = maxProbe;
+
         if (symbolsSeen != _count) { // sanity check
             throw new RuntimeException("Internal error: count after rehash "+symbolsSeen+"; should be "+_count);
         }
@@ -972,84 +1018,29 @@ public final class BytesToNameCanonicalizer
     {
         _count = 0;
         _longestCollisionList = 0;
+        _longestProbe = 0;
         Arrays.fill(_mainHash, 0);
         Arrays.fill(_mainNames, null);
-        Arrays.fill(_collList, null);
         _collCount = 0;
-        _collEnd = 0;
-    }
-    
-    /**
-     * Method called to find the best bucket to spill a Name over to:
-     * usually the first bucket that has only one entry, but in general
-     * first one of the buckets with least number of entries
-     */
-    private int findBestBucket()
-    {
-        Bucket[] buckets = _collList;
-        int bestCount = Integer.MAX_VALUE;
-        int bestIx = -1;
-
-        for (int i = 0, len = _collEnd; i < len; ++i) {
-            int count = buckets[i].length();
-            if (count < bestCount) {
-                if (count == 1) { // best possible
-                    return i;
-                }
-                bestCount = count;
-                bestIx = i;
-            }
-        }
-        return bestIx;
     }
 
     /**
-     * Method that needs to be called, if the main hash structure
+     * Method that needs to be called, if the hash area
      * is (may be) shared. This happens every time something is added,
-     * even if addition is to the collision list (since collision list
-     * index comes from lowest 8 bits of the primary hash entry)
+     * since both hash and name arrays are modified.
      */
     private void unshareMain()
     {
         int[] old = _mainHash;
-        int len = _mainHash.length;
-
+        int len = old.length;
         _mainHash = new int[len];
         System.arraycopy(old, 0, _mainHash, 0, len);
-        _mainHashShared = false;
-    }
-
-    private void unshareCollision()
-    {
-        Bucket[] old = _collList;
-        if (old == null) {
-            _collList = new Bucket[INITIAL_COLLISION_LEN];
-        } else {
-            int len = old.length;
-            _collList = new Bucket[len];
-            System.arraycopy(old, 0, _collList, 0, len);
-        }
-        _collListShared = false;
-    }
-
-    private void unshareNames()
-    {
-        Name[] old = _mainNames;
-        int len = old.length;
+        Name[] oldNames = _mainNames;
         _mainNames = new Name[len];
-        System.arraycopy(old, 0, _mainNames, 0, len);
-        _mainNamesShared = false;
+        System.arraycopy(oldNames, 0, _mainNames, 0, len);
+        _hashShared = false;
     }
 
-    private void expandCollision()
-    {
-        Bucket[] old = _collList;
-        int len = old.length;
-        _collList = new Bucket[len+len];
-        System.arraycopy(old, 0, _collList, 0, len);
-    }
-
-
     /*
     /**********************************************************
     /* Constructing name objects
@@ -1057,7 +1048,7 @@ public final class BytesToNameCanonicalizer
      */
 
     private static Name constructName(int hash, String name, int q1, int q2)
-    {     
+    {
         if (q2 == 0) { // one quad only?
             return new Name1(name, hash, q1);
         }
@@ -1090,7 +1081,7 @@ public final class BytesToNameCanonicalizer
     /* Other helper methods
     /**********************************************************
      */
-    
+
     /**
      * @since 1.9.9
      */
@@ -1099,7 +1090,7 @@ public final class BytesToNameCanonicalizer
         throw new IllegalStateException("Longest collision chain in symbol table (of size "+_count
                 +") now exceeds maximum, "+maxLen+" -- suspect a DoS attack based on hash collisions");
     }
-    
+
     /*
     /**********************************************************
     /* Helper classes
@@ -1110,7 +1101,7 @@ public final class BytesToNameCanonicalizer
      * Immutable value class used for sharing information as efficiently
      * as possible, by only require synchronization of reference manipulation
      * but not access to contents.
-     * 
+     *
      * @since 1.9.9
      */
     private final static class TableInfo
@@ -1119,22 +1110,20 @@ public final class BytesToNameCanonicalizer
         public final int mainHashMask;
         public final int[] mainHash;
         public final Name[] mainNames;
-        public final Bucket[] collList;
         public final int collCount;
-        public final int collEnd;
         public final int longestCollisionList;
+        public final int longestProbe;
 
         public TableInfo(int count, int mainHashMask, int[] mainHash, Name[] mainNames,
-                Bucket[] collList, int collCount, int collEnd, int longestCollisionList)
+                int collCount, int longestCollisionList, int longestProbe)
         {
             this.count = count;
             this.mainHashMask = mainHashMask;
             this.mainHash = mainHash;
             this.mainNames = mainNames;
-            this.collList = collList;
             this.collCount = collCount;
-            this.collEnd = collEnd;
             this.longestCollisionList = longestCollisionList;
+            this.longestProbe = longestProbe;
         }
 
         public TableInfo(BytesToNameCanonicalizer src)
@@ -1143,66 +1132,9 @@ public final class BytesToNameCanonicalizer
             mainHashMask = src._mainHashMask;
             mainHash = src._mainHash;
             mainNames = src._mainNames;
-            collList = src._collList;
             collCount = src._collCount;
-            collEnd = src._collEnd;
             longestCollisionList = src._longestCollisionList;
-        }
-    
-    }
-    
-    /**
-     * 
-     */
-    final static class Bucket
-    {
-        protected final Name _name;
-        protected final Bucket _next;
-        private final int _length;
-
-        Bucket(Name name, Bucket next)
-        {
-            _name = name;
-            _next = next;
-            _length = (next == null) ? 1 : next._length+1;
-        }
-
-        public int length() { return _length; }
-
-        public Name find(int hash, int firstQuad, int secondQuad)
-        {
-            if (_name.hashCode() == hash) {
-                if (_name.equals(firstQuad, secondQuad)) {
-                    return _name;
-                }
-            }
-            for (Bucket curr = _next; curr != null; curr = curr._next) {
-                Name currName = curr._name;
-                if (currName.hashCode() == hash) {
-                    if (currName.equals(firstQuad, secondQuad)) {
-                        return currName;
-                    }
-                }
-            }
-            return null;
-        }
-
-        public Name find(int hash, int[] quads, int qlen)
-        {
-            if (_name.hashCode() == hash) {
-                if (_name.equals(quads, qlen)) {
-                    return _name;
-                }
-            }
-            for (Bucket curr = _next; curr != null; curr = curr._next) {
-                Name currName = curr._name;
-                if (currName.hashCode() == hash) {
-                    if (currName.equals(quads, qlen)) {
-                        return currName;
-                    }
-                }
-            }
-            return null;
+            longestProbe = src._longestProbe;
         }
     }
 }
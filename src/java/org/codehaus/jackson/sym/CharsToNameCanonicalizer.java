@@ -42,7 +42,8 @@ import org.codehaus.jackson.util.InternCache;
 public final class CharsToNameCanonicalizer
 {
     /* If we use "multiply-add" based hash algorithm, this is the multiplier
-     * we use.
+     * we use for tables with fixed seed; tables with random seed also
+     * use a random multiplier.
      */
     public final static int HASH_MULT = 33;
     
@@ -58,14 +59,16 @@ public final class CharsToNameCanonicalizer
     /**
      * Let's not expand symbol tables past some maximum size;
      * this should protected against OOMEs caused by large documents
-     * with uniquer (~= random) names.
+     * with uniquer (~= random) names. Default value, may be
+     * changed using {@link #setSizeLimits}.
      */
     protected static final int MAX_TABLE_SIZE = 0x10000; // 64k entries == 256k mem
 
     /**
      * Let's only share reasonably sized symbol tables. Max size set to 3/4 of 16k;
      * this corresponds to 64k main hash index. This should allow for enough distinct
-     * names for almost any case.
+     * names for almost any case. Default value, may be
+     * changed using {@link #setSizeLimits}.
      */
     final static int MAX_ENTRIES_FOR_REUSE = 12000;
 
@@ -121,6 +124,32 @@ public final class CharsToNameCanonicalizer
      * @since 1.9.9
      */
     final private int _hashSeed;
+
+    /**
+     * Multiplier used by the "multiply-add" hash calculation; random
+     * for tables with random seed, so that colliding names can not be
+     * precomputed without knowing it.
+     * 
+     * @since 1.10
+     */
+    final private int _hashMult;
+
+    /**
+     * Maximum size of the primary symbol array; if table would need to
+     * grow bigger, it will be flushed instead.
+     * 
+     * @since 1.10
+     */
+    protected int _maxTableSize = MAX_TABLE_SIZE;
+
+    /**
+     * Maximum number of symbols a child table may have for it to
+     * be merged back to the root table; bigger tables are not shared
+     * and root table is flushed.
+     * 
+     * @since 1.10
+     */
+    protected int _maxEntriesForReuse = MAX_ENTRIES_FOR_REUSE;
     
     /**
      * Whether canonical symbol Strings are to be intern()ed before added
@@ -198,6 +227,15 @@ public final class CharsToNameCanonicalizer
      */
     protected boolean _dirty;
 
+    /**
+     * Number of times shared symbols of the root table have been
+     * flushed, because a child table exceeded one of the size or
+     * collision limits. Only used by the root table.
+     * 
+     * @since 1.10
+     */
+    protected int _flushCount;
+
     /*
     /**********************************************************
     /* Life-cycle
@@ -212,16 +250,49 @@ public final class CharsToNameCanonicalizer
     public static CharsToNameCanonicalizer createRoot()
     {
         /* [Issue-21]: Need to use a variable seed, to thwart hash-collision
-         * based attacks.
+         * based attacks. Time alone is not enough, as factories created
+         * within same millisecond would share the seed; so let's also mix
+         * in identity hash of a new object.
          */
-        long now = System.currentTimeMillis();
+        long now = System.nanoTime() ^ System.currentTimeMillis();
+        int seed = ((int) now) ^ ((int) (now >>> 32)) ^ System.identityHashCode(new Object());
         // ensure it's not 0; and might as well require to be odd so:
-        int seed = (((int) now) + ((int) now >>> 32)) | 1;
-        return createRoot(seed);
+        seed = _mix(seed) | 1;
+        // multiplier needs to be odd as well, to keep all bits significant
+        return sBootstrapSymbolTable.makeOrphan(seed, _mix(seed * 0x9E3779B9) | 1);
     }
     
     protected static CharsToNameCanonicalizer createRoot(int hashSeed) {
-        return sBootstrapSymbolTable.makeOrphan(hashSeed);
+        return sBootstrapSymbolTable.makeOrphan(hashSeed, HASH_MULT);
+    }
+
+    /**
+     * Method for changing limits of a root table: these will be used by
+     * child tables created after the call.
+     * 
+     * @param maxTableSize Maximum size of the primary symbol array (will
+     *   be rounded up to a power of two); tables that would need to grow
+     *   beyond it are flushed instead. Zero or negative value means that
+     *   default limit is used.
+     * @param maxEntriesForReuse Maximum number of symbols a child table may
+     *   contain for its symbols to be merged back into the root table.
+     *   Zero or negative value means that default limit is used.
+     * 
+     * @since 1.10
+     */
+    public synchronized void setSizeLimits(int maxTableSize, int maxEntriesForReuse)
+    {
+        if (maxTableSize <= 0) {
+            maxTableSize = MAX_TABLE_SIZE;
+        } else {
+            int curr = DEFAULT_TABLE_SIZE;
+            while (curr < maxTableSize) {
+                curr += curr;
+            }
+            maxTableSize = curr;
+        }
+        _maxTableSize = maxTableSize;
+        _maxEntriesForReuse = (maxEntriesForReuse <= 0) ? MAX_ENTRIES_FOR_REUSE : maxEntriesForReuse;
     }
 
     /**
@@ -238,6 +309,7 @@ public final class CharsToNameCanonicalizer
         // And we'll also set flags so no copying of buckets is needed:
         _dirty = true;
         _hashSeed = 0;
+        _hashMult = HASH_MULT;
         _longestCollisionList = 0;
         initTables(DEFAULT_TABLE_SIZE);
     }
@@ -264,7 +336,7 @@ public final class CharsToNameCanonicalizer
     private CharsToNameCanonicalizer(CharsToNameCanonicalizer parent,
             boolean canonicalize, boolean intern,
             String[] symbols, Bucket[] buckets, int size,
-            int hashSeed, int longestColl)
+            int hashSeed, int hashMult, int longestColl, int maxTableSize, int maxEntriesForReuse)
     {
         _parent = parent;
         _canonicalize = canonicalize;
@@ -274,6 +346,9 @@ public final class CharsToNameCanonicalizer
         _buckets = buckets;
         _size = size;
         _hashSeed = hashSeed;
+        _hashMult = hashMult;
+        _maxTableSize = maxTableSize;
+        _maxEntriesForReuse = maxEntriesForReuse;
         // Hard-coded fill factor, 75%
         int arrayLen = (symbols.length);
         _sizeThreshold = _thresholdSize(arrayLen);
@@ -307,24 +382,32 @@ public final class CharsToNameCanonicalizer
         final Bucket[] buckets;
         final int size;
         final int hashSeed;
+        final int hashMult;
         final int longestCollisionList;
+        final int maxTableSize;
+        final int maxEntriesForReuse;
         
         synchronized (this) {
             symbols = _symbols;
             buckets = _buckets;
             size = _size;
             hashSeed = _hashSeed;
+            hashMult = _hashMult;
             longestCollisionList = _longestCollisionList;
+            maxTableSize = _maxTableSize;
+            maxEntriesForReuse = _maxEntriesForReuse;
         }
         
         return new CharsToNameCanonicalizer(this, canonicalize, intern,
-                symbols, buckets, size, hashSeed, longestCollisionList);
+                symbols, buckets, size, hashSeed, hashMult, longestCollisionList,
+                maxTableSize, maxEntriesForReuse);
     }
 
-    private CharsToNameCanonicalizer makeOrphan(int seed)
+    private CharsToNameCanonicalizer makeOrphan(int seed, int mult)
     {
         return new CharsToNameCanonicalizer(null, true, true,
-                _symbols, _buckets, _size, seed, _longestCollisionList);
+                _symbols, _buckets, _size, seed, mult, _longestCollisionList,
+                MAX_TABLE_SIZE, MAX_ENTRIES_FOR_REUSE);
     }
 
     /**
@@ -342,12 +425,13 @@ public final class CharsToNameCanonicalizer
          * One way to do this is to just purge tables if they grow
          * too large, and that's what we'll do here.
          */
-        if (child.size() > MAX_ENTRIES_FOR_REUSE
+        if (child.size() > _maxEntriesForReuse
                 || child._longestCollisionList > MAX_COLL_CHAIN_FOR_REUSE) {
             // Should there be a way to get notified about this event, to log it or such?
-            // (as it's somewhat abnormal thing to happen)
+            // (as it's somewhat abnormal thing to happen); for now, we just count them
             // At any rate, need to clean up the tables, then:
             synchronized (this) {
+                ++_flushCount;
                 initTables(DEFAULT_TABLE_SIZE);
                 // Dirty flag... well, let's just clear it. Shouldn't really matter for master tables
                 // (which this is, given something is merged to it)
@@ -410,6 +494,14 @@ public final class CharsToNameCanonicalizer
     public boolean maybeDirty() { return _dirty; }
 
     public int hashSeed() { return _hashSeed; }
+
+    /**
+     * Method for accessing multiplier that callers calculating hash codes
+     * incrementally (see {@link #calcHash(char[], int, int)}) need to use.
+     * 
+     * @since 1.10
+     */
+    public int hashMultiplier() { return _hashMult; }
     
     /**
      * Method mostly needed by unit tests; calculates number of
@@ -442,6 +534,18 @@ public final class CharsToNameCanonicalizer
         return _longestCollisionList;
     }
 
+    /**
+     * Method for getting a snapshot of collision statistics of this table;
+     * for root tables this reflects shared symbols merged from child tables.
+     * 
+     * @since 1.10
+     */
+    public synchronized SymbolTableStats stats()
+    {
+        return new SymbolTableStats(size(), bucketCount(), collisionCount(),
+                maxCollisionLength(), _flushCount);
+    }
+
     /*
     /**********************************************************
     /* Public API, accessing symbols:
@@ -537,6 +641,10 @@ public final class CharsToNameCanonicalizer
      * Strings. Most of the time intention is that this calculation
      * is done by caller during parsing, not here; however, sometimes
      * it needs to be done for parsed "String" too.
+     *<p>
+     * Callers calculating hash incrementally need to start with
+     * {@link #hashSeed}, and for each character multiply hash with
+     * {@link #hashMultiplier} before adding the character.
      *
      * @param len Length of String; has to be at least 1 (caller guarantees
      *   this pre-condition)
@@ -545,7 +653,7 @@ public final class CharsToNameCanonicalizer
     {
         int hash = _hashSeed;
         for (int i = 0; i < len; ++i) {
-            hash = (hash * HASH_MULT) + (int) buffer[i];
+            hash = (hash * _hashMult) + (int) buffer[start+i];
         }
         // NOTE: shuffling, if any, is done in 'findSymbol()', not here:
         return (hash == 0) ? 1 : hash;
@@ -557,7 +665,7 @@ public final class CharsToNameCanonicalizer
         
         int hash = _hashSeed;
         for (int i = 0; i < len; ++i) {
-            hash = (hash * HASH_MULT) + (int) key.charAt(i);
+            hash = (hash * _hashMult) + (int) key.charAt(i);
         }
         // NOTE: shuffling, if any, is done in 'findSymbol()', not here:
         return (hash == 0) ? 1 : hash;
@@ -600,7 +708,7 @@ public final class CharsToNameCanonicalizer
          *    prepared to use, to guard against OOME in case of unbounded
          *    name sets (unique [non-repeating] names)
          */
-        if (newSize > MAX_TABLE_SIZE) {
+        if (newSize > _maxTableSize) {
             /* If this happens, there's no point in either growing or
              * shrinking hash areas. Rather, it's better to just clean
              * them up for reuse.
@@ -667,6 +775,20 @@ public final class CharsToNameCanonicalizer
         }
     }
 
+    /**
+     * Bit mixing function (finalizer of MurmurHash3), used for deriving
+     * random seed and multiplier values.
+     */
+    private static int _mix(int h)
+    {
+        h ^= (h >>> 16);
+        h *= 0x85EBCA6B;
+        h ^= (h >>> 13);
+        h *= 0xC2B2AE35;
+        h ^= (h >>> 16);
+        return h;
+    }
+
     /**
      * @since 1.9.9
      */
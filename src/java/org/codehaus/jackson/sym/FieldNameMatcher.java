@@ -0,0 +1,200 @@
+package org.codehaus.jackson.sym;
+
+import java.util.*;
+
+import org.codehaus.jackson.io.JsonStringEncoder;
+
+/**
+ * Helper class used for matching field names from input against an
+ * ordered set of names registered when matcher is constructed; result
+ * of a match is the index of the name within that set (or one of
+ * negative "miss" markers). Matching is designed to be used with
+ * {@link org.codehaus.jackson.JsonParser#nextFieldName(FieldNameMatcher)},
+ * which allows byte-based parsers to match canonicalized {@link Name}
+ * instances using their quads (UTF-8 encoded bytes, as ints), without
+ * having to access or hash the <code>String</code> representation of
+ * the name.
+ *<p>
+ * Instances are thread-safe and are meant to be shared: a matcher is
+ * usually constructed once per POJO type, and then used by all parsers.
+ *
+ * @since 1.10
+ */
+public final class FieldNameMatcher
+{
+    /**
+     * Marker returned when the current token is a field name, but one
+     * that is not included in the set of names matcher has.
+     */
+    public final static int MATCH_UNKNOWN_NAME = -1;
+
+    /**
+     * Marker returned when the current token is
+     * {@link org.codehaus.jackson.JsonToken#END_OBJECT}.
+     */
+    public final static int MATCH_END_OBJECT = -2;
+
+    /**
+     * Marker returned when the current token is something other than
+     * field name or end-object (or end of input has been reached).
+     */
+    public final static int MATCH_ODD_TOKEN = -3;
+
+    /**
+     * Names in the order they were registered
+     */
+    protected final String[] _names;
+
+    /**
+     * Open-addressing hash area for <code>String</code> lookups;
+     * contains name index plus one, or 0 for empty slot.
+     */
+    protected final int[] _hashArea;
+
+    protected final int _hashMask;
+
+    /**
+     * UTF-8 encoded names as quads, in the same order as
+     * <code>_names</code>; split the same way as byte-based parsers do.
+     */
+    protected final int[][] _quads;
+
+    /**
+     * Open-addressing hash area for {@link Name} lookups, using
+     * hash codes calculated from quads (see {@link Name#quadHash});
+     * contains name index plus one, or 0 for empty slot.
+     */
+    protected final int[] _quadHashArea;
+
+    /**
+     * Quad-based hash codes of names in matching slots of
+     * <code>_quadHashArea</code>
+     */
+    protected final int[] _quadHashes;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    protected FieldNameMatcher(String[] names)
+    {
+        _names = names;
+        int size = 8;
+        // keep fill rate at or below 50% to keep probe sequences short
+        while (size < (names.length + names.length)) {
+            size += size;
+        }
+        _hashMask = size-1;
+        _hashArea = new int[size];
+        for (int i = 0, len = names.length; i < len; ++i) {
+            String name = names[i];
+            if (name == null) {
+                throw new IllegalArgumentException("Null name at index #"+i);
+            }
+            int ix = name.hashCode() & _hashMask;
+            while (_hashArea[ix] != 0) {
+                if (_names[_hashArea[ix]-1].equals(name)) {
+                    throw new IllegalArgumentException("Duplicate name '"+name+"' at index #"+i);
+                }
+                ix = (ix + 1) & _hashMask;
+            }
+            _hashArea[ix] = i+1;
+        }
+        final JsonStringEncoder enc = JsonStringEncoder.getInstance();
+        _quads = new int[names.length][];
+        _quadHashArea = new int[size];
+        _quadHashes = new int[size];
+        for (int i = 0, len = names.length; i < len; ++i) {
+            int[] quads = BytesToNameCanonicalizer.calcQuads(enc.encodeAsUTF8(names[i]));
+            if (quads.length == 0) { // empty name is represented by a single zero quad
+                quads = new int[1];
+            }
+            _quads[i] = quads;
+            int hash = Name.calcQuadHash(quads, quads.length);
+            int ix = hash & _hashMask;
+            while (_quadHashArea[ix] != 0) {
+                ix = (ix + 1) & _hashMask;
+            }
+            _quadHashArea[ix] = i+1;
+            _quadHashes[ix] = hash;
+        }
+    }
+
+    /**
+     * Factory method for constructing a matcher for given ordered
+     * set of names; index of a match will be the index of name within
+     * given array.
+     */
+    public static FieldNameMatcher construct(String... names)
+    {
+        return new FieldNameMatcher(names.clone());
+    }
+
+    /**
+     * Factory method for constructing a matcher for given ordered
+     * set of names; index of a match will be the position of name in
+     * iteration order of given collection.
+     */
+    public static FieldNameMatcher construct(Collection<String> names)
+    {
+        return new FieldNameMatcher(names.toArray(new String[names.size()]));
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    public int size() { return _names.length; }
+
+    public String nameAt(int index) { return _names[index]; }
+
+    /**
+     * Method for finding index of given name, if it is one of names
+     * this matcher has; or {@link #MATCH_UNKNOWN_NAME} if not.
+     */
+    public int matchName(String name)
+    {
+        int ix = name.hashCode() & _hashMask;
+        int i;
+        while ((i = _hashArea[ix]) != 0) {
+            String str = _names[--i];
+            if (str == name || str.equals(name)) {
+                return i;
+            }
+            ix = (ix + 1) & _hashMask;
+        }
+        return MATCH_UNKNOWN_NAME;
+    }
+
+    /**
+     * Method for finding index of given canonicalized byte-based name,
+     * or {@link #MATCH_UNKNOWN_NAME} if not one of names this matcher has.
+     * Matching is done using quads of the name, so it works the same
+     * for names from all symbol tables.
+     */
+    public int matchName(Name name)
+    {
+        final int hash = name.quadHash();
+        int ix = hash & _hashMask;
+        int i;
+        while ((i = _quadHashArea[ix]) != 0) {
+            if (_quadHashes[ix] == hash) {
+                int[] quads = _quads[--i];
+                if (name.equals(quads, quads.length)) {
+                    return i;
+                }
+            }
+            ix = (ix + 1) & _hashMask;
+        }
+        return MATCH_UNKNOWN_NAME;
+    }
+
+    @Override
+    public String toString() {
+        return "[FieldNameMatcher: "+Arrays.asList(_names)+"]";
+    }
+}
@@ -9,6 +9,13 @@ package org.codehaus.jackson.sym;
  */
 public abstract class Name
 {
+    /**
+     * Multiplier used for calculating quad-based hash codes
+     *
+     * @since 1.10
+     */
+    protected final static int QUAD_HASH_MULT = 33;
+
     protected final String _name;
 
     protected final int _hashCode;
@@ -32,6 +39,37 @@ public abstract class Name
 
     public abstract boolean equals(int[] quads, int qlen);
 
+    /**
+     * Method for calculating hash code from quads of the name; unlike
+     * {@link #hashCode}, it does not depend on the symbol table the name
+     * came from, so it can be used for matching names from different
+     * tables (see {@link FieldNameMatcher}).
+     * Needs to return the same value as {@link #calcQuadHash}.
+     *
+     * @since 1.10
+     */
+    public abstract int quadHash();
+
+    /**
+     * @since 1.10
+     */
+    public static int calcQuadHash(int[] quads, int qlen)
+    {
+        int hash = quads[0];
+        for (int i = 1; i < qlen; ++i) {
+            hash = (hash * QUAD_HASH_MULT) + quads[i];
+        }
+        return _finishQuadHash(hash);
+    }
+
+    protected static int _finishQuadHash(int hash)
+    {
+        hash ^= (hash >>> 16);
+        hash *= 0x85EBCA6B;
+        hash ^= (hash >>> 13);
+        return hash;
+    }
+
     /*
     /**********************************************************
     /* Overridden standard methods
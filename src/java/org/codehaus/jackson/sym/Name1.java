@@ -41,4 +41,9 @@ public final class Name1
     {
         return (qlen == 1 && quads[0] == mQuad);
     }
+
+    @Override
+    public int quadHash() {
+        return _finishQuadHash(mQuad);
+    }
 }
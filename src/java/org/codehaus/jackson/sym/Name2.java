@@ -37,4 +37,9 @@ public final class Name2
     {
         return (qlen == 2 && quads[0] == mQuad1 && quads[1] == mQuad2);
     }
+
+    @Override
+    public int quadHash() {
+        return _finishQuadHash((mQuad1 * QUAD_HASH_MULT) + mQuad2);
+    }
 }
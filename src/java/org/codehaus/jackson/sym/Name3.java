@@ -36,4 +36,10 @@ public final class Name3
             && (quads[1] == mQuad2)
             && (quads[2] == mQuad3);
     }
+
+    @Override
+    public int quadHash() {
+        int hash = (mQuad1 * QUAD_HASH_MULT) + mQuad2;
+        return _finishQuadHash((hash * QUAD_HASH_MULT) + mQuad3);
+    }
 }
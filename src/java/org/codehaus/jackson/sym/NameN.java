@@ -65,4 +65,9 @@ public final class NameN
         }
         return true;
     }
+
+    @Override
+    public int quadHash() {
+        return calcQuadHash(mQuads, mQuadLen);
+    }
 }
@@ -0,0 +1,69 @@
+package org.codehaus.jackson.sym;
+
+/**
+ * Simple immutable value class that contains a snapshot of statistics
+ * of a symbol table: mostly useful for monitoring whether input
+ * contains unusually high number of hash collisions (which may
+ * indicate a hash-collision based DoS attack), or too many distinct
+ * names for symbol tables to be useful.
+ *
+ * @since 1.10
+ */
+public final class SymbolTableStats
+{
+    protected final int _size;
+
+    protected final int _bucketCount;
+
+    protected final int _collisionCount;
+
+    protected final int _maxCollisionLength;
+
+    protected final int _flushCount;
+
+    public SymbolTableStats(int size, int bucketCount, int collisionCount,
+            int maxCollisionLength, int flushCount)
+    {
+        _size = size;
+        _bucketCount = bucketCount;
+        _collisionCount = collisionCount;
+        _maxCollisionLength = maxCollisionLength;
+        _flushCount = flushCount;
+    }
+
+    /**
+     * Number of symbols in the table
+     */
+    public int getSize() { return _size; }
+
+    /**
+     * Number of primary hash slots the table has
+     */
+    public int getBucketCount() { return _bucketCount; }
+
+    /**
+     * Number of symbols whose primary hash slot is shared with
+     * another symbol
+     */
+    public int getCollisionCount() { return _collisionCount; }
+
+    /**
+     * Length of the longest collision chain (symbols sharing the
+     * same primary hash slot)
+     */
+    public int getMaxCollisionLength() { return _maxCollisionLength; }
+
+    /**
+     * Number of times shared symbols were flushed, because a table
+     * exceeded size or collision limits
+     */
+    public int getFlushCount() { return _flushCount; }
+
+    @Override
+    public String toString()
+    {
+        return "[SymbolTableStats: size="+_size+", buckets="+_bucketCount
+            +", collisions="+_collisionCount+", max collision length="+_maxCollisionLength
+            +", flushes="+_flushCount+"]";
+    }
+}
@@ -25,6 +25,14 @@ public class BufferRecycler
          * example when requesting output as byte array.
          */
         ,WRITE_CONCAT_BUFFER(2000)
+
+        /**
+         * Buffer used for temporarily holding content being encoded into,
+         * or decoded from, base64, when content is streamed.
+         *
+         * @since 1.10
+         */
+        ,BASE64_CODEC_BUFFER(2000)
         ;
             
         private final int size;
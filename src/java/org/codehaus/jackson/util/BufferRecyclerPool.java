@@ -0,0 +1,277 @@
+package org.codehaus.jackson.util;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Abstraction that determines how {@link BufferRecycler} instances are
+ * shared between parsers and generators constructed by a
+ * {@link org.codehaus.jackson.JsonFactory}. A recycler is acquired when
+ * a parser or generator is constructed, and released back when it is
+ * closed.
+ *<p>
+ * Three implementations are included:
+ *<ul>
+ * <li>{@link ThreadLocalPool} (default): one recycler per thread, referenced
+ *   via <code>ThreadLocal</code> and {@link SoftReference}. This works well
+ *   with small number of long-lived threads, but gives little reuse
+ *   (and retains memory for each thread) with large number of short-lived
+ *   threads.
+ *  </li>
+ * <li>{@link BoundedPool}: fixed-size pool shared by all threads, using
+ *   lock-free access. Recyclers released when the pool is full are
+ *   simply dropped.
+ *  </li>
+ * <li>{@link NonRecyclingPool}: no reuse; new recycler constructed for
+ *   each parser and generator.
+ *  </li>
+ *</ul>
+ * All implementations keep count of misses (new recycler constructed),
+ * and shared pools also of hits (recycler reused), to help with sizing
+ * of pools. {@link ThreadLocalPool} does not count hits, since that would
+ * add contended updates of shared counters for every parser and
+ * generator constructed.
+ *
+ * @since 1.10
+ */
+public abstract class BufferRecyclerPool
+{
+    protected final AtomicLong _hits = new AtomicLong();
+
+    protected final AtomicLong _misses = new AtomicLong();
+
+    protected BufferRecyclerPool() { }
+
+    /*
+    /**********************************************************
+    /* Factory methods
+    /**********************************************************
+     */
+
+    /**
+     * Factory method for constructing pool that uses per-thread recyclers;
+     * this is the default pool used by factories. Recyclers are shared
+     * by all thread-local pools, but each pool keeps its own miss count.
+     */
+    public static BufferRecyclerPool threadLocalPool() {
+        return new ThreadLocalPool();
+    }
+
+    /**
+     * Factory method for constructing a shared pool that retains at most
+     * given number of recyclers.
+     */
+    public static BufferRecyclerPool boundedPool(int maxSize) {
+        return new BoundedPool(maxSize);
+    }
+
+    /**
+     * Factory method for constructing pool that does not reuse recyclers.
+     */
+    public static BufferRecyclerPool nonRecyclingPool() {
+        return new NonRecyclingPool();
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    /**
+     * Method called to get a recycler for exclusive use by a parser,
+     * generator or other reader/writer, until released with
+     * {@link #releaseBufferRecycler}.
+     */
+    public abstract BufferRecycler acquireBufferRecycler();
+
+    /**
+     * Method called when a recycler obtained using
+     * {@link #acquireBufferRecycler} is no longer used by the caller;
+     * caller must not use the recycler after calling this method.
+     */
+    public abstract void releaseBufferRecycler(BufferRecycler recycler);
+
+    /**
+     * Accessor for checking whether this pool associates recyclers with
+     * threads; if so, callers may similarly retain their own
+     * per-thread helper objects.
+     */
+    public boolean isThreadLocal() {
+        return false;
+    }
+
+    /**
+     * @return Number of times an existing recycler was reused; or -1
+     *   if pool does not keep track of reuse
+     */
+    public long getHitCount() {
+        return _hits.get();
+    }
+
+    /**
+     * @return Number of times a new recycler had to be constructed
+     */
+    public long getMissCount() {
+        return _misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "["+getClass().getSimpleName()+": hits="+getHitCount()+", misses="+getMissCount()+"]";
+    }
+
+    /*
+    /**********************************************************
+    /* Standard implementations
+    /**********************************************************
+     */
+
+    /**
+     * Default pool implementation, which uses a per-thread recycler,
+     * linked via a <code>ThreadLocal</code> containing a
+     * {@link java.lang.ref.SoftReference}; release is a no-op.
+     * Only misses are counted (see {@link #getHitCount}).
+     */
+    public static class ThreadLocalPool extends BufferRecyclerPool
+    {
+        protected final static ThreadLocal<SoftReference<BufferRecycler>> _recyclerRef
+            = new ThreadLocal<SoftReference<BufferRecycler>>();
+
+        @Override
+        public BufferRecycler acquireBufferRecycler()
+        {
+            SoftReference<BufferRecycler> ref = _recyclerRef.get();
+            BufferRecycler br = (ref == null) ? null : ref.get();
+
+            if (br == null) {
+                _misses.incrementAndGet();
+                br = new BufferRecycler();
+                _recyclerRef.set(new SoftReference<BufferRecycler>(br));
+            }
+            return br;
+        }
+
+        /**
+         * Hits are not counted, to keep acquisition free of updates to
+         * shared state.
+         *
+         * @return -1 to indicate that count is not available
+         */
+        @Override
+        public long getHitCount() {
+            return -1L;
+        }
+
+        @Override
+        public void releaseBufferRecycler(BufferRecycler recycler) {
+            // nothing to do: recycler stays with the thread
+        }
+
+        @Override
+        public boolean isThreadLocal() {
+            return true;
+        }
+    }
+
+    /**
+     * Pool that retains up to specified number of recyclers in a fixed
+     * array of slots, accessed using atomic get-and-set and
+     * compare-and-set operations (and no locking).
+     * Threads start probing from different slots, to reduce contention.
+     */
+    public static class BoundedPool extends BufferRecyclerPool
+    {
+        protected final AtomicReferenceArray<BufferRecycler> _slots;
+
+        protected final int _size;
+
+        public BoundedPool(int maxSize)
+        {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Pool size must be at least 1 (got "+maxSize+")");
+            }
+            _size = maxSize;
+            _slots = new AtomicReferenceArray<BufferRecycler>(maxSize);
+        }
+
+        @Override
+        public BufferRecycler acquireBufferRecycler()
+        {
+            final int size = _size;
+            int ix = _startIndex();
+            for (int i = 0; i < size; ++i) {
+                if (_slots.get(ix) != null) {
+                    BufferRecycler br = _slots.getAndSet(ix, null);
+                    if (br != null) {
+                        _hits.incrementAndGet();
+                        return br;
+                    }
+                }
+                if (++ix == size) {
+                    ix = 0;
+                }
+            }
+            _misses.incrementAndGet();
+            return new BufferRecycler();
+        }
+
+        @Override
+        public void releaseBufferRecycler(BufferRecycler recycler)
+        {
+            final int size = _size;
+            int ix = _startIndex();
+            for (int i = 0; i < size; ++i) {
+                if (_slots.get(ix) == null && _slots.compareAndSet(ix, null, recycler)) {
+                    return;
+                }
+                if (++ix == size) {
+                    ix = 0;
+                }
+            }
+            // pool is full; just let it be garbage collected
+        }
+
+        /**
+         * @return Maximum number of recyclers pool retains
+         */
+        public int getMaxSize() {
+            return _size;
+        }
+
+        /**
+         * @return Number of recyclers currently retained by the pool
+         */
+        public int getPooledCount()
+        {
+            int count = 0;
+            for (int i = 0; i < _size; ++i) {
+                if (_slots.get(i) != null) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+
+        private int _startIndex() {
+            return (int) (Thread.currentThread().getId() % _size);
+        }
+    }
+
+    /**
+     * Pool implementation that does not reuse recyclers at all; every
+     * acquisition is counted as a miss.
+     */
+    public static class NonRecyclingPool extends BufferRecyclerPool
+    {
+        @Override
+        public BufferRecycler acquireBufferRecycler() {
+            _misses.incrementAndGet();
+            return new BufferRecycler();
+        }
+
+        @Override
+        public void releaseBufferRecycler(BufferRecycler recycler) { }
+    }
+}
@@ -0,0 +1,489 @@
+package org.codehaus.jackson.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Specialized {@link JsonParserDelegate} that only exposes tokens of
+ * values matched by given {@link JsonPathFilter}: all other content is
+ * skipped using {@link JsonParser#skipChildren} of the underlying parser,
+ * which is the cheapest way to skip content. Since filtering is done
+ * at token level, instances can be passed to
+ * {@link ObjectCodec#readValue(JsonParser,Class)} and
+ * {@link ObjectCodec#readTree(JsonParser)}, and content that does
+ * not match is never bound.
+ *<p>
+ * Parser can operate in one of two modes:
+ *<ul>
+ * <li>By default, only matched values are exposed, as a sequence of
+ *  root-level values (so that, for example, path "/items/*&#47;price"
+ *  exposes each matching price value as a separate root-level value).
+ *  </li>
+ * <li>If "include path" option is enabled, enclosing Objects and Arrays
+ *  (and property names) of matching values are exposed as well, so that
+ *  exposed content forms a pruned version of the original document.
+ *  Containers that do not have matching content are omitted.
+ *  </li>
+ *</ul>
+ * Note that {@link #getParsingContext} and location accessors are
+ * delegated to the underlying parser, and thus reflect position within
+ * the full document.
+ *
+ * @since 1.10
+ */
+public class FilteringParserDelegate extends JsonParserDelegate
+{
+    /**
+     * Filter used for root-level values
+     */
+    protected final JsonPathFilter _rootFilter;
+
+    /**
+     * Whether enclosing containers of matching values are to be exposed
+     * or not.
+     */
+    protected final boolean _includePath;
+
+    /**
+     * Innermost container (of the underlying parser) that may contain
+     * matching content; null when at root level (or within matching
+     * value).
+     */
+    protected Context _context;
+
+    /**
+     * Number of open containers within the matching value currently
+     * being exposed (if any); when non-zero, all tokens are exposed as is.
+     */
+    protected int _matchDepth;
+
+    /**
+     * Flag set when a property name of a matching value has been exposed,
+     * and the value itself needs to be exposed next.
+     */
+    protected boolean _matchValueNext;
+
+    /**
+     * Flag set when enclosing containers of a matching token are being
+     * exposed; matching token itself is the current token of the
+     * underlying parser.
+     */
+    protected boolean _replaying;
+
+    /**
+     * Property name of the current token, when it has been constructed
+     * to expose enclosing path (and is not the current token of the
+     * underlying parser).
+     */
+    protected String _replayName;
+
+    /*
+    /**********************************************************
+    /* Construction
+    /**********************************************************
+     */
+
+    public FilteringParserDelegate(JsonParser p, JsonPathFilter filter)
+    {
+        this(p, filter, false);
+    }
+
+    /**
+     * @param p Underlying parser to read content from
+     * @param filter Filter that determines which values are exposed
+     * @param includePath Whether enclosing containers and property names of
+     *   matching values are to be exposed as well (true), or just
+     *   the matching values themselves (false)
+     */
+    public FilteringParserDelegate(JsonParser p, JsonPathFilter filter, boolean includePath)
+    {
+        super(p);
+        _rootFilter = filter;
+        _includePath = includePath;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, token accessors
+    /**********************************************************
+     */
+
+    @Override
+    public JsonToken getCurrentToken() {
+        return _currToken;
+    }
+
+    @Override
+    public boolean hasCurrentToken() {
+        return _currToken != null;
+    }
+
+    @Override
+    public void clearCurrentToken() {
+        if (_currToken != null) {
+            _lastClearedToken = _currToken;
+            _currToken = null;
+        }
+    }
+
+    @Override
+    public JsonToken getLastClearedToken() {
+        return _lastClearedToken;
+    }
+
+    @Override
+    public String getCurrentName() throws IOException, JsonParseException {
+        if (_replaying) {
+            return _replayName;
+        }
+        return delegate.getCurrentName();
+    }
+
+    @Override
+    public String getText() throws IOException, JsonParseException {
+        if (_replaying) {
+            return (_currToken == JsonToken.FIELD_NAME) ? _replayName : _currToken.asString();
+        }
+        return delegate.getText();
+    }
+
+    @Override
+    public int getText(Writer writer) throws IOException, JsonParseException {
+        if (_replaying) {
+            String text = getText();
+            writer.write(text);
+            return text.length();
+        }
+        return delegate.getText(writer);
+    }
+
+    @Override
+    public boolean hasTextCharacters() {
+        if (_replaying) {
+            return false;
+        }
+        return delegate.hasTextCharacters();
+    }
+
+    @Override
+    public char[] getTextCharacters() throws IOException, JsonParseException {
+        if (_replaying) {
+            return getText().toCharArray();
+        }
+        return delegate.getTextCharacters();
+    }
+
+    @Override
+    public int getTextLength() throws IOException, JsonParseException {
+        if (_replaying) {
+            return getText().length();
+        }
+        return delegate.getTextLength();
+    }
+
+    @Override
+    public int getTextOffset() throws IOException, JsonParseException {
+        if (_replaying) {
+            return 0;
+        }
+        return delegate.getTextOffset();
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, traversal
+    /**********************************************************
+     */
+
+    @Override
+    public JsonToken nextToken() throws IOException, JsonParseException
+    {
+        // Are we exposing enclosing containers of a match?
+        if (_replaying) {
+            return (_currToken = _replayNext());
+        }
+        // Or property name of a matching value just exposed?
+        if (_matchValueNext) {
+            _matchValueNext = false;
+            return (_currToken = _startMatch(delegate.nextToken()));
+        }
+        // Or within matching value?
+        if (_matchDepth > 0) {
+            JsonToken t = delegate.nextToken();
+            if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+                ++_matchDepth;
+            } else if (t == JsonToken.END_OBJECT || t == JsonToken.END_ARRAY) {
+                --_matchDepth;
+            }
+            return (_currToken = t);
+        }
+        return (_currToken = _nextFiltered());
+    }
+
+    /**
+     * Need to override, since the underlying parser can only skip content
+     * of matching values, and not synthetic containers exposed for
+     * enclosing path.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_OBJECT && _currToken != JsonToken.START_ARRAY) {
+            return this;
+        }
+        if (!_replaying && _matchDepth > 0) {
+            delegate.skipChildren();
+            --_matchDepth;
+            _currToken = delegate.getCurrentToken();
+            return this;
+        }
+        int open = 1;
+        while (true) {
+            JsonToken t = nextToken();
+            if (t == null) {
+                return this;
+            }
+            switch (t) {
+            case START_OBJECT:
+            case START_ARRAY:
+                ++open;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                if (--open == 0) {
+                    return this;
+                }
+                break;
+            }
+        }
+    }
+
+    @Override
+    public int readRawValue(OutputStream out) throws IOException, JsonParseException
+    {
+        // containers exposed for enclosing path have no raw representation
+        if (_replaying) {
+            return -1;
+        }
+        int count = delegate.readRawValue(out);
+        if (count >= 0 && _matchDepth > 0
+                && (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY)) {
+            --_matchDepth;
+            _currToken = delegate.getCurrentToken();
+        }
+        return count;
+    }
+
+    @Override
+    public int[] readIntArray() throws IOException, JsonParseException
+    {
+        return _replaying ? null : _afterBulkRead(delegate.readIntArray());
+    }
+
+    @Override
+    public long[] readLongArray() throws IOException, JsonParseException
+    {
+        return _replaying ? null : _afterBulkRead(delegate.readLongArray());
+    }
+
+    @Override
+    public float[] readFloatArray() throws IOException, JsonParseException
+    {
+        return _replaying ? null : _afterBulkRead(delegate.readFloatArray());
+    }
+
+    @Override
+    public double[] readDoubleArray() throws IOException, JsonParseException
+    {
+        return _replaying ? null : _afterBulkRead(delegate.readDoubleArray());
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    /**
+     * Method called after the delegate has (possibly) read the whole
+     * current Array in bulk, to update matching state the same way as
+     * {@link #readRawValue} does.
+     */
+    protected <T> T _afterBulkRead(T result)
+    {
+        if (result != null && _matchDepth > 0 && _currToken == JsonToken.START_ARRAY) {
+            --_matchDepth;
+            _currToken = delegate.getCurrentToken();
+        }
+        return result;
+    }
+
+    /**
+     * Method called to find the next token to expose, when not within
+     * matching value.
+     */
+    protected JsonToken _nextFiltered() throws IOException, JsonParseException
+    {
+        while (true) {
+            JsonToken t = delegate.nextToken();
+            if (t == null) {
+                return null;
+            }
+            Context ctxt = _context;
+            JsonPathFilter f;
+
+            switch (t) {
+            case FIELD_NAME:
+                /* Name must be accessed here: once the delegate has advanced to
+                 * the value, not all parsers report it any more
+                 */
+                String name = delegate.getCurrentName();
+                f = ctxt.filter.filterForName(name);
+                if (f == null) { // no match: skip value
+                    delegate.nextToken();
+                    delegate.skipChildren();
+                    continue;
+                }
+                if (f.matches()) {
+                    if (_includePath) {
+                        _matchValueNext = true;
+                        return _startReplay(t);
+                    }
+                    return _startMatch(delegate.nextToken());
+                }
+                t = delegate.nextToken();
+                if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+                    _context = new Context(ctxt, f, t, name);
+                }
+                continue;
+            case END_OBJECT:
+            case END_ARRAY:
+                _context = ctxt.parent;
+                if (ctxt.exposed) {
+                    return t;
+                }
+                continue;
+            default: // value; either root-level, or an Array element
+            }
+            if (ctxt == null) {
+                f = _rootFilter;
+            } else {
+                f = ctxt.filter.filterForIndex(ctxt.index++);
+                if (f == null) {
+                    delegate.skipChildren();
+                    continue;
+                }
+            }
+            if (f.matches()) {
+                if (_includePath && ctxt != null) {
+                    if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+                        _matchDepth = 1;
+                    }
+                    return _startReplay(t);
+                }
+                return _startMatch(t);
+            }
+            if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+                _context = new Context(ctxt, f, t, null);
+            }
+        }
+    }
+
+    /**
+     * Method called when the given token (current token of the underlying
+     * parser) starts a matching value.
+     */
+    protected final JsonToken _startMatch(JsonToken t)
+    {
+        if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+            _matchDepth = 1;
+        }
+        return t;
+    }
+
+    /**
+     * Method called when given token (current token of the underlying parser)
+     * is a match, to first expose enclosing containers that have not yet
+     * been exposed.
+     */
+    protected JsonToken _startReplay(JsonToken t)
+    {
+        if (_context.exposed) {
+            return t;
+        }
+        _replaying = true;
+        return _replayNext();
+    }
+
+    protected JsonToken _replayNext()
+    {
+        // Find the outermost container not yet exposed
+        Context ctxt = _context;
+        if (ctxt.exposed) { // all done; back to the current token of delegate
+            _replaying = false;
+            _replayName = null;
+            return delegate.getCurrentToken();
+        }
+        while (ctxt.parent != null && !ctxt.parent.exposed) {
+            ctxt = ctxt.parent;
+        }
+        if (ctxt.name != null && !ctxt.nameExposed) {
+            ctxt.nameExposed = true;
+            _replayName = ctxt.name;
+            return JsonToken.FIELD_NAME;
+        }
+        ctxt.exposed = true;
+        _replayName = ctxt.name;
+        return ctxt.startToken;
+    }
+
+    /*
+    /**********************************************************
+    /* Helper classes
+    /**********************************************************
+     */
+
+    /**
+     * Information about an open container of the underlying parser
+     * that may contain matching content.
+     */
+    protected final static class Context
+    {
+        public final Context parent;
+
+        public final JsonPathFilter filter;
+
+        public final JsonToken startToken;
+
+        /**
+         * Name of the property that has this container as value, if any
+         */
+        public final String name;
+
+        /**
+         * Index of the next element, for Arrays
+         */
+        public int index;
+
+        /**
+         * Whether start token of this container has been exposed
+         */
+        public boolean exposed;
+
+        /**
+         * Whether property name that preceded this container has been exposed
+         */
+        public boolean nameExposed;
+
+        public Context(Context parent, JsonPathFilter filter, JsonToken startToken, String name)
+        {
+            this.parent = parent;
+            this.filter = filter;
+            this.startToken = startToken;
+            this.name = name;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.codehaus.jackson.util;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
@@ -107,6 +109,11 @@ public class JsonGeneratorDelegate extends JsonGenerator
         delegate.writeBinary(b64variant, data, offset, len);
     }
 
+    @Override
+    public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength) throws IOException, JsonGenerationException {
+        return delegate.writeBinary(b64variant, data, dataLength);
+    }
+
     @Override
     public void writeBoolean(boolean state) throws IOException, JsonGenerationException {
         delegate.writeBoolean(state);
@@ -117,6 +124,26 @@ public class JsonGeneratorDelegate extends JsonGenerator
         delegate.writeEndArray();
     }
 
+    @Override
+    public void writeArray(int[] array, int offset, int length) throws IOException, JsonGenerationException {
+        delegate.writeArray(array, offset, length);
+    }
+
+    @Override
+    public void writeArray(long[] array, int offset, int length) throws IOException, JsonGenerationException {
+        delegate.writeArray(array, offset, length);
+    }
+
+    @Override
+    public void writeArray(float[] array, int offset, int length) throws IOException, JsonGenerationException {
+        delegate.writeArray(array, offset, length);
+    }
+
+    @Override
+    public void writeArray(double[] array, int offset, int length) throws IOException, JsonGenerationException {
+        delegate.writeArray(array, offset, length);
+    }
+
     @Override
     public void writeEndObject() throws IOException, JsonGenerationException {
         delegate.writeEndObject();
@@ -227,6 +254,11 @@ public class JsonGeneratorDelegate extends JsonGenerator
          delegate.writeRawValue(text, offset, len);
     }
 
+    @Override
+    public void writeRawValue(byte[] utf8, int offset, int len) throws IOException, JsonGenerationException {
+        delegate.writeRawValue(utf8, offset, len);
+    }
+
     @Override
     public void writeStartArray() throws IOException, JsonGenerationException {
          delegate.writeStartArray();
@@ -247,6 +279,11 @@ public class JsonGeneratorDelegate extends JsonGenerator
         delegate.writeString(text, offset, len);
     }
 
+    @Override
+    public void writeString(Reader reader, int len) throws IOException, JsonGenerationException {
+        delegate.writeString(reader, len);
+    }
+
     @Override
     public void writeString(SerializableString text) throws IOException, JsonGenerationException {
         delegate.writeString(text);
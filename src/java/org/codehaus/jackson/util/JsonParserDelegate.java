@@ -1,6 +1,8 @@
 package org.codehaus.jackson.util;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
@@ -147,6 +149,11 @@ public class JsonParserDelegate extends JsonParser
         return delegate.getText();
     }
 
+    @Override
+    public int getText(Writer writer) throws IOException, JsonParseException {
+        return delegate.getText(writer);
+    }
+
     @Override
     public char[] getTextCharacters() throws IOException, JsonParseException {
         return delegate.getTextCharacters();
@@ -227,6 +234,31 @@ public class JsonParserDelegate extends JsonParser
         return delegate.getBinaryValue(b64variant);
     }
 
+    @Override
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out) throws IOException, JsonParseException {
+        return delegate.readBinaryValue(b64variant, out);
+    }
+
+    @Override
+    public int[] readIntArray() throws IOException, JsonParseException {
+        return delegate.readIntArray();
+    }
+
+    @Override
+    public long[] readLongArray() throws IOException, JsonParseException {
+        return delegate.readLongArray();
+    }
+
+    @Override
+    public float[] readFloatArray() throws IOException, JsonParseException {
+        return delegate.readFloatArray();
+    }
+
+    @Override
+    public double[] readDoubleArray() throws IOException, JsonParseException {
+        return delegate.readDoubleArray();
+    }
+
     @Override
     public Object getEmbeddedObject() throws IOException, JsonParseException {
         return delegate.getEmbeddedObject();
@@ -248,4 +280,9 @@ public class JsonParserDelegate extends JsonParser
         // NOTE: must NOT delegate this method to delegate, needs to be self-reference for chaining
         return this;
     }
+
+    @Override
+    public int readRawValue(OutputStream out) throws IOException, JsonParseException {
+        return delegate.readRawValue(out);
+    }
 }
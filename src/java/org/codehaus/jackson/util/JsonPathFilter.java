@@ -0,0 +1,209 @@
+package org.codehaus.jackson.util;
+
+import java.util.*;
+
+/**
+ * Immutable compiled set of path expressions, used by
+ * {@link FilteringParserDelegate} to determine which parts of
+ * content to expose.
+ *<p>
+ * Path expressions use syntax similar to JSON Pointer: a sequence of
+ * segments, each preceded by a slash, like "/meta/id". Each segment either
+ * matches a property name of an Object, or an index of an Array element
+ * (when segment is a non-negative integer, like "/items/0").
+ * Special segment "*" matches any property name as well as any array index
+ * (like "/items/*&#47;price"). Characters '/' and '~' within property names
+ * are escaped as "~1" and "~0", respectively. Empty expression ("")
+ * matches the whole document.
+ *<p>
+ * Expressions are compiled into a deterministic tree of filters; each
+ * instance represents state of matching at a single level of nesting,
+ * and child filters are accessed using {@link #filterForName} and
+ * {@link #filterForIndex}.
+ *
+ * @since 1.10
+ */
+public final class JsonPathFilter
+{
+    /**
+     * Segment that matches any property name and array index
+     */
+    public final static String WILDCARD = "*";
+
+    /**
+     * Flag that indicates whether a complete path expression ends at this
+     * level: if so, the whole value is to be included.
+     */
+    protected final boolean _matches;
+
+    /**
+     * Filters for explicitly named segments; already contain expressions
+     * that match via wildcard as well.
+     */
+    protected final Map<String,JsonPathFilter> _named;
+
+    /**
+     * Filter used for segments not explicitly named, if any
+     */
+    protected final JsonPathFilter _wildcard;
+
+    private JsonPathFilter(boolean matches, Map<String,JsonPathFilter> named,
+            JsonPathFilter wildcard)
+    {
+        _matches = matches;
+        _named = named;
+        _wildcard = wildcard;
+    }
+
+    /**
+     * Factory method for compiling given path expressions into a filter
+     * that matches content that any one of expressions matches.
+     *
+     * @throws IllegalArgumentException If any of expressions is not valid
+     */
+    public static JsonPathFilter compile(String... paths)
+    {
+        if (paths.length == 0) {
+            throw new IllegalArgumentException("Need to specify at least one path expression");
+        }
+        ArrayList<List<String>> segmentLists = new ArrayList<List<String>>(paths.length);
+        for (String path : paths) {
+            segmentLists.add(_parse(path));
+        }
+        return _build(segmentLists, 0);
+    }
+
+    /*
+    /**********************************************************
+    /* Accessors
+    /**********************************************************
+     */
+
+    /**
+     * Method for checking whether the value at this level is fully
+     * matched by one of expressions (and should be included as is)
+     */
+    public boolean matches() {
+        return _matches;
+    }
+
+    /**
+     * Method for finding filter to use for the value of Object property
+     * with given name.
+     *
+     * @return Filter to use for the property value, if it may contain matches;
+     *   null if nothing within the value can match (and it can be skipped)
+     */
+    public JsonPathFilter filterForName(String name)
+    {
+        if (_named != null) {
+            JsonPathFilter f = _named.get(name);
+            if (f != null) {
+                return f;
+            }
+        }
+        return _wildcard;
+    }
+
+    /**
+     * Method for finding filter to use for the Array element at given index.
+     *
+     * @return Filter to use for the element, if it may contain matches;
+     *   null if nothing within the element can match (and it can be skipped)
+     */
+    public JsonPathFilter filterForIndex(int index)
+    {
+        if (_named != null) {
+            JsonPathFilter f = _named.get(String.valueOf(index));
+            if (f != null) {
+                return f;
+            }
+        }
+        return _wildcard;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    private static List<String> _parse(String path)
+    {
+        ArrayList<String> segments = new ArrayList<String>();
+        if (path.length() == 0) {
+            return segments;
+        }
+        if (path.charAt(0) != '/') {
+            throw new IllegalArgumentException("Invalid path expression \""+path+"\": must start with '/'");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1, len = path.length(); i <= len; ++i) {
+            char c = (i == len) ? '/' : path.charAt(i);
+            if (c == '/') {
+                segments.add(sb.toString());
+                sb.setLength(0);
+            } else if (c == '~') {
+                char next = (++i < len) ? path.charAt(i) : ' ';
+                if (next == '0') {
+                    sb.append('~');
+                } else if (next == '1') {
+                    sb.append('/');
+                } else {
+                    throw new IllegalArgumentException("Invalid path expression \""+path+"\": illegal escape sequence at "+(i-1));
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return segments;
+    }
+
+    private static JsonPathFilter _build(List<List<String>> paths, int level)
+    {
+        boolean matches = false;
+        ArrayList<List<String>> wildcards = null;
+        LinkedHashMap<String,List<List<String>>> byName = null;
+        for (List<String> path : paths) {
+            if (path.size() == level) {
+                matches = true;
+                continue;
+            }
+            String segment = path.get(level);
+            if (WILDCARD.equals(segment)) {
+                if (wildcards == null) {
+                    wildcards = new ArrayList<List<String>>();
+                }
+                wildcards.add(path);
+            } else {
+                if (byName == null) {
+                    byName = new LinkedHashMap<String,List<List<String>>>();
+                }
+                List<List<String>> l = byName.get(segment);
+                if (l == null) {
+                    l = new ArrayList<List<String>>();
+                    byName.put(segment, l);
+                }
+                l.add(path);
+            }
+        }
+        // If whole value matches, no need to look deeper
+        if (matches) {
+            return new JsonPathFilter(true, null, null);
+        }
+        JsonPathFilter wildcard = (wildcards == null) ? null : _build(wildcards, level+1);
+        HashMap<String,JsonPathFilter> named = null;
+        if (byName != null) {
+            named = new HashMap<String,JsonPathFilter>();
+            for (Map.Entry<String,List<List<String>>> en : byName.entrySet()) {
+                List<List<String>> l = en.getValue();
+                // wildcard expressions apply to explicitly named segments as well
+                if (wildcards != null) {
+                    l.addAll(wildcards);
+                }
+                named.put(en.getKey(), _build(l, level+1));
+            }
+        }
+        return new JsonPathFilter(false, named, wildcard);
+    }
+}
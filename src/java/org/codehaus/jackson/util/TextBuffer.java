@@ -1,5 +1,7 @@
 package org.codehaus.jackson.util;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 
@@ -367,6 +369,47 @@ public final class TextBuffer
         return _resultString;
     }
  
+    /**
+     * Method for writing contents of the buffer into given {@link Writer},
+     * without aggregating segments into a single String or array.
+     *
+     * @return Number of characters written
+     *
+     * @since 1.10
+     */
+    public int contentsToWriter(Writer w) throws IOException
+    {
+        if (_resultArray != null) {
+            w.write(_resultArray);
+            return _resultArray.length;
+        }
+        if (_resultString != null) {
+            w.write(_resultString);
+            return _resultString.length();
+        }
+        // Do we use shared array?
+        if (_inputStart >= 0) {
+            if (_inputLen > 0) {
+                w.write(_inputBuffer, _inputStart, _inputLen);
+            }
+            return _inputLen;
+        }
+        // nope, segments:
+        int total = 0;
+        if (_segments != null) {
+            for (int i = 0, len = _segments.size(); i < len; ++i) {
+                char[] curr = _segments.get(i);
+                w.write(curr);
+                total += curr.length;
+            }
+        }
+        if (_currentSize > 0) {
+            w.write(_currentSegment, 0, _currentSize);
+            total += _currentSize;
+        }
+        return total;
+    }
+
     public char[] contentsAsArray()
     {
         char[] result = _resultArray;
@@ -409,6 +452,23 @@ public final class TextBuffer
         return NumberInput.parseDouble(contentsAsString());
     }
 
+    /**
+     * Convenience method for converting contents of the buffer
+     * into a Double value; optionally without first constructing
+     * a {@link String} (see {@link NumberInput#parseDouble(char[],int,int)}).
+     *
+     * @since 1.10
+     */
+    public double contentsAsDouble(boolean useFastParser)
+        throws NumberFormatException
+    {
+        // no point in avoiding String construction if we already have one
+        if (useFastParser && _resultString == null) {
+            return NumberInput.parseDouble(getTextBuffer(), getTextOffset(), size());
+        }
+        return contentsAsDouble();
+    }
+
     /*
     /**********************************************************
     /* Public mutators:
@@ -1,5 +1,7 @@
 package org.codehaus.jackson.map;
 
+import java.util.Collection;
+
 import org.codehaus.jackson.io.SerializedString;
 import org.codehaus.jackson.map.deser.BeanDeserializerModifier;
 import org.codehaus.jackson.map.deser.ValueInstantiators;
@@ -182,4 +184,17 @@ public abstract class DeserializerProvider
      * @since 1.4
      */
     public abstract void flushCachedDeserializers();
+
+    /**
+     * Method that will add names of all properties that cached bean
+     * deserializers handle into given collection. Used for pre-loading
+     * symbol tables parsers use (see
+     * {@link ObjectMapper#preloadFieldNames}).
+     *<p>
+     * Default implementation does not add anything, since it does not
+     * know about caching done by sub-classes.
+     * 
+     * @since 1.10
+     */
+    public void collectCachedPropertyNames(Collection<String> names) { }
 }
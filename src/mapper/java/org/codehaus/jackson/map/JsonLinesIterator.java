@@ -0,0 +1,400 @@
+package org.codehaus.jackson.map;
+
+import java.io.*;
+import java.util.NoSuchElementException;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.impl.ReaderBasedParser;
+
+/**
+ * {@link MappingIterator} used for reading newline-delimited JSON
+ * content ("JSON Lines"), where each non-blank line contains exactly
+ * one JSON value. Since input is split into records by line boundaries
+ * before parsing, a broken record does not prevent reading of records
+ * that follow it: exception thrown for the invalid record leaves
+ * iterator positioned at the next line, so caller can just catch the
+ * exception and keep on iterating. Alternatively, iterator can be
+ * configured to silently skip invalid records (see
+ * {@link #setSkipInvalidRecords}).
+ *<p>
+ * Exceptions for invalid records are reported as
+ * {@link JsonMappingException}s, with location that indicates line
+ * number (within whole input) of the record, and original problem
+ * as the cause.
+ *<p>
+ * Instances are constructed using <code>readLines</code> methods
+ * of {@link ObjectReader}.
+ *
+ * @since 1.10
+ */
+public class JsonLinesIterator<T>
+    extends MappingIterator<T>
+    implements Closeable
+{
+    protected final static int INITIAL_BUFFER_SIZE = 4000;
+
+    /**
+     * Reader that constructed this iterator; needed for parser and
+     * deserialization context construction
+     */
+    protected final ObjectReader _objectReader;
+
+    /**
+     * Source of content to read; null after end-of-input has been
+     * reached or iterator closed.
+     */
+    protected Reader _source;
+
+    /**
+     * Deserialization context bound to current parser
+     */
+    protected DeserializationContext _lineContext;
+
+    /*
+    /**********************************************************
+    /* Input buffering, line splitting
+    /**********************************************************
+     */
+
+    protected char[] _buffer;
+
+    protected int _inputPtr;
+
+    protected int _inputEnd;
+
+    /**
+     * Start offset of the current line within {@link #_buffer}
+     */
+    protected int _lineStart;
+
+    /**
+     * End offset (exclusive, not including linefeed) of the current
+     * line within {@link #_buffer}
+     */
+    protected int _lineEnd;
+
+    /**
+     * Flag set when the last line ended with a CR that was the last
+     * character in buffer, so that a following LF must be skipped
+     */
+    protected boolean _skipLF;
+
+    /**
+     * Number of lines read so far (including blank lines)
+     */
+    protected int _lineNr;
+
+    /**
+     * Line number of the latest record read
+     */
+    protected int _recordLineNr;
+
+    /*
+    /**********************************************************
+    /* Record state
+    /**********************************************************
+     */
+
+    /**
+     * Value of the record that {@link #hasNextValue} has read but that
+     * has not yet been returned by {@link #nextValue}
+     */
+    protected T _next;
+
+    protected boolean _skipInvalid;
+
+    protected int _skippedCount;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    protected JsonLinesIterator(ObjectReader reader, JsonDeserializer<?> deser,
+            Reader src, boolean closeSource)
+    {
+        super(reader._valueType, null, null, deser, closeSource, reader._valueToUpdate);
+        _objectReader = reader;
+        _source = src;
+        _buffer = new char[INITIAL_BUFFER_SIZE];
+    }
+
+    /**
+     * Method that can be called to stop iterating before end of input
+     * is reached: closes parser, and underlying source if iterator
+     * owns it (was not given by caller).
+     */
+    @Override
+    public void close() throws IOException
+    {
+        _buffer = null;
+        _next = null;
+        _hasNextChecked = false;
+        JsonParser jp = _parser;
+        if (jp != null) {
+            _parser = null;
+            jp.close();
+        }
+        Reader src = _source;
+        if (src != null) {
+            _source = null;
+            if (_closeParser) {
+                src.close();
+            }
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Configuration, accessors
+    /**********************************************************
+     */
+
+    /**
+     * Method for enabling or disabling skipping of invalid records: if
+     * enabled, records that can not be parsed or bound are skipped
+     * (and counted, see {@link #getSkippedRecordCount}) instead of
+     * exception being thrown. Problems with reading underlying input
+     * are always reported.
+     */
+    public void setSkipInvalidRecords(boolean state) {
+        _skipInvalid = state;
+    }
+
+    public boolean isSkipInvalidRecords() { return _skipInvalid; }
+
+    /**
+     * Number of invalid records skipped so far, when skipping is enabled
+     */
+    public int getSkippedRecordCount() { return _skippedCount; }
+
+    /**
+     * Line number (1-based) of the latest record read (or attempted
+     * to read, if it was invalid); 0 if none read yet.
+     */
+    public int getLineNumber() { return _recordLineNr; }
+
+    /*
+    /**********************************************************
+    /* MappingIterator overrides
+    /**********************************************************
+     */
+
+    @Override
+    public boolean hasNextValue() throws IOException
+    {
+        if (_hasNextChecked) {
+            return true;
+        }
+        while (_nextLine()) {
+            if (_isBlank(_lineStart, _lineEnd)) {
+                continue;
+            }
+            _recordLineNr = _lineNr;
+            try {
+                _next = _readRecord(_lineStart, _lineEnd - _lineStart);
+            } catch (JsonProcessingException e) {
+                if (!_skipInvalid) {
+                    throw _recordException(e);
+                }
+                ++_skippedCount;
+                continue;
+            }
+            _hasNextChecked = true;
+            return true;
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public T nextValue() throws IOException
+    {
+        if (!_hasNextChecked) {
+            if (!hasNextValue()) {
+                throw new NoSuchElementException();
+            }
+        }
+        _hasNextChecked = false;
+        T result = _next;
+        _next = null;
+        return result;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, parsing
+    /**********************************************************
+     */
+
+    protected T _readRecord(int offset, int len) throws IOException
+    {
+        JsonParser jp = _parser;
+        // Plain JSON parsers can be reused for all lines; others not
+        if (jp instanceof ReaderBasedParser) {
+            ((ReaderBasedParser) jp).reset(_buffer, offset, len);
+        } else {
+            if (jp != null) {
+                jp.close();
+            }
+            jp = _objectReader._jsonFactory.createJsonParser(_buffer, offset, len);
+            if (_objectReader._schema != null) {
+                jp.setSchema(_objectReader._schema);
+            }
+            _parser = jp;
+            _lineContext = _objectReader._createDeserializationContext(jp, _objectReader._config);
+        }
+        if (jp.nextToken() == null) { // should not occur, since line is not blank
+            throw new JsonParseException("No content to map", jp.getCurrentLocation());
+        }
+        T result;
+        if (_updatedValue == null) {
+            result = _deserializer.deserialize(jp, _lineContext);
+        } else {
+            _deserializer.deserialize(jp, _lineContext, _updatedValue);
+            result = _updatedValue;
+        }
+        // Each line must contain exactly one value
+        if (jp.nextToken() != null) {
+            throw new JsonParseException("Unexpected content after record value (token "
+                    +jp.getCurrentToken()+")", jp.getTokenLocation());
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for constructing exception to throw for an invalid
+     * record, with line number of the record and column number from
+     * the original exception.
+     */
+    protected JsonMappingException _recordException(JsonProcessingException e)
+    {
+        JsonLocation origLoc = e.getLocation();
+        int col = (origLoc == null) ? -1 : origLoc.getColumnNr();
+        String msg = e.getMessage();
+        // original location refers to the line only, so let's leave it out
+        int ix = msg.indexOf('\n');
+        if (ix >= 0) {
+            msg = msg.substring(0, ix);
+        }
+        return new JsonMappingException("Invalid record at line "+_recordLineNr+": "+msg,
+                new JsonLocation(null, -1L, _recordLineNr, col), e);
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, line splitting
+    /**********************************************************
+     */
+
+    /**
+     * Method for locating the next line of input; if one is found,
+     * its boundaries are stored in {@link #_lineStart} and
+     * {@link #_lineEnd}.
+     *
+     * @return True if a line was found; false if end of input was reached
+     */
+    protected boolean _nextLine() throws IOException
+    {
+        if (_buffer == null) { // closed
+            return false;
+        }
+        if (_skipLF) {
+            _skipLF = false;
+            if (_inputPtr < _inputEnd || _loadMore()) {
+                if (_buffer[_inputPtr] == '\n') {
+                    ++_inputPtr;
+                }
+            }
+        }
+        int ptr = _inputPtr;
+        while (true) {
+            final char[] buf = _buffer;
+            final int end = _inputEnd;
+            for (; ptr < end; ++ptr) {
+                char c = buf[ptr];
+                if (c == '\n' || c == '\r') {
+                    _lineStart = _inputPtr;
+                    _lineEnd = ptr;
+                    ++_lineNr;
+                    if (++ptr < end) {
+                        if (c == '\r' && buf[ptr] == '\n') {
+                            ++ptr;
+                        }
+                    } else if (c == '\r') {
+                        _skipLF = true;
+                    }
+                    _inputPtr = ptr;
+                    return true;
+                }
+            }
+            // No linefeed in buffer: need more content
+            int scanned = ptr - _inputPtr;
+            if (!_loadMore()) {
+                // if there's content after the last linefeed, it's the last line
+                if (_inputPtr < _inputEnd) {
+                    _lineStart = _inputPtr;
+                    _lineEnd = _inputEnd;
+                    _inputPtr = _inputEnd;
+                    ++_lineNr;
+                    return true;
+                }
+                return false;
+            }
+            ptr = _inputPtr + scanned;
+        }
+    }
+
+    /**
+     * Method that moves unprocessed content to the beginning of buffer
+     * (expanding buffer if it is full) and reads more content after it.
+     *
+     * @return True if more content was read; false if end of input
+     */
+    protected boolean _loadMore() throws IOException
+    {
+        if (_source == null) {
+            return false;
+        }
+        int remaining = _inputEnd - _inputPtr;
+        if (_inputPtr > 0) {
+            if (remaining > 0) {
+                System.arraycopy(_buffer, _inputPtr, _buffer, 0, remaining);
+            }
+        } else if (remaining == _buffer.length) { // line longer than buffer
+            char[] old = _buffer;
+            _buffer = new char[old.length + (old.length >> 1)];
+            System.arraycopy(old, 0, _buffer, 0, remaining);
+        }
+        _inputPtr = 0;
+        _inputEnd = remaining;
+        int count = _source.read(_buffer, remaining, _buffer.length - remaining);
+        if (count > 0) {
+            _inputEnd += count;
+            return true;
+        }
+        if (count == 0) { // should never occur
+            throw new IOException("Reader returned 0 characters when trying to read "+(_buffer.length - remaining));
+        }
+        // End of input: no more reads, but let's not lose buffered content
+        Reader src = _source;
+        _source = null;
+        if (_closeParser) {
+            src.close();
+        }
+        return false;
+    }
+
+    protected final boolean _isBlank(int start, int end)
+    {
+        final char[] buf = _buffer;
+        for (; start < end; ++start) {
+            char c = buf[start];
+            if (c != ' ' && c != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
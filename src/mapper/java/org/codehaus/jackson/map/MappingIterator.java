@@ -184,4 +184,32 @@ public class MappingIterator<T> implements Iterator<T>
         _parser.clearCurrentToken();
         return result;
     }
+
+    /**
+     * Method for reading up to specified number of values into given
+     * List, which is cleared first. Allows reusing the same List for
+     * processing input in batches, without having to go through
+     * {@link Iterator} methods for each value.
+     *<p>
+     * If an exception is thrown, values read before the failure
+     * remain in the List.
+     * 
+     * @param result List to clear and add values to
+     * @param maxCount Maximum number of values to read
+     * 
+     * @return Number of values read; less than <code>maxCount</code>
+     *   only if end of input was reached (0 if there are no more values)
+     * 
+     * @since 1.10
+     */
+    public int readBatch(List<? super T> result, int maxCount) throws IOException
+    {
+        result.clear();
+        int count = 0;
+        while (count < maxCount && hasNextValue()) {
+            result.add(nextValue());
+            ++count;
+        }
+        return count;
+    }
 }
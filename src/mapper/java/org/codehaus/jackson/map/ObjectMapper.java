@@ -5,6 +5,8 @@ import java.lang.reflect.Type;
 import java.net.URL;
 import java.text.DateFormat;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.codehaus.jackson.*;
@@ -1801,6 +1803,26 @@ public class ObjectMapper
         return _deserializerProvider.hasValueDeserializerFor(copyDeserializationConfig(), type);
     }
 
+    /**
+     * Method for pre-loading symbol tables of the {@link JsonFactory} this
+     * mapper uses with names of all properties that bean serializers and
+     * deserializers constructed (and cached) so far handle. Calling this
+     * once (de)serializers for main types have been constructed (for
+     * example, by calling {@link #canSerialize} and {@link #canDeserialize})
+     * lets parsers find these names from symbol tables even for the first
+     * documents parsed.
+     * 
+     * @since 1.10
+     */
+    public ObjectMapper preloadFieldNames()
+    {
+        Set<String> names = new LinkedHashSet<String>();
+        _serializerProvider.collectCachedPropertyNames(names);
+        _deserializerProvider.collectCachedPropertyNames(names);
+        _jsonFactory.preloadFieldNames(names);
+        return this;
+    }
+
     /*
     /**********************************************************
     /* Extended Public API, deserialization,
@@ -2093,9 +2115,14 @@ public class ObjectMapper
         throws IOException, JsonGenerationException, JsonMappingException
     {        
         // alas, we have to pull the recycler directly here...
-        SegmentedStringWriter sw = new SegmentedStringWriter(_jsonFactory._getBufferRecycler());
-        _configAndWriteValue(_jsonFactory.createJsonGenerator(sw), value);
-        return sw.getAndClear();
+        BufferRecycler br = _jsonFactory._getBufferRecycler();
+        try {
+            SegmentedStringWriter sw = new SegmentedStringWriter(br);
+            _configAndWriteValue(_jsonFactory.createJsonGenerator(sw), value);
+            return sw.getAndClear();
+        } finally {
+            _jsonFactory._releaseBufferRecycler(br);
+        }
     }
     
     /**
@@ -2110,11 +2137,16 @@ public class ObjectMapper
     public byte[] writeValueAsBytes(Object value)
         throws IOException, JsonGenerationException, JsonMappingException
     {        
-        ByteArrayBuilder bb = new ByteArrayBuilder(_jsonFactory._getBufferRecycler());
-        _configAndWriteValue(_jsonFactory.createJsonGenerator(bb, JsonEncoding.UTF8), value);
-        byte[] result = bb.toByteArray();
-        bb.release();
-        return result;
+        BufferRecycler br = _jsonFactory._getBufferRecycler();
+        try {
+            ByteArrayBuilder bb = new ByteArrayBuilder(br);
+            _configAndWriteValue(_jsonFactory.createJsonGenerator(bb, JsonEncoding.UTF8), value);
+            byte[] result = bb.toByteArray();
+            bb.release();
+            return result;
+        } finally {
+            _jsonFactory._releaseBufferRecycler(br);
+        }
     }
 
     /*
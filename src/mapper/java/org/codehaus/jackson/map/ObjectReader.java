@@ -697,6 +697,68 @@ public class ObjectReader
                 _findRootDeserializer(_config, _valueType), true, _valueToUpdate);
     }
     
+    /*
+    /**********************************************************
+    /* Deserialization methods; reading newline-delimited records
+    /**********************************************************
+     */
+
+    /**
+     * Method for reading newline-delimited JSON content ("JSON Lines"),
+     * in which each non-blank line contains a single JSON value.
+     * Unlike with {@link #readValues(Reader)}, an invalid record only
+     * fails that record: iteration may continue from the next line.
+     * See {@link JsonLinesIterator} for details.
+     *<p>
+     * Given Reader is closed by iterator when end of input is reached
+     * (or iterator is closed).
+     * 
+     * @since 1.10
+     */
+    public <T> JsonLinesIterator<T> readLines(Reader src)
+        throws IOException, JsonProcessingException
+    {
+        return new JsonLinesIterator<T>(this, _findRootDeserializer(_config, _valueType),
+                src, true);
+    }
+
+    /**
+     * Method for reading newline-delimited JSON content ("JSON Lines")
+     * from given stream, which is expected to contain UTF-8 encoded
+     * content; see {@link #readLines(Reader)} for details.
+     * 
+     * @since 1.10
+     */
+    public <T> JsonLinesIterator<T> readLines(InputStream src)
+        throws IOException, JsonProcessingException
+    {
+        return readLines(new InputStreamReader(src, "UTF-8"));
+    }
+
+    /**
+     * Method for reading newline-delimited JSON content ("JSON Lines")
+     * from given UTF-8 encoded file; see {@link #readLines(Reader)} for details.
+     * 
+     * @since 1.10
+     */
+    public <T> JsonLinesIterator<T> readLines(File src)
+        throws IOException, JsonProcessingException
+    {
+        return readLines(new FileInputStream(src));
+    }
+
+    /**
+     * Method for reading newline-delimited JSON content ("JSON Lines")
+     * contained in given String; see {@link #readLines(Reader)} for details.
+     * 
+     * @since 1.10
+     */
+    public <T> JsonLinesIterator<T> readLines(String content)
+        throws IOException, JsonProcessingException
+    {
+        return readLines(new StringReader(content));
+    }
+    
     /*
     /**********************************************************
     /* Helper methods
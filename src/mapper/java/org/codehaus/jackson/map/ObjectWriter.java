@@ -8,6 +8,7 @@ import org.codehaus.jackson.io.SegmentedStringWriter;
 import org.codehaus.jackson.map.ser.FilterProvider;
 import org.codehaus.jackson.type.JavaType;
 import org.codehaus.jackson.type.TypeReference;
+import org.codehaus.jackson.util.BufferRecycler;
 import org.codehaus.jackson.util.ByteArrayBuilder;
 import org.codehaus.jackson.util.DefaultPrettyPrinter;
 import org.codehaus.jackson.util.MinimalPrettyPrinter;
@@ -389,9 +390,14 @@ public class ObjectWriter
         throws IOException, JsonGenerationException, JsonMappingException
     {        
         // alas, we have to pull the recycler directly here...
-        SegmentedStringWriter sw = new SegmentedStringWriter(_jsonFactory._getBufferRecycler());
-        _configAndWriteValue(_jsonFactory.createJsonGenerator(sw), value);
-        return sw.getAndClear();
+        BufferRecycler br = _jsonFactory._getBufferRecycler();
+        try {
+            SegmentedStringWriter sw = new SegmentedStringWriter(br);
+            _configAndWriteValue(_jsonFactory.createJsonGenerator(sw), value);
+            return sw.getAndClear();
+        } finally {
+            _jsonFactory._releaseBufferRecycler(br);
+        }
     }
     
     /**
@@ -404,11 +410,83 @@ public class ObjectWriter
     public byte[] writeValueAsBytes(Object value)
         throws IOException, JsonGenerationException, JsonMappingException
     {        
-        ByteArrayBuilder bb = new ByteArrayBuilder(_jsonFactory._getBufferRecycler());
-        _configAndWriteValue(_jsonFactory.createJsonGenerator(bb, JsonEncoding.UTF8), value);
-        byte[] result = bb.toByteArray();
-        bb.release();
-        return result;
+        BufferRecycler br = _jsonFactory._getBufferRecycler();
+        try {
+            ByteArrayBuilder bb = new ByteArrayBuilder(br);
+            _configAndWriteValue(_jsonFactory.createJsonGenerator(bb, JsonEncoding.UTF8), value);
+            byte[] result = bb.toByteArray();
+            bb.release();
+            return result;
+        } finally {
+            _jsonFactory._releaseBufferRecycler(br);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Serialization methods, sequences of values
+    /**********************************************************
+     */
+
+    /**
+     * Method for constructing a {@link SequenceWriter} for writing a
+     * sequence of values as newline-delimited JSON ("JSON Lines")
+     * using given Writer; a single generator is used for all values.
+     * Writer is closed when sequence writer is closed (unless
+     * {@link JsonGenerator.Feature#AUTO_CLOSE_TARGET} is disabled).
+     *<p>
+     * Since values need to be written on a single line each, pretty
+     * printing is not used, unless an explicit {@link PrettyPrinter}
+     * has been configured for this writer.
+     *
+     * @since 1.10
+     */
+    public SequenceWriter writeValues(Writer w)
+        throws IOException
+    {
+        return _newSequenceWriter(_jsonFactory.createJsonGenerator(w), true);
+    }
+
+    /**
+     * Method for constructing a {@link SequenceWriter} for writing a
+     * sequence of values as newline-delimited JSON ("JSON Lines")
+     * using given output stream (using encoding {@link JsonEncoding#UTF8});
+     * see {@link #writeValues(Writer)} for details.
+     *
+     * @since 1.10
+     */
+    public SequenceWriter writeValues(OutputStream out)
+        throws IOException
+    {
+        return _newSequenceWriter(_jsonFactory.createJsonGenerator(out, JsonEncoding.UTF8), true);
+    }
+
+    /**
+     * Method for constructing a {@link SequenceWriter} for writing a
+     * sequence of values as newline-delimited JSON ("JSON Lines")
+     * into given file (using encoding {@link JsonEncoding#UTF8});
+     * see {@link #writeValues(Writer)} for details.
+     *
+     * @since 1.10
+     */
+    public SequenceWriter writeValues(File resultFile)
+        throws IOException
+    {
+        return _newSequenceWriter(_jsonFactory.createJsonGenerator(resultFile, JsonEncoding.UTF8), true);
+    }
+
+    /**
+     * Method for constructing a {@link SequenceWriter} for writing a
+     * sequence of values using given generator, which is flushed
+     * but not closed when sequence writer is closed; generator
+     * configuration (like pretty printer) is not changed.
+     *
+     * @since 1.10
+     */
+    public SequenceWriter writeValues(JsonGenerator jgen)
+        throws IOException
+    {
+        return new SequenceWriter(this, jgen, false);
     }
 
     /*
@@ -471,6 +549,24 @@ public class ObjectWriter
         }
     }
 
+    /**
+     * Helper method for configuring generator used for writing a
+     * sequence of values, and constructing writer for it.
+     */
+    protected SequenceWriter _newSequenceWriter(JsonGenerator jgen, boolean closeGenerator)
+    {
+        PrettyPrinter pp = _prettyPrinter;
+        if (pp == null || pp == NULL_PRETTY_PRINTER) {
+            // no indentation, nor the default space between root values
+            pp = new MinimalPrettyPrinter(null);
+        }
+        jgen.setPrettyPrinter(pp);
+        if (_schema != null) {
+            jgen.setSchema(_schema);
+        }
+        return new SequenceWriter(this, jgen, closeGenerator);
+    }
+
     /**
      * Helper method used when value to serialize is {@link Closeable} and its <code>close()</code>
      * method is to be called right after serialization has been called
@@ -0,0 +1,164 @@
+package org.codehaus.jackson.map;
+
+import java.io.*;
+import java.util.Collection;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Writer for serializing a sequence of root-level values, using a single
+ * {@link JsonGenerator} that is kept open until {@link #close} is called;
+ * this avoids per-value costs of generator construction and buffer
+ * allocation. By default values are written as newline-delimited JSON
+ * ("JSON Lines"): each value is followed by a linefeed; separator can be
+ * changed with {@link #setSeparator}.
+ *<p>
+ * Output is buffered by the generator, and only flushed when the buffer
+ * fills up, when {@link #flush} or {@link #close} is called, or, if
+ * configured with {@link #setFlushInterval}, after every N values.
+ *<p>
+ * Instances are constructed using <code>writeValues</code> methods of
+ * {@link ObjectWriter}; they are not thread-safe.
+ *
+ * @since 1.10
+ */
+public class SequenceWriter
+    implements Closeable, Flushable
+{
+    protected final ObjectWriter _objectWriter;
+
+    protected final JsonGenerator _generator;
+
+    /**
+     * Whether generator should be closed when this writer is closed
+     * (which also closes the underlying target if generator owns it)
+     */
+    protected final boolean _closeGenerator;
+
+    /**
+     * String written after each value; null or empty for none
+     */
+    protected String _separator = "\n";
+
+    /**
+     * Number of values to write between flushes; 0 means that
+     * no explicit flushing is done
+     */
+    protected int _flushInterval;
+
+    /**
+     * Number of values written so far
+     */
+    protected int _count;
+
+    protected boolean _closed;
+
+    protected SequenceWriter(ObjectWriter w, JsonGenerator jgen, boolean closeGenerator)
+    {
+        _objectWriter = w;
+        _generator = jgen;
+        _closeGenerator = closeGenerator;
+    }
+
+    /*
+    /**********************************************************
+    /* Configuration
+    /**********************************************************
+     */
+
+    /**
+     * Method for changing String written after each value; default
+     * is a single linefeed. Null or empty String means that values are
+     * written without separators; note that in that case parsers will
+     * only be able to split values if they are Objects, Arrays or Strings.
+     */
+    public SequenceWriter setSeparator(String sep) {
+        _separator = sep;
+        return this;
+    }
+
+    /**
+     * Method for specifying that output is to be flushed after every
+     * <code>count</code> values; 0 (default) means that output is only
+     * flushed when generator buffer fills up or on explicit {@link #flush}.
+     */
+    public SequenceWriter setFlushInterval(int count) {
+        _flushInterval = (count < 0) ? 0 : count;
+        return this;
+    }
+
+    /**
+     * Accessor for the number of values written so far
+     */
+    public int getValueCount() { return _count; }
+
+    /*
+    /**********************************************************
+    /* Writing
+    /**********************************************************
+     */
+
+    /**
+     * Method for serializing given value, followed by the separator.
+     */
+    public SequenceWriter write(Object value)
+        throws IOException, JsonGenerationException, JsonMappingException
+    {
+        if (_closed) {
+            throw new IllegalStateException("Can not write value: SequenceWriter has been closed");
+        }
+        ObjectWriter w = _objectWriter;
+        if (w._rootType == null) {
+            w._provider.serializeValue(w._config, _generator, value, w._serializerFactory);
+        } else {
+            w._provider.serializeValue(w._config, _generator, value, w._rootType, w._serializerFactory);
+        }
+        String sep = _separator;
+        if (sep != null && sep.length() > 0) {
+            _generator.writeRaw(sep);
+        }
+        ++_count;
+        if (_flushInterval > 0 && (_count % _flushInterval) == 0) {
+            _generator.flush();
+        }
+        return this;
+    }
+
+    /**
+     * Method for serializing all values of given Collection, in order.
+     */
+    public SequenceWriter writeAll(Collection<?> values)
+        throws IOException, JsonGenerationException, JsonMappingException
+    {
+        for (Object value : values) {
+            write(value);
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        if (!_closed) {
+            _generator.flush();
+        }
+    }
+
+    /**
+     * Method that flushes all buffered content, and closes the
+     * generator (and target it writes to, if owned by generator);
+     * or, if generator was given by caller, just flushes it.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!_closed) {
+            _closed = true;
+            if (_closeGenerator) {
+                _generator.close();
+            } else {
+                _generator.flush();
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.codehaus.jackson.map;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.Date;
 
 import org.codehaus.jackson.*;
@@ -547,4 +548,17 @@ public abstract class SerializerProvider
      * @since 1.4
      */
     public abstract void flushCachedSerializers();
+
+    /**
+     * Method that will add names of all properties that cached bean
+     * serializers output into given collection. Used for pre-loading
+     * symbol tables parsers use (see
+     * {@link ObjectMapper#preloadFieldNames}).
+     *<p>
+     * Default implementation does not add anything, since it does not
+     * know about caching done by sub-classes.
+     * 
+     * @since 1.10
+     */
+    public void collectCachedPropertyNames(Collection<String> names) { }
 }
@@ -16,6 +16,7 @@ import org.codehaus.jackson.map.introspect.AnnotatedMember;
 import org.codehaus.jackson.map.introspect.AnnotatedWithParams;
 import org.codehaus.jackson.map.type.ClassKey;
 import org.codehaus.jackson.map.util.ClassUtil;
+import org.codehaus.jackson.sym.FieldNameMatcher;
 import org.codehaus.jackson.type.JavaType;
 import org.codehaus.jackson.util.TokenBuffer;
 
@@ -333,6 +334,20 @@ public class BeanDeserializer
         return _beanProperties.allProperties();
     }
 
+    /**
+     * Accessor for iterating over properties passed via property-based
+     * creator, if any; these are not included in {@link #properties}.
+     * 
+     * @since 1.10
+     */
+    public Iterator<SettableBeanProperty> creatorProperties()
+    {
+        if (_propertyBasedCreator == null) {
+            return Collections.<SettableBeanProperty>emptyList().iterator();
+        }
+        return _propertyBasedCreator.getCreatorProperties().iterator();
+    }
+
     /**
      * Method needed by {@link BeanDeserializerFactory} to properly link
      * managed- and back-reference pairs.
@@ -625,15 +640,20 @@ public class BeanDeserializer
         if (t == JsonToken.START_OBJECT) {
             t = jp.nextToken();
         }
-        for (; t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
+        if (t != JsonToken.FIELD_NAME) {
+            return bean;
+        }
+        // Use index-based matching of names, to avoid String lookups where possible
+        final BeanPropertyMap.PropertyMatcher matcher = _beanProperties.matcher();
+        final FieldNameMatcher names = matcher.names();
+        for (int ix = names.matchName(jp.getCurrentName()); ix >= FieldNameMatcher.MATCH_UNKNOWN_NAME;
+                ix = jp.nextFieldName(names)) {
             String propName = jp.getCurrentName();
             // Skip field name:
             jp.nextToken();
-            SettableBeanProperty prop = _beanProperties.find(propName);
-            
-            if (prop != null) { // normal case
+            if (ix >= 0) { // normal case
                 try {
-                    prop.deserializeAndSet(jp, ctxt, bean);
+                    matcher.propertyAt(ix).deserializeAndSet(jp, ctxt, bean);
                 } catch (Exception e) {
                     wrapAndThrow(e, bean, propName, ctxt);
                 }
@@ -687,14 +707,27 @@ public class BeanDeserializer
         if (_injectables != null) {
             injectValues(ctxt, bean);
         }
-        for (; jp.getCurrentToken() != JsonToken.END_OBJECT; jp.nextToken()) {
+        // Use index-based matching of names, to avoid String lookups where possible
+        final BeanPropertyMap.PropertyMatcher matcher = _beanProperties.matcher();
+        final FieldNameMatcher names = matcher.names();
+        JsonToken t = jp.getCurrentToken();
+        int ix;
+        if (t == JsonToken.FIELD_NAME) {
+            ix = names.matchName(jp.getCurrentName());
+        } else {
+            ix = (t == JsonToken.END_OBJECT) ? FieldNameMatcher.MATCH_END_OBJECT : FieldNameMatcher.MATCH_ODD_TOKEN;
+        }
+        for (; ix != FieldNameMatcher.MATCH_END_OBJECT; ix = jp.nextFieldName(names)) {
+            if (ix == FieldNameMatcher.MATCH_ODD_TOKEN) {
+                throw ctxt.wrongTokenException(jp, JsonToken.FIELD_NAME,
+                        "expected a field name or END_OBJECT for "+_beanType);
+            }
             String propName = jp.getCurrentName();
             // Skip field name:
             jp.nextToken();
-            SettableBeanProperty prop = _beanProperties.find(propName);
-            if (prop != null) { // normal case
+            if (ix >= 0) { // normal case
                 try {
-                    prop.deserializeAndSet(jp, ctxt, bean);
+                    matcher.propertyAt(ix).deserializeAndSet(jp, ctxt, bean);
                 } catch (Exception e) {
                     wrapAndThrow(e, bean, propName, ctxt);
                 }
@@ -10,6 +10,7 @@ import org.codehaus.jackson.JsonProcessingException;
 import org.codehaus.jackson.io.SerializedString;
 import org.codehaus.jackson.map.*;
 import org.codehaus.jackson.map.deser.BeanDeserializer;
+import org.codehaus.jackson.map.deser.SettableBeanProperty;
 import org.codehaus.jackson.map.introspect.AnnotatedClass;
 import org.codehaus.jackson.map.type.*;
 import org.codehaus.jackson.map.util.ClassUtil;
@@ -241,6 +242,31 @@ public class StdDeserializerProvider
         _cachedDeserializers.clear();       
     }
 
+    /**
+     * Method that will add names of all properties that cached
+     * {@link BeanDeserializer}s handle (including creator properties)
+     * into given collection.
+     * 
+     * @since 1.10
+     */
+    @Override
+    public void collectCachedPropertyNames(Collection<String> names)
+    {
+        for (JsonDeserializer<Object> deser : _cachedDeserializers.values()) {
+            if (deser instanceof BeanDeserializer) {
+                BeanDeserializer beanDeser = (BeanDeserializer) deser;
+                Iterator<SettableBeanProperty> it = beanDeser.properties();
+                while (it.hasNext()) {
+                    names.add(it.next().getName());
+                }
+                it = beanDeser.creatorProperties();
+                while (it.hasNext()) {
+                    names.add(it.next().getName());
+                }
+            }
+        }
+    }
+
     /*
     /**********************************************************
     /* Overridable helper methods
@@ -9,6 +9,7 @@ import org.codehaus.jackson.map.deser.std.ClassDeserializer;
 import org.codehaus.jackson.map.deser.std.DateDeserializer;
 import org.codehaus.jackson.map.deser.std.FromStringDeserializer;
 import org.codehaus.jackson.map.deser.std.JavaTypeDeserializer;
+import org.codehaus.jackson.map.deser.std.RawJsonDeserializer;
 import org.codehaus.jackson.map.deser.std.StdDeserializer;
 import org.codehaus.jackson.map.deser.std.StringDeserializer;
 import org.codehaus.jackson.map.deser.std.TimestampDeserializer;
@@ -92,6 +93,7 @@ class StdDeserializers
 
         // including some core Jackson types:
         add(new TokenBufferDeserializer());
+        add(new RawJsonDeserializer());
         add(new JavaTypeDeserializer());
     }
 
@@ -3,6 +3,7 @@ package org.codehaus.jackson.map.deser.impl;
 import java.util.*;
 
 import org.codehaus.jackson.map.deser.SettableBeanProperty;
+import org.codehaus.jackson.sym.FieldNameMatcher;
 
 /**
  * Helper class used for storing mapping from property name to
@@ -22,6 +23,15 @@ public final class BeanPropertyMap
     private final int _hashMask;
 
     private final int _size;
+
+    /**
+     * Lazily constructed matcher for properties, used with
+     * {@link org.codehaus.jackson.JsonParser#nextFieldName(FieldNameMatcher)};
+     * cleared if properties are replaced or removed.
+     * 
+     * @since 1.10
+     */
+    private volatile PropertyMatcher _matcher;
     
     public BeanPropertyMap(Collection<SettableBeanProperty> properties)
     {
@@ -96,6 +106,30 @@ public final class BeanPropertyMap
         return _findWithEquals(key, index);
     }
 
+    /**
+     * Accessor for getting {@link PropertyMatcher} that can be used for
+     * index-based matching of contained properties.
+     * 
+     * @since 1.10
+     */
+    public PropertyMatcher matcher()
+    {
+        PropertyMatcher m = _matcher;
+        if (m == null) {
+            ArrayList<SettableBeanProperty> props = new ArrayList<SettableBeanProperty>(_size);
+            ArrayList<String> names = new ArrayList<String>(_size);
+            for (Iterator<SettableBeanProperty> it = allProperties(); it.hasNext(); ) {
+                SettableBeanProperty prop = it.next();
+                props.add(prop);
+                names.add(prop.getName());
+            }
+            m = new PropertyMatcher(FieldNameMatcher.construct(names),
+                    props.toArray(new SettableBeanProperty[props.size()]));
+            _matcher = m;
+        }
+        return m;
+    }
+
     /**
      * Specialized method that can be used to replace an existing entry
      * (note: entry MUST exist; otherwise exception is thrown) with
@@ -129,6 +163,7 @@ public final class BeanPropertyMap
          * it allows replacement even when iterating over entries
          */
         _buckets[index] = new Bucket(tail, name, property);
+        _matcher = null;
     }
 
     /**
@@ -157,6 +192,7 @@ public final class BeanPropertyMap
             throw new NoSuchElementException("No entry '"+property+"' found, can't remove");
         }
         _buckets[index] = tail;
+        _matcher = null;
     }
     
     /*
@@ -197,6 +233,29 @@ public final class BeanPropertyMap
         }
     }
 
+    /**
+     * Container for a {@link FieldNameMatcher} and properties that
+     * indexes it returns refer to.
+     * 
+     * @since 1.10
+     */
+    public final static class PropertyMatcher
+    {
+        private final FieldNameMatcher _names;
+
+        private final SettableBeanProperty[] _properties;
+
+        PropertyMatcher(FieldNameMatcher names, SettableBeanProperty[] properties)
+        {
+            _names = names;
+            _properties = properties;
+        }
+
+        public FieldNameMatcher names() { return _names; }
+
+        public SettableBeanProperty propertyAt(int index) { return _properties[index]; }
+    }
+
     private final static class IteratorImpl implements Iterator<SettableBeanProperty>
     {
         /**
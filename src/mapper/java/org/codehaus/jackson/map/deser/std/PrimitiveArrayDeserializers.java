@@ -412,6 +412,11 @@ public class PrimitiveArrayDeserializers
             if (!jp.isExpectedStartArrayToken()) {
                 return handleNonArray(jp, ctxt);
             }
+            // packed arrays (of binary formats) can be read in bulk
+            int[] packed = jp.readIntArray();
+            if (packed != null) {
+                return packed;
+            }
             ArrayBuilders.IntBuilder builder = ctxt.getArrayBuilders().getIntBuilder();
             int[] chunk = builder.resetAndStart();
             int ix = 0;
@@ -458,6 +463,11 @@ public class PrimitiveArrayDeserializers
             if (!jp.isExpectedStartArrayToken()) {
                 return handleNonArray(jp, ctxt);
             }
+            // packed arrays (of binary formats) can be read in bulk
+            long[] packed = jp.readLongArray();
+            if (packed != null) {
+                return packed;
+            }
             ArrayBuilders.LongBuilder builder = ctxt.getArrayBuilders().getLongBuilder();
             long[] chunk = builder.resetAndStart();
             int ix = 0;
@@ -503,6 +513,11 @@ public class PrimitiveArrayDeserializers
             if (!jp.isExpectedStartArrayToken()) {
                 return handleNonArray(jp, ctxt);
             }
+            // packed arrays (of binary formats) can be read in bulk
+            float[] packed = jp.readFloatArray();
+            if (packed != null) {
+                return packed;
+            }
             ArrayBuilders.FloatBuilder builder = ctxt.getArrayBuilders().getFloatBuilder();
             float[] chunk = builder.resetAndStart();
             int ix = 0;
@@ -549,6 +564,11 @@ public class PrimitiveArrayDeserializers
             if (!jp.isExpectedStartArrayToken()) {
                 return handleNonArray(jp, ctxt);
             }
+            // packed arrays (of binary formats) can be read in bulk
+            double[] packed = jp.readDoubleArray();
+            if (packed != null) {
+                return packed;
+            }
             ArrayBuilders.DoubleBuilder builder = ctxt.getArrayBuilders().getDoubleBuilder();
             double[] chunk = builder.resetAndStart();
             int ix = 0;
@@ -0,0 +1,48 @@
+package org.codehaus.jackson.map.deser.std;
+
+import java.io.IOException;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.annotate.JacksonStdImpl;
+import org.codehaus.jackson.map.util.RawJson;
+import org.codehaus.jackson.util.ByteArrayBuilder;
+
+/**
+ * Deserializer for {@link RawJson}: copies source representation of
+ * the value as is, when parser supports it (that is, content is
+ * UTF-8 encoded); otherwise re-encodes value from tokens.
+ *<p>
+ * Note that we use scalar deserializer base just because we claim
+ * to be of scalar for type information inclusion purposes; actual
+ * underlying content can be of any (Object, Array, scalar) type.
+ *
+ * @since 1.10
+ */
+@JacksonStdImpl
+public class RawJsonDeserializer
+    extends StdScalarDeserializer<RawJson>
+{
+    /**
+     * Factory used for re-encoding content from parsers that can not
+     * expose raw content.
+     */
+    protected final static JsonFactory _jsonFactory = new JsonFactory();
+
+    public RawJsonDeserializer() { super(RawJson.class); }
+
+    @Override
+    public RawJson deserialize(JsonParser jp, DeserializationContext ctxt)
+        throws IOException, JsonProcessingException
+    {
+        ByteArrayBuilder bb = new ByteArrayBuilder();
+        if (jp.readRawValue(bb) < 0) {
+            JsonGenerator jgen = _jsonFactory.createJsonGenerator(bb, JsonEncoding.UTF8);
+            jgen.copyCurrentStructure(jp);
+            jgen.close();
+        }
+        RawJson result = new RawJson(bb.toByteArray());
+        bb.release();
+        return result;
+    }
+}
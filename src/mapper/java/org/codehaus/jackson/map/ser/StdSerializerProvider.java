@@ -2,6 +2,7 @@ package org.codehaus.jackson.map.ser;
 
 import java.io.IOException;
 import java.text.DateFormat;
+import java.util.Collection;
 import java.util.Date;
 
 import org.codehaus.jackson.*;
@@ -319,6 +320,11 @@ public class StdSerializerProvider
     public void flushCachedSerializers() {
         _serializerCache.flush();
     }
+
+    @Override
+    public void collectCachedPropertyNames(Collection<String> names) {
+        _serializerCache.collectBeanPropertyNames(names);
+    }
     
     /*
     /**********************************************************
@@ -7,6 +7,8 @@ import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.JsonSerializer;
 import org.codehaus.jackson.map.ResolvableSerializer;
 import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.ser.BeanPropertyWriter;
+import org.codehaus.jackson.map.ser.std.BeanSerializerBase;
 
 /**
  * Simple cache object that allows for doing 2-level lookups: first level is
@@ -194,6 +196,24 @@ public final class SerializerCache
         _sharedMap.clear();
     }
 
+    /**
+     * Method called by StdSerializerProvider#collectCachedPropertyNames()
+     * to find names of properties that cached bean serializers output.
+     * 
+     * @since 1.10
+     */
+    public synchronized void collectBeanPropertyNames(Collection<String> names)
+    {
+        for (JsonSerializer<Object> ser : _sharedMap.values()) {
+            if (ser instanceof BeanSerializerBase) {
+                Iterator<BeanPropertyWriter> it = ((BeanSerializerBase) ser).properties();
+                while (it.hasNext()) {
+                    names.add(it.next().getName());
+                }
+            }
+        }
+    }
+
     /*
     /**************************************************************
     /* Helper class(es)
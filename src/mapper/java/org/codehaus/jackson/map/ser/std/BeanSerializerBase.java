@@ -2,6 +2,8 @@ package org.codehaus.jackson.map.ser.std;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Iterator;
 
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonGenerator;
@@ -100,6 +102,22 @@ public abstract class BeanSerializerBase
         this(src._handledType,
                 src._props, src._filteredProps, src._anyGetterWriter, src._propertyFilterId);
     }
+
+    /*
+    /**********************************************************
+    /* Public accessors
+    /**********************************************************
+     */
+
+    /**
+     * Accessor for iterating over writers of properties this serializer
+     * outputs (when no view is active).
+     * 
+     * @since 1.10
+     */
+    public Iterator<BeanPropertyWriter> properties() {
+        return Arrays.asList(_props).iterator();
+    }
     
     /*
     /**********************************************************
@@ -49,7 +49,7 @@ public class StdArraySerializers
         }
         
         @Override
-        public final void serialize(T value, JsonGenerator jgen, SerializerProvider provider)
+        public void serialize(T value, JsonGenerator jgen, SerializerProvider provider)
             throws IOException, JsonGenerationException
         {
             jgen.writeStartArray();
@@ -362,6 +362,19 @@ public class StdArraySerializers
             return this;
         }        
         
+        /**
+         * Whole array is written using {@link JsonGenerator#writeArray(int[],int,int)},
+         * to allow binary formats to use packed representation.
+         *
+         * @since 1.10
+         */
+        @Override
+        public void serialize(int[] value, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException, JsonGenerationException
+        {
+            jgen.writeArray(value, 0, value.length);
+        }
+
         @Override
         public void serializeContents(int[] value, JsonGenerator jgen, SerializerProvider provider)
             throws IOException, JsonGenerationException
@@ -392,6 +405,19 @@ public class StdArraySerializers
             return new LongArraySerializer(vts);
         }
         
+        /**
+         * Whole array is written using {@link JsonGenerator#writeArray(long[],int,int)},
+         * to allow binary formats to use packed representation.
+         *
+         * @since 1.10
+         */
+        @Override
+        public void serialize(long[] value, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException, JsonGenerationException
+        {
+            jgen.writeArray(value, 0, value.length);
+        }
+
         @Override
         public void serializeContents(long[] value, JsonGenerator jgen, SerializerProvider provider)
             throws IOException, JsonGenerationException
@@ -422,6 +448,19 @@ public class StdArraySerializers
             return new FloatArraySerializer(vts);
         }
         
+        /**
+         * Whole array is written using {@link JsonGenerator#writeArray(float[],int,int)},
+         * to allow binary formats to use packed representation.
+         *
+         * @since 1.10
+         */
+        @Override
+        public void serialize(float[] value, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException, JsonGenerationException
+        {
+            jgen.writeArray(value, 0, value.length);
+        }
+
         @Override
         public void serializeContents(float[] value, JsonGenerator jgen, SerializerProvider provider)
             throws IOException, JsonGenerationException
@@ -456,6 +495,19 @@ public class StdArraySerializers
             return this;
         }
         
+        /**
+         * Whole array is written using {@link JsonGenerator#writeArray(double[],int,int)},
+         * to allow binary formats to use packed representation.
+         *
+         * @since 1.10
+         */
+        @Override
+        public void serialize(double[] value, JsonGenerator jgen, SerializerProvider provider)
+            throws IOException, JsonGenerationException
+        {
+            jgen.writeArray(value, 0, value.length);
+        }
+
         @Override
         public void serializeContents(double[] value, JsonGenerator jgen, SerializerProvider provider)
             throws IOException, JsonGenerationException
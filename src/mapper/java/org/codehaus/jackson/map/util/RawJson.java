@@ -0,0 +1,110 @@
+package org.codehaus.jackson.map.util;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.map.*;
+
+/**
+ * Container class for a section of JSON content kept in its encoded
+ * (UTF-8) form: when deserializing, source content of the value is
+ * copied as is (see {@link JsonParser#readRawValue(java.io.OutputStream)}),
+ * and when serializing, content is written out as is
+ * (see {@link JsonGenerator#writeRawValue(byte[],int,int)}).
+ * This allows passing sections of content through without binding
+ * or re-encoding them.
+ *<p>
+ * Note that content is not validated when serializing, so caller
+ * must ensure it is a single valid JSON value.
+ *
+ * @see org.codehaus.jackson.map.deser.std.RawJsonDeserializer
+ *
+ * @since 1.10
+ */
+public class RawJson
+    implements JsonSerializableWithType
+{
+    /**
+     * UTF-8 encoded JSON content
+     */
+    protected final byte[] _content;
+
+    public RawJson(byte[] utf8) {
+        _content = utf8;
+    }
+
+    public RawJson(String json)
+    {
+        try {
+            _content = json.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) { // should never occur
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+    /**************************************************************
+    /* JsonSerializable(WithType) implementation
+    /**************************************************************
+     */
+
+    @Override
+    public void serializeWithType(JsonGenerator jgen, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException, JsonProcessingException
+    {
+        // No type information can be added to raw content
+        serialize(jgen, provider);
+    }
+
+    @Override
+    public void serialize(JsonGenerator jgen, SerializerProvider provider)
+            throws IOException, JsonProcessingException
+    {
+        jgen.writeRawValue(_content, 0, _content.length);
+    }
+
+    /*
+    /**************************************************************
+    /* Accessors
+    /**************************************************************
+     */
+
+    /**
+     * Accessor for UTF-8 encoded content; note that the underlying
+     * array is returned as is, and should not be modified.
+     */
+    public byte[] getBytes() { return _content; }
+
+    public int size() { return _content.length; }
+
+    /*
+    /**************************************************************
+    /* Std method overrides
+    /**************************************************************
+     */
+
+    @Override
+    public String toString()
+    {
+        try {
+            return new String(_content, "UTF-8");
+        } catch (UnsupportedEncodingException e) { // should never occur
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (o == this) return true;
+        if (o == null || o.getClass() != getClass()) return false;
+        return Arrays.equals(_content, ((RawJson) o)._content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(_content);
+    }
+}
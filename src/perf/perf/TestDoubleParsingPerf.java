@@ -0,0 +1,118 @@
+package perf;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Micro-benchmark for comparing default (String-based) and fast
+ * (allocation-free) conversion of floating-point values, using
+ * given JSON document (like "samples/numbers-fp-64k.jsn").
+ */
+public final class TestDoubleParsingPerf
+{
+    private final static int TEST_PER_GC = 15;
+
+    final JsonFactory _defaultFactory;
+
+    final JsonFactory _fastFactory;
+
+    final byte[] _data;
+
+    final int REPS;
+
+    private TestDoubleParsingPerf(File f) throws IOException
+    {
+        _defaultFactory = new JsonFactory();
+        _fastFactory = new JsonFactory();
+        _fastFactory.enable(JsonParser.Feature.USE_FAST_DOUBLE_PARSER);
+        _data = readData(f);
+        // Estimate about 10 megs worth of data...
+        REPS = 1 + (int) (10000000L / _data.length);
+        System.out.println("Input size: "+_data.length+" bytes; use "+REPS+" reps");
+    }
+
+    public void test() throws Exception
+    {
+        int i = 0;
+        double sum = 0.0;
+
+        while (true) {
+            try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            int round = (i++ % 2);
+
+            long curr = System.currentTimeMillis();
+            String msg;
+            boolean lf = (round == 0);
+            double result;
+
+            switch (round) {
+            case 0:
+                msg = "Double.parseDouble";
+                result = testRead(_defaultFactory, REPS);
+                break;
+            case 1:
+                msg = "Fast";
+                result = testRead(_fastFactory, REPS);
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+            sum += result;
+
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' ("+result+") -> "+curr+" msecs");
+
+            if ((i % TEST_PER_GC) == 0) {
+                System.out.println("[GC]");
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+                System.gc();
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            }
+        }
+    }
+
+    private double testRead(JsonFactory f, int reps) throws IOException
+    {
+        double sum = 0.0;
+        while (--reps >= 0) {
+            JsonParser jp = f.createJsonParser(_data, 0, _data.length);
+            JsonToken t;
+            while ((t = jp.nextToken()) != null) {
+                if (t == JsonToken.VALUE_NUMBER_FLOAT) {
+                    sum += jp.getDoubleValue();
+                }
+            }
+            jp.close();
+        }
+        return sum;
+    }
+
+    private final byte[] readData(File f) throws IOException
+    {
+        int len = (int) f.length();
+        byte[] data = new byte[len];
+        int offset = 0;
+        FileInputStream fis = new FileInputStream(f);
+
+        while (len > 0) {
+            int count = fis.read(data, offset, len-offset);
+            offset += count;
+            len -= count;
+        }
+        fis.close();
+        return data;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length != 1) {
+            System.err.println("Usage: java ... <file>");
+            System.exit(1);
+        }
+        new TestDoubleParsingPerf(new File(args[0])).test();
+    }
+}
@@ -0,0 +1,145 @@
+package perf;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Micro-benchmark for estimating how much line/column tracking costs
+ * when parsing, by comparing parsing times of a white space heavy
+ * document (like "samples/json-org-sample1.jsn") with those of the
+ * compact variant of the same document (like
+ * "samples/json-org-sample1-nows.jsn"). Both contain the same tokens,
+ * so difference in per-document time covers all per-linefeed work
+ * (skipping white space as well as row bookkeeping), and is an upper
+ * bound of what could be gained by not tracking lines.
+ */
+public final class TestLocationTrackingPerf
+{
+    private final static int TEST_PER_GC = 15;
+
+    final JsonFactory _factory;
+
+    final byte[] _data, _compactData;
+
+    final char[] _chars, _compactChars;
+
+    final int REPS;
+
+    private TestLocationTrackingPerf(File f, File compactF) throws IOException
+    {
+        _factory = new JsonFactory();
+        _data = readData(f);
+        _chars = new String(_data, "UTF-8").toCharArray();
+        _compactData = readData(compactF);
+        _compactChars = new String(_compactData, "UTF-8").toCharArray();
+        // Estimate about 10 megs worth of data...
+        REPS = 1 + (int) (10000000L / _data.length);
+        System.out.println("Input size: "+_data.length+" bytes ("+_compactData.length
+                +" compact); use "+REPS+" reps");
+    }
+
+    public void test() throws Exception
+    {
+        int i = 0;
+        int sum = 0;
+
+        while (true) {
+            try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            int round = (i++ % 4);
+
+            long curr = System.nanoTime();
+            String msg;
+            boolean lf = (round == 0);
+            int result;
+
+            switch (round) {
+            case 0:
+                msg = "UTF-8, with white space";
+                result = testReadBytes(_data, REPS);
+                break;
+            case 1:
+                msg = "UTF-8, compact";
+                result = testReadBytes(_compactData, REPS);
+                break;
+            case 2:
+                msg = "Chars, with white space";
+                result = testReadChars(_chars, REPS);
+                break;
+            case 3:
+                msg = "Chars, compact";
+                result = testReadChars(_compactChars, REPS);
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+            sum += result;
+
+            curr = System.nanoTime() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' ("+result+") -> "+(curr / REPS)+" nsecs per doc");
+
+            if ((i % TEST_PER_GC) == 0) {
+                System.out.println("[GC]");
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+                System.gc();
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            }
+        }
+    }
+
+    private int testReadBytes(byte[] data, int reps) throws IOException
+    {
+        int count = 0;
+        while (--reps >= 0) {
+            count += _count(_factory.createJsonParser(data, 0, data.length));
+        }
+        return count;
+    }
+
+    private int testReadChars(char[] chars, int reps) throws IOException
+    {
+        int count = 0;
+        while (--reps >= 0) {
+            count += _count(_factory.createJsonParser(new CharArrayReader(chars)));
+        }
+        return count;
+    }
+
+    private int _count(JsonParser jp) throws IOException
+    {
+        int count = 0;
+        while (jp.nextToken() != null) {
+            ++count;
+        }
+        jp.close();
+        return count;
+    }
+
+    private final byte[] readData(File f) throws IOException
+    {
+        int len = (int) f.length();
+        byte[] data = new byte[len];
+        int offset = 0;
+        FileInputStream fis = new FileInputStream(f);
+
+        while (len > 0) {
+            int count = fis.read(data, offset, len-offset);
+            offset += count;
+            len -= count;
+        }
+        fis.close();
+        return data;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length != 2) {
+            System.err.println("Usage: java ... <file> <compact-file>");
+            System.exit(1);
+        }
+        new TestLocationTrackingPerf(new File(args[0]), new File(args[1])).test();
+    }
+}
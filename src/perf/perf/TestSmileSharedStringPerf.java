@@ -0,0 +1,143 @@
+package perf;
+
+import java.io.*;
+import java.util.*;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.smile.*;
+import org.codehaus.jackson.util.TokenBuffer;
+
+/**
+ * Micro-benchmark for measuring Smile encoding throughput with different
+ * shared name and String value settings (see
+ * {@link SmileGenerator.Feature#CHECK_SHARED_STRING_VALUES} and
+ * {@link SmileGenerator#setSharedStringWindow}), using all Smile documents
+ * in given directory (like "samples-smile"). Documents are first decoded into
+ * token buffers, so that only generator side is measured.
+ */
+public final class TestSmileSharedStringPerf
+{
+    private final static int TEST_PER_GC = 15;
+
+    final SmileFactory _namesOnlyFactory;
+
+    final SmileFactory _sharedValuesFactory;
+
+    final SmileFactory _smallWindowFactory;
+
+    final SmileFactory _noSharingFactory;
+
+    final List<TokenBuffer> _docs = new ArrayList<TokenBuffer>();
+
+    final int REPS;
+
+    private TestSmileSharedStringPerf(File dir) throws IOException
+    {
+        _noSharingFactory = new SmileFactory();
+        _noSharingFactory.disable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+        _namesOnlyFactory = new SmileFactory();
+        _sharedValuesFactory = new SmileFactory();
+        _sharedValuesFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        _smallWindowFactory = new SmileFactory();
+        _smallWindowFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        _smallWindowFactory.setSharedStringWindow(64);
+
+        SmileFactory readFactory = new SmileFactory();
+        int total = 0;
+        File[] files = dir.listFiles();
+        Arrays.sort(files);
+        for (File f : files) {
+            if (!f.getName().endsWith(".smile")) {
+                continue;
+            }
+            JsonParser jp = readFactory.createJsonParser(f);
+            TokenBuffer buffer = new TokenBuffer(null);
+            while (jp.nextToken() != null) {
+                buffer.copyCurrentStructure(jp);
+            }
+            jp.close();
+            _docs.add(buffer);
+            total += (int) f.length();
+        }
+        // Estimate about 20 megs worth of data...
+        REPS = 1 + (int) (20000000L / total);
+        System.out.println("Input: "+_docs.size()+" documents, "+total+" bytes; use "+REPS+" reps");
+    }
+
+    public void test() throws Exception
+    {
+        int i = 0;
+        int sum = 0;
+
+        while (true) {
+            try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            int round = (i++ % 4);
+
+            long curr = System.currentTimeMillis();
+            String msg;
+            boolean lf = (round == 0);
+            int result;
+
+            switch (round) {
+            case 0:
+                msg = "Smile, no sharing";
+                result = testWrite(_noSharingFactory, REPS);
+                break;
+            case 1:
+                msg = "Smile, shared names";
+                result = testWrite(_namesOnlyFactory, REPS);
+                break;
+            case 2:
+                msg = "Smile, shared names+values";
+                result = testWrite(_sharedValuesFactory, REPS);
+                break;
+            case 3:
+                msg = "Smile, shared names+values, window 64";
+                result = testWrite(_smallWindowFactory, REPS);
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+            sum += result;
+
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' ("+result+" bytes) -> "+curr+" msecs");
+
+            if ((i % TEST_PER_GC) == 0) {
+                System.out.println("[GC]");
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+                System.gc();
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            }
+        }
+    }
+
+    private int testWrite(SmileFactory f, int reps) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16000);
+        int size = 0;
+        while (--reps >= 0) {
+            size = 0;
+            for (TokenBuffer doc : _docs) {
+                bytes.reset();
+                JsonGenerator jg = f.createJsonGenerator(bytes);
+                doc.serialize(jg);
+                jg.close();
+                size += bytes.size();
+            }
+        }
+        return size;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length != 1) {
+            System.err.println("Usage: java ... <dir>   (like 'samples-smile')");
+            System.exit(1);
+        }
+        new TestSmileSharedStringPerf(new File(args[0])).test();
+    }
+}
@@ -0,0 +1,153 @@
+package perf;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Micro-benchmark for measuring speed of decoding and encoding String
+ * values with UTF-8 backed parser and generator, using given JSON
+ * document (String-heavy ones like "samples/db100.xml.jsn" or
+ * "samples/map-spain.xml.jsn" are most interesting).
+ */
+public final class TestStringScanPerf
+{
+    private final static int TEST_PER_GC = 15;
+
+    final JsonFactory _factory;
+
+    final byte[] _data;
+
+    /**
+     * All String values and field names of the document, to write
+     */
+    final String[] _strings;
+
+    final int REPS;
+
+    private TestStringScanPerf(File f) throws IOException
+    {
+        _factory = new JsonFactory();
+        _data = readData(f);
+        _strings = readStrings(_data);
+        // Estimate about 10 megs worth of data...
+        REPS = 1 + (int) (10000000L / _data.length);
+        System.out.println("Input size: "+_data.length+" bytes ("+_strings.length+" Strings); use "+REPS+" reps");
+    }
+
+    public void test() throws Exception
+    {
+        int i = 0;
+        int sum = 0;
+
+        while (true) {
+            try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            int round = (i++ % 2);
+
+            long curr = System.currentTimeMillis();
+            String msg;
+            boolean lf = (round == 0);
+            int result;
+
+            switch (round) {
+            case 0:
+                msg = "Read Strings";
+                result = testRead(REPS);
+                break;
+            case 1:
+                msg = "Write Strings";
+                result = testWrite(REPS);
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+            sum += result;
+
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' ("+result+") -> "+curr+" msecs");
+
+            if ((i % TEST_PER_GC) == 0) {
+                System.out.println("[GC]");
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+                System.gc();
+                try {  Thread.sleep(100L); } catch (InterruptedException ie) { }
+            }
+        }
+    }
+
+    private int testRead(int reps) throws IOException
+    {
+        int sum = 0;
+        while (--reps >= 0) {
+            JsonParser jp = _factory.createJsonParser(_data, 0, _data.length);
+            JsonToken t;
+            while ((t = jp.nextToken()) != null) {
+                if (t == JsonToken.VALUE_STRING) {
+                    sum += jp.getTextLength();
+                }
+            }
+            jp.close();
+        }
+        return sum;
+    }
+
+    private int testWrite(int reps) throws IOException
+    {
+        int sum = 0;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(_data.length + (_data.length >> 1));
+        while (--reps >= 0) {
+            bytes.reset();
+            JsonGenerator jg = _factory.createJsonGenerator(bytes, JsonEncoding.UTF8);
+            jg.writeStartArray();
+            for (String str : _strings) {
+                jg.writeString(str);
+            }
+            jg.writeEndArray();
+            jg.close();
+            sum += bytes.size();
+        }
+        return sum;
+    }
+
+    private String[] readStrings(byte[] data) throws IOException
+    {
+        java.util.ArrayList<String> strs = new java.util.ArrayList<String>();
+        JsonParser jp = _factory.createJsonParser(data, 0, data.length);
+        JsonToken t;
+        while ((t = jp.nextToken()) != null) {
+            if (t == JsonToken.VALUE_STRING || t == JsonToken.FIELD_NAME) {
+                strs.add(jp.getText());
+            }
+        }
+        jp.close();
+        return strs.toArray(new String[strs.size()]);
+    }
+
+    private final byte[] readData(File f) throws IOException
+    {
+        int len = (int) f.length();
+        byte[] data = new byte[len];
+        int offset = 0;
+        FileInputStream fis = new FileInputStream(f);
+
+        while (len > 0) {
+            int count = fis.read(data, offset, len);
+            offset += count;
+            len -= count;
+        }
+        fis.close();
+        return data;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length != 1) {
+            System.err.println("Usage: java ... <file>");
+            System.exit(1);
+        }
+        new TestStringScanPerf(new File(args[0])).test();
+    }
+}
@@ -0,0 +1,817 @@
+package org.codehaus.jackson.smile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.io.IOContext;
+import org.codehaus.jackson.sym.BytesToNameCanonicalizer;
+
+/**
+ * Non-blocking ("push") parser for Smile encoded content: instead of
+ * reading content from an {@link InputStream}, content is fed by caller
+ * in chunks (see {@link NonBlockingInputFeeder}), and {@link #nextToken}
+ * returns {@link JsonToken#NOT_AVAILABLE} if the next token can not be
+ * completed using content fed so far.
+ *<p>
+ * Since Smile tokens are either of fixed length, or their length is
+ * determined by a length prefix (VInt) or an end marker, parser first
+ * determines whether the whole token is available using a resumable
+ * scanner (which retains partially read VInts, lengths and scan
+ * positions between chunks), and only then decodes the token using
+ * the same decoding code as {@link SmileParser}; this way shared
+ * name and String value tables, symbol tables and
+ * {@link SmileBufferRecycler} are handled exactly as with blocking
+ * parsing. Tokens are decoded directly from fed buffers; only the
+ * leading bytes of a token that is split across chunks are copied
+ * into an internal buffer, to be completed once more content is fed.
+ *<p>
+ * Note that unlike with {@link SmileParser}, contents of String and binary
+ * tokens are always decoded (not lazily when accessed), since buffers
+ * fed may not be accessed after parser has consumed them.
+ *
+ * @since 1.10
+ */
+public class NonBlockingSmileParser
+    extends SmileParser
+    implements NonBlockingInputFeeder
+{
+    private final static byte[] NO_BYTES = new byte[0];
+
+    /*
+    /**********************************************************
+    /* Token scanning states
+    /**********************************************************
+     */
+
+    /**
+     * No token being scanned
+     */
+    private final static int SCAN_NONE = 0;
+
+    /**
+     * Length of token is known: it ends at {@link #_scanEnd}
+     */
+    private final static int SCAN_FIXED = 1;
+
+    /**
+     * Reading a VInt, which ends with a byte that has sign bit set
+     */
+    private final static int SCAN_VINT = 2;
+
+    /**
+     * Reading a long (variable length) String or name, which ends with
+     * an end-of-String marker byte
+     */
+    private final static int SCAN_END_MARKER = 3;
+
+    /* What follows a VInt being scanned (if anything)
+     */
+
+    private final static int AFTER_VINT_NOTHING = 0;
+    private final static int AFTER_VINT_7BIT_DATA = 1;
+    private final static int AFTER_VINT_RAW_DATA = 2;
+    private final static int AFTER_VINT_LENGTH_AND_7BIT_DATA = 3;
+
+    /*
+    /**********************************************************
+    /* Input state
+    /**********************************************************
+     */
+
+    /**
+     * Flag that is set when caller has indicated that there will
+     * be no more input to parse.
+     */
+    protected boolean _endOfInput = false;
+
+    /**
+     * Flag set once we have checked whether content starts with the
+     * Smile header.
+     */
+    protected boolean _headerChecked = false;
+
+    /**
+     * Flag that indicates whether {@link #_inputBuffer} is the internal
+     * buffer used for holding a partial token ({@link #_pendingBuffer}),
+     * instead of buffer most recently fed.
+     */
+    protected boolean _usingPending = false;
+
+    /**
+     * Buffer used for holding contents of a token that is split across
+     * fed chunks
+     */
+    protected byte[] _pendingBuffer;
+
+    protected boolean _pendingRecyclable;
+
+    /**
+     * Buffer most recently fed, if it is not yet being parsed (while
+     * completing a partial token held in {@link #_pendingBuffer}).
+     */
+    protected byte[] _feedBuffer = NO_BYTES;
+
+    protected int _feedPtr;
+
+    protected int _feedEnd;
+
+    /**
+     * Token to restore as current token when {@link JsonToken#NOT_AVAILABLE}
+     * has been returned, since parsing mode depends on the last actual
+     * token.
+     */
+    protected JsonToken _lastToken;
+
+    /*
+    /**********************************************************
+    /* Token scanning state
+    /**********************************************************
+     */
+
+    protected int _scanState = SCAN_NONE;
+
+    /**
+     * What to expect after the VInt being scanned
+     */
+    protected int _scanAfterVInt;
+
+    /**
+     * Position within {@link #_inputBuffer} of the next byte to scan
+     */
+    protected int _scanPtr;
+
+    /**
+     * End position (exclusive) within {@link #_inputBuffer} of token,
+     * when known
+     */
+    protected int _scanEnd;
+
+    /**
+     * Value of VInt scanned so far
+     */
+    protected int _scanVInt;
+
+    /**
+     * Flag to indicate that the token scanned is the document header
+     */
+    protected boolean _scanHeader;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    public NonBlockingSmileParser(IOContext ctxt, int parserFeatures, int smileFeatures,
+            ObjectCodec codec, BytesToNameCanonicalizer sym, SmileDictionary dict)
+    {
+        super(ctxt, parserFeatures, smileFeatures, codec, sym,
+                null, NO_BYTES, 0, 0, false, dict);
+    }
+
+    @Override
+    public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+        return this;
+    }
+
+    /**
+     * Non-blocking parsers can not be reset to read from a stream.
+     */
+    @Override
+    public void reset(InputStream in) throws IOException {
+        throw new UnsupportedOperationException("Can not reset non-blocking parser to read from an InputStream");
+    }
+
+    /**
+     * Non-blocking parsers can not be reset to read from a byte array.
+     */
+    @Override
+    public void reset(byte[] data, int offset, int len) throws IOException {
+        throw new UnsupportedOperationException("Can not reset non-blocking parser to read from a byte array");
+    }
+
+    @Override
+    public int releaseBuffered(OutputStream out) throws IOException
+    {
+        int count = _inputEnd - _inputPtr;
+        if (count > 0) {
+            out.write(_inputBuffer, _inputPtr, count);
+        } else {
+            count = 0;
+        }
+        int count2 = _feedEnd - _feedPtr;
+        if (count2 > 0) {
+            out.write(_feedBuffer, _feedPtr, count2);
+            count += count2;
+        }
+        return count;
+    }
+
+    /*
+    /**********************************************************
+    /* NonBlockingInputFeeder implementation
+    /**********************************************************
+     */
+
+    public boolean needMoreInput()
+    {
+        if (_endOfInput) {
+            return false;
+        }
+        // partial token needs more, unless we still have fed content to add
+        if (_usingPending) {
+            return (_feedPtr >= _feedEnd);
+        }
+        return (_inputPtr >= _inputEnd);
+    }
+
+    public void feedInput(byte[] data, int offset, int len) throws IOException
+    {
+        if (_endOfInput) {
+            _reportError("Already closed, can not feed more input");
+        }
+        if (!needMoreInput()) {
+            _reportError("Still have "+(_inputEnd - _inputPtr + _feedEnd - _feedPtr)
+                    +" undecoded bytes, should not call 'feedInput'");
+        }
+        if (len < 0) {
+            _reportError("Input length ("+len+") can not be negative");
+        }
+        if (_usingPending) { // will need to first complete the partial token
+            _feedBuffer = data;
+            _feedPtr = offset;
+            _feedEnd = offset+len;
+        } else {
+            // offsets are relative to buffer start, need to translate processed count
+            _currInputProcessed += (_inputEnd - offset);
+            _inputBuffer = data;
+            _inputPtr = offset;
+            _inputEnd = offset+len;
+        }
+    }
+
+    public void endOfInput() {
+        _endOfInput = true;
+    }
+
+    /*
+    /**********************************************************
+    /* Overridden input handling
+    /**********************************************************
+     */
+
+    @Override
+    protected boolean loadMore() throws IOException {
+        // never blocks to read more content; caller has to feed it
+        return false;
+    }
+
+    @Override
+    protected void _closeInput() throws IOException
+    {
+        super._closeInput();
+        _endOfInput = true;
+        _feedBuffer = NO_BYTES;
+        _feedPtr = _feedEnd = 0;
+    }
+
+    @Override
+    protected void _releaseBuffers() throws IOException
+    {
+        super._releaseBuffers();
+        byte[] buf = _pendingBuffer;
+        if (buf != null) {
+            _pendingBuffer = null;
+            if (_usingPending) {
+                _inputBuffer = NO_BYTES;
+                _inputPtr = _inputEnd = 0;
+                _usingPending = false;
+            }
+            if (_pendingRecyclable) {
+                _ioContext.releaseReadIOBuffer(buf);
+            }
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, traversal
+    /**********************************************************
+     */
+
+    /**
+     * Main iteration method: returns the next token if it can be fully
+     * decoded from content fed so far; {@link JsonToken#NOT_AVAILABLE}
+     * if more content is needed; or null if end-of-input has been
+     * indicated (see {@link #endOfInput}) and all content has been
+     * processed.
+     */
+    @Override
+    public JsonToken nextToken() throws IOException, JsonParseException
+    {
+        if (_currToken == JsonToken.NOT_AVAILABLE) {
+            // parsing mode depends on the last real token, so:
+            _currToken = _lastToken;
+        }
+        while (true) {
+            // END_ARRAY of a packed array has no input
+            if (_packedType >= 0 && _packedRemaining == 0) {
+                return super.nextToken();
+            }
+            if (_inputPtr >= _inputEnd && !_switchToFeed()) {
+                if (_closed) {
+                    return null;
+                }
+                if (!_endOfInput) {
+                    return _notAvailable();
+                }
+                if (!_headerChecked) {
+                    _headerChecked = true;
+                    if ((_smileFeatures & Feature.REQUIRE_HEADER.getMask()) != 0) {
+                        _reportMissingHeader(0);
+                    }
+                }
+                // let the base class handle end-of-input
+                return super.nextToken();
+            }
+            if (!_scanToken()) {
+                if (!_usingPending) {
+                    _savePartialToken();
+                }
+                if (_appendFromFeed()) {
+                    continue;
+                }
+                if (_endOfInput) {
+                    _reportInvalidEOF(_scanHeader ? " in Smile header" : " within token");
+                }
+                return _notAvailable();
+            }
+            // Got the whole token; can decode normally
+            _scanState = SCAN_NONE;
+            if (_scanHeader) {
+                _scanHeader = false;
+                handleSignature(true, true);
+                continue;
+            }
+            JsonToken t = super.nextToken();
+            if (_tokenIncomplete) {
+                _finishToken();
+            }
+            return t;
+        }
+    }
+
+    /**
+     * Since resuming partially decoded token is not possible when
+     * skipping content, non-blocking parser can only skip children
+     * if all content of the value has been fed.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_OBJECT
+            && _currToken != JsonToken.START_ARRAY) {
+            return this;
+        }
+        int open = 1;
+        while (true) {
+            JsonToken t = nextToken();
+            if (t == null) {
+                _handleEOF();
+                return this;
+            }
+            switch (t) {
+            case NOT_AVAILABLE:
+                _reportError("Not enough content available to skip children of "+_parsingContext.getTypeDesc());
+                break;
+            case START_OBJECT:
+            case START_ARRAY:
+                ++open;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                if (--open == 0) {
+                    return this;
+                }
+                break;
+            }
+        }
+    }
+
+    /* Optimized variants of base class read directly from input buffer,
+     * so they can not be used: must check token availability first
+     */
+
+    @Override
+    public boolean nextFieldName(SerializableString str)
+        throws IOException, JsonParseException
+    {
+        return (nextToken() == JsonToken.FIELD_NAME) && str.getValue().equals(getCurrentName());
+    }
+
+    @Override
+    public String nextTextValue()
+        throws IOException, JsonParseException
+    {
+        return (nextToken() == JsonToken.VALUE_STRING) ? getText() : null;
+    }
+
+    /* Packed arrays can not be read in bulk, since all elements need not
+     * have been fed yet: they have to be read as separate tokens
+     */
+
+    @Override
+    public int[] readIntArray() {
+        return null;
+    }
+
+    @Override
+    public long[] readLongArray() {
+        return null;
+    }
+
+    @Override
+    public float[] readFloatArray() {
+        return null;
+    }
+
+    @Override
+    public double[] readDoubleArray() {
+        return null;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, input buffer handling
+    /**********************************************************
+     */
+
+    private final JsonToken _notAvailable()
+    {
+        _lastToken = _currToken;
+        return (_currToken = JsonToken.NOT_AVAILABLE);
+    }
+
+    /**
+     * Method called when partial token held in pending buffer has
+     * been consumed, to continue parsing from the most recently
+     * fed buffer.
+     *
+     * @return True if there is more content to parse
+     */
+    private final boolean _switchToFeed()
+    {
+        if (!_usingPending) {
+            return false;
+        }
+        _usingPending = false;
+        _currInputProcessed += (_inputEnd - _feedPtr);
+        _inputBuffer = _feedBuffer;
+        _inputPtr = _feedPtr;
+        _inputEnd = _feedEnd;
+        _feedBuffer = NO_BYTES;
+        _feedPtr = _feedEnd = 0;
+        return (_inputPtr < _inputEnd);
+    }
+
+    /**
+     * Method called when the token at the end of fed buffer is incomplete:
+     * its contents are copied into pending buffer, to be completed with
+     * content fed later on.
+     */
+    private final void _savePartialToken()
+    {
+        final int start = _inputPtr;
+        final int len = _inputEnd - start;
+        byte[] buf = _pendingBuffer;
+        if (buf == null) {
+            buf = _ioContext.allocReadIOBuffer();
+            _pendingRecyclable = true;
+        }
+        if (buf.length < len) {
+            buf = _growPending(len);
+        }
+        System.arraycopy(_inputBuffer, start, buf, 0, len);
+        _pendingBuffer = buf;
+        // so that byte offsets remain the same
+        _currInputProcessed += start;
+        _scanPtr -= start;
+        _scanEnd -= start;
+        _inputBuffer = buf;
+        _inputPtr = 0;
+        _inputEnd = len;
+        _usingPending = true;
+    }
+
+    /**
+     * Method called to move content from buffer fed to pending buffer,
+     * to complete a partial token; only moves as much as is known to
+     * be needed.
+     *
+     * @return True if any content was added; false if there is no fed
+     *   content
+     */
+    private final boolean _appendFromFeed()
+    {
+        final int avail = _feedEnd - _feedPtr;
+        if (avail <= 0) {
+            return false;
+        }
+        int count = avail;
+        switch (_scanState) {
+        case SCAN_FIXED:
+            count = Math.min(avail, _scanEnd - _inputEnd);
+            break;
+        case SCAN_VINT:
+            if (_scanPtr > _inputEnd) { // still need fixed-length data before VInt
+                count = Math.min(avail, _scanPtr - _inputEnd);
+            } else {
+                for (int i = _feedPtr; i < _feedEnd; ++i) {
+                    if (_feedBuffer[i] < 0) {
+                        count = i - _feedPtr + 1;
+                        break;
+                    }
+                }
+            }
+            break;
+        case SCAN_END_MARKER:
+            for (int i = _feedPtr; i < _feedEnd; ++i) {
+                if (_feedBuffer[i] == SmileConstants.BYTE_MARKER_END_OF_STRING) {
+                    count = i - _feedPtr + 1;
+                    break;
+                }
+            }
+            break;
+        }
+        byte[] buf = _pendingBuffer;
+        int needed = _inputEnd + count;
+        if (needed > buf.length) {
+            // with known length, allocate the whole thing right away
+            if (_scanState == SCAN_FIXED && _scanEnd > needed) {
+                needed = _scanEnd;
+            }
+            buf = _growPending(needed);
+        }
+        System.arraycopy(_feedBuffer, _feedPtr, buf, _inputEnd, count);
+        _feedPtr += count;
+        _inputEnd += count;
+        return true;
+    }
+
+    private final byte[] _growPending(int minSize)
+    {
+        byte[] old = _pendingBuffer;
+        int newSize = minSize;
+        if (old != null) {
+            newSize = Math.max(minSize, old.length + (old.length >> 1));
+        }
+        byte[] buf = new byte[newSize];
+        if (old != null) {
+            if (_usingPending) {
+                System.arraycopy(old, 0, buf, 0, _inputEnd);
+                _inputBuffer = buf;
+            }
+            if (_pendingRecyclable) {
+                _ioContext.releaseReadIOBuffer(old);
+            }
+        }
+        _pendingRecyclable = false;
+        _pendingBuffer = buf;
+        return buf;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, token scanning
+    /**********************************************************
+     */
+
+    /**
+     * Method that determines whether the whole token that starts at
+     * current input position is available. Scanning state is retained,
+     * so calls after more content has been added continue from where
+     * the previous call left off.
+     */
+    private final boolean _scanToken() throws IOException, JsonParseException
+    {
+        if (_scanState == SCAN_NONE) {
+            _startScan();
+        }
+        while (true) {
+            switch (_scanState) {
+            case SCAN_FIXED:
+                return (_scanEnd <= _inputEnd);
+            case SCAN_VINT:
+                {
+                    final byte[] buf = _inputBuffer;
+                    final int end = _inputEnd;
+                    int ptr = _scanPtr;
+                    int value = _scanVInt;
+                    while (true) {
+                        if (ptr >= end) {
+                            _scanPtr = ptr;
+                            _scanVInt = value;
+                            return false;
+                        }
+                        int b = buf[ptr++];
+                        if (b < 0) { // last byte
+                            value = (value << 6) + (b & 0x3F);
+                            break;
+                        }
+                        value = (value << 7) + b;
+                    }
+                    _scanPtr = ptr;
+                    _scanVInt = 0;
+                    _finishVIntScan(value);
+                }
+                break;
+            case SCAN_END_MARKER:
+                {
+                    final byte[] buf = _inputBuffer;
+                    final int end = _inputEnd;
+                    int ptr = _scanPtr;
+                    while (true) {
+                        if (ptr >= end) {
+                            _scanPtr = ptr;
+                            return false;
+                        }
+                        if (buf[ptr++] == SmileConstants.BYTE_MARKER_END_OF_STRING) {
+                            break;
+                        }
+                    }
+                    _scanState = SCAN_FIXED;
+                    _scanEnd = ptr;
+                }
+                break;
+            default:
+                _throwInternal();
+            }
+        }
+    }
+
+    private final void _finishVIntScan(int value) throws IOException, JsonParseException
+    {
+        switch (_scanAfterVInt) {
+        case AFTER_VINT_NOTHING:
+            _scanState = SCAN_FIXED;
+            _scanEnd = _scanPtr;
+            return;
+        case AFTER_VINT_LENGTH_AND_7BIT_DATA: // value was BigDecimal scale, length follows
+            _scanAfterVInt = AFTER_VINT_7BIT_DATA;
+            return;
+        }
+        if (value < 0) {
+            _reportError("Corrupt input: invalid length ("+value+") for binary data");
+        }
+        _scanState = SCAN_FIXED;
+        if (_scanAfterVInt == AFTER_VINT_RAW_DATA) {
+            _scanEnd = _scanPtr + value;
+        } else { // 7-bit data: 8 bytes for 7 data bytes, and n+1 for last n bytes
+            int chunks = value / 7;
+            int left = value - (7 * chunks);
+            _scanEnd = _scanPtr + (chunks << 3) + ((left > 0) ? (left + 1) : 0);
+        }
+    }
+
+    /**
+     * Method called to determine how to scan the token, based on its
+     * type byte; there is always at least one byte available when called.
+     */
+    private final void _startScan() throws IOException, JsonParseException
+    {
+        final int ptr = _inputPtr;
+        final int ch = _inputBuffer[ptr] & 0xFF;
+        _scanPtr = ptr + 1;
+        _scanVInt = 0;
+        _scanState = SCAN_FIXED;
+        _scanEnd = ptr + 1; // default: single-byte tokens (or invalid ones)
+
+        if (!_headerChecked) {
+            _headerChecked = true;
+            if (ch == (SmileConstants.HEADER_BYTE_1 & 0xFF)) {
+                _scanHeader = true;
+                _scanEnd = ptr + 4;
+                return;
+            }
+            if ((_smileFeatures & Feature.REQUIRE_HEADER.getMask()) != 0) {
+                _reportMissingHeader(ch);
+            }
+        }
+        // elements of packed arrays have no type bytes
+        if (_packedType >= 0) {
+            _scanPtr = ptr;
+            switch (_packedType) {
+            case SmileConstants.TOKEN_MISC_PACKED_INT_32:
+            case SmileConstants.TOKEN_MISC_PACKED_INT_64:
+                _startVIntScan(AFTER_VINT_NOTHING);
+                break;
+            case SmileConstants.TOKEN_MISC_PACKED_FLOAT_32:
+                _scanEnd = ptr + 5;
+                break;
+            default:
+                _scanEnd = ptr + 10;
+            }
+            return;
+        }
+        // Two main modes: values, and field names.
+        if (_parsingContext.inObject() && _currToken != JsonToken.FIELD_NAME) {
+            switch (ch >> 6) {
+            case 0: // misc, including end marker
+                if (ch >= 0x30 && ch <= 0x33) { // long shared name reference
+                    _scanEnd = ptr + 2;
+                } else if (ch == 0x34) { // long name
+                    _scanState = SCAN_END_MARKER;
+                }
+                break;
+            case 1: // short shared name reference
+                break;
+            case 2: // short ASCII name
+                _scanEnd = ptr + 2 + (ch & 0x3F);
+                break;
+            case 3: // short Unicode name, or END_OBJECT
+                if ((ch & 0x3F) <= 0x37) {
+                    _scanEnd = ptr + 3 + (ch & 0x3F);
+                }
+                break;
+            }
+            return;
+        }
+        switch (ch >> 5) {
+        case 1: // simple literals, numbers
+            switch (ch & 0x1F) {
+            case 0x04: // VInt (32-bit)
+                _startVIntScan(AFTER_VINT_NOTHING);
+                break;
+            case 0x05: // VInt (64-bit): 4 data bytes, then VInt
+                _startVIntScan(AFTER_VINT_NOTHING);
+                _scanPtr += 4;
+                break;
+            case 0x06: // BigInteger
+                _startVIntScan(AFTER_VINT_7BIT_DATA);
+                break;
+            case 0x08: // float
+                _scanEnd = ptr + 6;
+                break;
+            case 0x09: // double
+                _scanEnd = ptr + 11;
+                break;
+            case 0x0A: // BigDecimal
+                _startVIntScan(AFTER_VINT_LENGTH_AND_7BIT_DATA);
+                break;
+            case 0x1A: // header (of the next document)
+                _scanEnd = ptr + 4;
+                break;
+            }
+            break;
+        case 2: // tiny/short ASCII
+        case 3:
+            _scanEnd = ptr + 2 + (ch & 0x3F);
+            break;
+        case 4: // tiny/short Unicode
+        case 5:
+            _scanEnd = ptr + 3 + (ch & 0x3F);
+            break;
+        case 7: // binary/long-text/long-shared/start-end-markers
+            switch (ch & 0x1F) {
+            case 0x00: // long ASCII
+            case 0x04: // long Unicode
+                _scanState = SCAN_END_MARKER;
+                break;
+            case 0x08: // 7-bit binary
+                _startVIntScan(AFTER_VINT_7BIT_DATA);
+                break;
+            case 0x0C: // long shared String reference
+            case 0x0D:
+            case 0x0E:
+            case 0x0F:
+                _scanEnd = ptr + 2;
+                break;
+            case 0x10: // packed arrays: just element count
+            case 0x11:
+            case 0x12:
+            case 0x13:
+                _startVIntScan(AFTER_VINT_NOTHING);
+                break;
+            case 0x1D: // raw binary
+                _startVIntScan(AFTER_VINT_RAW_DATA);
+                break;
+            }
+            break;
+        }
+        // others (shared Strings, small ints, markers; invalid bytes) are single-byte
+    }
+
+    private final void _startVIntScan(int after)
+    {
+        _scanState = SCAN_VINT;
+        _scanAfterVInt = after;
+    }
+
+    private final void _reportMissingHeader(int firstByte) throws JsonParseException
+    {
+        _reportError("Input does not start with Smile format header (first byte = 0x"
+                +Integer.toHexString(firstByte & 0xFF)+") and parser has REQUIRE_HEADER enabled: can not parse");
+    }
+}
@@ -18,6 +18,13 @@ public class SmileBufferRecycler<T>
 
     protected T[] _seenStringValuesBuffer;
 
+    /**
+     * Secondary buffers used along with hash areas, by generators
+     *
+     * @since 1.10
+     */
+    protected int[] _seenNamesEntryBuffer, _seenStringValuesEntryBuffer;
+
     public SmileBufferRecycler() { }
 
     public T[] allocSeenNamesBuffer()
@@ -50,4 +57,38 @@ public class SmileBufferRecycler<T>
     public void releaseSeenStringValuesBuffer(T[] buffer) {
         _seenStringValuesBuffer = buffer;
     }
+
+    /**
+     * @since 1.10
+     */
+    public int[] allocSeenNamesEntryBuffer()
+    {
+        int[] result = _seenNamesEntryBuffer;
+        _seenNamesEntryBuffer = null;
+        return result;
+    }
+
+    /**
+     * @since 1.10
+     */
+    public int[] allocSeenStringValuesEntryBuffer()
+    {
+        int[] result = _seenStringValuesEntryBuffer;
+        _seenStringValuesEntryBuffer = null;
+        return result;
+    }
+
+    /**
+     * @since 1.10
+     */
+    public void releaseSeenNamesEntryBuffer(int[] buffer) {
+        _seenNamesEntryBuffer = buffer;
+    }
+
+    /**
+     * @since 1.10
+     */
+    public void releaseSeenStringValuesEntryBuffer(int[] buffer) {
+        _seenStringValuesEntryBuffer = buffer;
+    }
 }
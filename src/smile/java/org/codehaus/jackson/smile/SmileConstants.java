@@ -156,6 +156,18 @@ public final class SmileConstants
      * written.
      */
     public final static int HEADER_BIT_HAS_RAW_BINARY = 0x04;
+
+    /**
+     * Indicator bit that indicates whether encoded content may
+     * contain packed primitive arrays (see {@link #TOKEN_MISC_PACKED_ARRAY}),
+     * which are an optional extension of the format.
+     * If no header available, can be assumed to be 0 (false).
+     * Parsers that support packed arrays accept them regardless of
+     * this bit; it is informational, like {@link #HEADER_BIT_HAS_RAW_BINARY}.
+     *
+     * @since 1.10
+     */
+    public final static int HEADER_BIT_HAS_PACKED_ARRAYS = 0x08;
     
     /*
     /**********************************************************
@@ -257,6 +269,21 @@ public final class SmileConstants
      */
     public final static int TOKEN_MISC_BINARY_RAW = 0xFD;
 
+    /**
+     * Type (for misc, other) used for packed arrays of primitive numbers:
+     * an optional extension that uses bytes from the reserved range
+     * 0xF0 - 0xF7. 2 LSB indicate element type (see
+     * {@link #TOKEN_MISC_PACKED_INT_32} and others); type byte is followed
+     * by element count as VInt, and then elements without type bytes:
+     * integral values as zigzag encoded VInts, floating-point values
+     * using the same 7-bit encoding as individual values (5 bytes for
+     * 32-bit, 10 bytes for 64-bit values). Parsers expose packed arrays
+     * as regular Array tokens, but may also allow reading them in bulk.
+     *
+     * @since 1.10
+     */
+    public final static int TOKEN_MISC_PACKED_ARRAY = 0xF0;
+
     /*
     /**********************************************************
     /* Modifiers for numeric entries
@@ -302,6 +329,38 @@ public final class SmileConstants
     public final static int TOKEN_MISC_FLOAT_BIG = 0x02;
 
     // Note: type 3 (0xF7) reserved for future use
+
+    /**
+     * Element subtype (2 LSB) for {@link #TOKEN_MISC_PACKED_ARRAY},
+     * indicating 32-bit integers (int)
+     *
+     * @since 1.10
+     */
+    public final static int TOKEN_MISC_PACKED_INT_32 = 0x00;
+
+    /**
+     * Element subtype (2 LSB) for {@link #TOKEN_MISC_PACKED_ARRAY},
+     * indicating 64-bit integers (long)
+     *
+     * @since 1.10
+     */
+    public final static int TOKEN_MISC_PACKED_INT_64 = 0x01;
+
+    /**
+     * Element subtype (2 LSB) for {@link #TOKEN_MISC_PACKED_ARRAY},
+     * indicating 32-bit IEEE single precision floating point numbers
+     *
+     * @since 1.10
+     */
+    public final static int TOKEN_MISC_PACKED_FLOAT_32 = 0x02;
+
+    /**
+     * Element subtype (2 LSB) for {@link #TOKEN_MISC_PACKED_ARRAY},
+     * indicating 64-bit IEEE double precision floating point numbers
+     *
+     * @since 1.10
+     */
+    public final static int TOKEN_MISC_PACKED_FLOAT_64 = 0x03;
     
     /*
     /**********************************************************
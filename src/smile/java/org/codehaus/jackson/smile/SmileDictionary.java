@@ -0,0 +1,178 @@
+package org.codehaus.jackson.smile;
+
+import java.util.*;
+
+/**
+ * Container for a pre-agreed set of field names and short String values
+ * that both {@link SmileGenerator} and {@link SmileParser} consider to
+ * have been "seen" before the first byte of content: they occupy the first
+ * indexes of shared name and shared String value tables, so that they can be
+ * referenced using regular shared-name and shared-value back references
+ * without ever being written out in full. This is useful for streams of
+ * small documents (such as messages over a long-lived connection), for which
+ * per-document sharing does not help much, since most names are only seen
+ * once per document.
+ *<p>
+ * Dictionary contents are not included in encoded content, so the same
+ * dictionary (with entries in the same order) must be configured for
+ * both producer and consumer (see {@link SmileFactory#setDictionary});
+ * decoding content using a different dictionary produces wrong names and
+ * values, not errors. Version number is not interpreted by Jackson; it is
+ * meant to help applications to verify that both ends use the same
+ * dictionary (for example, as part of a protocol handshake).
+ *<p>
+ * Shared names are only used if {@link SmileGenerator.Feature#CHECK_SHARED_NAMES}
+ * is enabled (default), and shared String values only if
+ * {@link SmileGenerator.Feature#CHECK_SHARED_STRING_VALUES} is enabled; this
+ * information is included in the document header.
+ *<p>
+ * Instances are immutable and can be shared between factories and threads.
+ *
+ * @since 1.10
+ */
+public final class SmileDictionary
+{
+    private final static String[] NO_STRINGS = new String[0];
+
+    private final int _version;
+
+    private final String[] _names;
+
+    private final String[] _stringValues;
+
+    /**
+     * Hash areas used by generators for looking up names and values
+     * (same structure as generators use for seen names and values);
+     * never modified after construction.
+     */
+    private final String[] _nameKeys, _stringValueKeys;
+
+    private final int[] _nameEntries, _stringValueEntries;
+
+    /**
+     * @param version Application-defined version of the dictionary
+     * @param names Field names, in order of their shared name indexes;
+     *   all must be non-empty and distinct, and there can be at most
+     *   {@link SmileConstants#MAX_SHARED_NAMES} minus one of them
+     * @param stringValues String values, in order of their shared value
+     *   indexes; all must be non-empty and distinct, at most
+     *   {@link SmileConstants#MAX_SHARED_STRING_LENGTH_BYTES} characters long,
+     *   and there can be at most {@link SmileConstants#MAX_SHARED_STRING_VALUES}
+     *   minus one of them
+     */
+    public SmileDictionary(int version, Collection<String> names, Collection<String> stringValues)
+    {
+        _version = version;
+        _names = _verify(names, "name", SmileConstants.MAX_SHARED_NAMES, Integer.MAX_VALUE);
+        _stringValues = _verify(stringValues, "String value", SmileConstants.MAX_SHARED_STRING_VALUES,
+                SmileConstants.MAX_SHARED_STRING_LENGTH_BYTES);
+        _nameKeys = _keyArea(_names);
+        _nameEntries = new int[_nameKeys.length];
+        _stringValueKeys = _keyArea(_stringValues);
+        _stringValueEntries = new int[_stringValueKeys.length];
+        for (int i = 0; i < _names.length; ++i) {
+            SmileGenerator._addShared(_nameKeys, _nameEntries, _names[i], i);
+        }
+        for (int i = 0; i < _stringValues.length; ++i) {
+            SmileGenerator._addShared(_stringValueKeys, _stringValueEntries, _stringValues[i], i);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    public int getVersion() { return _version; }
+
+    public int getNameCount() { return _names.length; }
+
+    public int getStringValueCount() { return _stringValues.length; }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(_names));
+    }
+
+    public List<String> getStringValues() {
+        return Collections.unmodifiableList(Arrays.asList(_stringValues));
+    }
+
+    @Override
+    public String toString() {
+        return "[SmileDictionary: version "+_version+", "+_names.length+" names, "
+            +_stringValues.length+" String values]";
+    }
+
+    /*
+    /**********************************************************
+    /* Package methods for parsers, generators
+    /**********************************************************
+     */
+
+    String[] names() { return _names; }
+
+    String[] stringValues() { return _stringValues; }
+
+    /**
+     * @return Shared name index of given name, if included in dictionary;
+     *   -1 if not
+     */
+    int findName(String name) {
+        return SmileGenerator._findShared(_nameKeys, _nameEntries, name);
+    }
+
+    /**
+     * @return Shared value index of given String value, if included in
+     *   dictionary; -1 if not
+     */
+    int findStringValue(String text) {
+        return SmileGenerator._findShared(_stringValueKeys, _stringValueEntries, text);
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    private static String[] _verify(Collection<String> entries, String desc, int maxEntries, int maxLength)
+    {
+        if (entries == null || entries.isEmpty()) {
+            return NO_STRINGS;
+        }
+        // need room for at least one back reference outside of dictionary
+        if (entries.size() >= maxEntries) {
+            throw new IllegalArgumentException("Too many dictionary entries of type "+desc+" ("
+                    +entries.size()+"): can have at most "+(maxEntries-1));
+        }
+        String[] result = new String[entries.size()];
+        HashSet<String> seen = new HashSet<String>();
+        int i = 0;
+        for (String str : entries) {
+            if (str == null || str.length() == 0) {
+                throw new IllegalArgumentException("Invalid dictionary "+desc+" at index "+i+": can not be null or empty");
+            }
+            if (str.length() > maxLength) {
+                throw new IllegalArgumentException("Invalid dictionary "+desc+" at index "+i+": length ("
+                        +str.length()+") exceeds maximum of "+maxLength);
+            }
+            if (!seen.add(str)) {
+                throw new IllegalArgumentException("Duplicate dictionary "+desc+" '"+str+"' at index "+i);
+            }
+            // interned, to allow identity comparison on lookups
+            result[i++] = str.intern();
+        }
+        return result;
+    }
+
+    private static String[] _keyArea(String[] entries)
+    {
+        // load factor at most 50%, same as with generators
+        int size = 16;
+        while (size < (entries.length << 1)) {
+            size += size;
+        }
+        return new String[size];
+    }
+}
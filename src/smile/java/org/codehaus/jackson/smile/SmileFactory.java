@@ -2,11 +2,16 @@ package org.codehaus.jackson.smile;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 import org.codehaus.jackson.*;
 import org.codehaus.jackson.format.InputAccessor;
 import org.codehaus.jackson.format.MatchStrength;
+import org.codehaus.jackson.io.ByteBufferInputStream;
+import org.codehaus.jackson.io.ChannelOutputStream;
 import org.codehaus.jackson.io.IOContext;
+import org.codehaus.jackson.util.BufferRecyclerPool;
 
 /**
  * Factory used for constructing {@link SmileParser} and {@link SmileGenerator}
@@ -65,6 +70,20 @@ public class SmileFactory extends JsonFactory
 
     protected int _smileGeneratorFeatures = DEFAULT_SMILE_GENERATOR_FEATURE_FLAGS;
 
+    /**
+     * Pre-agreed dictionary of shared names and String values, if any
+     *
+     * @since 1.10
+     */
+    protected SmileDictionary _dictionary;
+
+    /**
+     * Shared String window size for generators
+     *
+     * @since 1.10
+     */
+    protected int _sharedStringWindow = SmileConstants.MAX_SHARED_NAMES;
+
     /*
     /**********************************************************
     /* Factory construction, configuration
@@ -201,7 +220,71 @@ public class SmileFactory extends JsonFactory
     public final boolean isEnabled(SmileGenerator.Feature f) {
         return (_smileGeneratorFeatures & f.getMask()) != 0;
     }
-    
+
+    /*
+    /**********************************************************
+    /* Configuration, other
+    /**********************************************************
+     */
+
+    /**
+     * Overridden to return properly typed factory; Smile-specific
+     * buffers are also only kept per-thread if given pool is thread-local.
+     *
+     * @since 1.10
+     */
+    @Override
+    public SmileFactory setBufferRecyclerPool(BufferRecyclerPool pool) {
+        super.setBufferRecyclerPool(pool);
+        return this;
+    }
+
+    /**
+     * Method for specifying pre-agreed dictionary of field names and short
+     * String values that parsers and generators constructed by this factory
+     * consider seen before content starts, so that they can be back
+     * referenced from the first document on. Note that the same
+     * dictionary must be used for both writing and reading content.
+     *
+     * @param dict Dictionary to use; null to use none (default)
+     *
+     * @since 1.10
+     */
+    public SmileFactory setDictionary(SmileDictionary dict) {
+        _dictionary = dict;
+        return this;
+    }
+
+    /**
+     * @since 1.10
+     */
+    public SmileDictionary getDictionary() {
+        return _dictionary;
+    }
+
+    /**
+     * Method for specifying shared String window size for generators
+     * constructed by this factory; see {@link SmileGenerator#setSharedStringWindow}
+     * for details.
+     *
+     * @since 1.10
+     */
+    public SmileFactory setSharedStringWindow(int size) {
+        if (size < 1 || size > SmileConstants.MAX_SHARED_NAMES) {
+            throw new IllegalArgumentException("Invalid shared String window size ("+size
+                    +"): must be between 1 and "+SmileConstants.MAX_SHARED_NAMES);
+        }
+        _sharedStringWindow = size;
+        return this;
+    }
+
+    /**
+     * @since 1.10
+     */
+    public int getSharedStringWindow() {
+        return _sharedStringWindow;
+    }
+
     /*
     /**********************************************************
     /* Overridden parser factory methods
@@ -246,6 +329,45 @@ public class SmileFactory extends JsonFactory
         return _createJsonParser(data, offset, len, _createContext(data, true));
     }
 
+    /**
+     * Method for constructing parser for parsing contents of given
+     * {@link ByteBuffer}, between its current position and limit.
+     * Position of the buffer is not modified.
+     *<p>
+     * Heap buffers are parsed directly from their backing array; other
+     * buffers (like direct buffers) are read using bulk gets. In both
+     * cases raw binary values can be accessed as slices of the buffer,
+     * without copying, using {@link SmileParser#getBinaryValueAsByteBuffer}.
+     *<p>
+     * note: co-variant return type
+     *
+     * @since 1.10
+     */
+    @Override
+    public SmileParser createJsonParser(ByteBuffer buffer)
+        throws IOException, JsonParseException
+    {
+        if (buffer.hasArray()) {
+            return createJsonParser(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+        }
+        ByteBuffer src = buffer.slice();
+        SmileParser p = _createJsonParser(new ByteBufferInputStream(src.duplicate()),
+                _createContext(buffer, true));
+        p._setInputSourceBuffer(src);
+        return p;
+    }
+
+    /**
+     * @since 1.10
+     */
+    @Override
+    public NonBlockingSmileParser createNonBlockingJsonParser()
+        throws IOException, JsonParseException
+    {
+        return _createNonBlockingJsonParser(_createContext(null, false));
+    }
+
     /*
     /**********************************************************
     /* Overridden generator factory methods
@@ -266,6 +388,9 @@ public class SmileFactory extends JsonFactory
     /**
      * Since Smile format always uses UTF-8 internally, no encoding need
      * to be passed to this method.
+     *<p>
+     * To write content into a (heap or direct) {@link ByteBuffer}, pass a
+     * {@link org.codehaus.jackson.io.ByteBufferOutputStream}.
      */
     @Override
     public SmileGenerator createJsonGenerator(OutputStream out) throws IOException
@@ -274,6 +399,31 @@ public class SmileFactory extends JsonFactory
         IOContext ctxt = _createContext(out, false);
         return _createJsonGenerator(out, ctxt);
     }
+
+    /**
+     *<p>
+     * note: co-variant return type
+     *
+     * @since 1.10
+     */
+    @Override
+    public SmileGenerator createJsonGenerator(WritableByteChannel channel, JsonEncoding enc)
+        throws IOException
+    {
+        return createJsonGenerator(channel);
+    }
+
+    /**
+     * Since Smile format always uses UTF-8 internally, no encoding need
+     * to be passed to this method.
+     *
+     * @since 1.10
+     */
+    @Override
+    public SmileGenerator createJsonGenerator(WritableByteChannel channel) throws IOException
+    {
+        return createJsonGenerator(new ChannelOutputStream(channel));
+    }
     
     /*
     /******************************************************
@@ -292,7 +442,7 @@ public class SmileFactory extends JsonFactory
         throws IOException, JsonParseException
     {
         return new SmileParserBootstrapper(ctxt, in).constructParser(_parserFeatures,
-        		_smileParserFeatures, _objectCodec, _rootByteSymbols);
+        		_smileParserFeatures, _objectCodec, _rootByteSymbols, _dictionary);
     }
 
     /**
@@ -309,6 +459,39 @@ public class SmileFactory extends JsonFactory
         throw new UnsupportedOperationException("Can not create generator for non-byte-based target");
     }
 
+    /**
+     * Overridable factory method that actually instantiates desired
+     * parser.
+     *
+     * @since 1.10
+     */
+    @Override
+    protected JsonParser _createJsonParser(char[] data, int offset, int len, IOContext ctxt,
+            boolean recyclable)
+        throws IOException, JsonParseException
+    {
+        if (_cfgDelegateToTextual) {
+            return super._createJsonParser(data, offset, len, ctxt, recyclable);
+        }
+        throw new UnsupportedOperationException("Can not create parser for non-byte-based source");
+    }
+
+    /**
+     * Overridable factory method that actually instantiates non-blocking
+     * Smile parser; note that unlike with blocking parsers, header
+     * (if any) is handled by parser itself, once content is fed.
+     *
+     * @since 1.10
+     */
+    @Override
+    protected NonBlockingSmileParser _createNonBlockingJsonParser(IOContext ctxt)
+        throws IOException, JsonParseException
+    {
+        boolean intern = isEnabled(JsonParser.Feature.INTERN_FIELD_NAMES);
+        return new NonBlockingSmileParser(ctxt, _parserFeatures, _smileParserFeatures,
+                _objectCodec, _rootByteSymbols.makeChild(true, intern), _dictionary);
+    }
+
     /**
      * Overridable factory method that actually instantiates desired
      * parser.
@@ -318,7 +501,7 @@ public class SmileFactory extends JsonFactory
         throws IOException, JsonParseException
     {
         return new SmileParserBootstrapper(ctxt, data, offset, len).constructParser(_parserFeatures,
-        		_smileParserFeatures, _objectCodec, _rootByteSymbols);
+        		_smileParserFeatures, _objectCodec, _rootByteSymbols, _dictionary);
     }
 
     /**
@@ -361,7 +544,10 @@ public class SmileFactory extends JsonFactory
          * But should we force writing, or throw exception, if settings are in conflict?
          * For now, let's error out...
          */
-        SmileGenerator gen = new SmileGenerator(ctxt, _generatorFeatures, feats, _objectCodec, out);
+        SmileGenerator gen = new SmileGenerator(ctxt, _generatorFeatures, feats, _objectCodec, out, _dictionary);
+        if (_sharedStringWindow != SmileConstants.MAX_SHARED_NAMES) {
+            gen.setSharedStringWindow(_sharedStringWindow);
+        }
         if ((feats & SmileGenerator.Feature.WRITE_HEADER.getMask()) != 0) {
             gen.writeHeader();
         } else {
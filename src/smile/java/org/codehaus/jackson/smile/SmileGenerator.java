@@ -4,9 +4,11 @@ import java.io.*;
 import java.lang.ref.SoftReference;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.codehaus.jackson.*;
+import org.codehaus.jackson.io.ByteBufferInputStream;
 import org.codehaus.jackson.io.IOContext;
 import org.codehaus.jackson.io.SerializedString;
 import org.codehaus.jackson.impl.JsonGeneratorBase;
@@ -81,7 +83,23 @@ public class SmileGenerator
          * this option is disabled by default, and should only be enabled if it is likely that
          * same values repeat relatively often.
          */
-        CHECK_SHARED_STRING_VALUES(false)
+        CHECK_SHARED_STRING_VALUES(false),
+
+        /**
+         * Whether generator should write primitive number arrays passed to
+         * <code>writeArray</code> methods (such as
+         * {@link JsonGenerator#writeArray(int[],int,int)}) using packed array
+         * extension ({@link SmileConstants#TOKEN_MISC_PACKED_ARRAY}), instead
+         * of writing each element as a separate value. Packed arrays are
+         * more compact and much faster to write and read, but can only be
+         * read by parsers that support the extension (Jackson 1.10 and above).
+         *<p>
+         * Since packed arrays are not part of the base format, this option
+         * is disabled by default.
+         *
+         * @since 1.10
+         */
+        WRITE_PACKED_ARRAYS(false)
         ;
 
         protected final boolean _defaultState;
@@ -112,23 +130,25 @@ public class SmileGenerator
     }
 
     /**
-     * Helper class used for keeping track of possibly shareable String
-     * references (for field names and/or short String values)
+     * Shared name and String value back references are stored in
+     * open-addressing hash areas: a <code>String[]</code> for keys, and
+     * a matching <code>int[]</code> for entries, which contain back reference
+     * index in the lowest bits (masked by this constant), and upper bits of
+     * the key hash in the rest.
+     *
+     * @since 1.10
      */
-    protected final static class SharedStringNode
-    {
-        public final String value;
-        public final int index;
-        public SharedStringNode next;
-        
-        public SharedStringNode(String value, int index, SharedStringNode next)
-        {
-            this.value = value;
-            this.index = index;
-            this.next = next;
-        }
-    }
-    
+    protected final static int SHARED_INDEX_MASK = 0x3FF;
+
+    /**
+     * Initial size of shared String hash areas; big enough for
+     * {@link SmileBufferRecycler#DEFAULT_NAME_BUFFER_LENGTH} entries,
+     * and the only size that is recycled.
+     *
+     * @since 1.10
+     */
+    protected final static int INITIAL_SHARED_AREA_SIZE = 2 * SmileBufferRecycler.DEFAULT_NAME_BUFFER_LENGTH;
+
     /**
      * To simplify certain operations, we require output buffer length
      * to allow outputting of contiguous 256 character UTF-8 encoded String
@@ -151,6 +171,11 @@ public class SmileGenerator
     protected final static byte TOKEN_BYTE_FLOAT_32 =  (byte) (TOKEN_MISC_FP | TOKEN_MISC_FLOAT_32);
     protected final static byte TOKEN_BYTE_FLOAT_64 =  (byte) (TOKEN_MISC_FP | TOKEN_MISC_FLOAT_64);
     protected final static byte TOKEN_BYTE_BIG_DECIMAL =  (byte) (TOKEN_MISC_FP | TOKEN_MISC_FLOAT_BIG);
+
+    protected final static byte TOKEN_BYTE_PACKED_INT_32 = (byte) (TOKEN_MISC_PACKED_ARRAY | TOKEN_MISC_PACKED_INT_32);
+    protected final static byte TOKEN_BYTE_PACKED_INT_64 = (byte) (TOKEN_MISC_PACKED_ARRAY | TOKEN_MISC_PACKED_INT_64);
+    protected final static byte TOKEN_BYTE_PACKED_FLOAT_32 = (byte) (TOKEN_MISC_PACKED_ARRAY | TOKEN_MISC_PACKED_FLOAT_32);
+    protected final static byte TOKEN_BYTE_PACKED_FLOAT_64 = (byte) (TOKEN_MISC_PACKED_ARRAY | TOKEN_MISC_PACKED_FLOAT_64);
     
     protected final static int SURR1_FIRST = 0xD800;
     protected final static int SURR1_LAST = 0xDBFF;
@@ -168,7 +193,7 @@ public class SmileGenerator
 
     final protected IOContext _ioContext;
 
-    final protected OutputStream _out;
+    protected OutputStream _out;
 
     /**
      * Bit flag composed of bits that indicate which
@@ -183,7 +208,7 @@ public class SmileGenerator
      * 
      * @since 1.7
      */
-    final protected SmileBufferRecycler<SharedStringNode> _smileBufferRecycler;
+    final protected SmileBufferRecycler<String> _smileBufferRecycler;
     
     /*
     /**********************************************************
@@ -231,29 +256,94 @@ public class SmileGenerator
      */
 
     /**
-     * Raw data structure used for checking whether field name to
-     * write can be output using back reference or not.
+     * Keys of the hash area used for checking whether field name to
+     * write can be output using back reference or not; null for empty slots.
      */
-    protected SharedStringNode[] _seenNames;
-    
+    protected String[] _seenNames;
+
     /**
-     * Number of entries in {@link #_seenNames}; -1 if no shared name
+     * Entries for keys in {@link #_seenNames} (see {@link #SHARED_INDEX_MASK})
+     *
+     * @since 1.10
+     */
+    protected int[] _seenNameEntries;
+
+    /**
+     * Number of names seen (including ones from dictionary, if any), which
+     * is also the index of the next name to add; -1 if no shared name
      * detection is enabled
      */
     protected int _seenNameCount;
 
     /**
-     * Raw data structure used for checking whether String value to
-     * write can be output using back reference or not.
+     * Number of names actually stored in {@link #_seenNames}; at most
+     * {@link #_sharedStringWindow}.
+     *
+     * @since 1.10
      */
-    protected SharedStringNode[] _seenStringValues;
-    
+    protected int _seenNamesStored;
+
+    /**
+     * Keys of the hash area used for checking whether String value to
+     * write can be output using back reference or not; null for empty slots.
+     */
+    protected String[] _seenStringValues;
+
+    /**
+     * Entries for keys in {@link #_seenStringValues} (see {@link #SHARED_INDEX_MASK})
+     *
+     * @since 1.10
+     */
+    protected int[] _seenStringValueEntries;
+
     /**
-     * Number of entries in {@link #_seenStringValues}; -1 if no shared text value
+     * Number of String values seen (including ones from dictionary, if any),
+     * which is also the index of the next value to add; -1 if no shared text value
      * detection is enabled
      */
     protected int _seenStringValueCount;
 
+    /**
+     * Number of String values actually stored in {@link #_seenStringValues}; at most
+     * {@link #_sharedStringWindow}.
+     *
+     * @since 1.10
+     */
+    protected int _seenStringValuesStored;
+
+    /**
+     * Maximum number of names (and, separately, String values) kept available
+     * for back references, after the last time shared tables were cleared;
+     * see {@link #setSharedStringWindow}.
+     *
+     * @since 1.10
+     */
+    protected int _sharedStringWindow = MAX_SHARED_NAMES;
+
+    /**
+     * Pre-agreed dictionary of names and values that occupy the first
+     * shared name and String value indexes, if any.
+     *
+     * @since 1.10
+     */
+    protected final SmileDictionary _dictionary;
+
+    /**
+     * Number of names in {@link #_dictionary} (0 if none); this is the
+     * first index used for names in {@link #_seenNames}
+     *
+     * @since 1.10
+     */
+    protected final int _dictionaryNameCount;
+
+    /**
+     * Number of String values in {@link #_dictionary} (0 if none); this is
+     * the first index used for values in {@link #_seenStringValues}
+     *
+     * @since 1.10
+     */
+    protected final int _dictionaryValueCount;
+
     /**
      * Flag that indicates whether the output buffer is recycable (and
      * needs to be returned to recycler once we are done) or not.
@@ -271,8 +361,8 @@ public class SmileGenerator
      * to a buffer recycler used to provide a low-cost
      * buffer recycling for Smile-specific buffers.
      */
-    final protected static ThreadLocal<SoftReference<SmileBufferRecycler<SharedStringNode>>> _smileRecyclerRef
-        = new ThreadLocal<SoftReference<SmileBufferRecycler<SharedStringNode>>>();
+    final protected static ThreadLocal<SoftReference<SmileBufferRecycler<String>>> _smileRecyclerRef
+        = new ThreadLocal<SoftReference<SmileBufferRecycler<String>>>();
     
     /*
     /**********************************************************
@@ -282,11 +372,28 @@ public class SmileGenerator
     
     public SmileGenerator(IOContext ctxt, int jsonFeatures, int smileFeatures,
             ObjectCodec codec, OutputStream out)
+    {
+        this(ctxt, jsonFeatures, smileFeatures, codec, out, (SmileDictionary) null);
+    }
+
+    /**
+     * @param dict Pre-agreed dictionary of shared names and String values,
+     *   if any (null if none)
+     *
+     * @since 1.10
+     */
+    public SmileGenerator(IOContext ctxt, int jsonFeatures, int smileFeatures,
+            ObjectCodec codec, OutputStream out, SmileDictionary dict)
     {
         super(jsonFeatures, codec);
+        _dictionary = dict;
+        _dictionaryNameCount = (dict == null) ? 0 : dict.getNameCount();
+        _dictionaryValueCount = (dict == null) ? 0 : dict.getStringValueCount();
         _smileFeatures = smileFeatures;
         _ioContext = ctxt;
-        _smileBufferRecycler = _smileBufferRecycler();
+        // Smile buffers are only kept per-thread if core recyclers are too
+        _smileBufferRecycler = ctxt.isBufferRecyclerThreadLocal()
+            ? _smileBufferRecycler() : new SmileBufferRecycler<String>();
         _out = out;
         _bufferRecyclable = true;
         _outputBuffer = ctxt.allocWriteEncodingBuffer();
@@ -298,36 +405,34 @@ public class SmileGenerator
             throw new IllegalStateException("Internal encoding buffer length ("+_outputEnd
                     +") too short, must be at least "+MIN_BUFFER_LENGTH);
         }
-        if ((smileFeatures & Feature.CHECK_SHARED_NAMES.getMask()) == 0) {
-            _seenNames = null;
-            _seenNameCount = -1;
-        } else {
-            _seenNames = _smileBufferRecycler.allocSeenNamesBuffer();
-            if (_seenNames == null) {
-                _seenNames = new SharedStringNode[SmileBufferRecycler.DEFAULT_NAME_BUFFER_LENGTH];
-            }
-            _seenNameCount = 0;
-        }
-
-        if ((smileFeatures & Feature.CHECK_SHARED_STRING_VALUES.getMask()) == 0) {
-            _seenStringValues = null;
-            _seenStringValueCount = -1;
-        } else {
-            _seenStringValues = _smileBufferRecycler.allocSeenStringValuesBuffer();
-            if (_seenStringValues == null) {
-                _seenStringValues = new SharedStringNode[SmileBufferRecycler.DEFAULT_STRING_VALUE_BUFFER_LENGTH];
-            }
-            _seenStringValueCount = 0;
-        }
-}
+        _initSharedAreas(smileFeatures);
+    }
 
     public SmileGenerator(IOContext ctxt, int jsonFeatures, int smileFeatures,
             ObjectCodec codec, OutputStream out, byte[] outputBuffer, int offset, boolean bufferRecyclable)
+    {
+        this(ctxt, jsonFeatures, smileFeatures, codec, out, outputBuffer, offset, bufferRecyclable, null);
+    }
+
+    /**
+     * @param dict Pre-agreed dictionary of shared names and String values,
+     *   if any (null if none)
+     *
+     * @since 1.10
+     */
+    public SmileGenerator(IOContext ctxt, int jsonFeatures, int smileFeatures,
+            ObjectCodec codec, OutputStream out, byte[] outputBuffer, int offset, boolean bufferRecyclable,
+            SmileDictionary dict)
     {
         super(jsonFeatures, codec);
+        _dictionary = dict;
+        _dictionaryNameCount = (dict == null) ? 0 : dict.getNameCount();
+        _dictionaryValueCount = (dict == null) ? 0 : dict.getStringValueCount();
         _smileFeatures = smileFeatures;
         _ioContext = ctxt;
-        _smileBufferRecycler = _smileBufferRecycler();
+        // Smile buffers are only kept per-thread if core recyclers are too
+        _smileBufferRecycler = ctxt.isBufferRecyclerThreadLocal()
+            ? _smileBufferRecycler() : new SmileBufferRecycler<String>();
         _out = out;
         _bufferRecyclable = bufferRecyclable;
         _outputTail = offset;
@@ -340,15 +445,24 @@ public class SmileGenerator
             throw new IllegalStateException("Internal encoding buffer length ("+_outputEnd
                     +") too short, must be at least "+MIN_BUFFER_LENGTH);
         }
+        _initSharedAreas(smileFeatures);
+    }
+
+    private void _initSharedAreas(int smileFeatures)
+    {
         if ((smileFeatures & Feature.CHECK_SHARED_NAMES.getMask()) == 0) {
             _seenNames = null;
             _seenNameCount = -1;
         } else {
             _seenNames = _smileBufferRecycler.allocSeenNamesBuffer();
             if (_seenNames == null) {
-                _seenNames = new SharedStringNode[SmileBufferRecycler.DEFAULT_NAME_BUFFER_LENGTH];
+                _seenNames = new String[INITIAL_SHARED_AREA_SIZE];
+            }
+            _seenNameEntries = _smileBufferRecycler.allocSeenNamesEntryBuffer();
+            if (_seenNameEntries == null) {
+                _seenNameEntries = new int[INITIAL_SHARED_AREA_SIZE];
             }
-            _seenNameCount = 0;
+            _seenNameCount = _dictionaryNameCount;
         }
 
         if ((smileFeatures & Feature.CHECK_SHARED_STRING_VALUES.getMask()) == 0) {
@@ -357,10 +471,45 @@ public class SmileGenerator
         } else {
             _seenStringValues = _smileBufferRecycler.allocSeenStringValuesBuffer();
             if (_seenStringValues == null) {
-                _seenStringValues = new SharedStringNode[SmileBufferRecycler.DEFAULT_STRING_VALUE_BUFFER_LENGTH];
+                _seenStringValues = new String[INITIAL_SHARED_AREA_SIZE];
+            }
+            _seenStringValueEntries = _smileBufferRecycler.allocSeenStringValuesEntryBuffer();
+            if (_seenStringValueEntries == null) {
+                _seenStringValueEntries = new int[INITIAL_SHARED_AREA_SIZE];
             }
-            _seenStringValueCount = 0;
+            _seenStringValueCount = _dictionaryValueCount;
+        }
+    }
+
+    /**
+     * Method for limiting number of names (and, separately, String values) kept
+     * available for back references: once this many have been added since
+     * shared tables were last cleared, later ones are written as usual, but
+     * not tracked. Smaller windows mean smaller hash areas to probe and clear,
+     * at the cost of fewer back references; default (and maximum) is
+     * {@link SmileConstants#MAX_SHARED_NAMES}. Does not affect format or
+     * parsing, and can be changed at any point.
+     *
+     * @param size Window size, between 1 and {@link SmileConstants#MAX_SHARED_NAMES}
+     *   (inclusive)
+     *
+     * @since 1.10
+     */
+    public SmileGenerator setSharedStringWindow(int size)
+    {
+        if (size < 1 || size > MAX_SHARED_NAMES) {
+            throw new IllegalArgumentException("Invalid shared String window size ("+size
+                    +"): must be between 1 and "+MAX_SHARED_NAMES);
         }
+        _sharedStringWindow = size;
+        return this;
+    }
+
+    /**
+     * @since 1.10
+     */
+    public int getSharedStringWindow() {
+        return _sharedStringWindow;
     }
 
     /**
@@ -382,17 +531,20 @@ public class SmileGenerator
         if ((_smileFeatures & Feature.ENCODE_BINARY_AS_7BIT.getMask()) == 0) {
             last |= SmileConstants.HEADER_BIT_HAS_RAW_BINARY;
         }
+        if ((_smileFeatures & Feature.WRITE_PACKED_ARRAYS.getMask()) != 0) {
+            last |= SmileConstants.HEADER_BIT_HAS_PACKED_ARRAYS;
+        }
         _writeBytes(HEADER_BYTE_1, HEADER_BYTE_2, HEADER_BYTE_3, (byte) last);
     }
 
-    protected final static SmileBufferRecycler<SharedStringNode> _smileBufferRecycler()
+    protected final static SmileBufferRecycler<String> _smileBufferRecycler()
     {
-        SoftReference<SmileBufferRecycler<SharedStringNode>> ref = _smileRecyclerRef.get();
-        SmileBufferRecycler<SharedStringNode> br = (ref == null) ? null : ref.get();
+        SoftReference<SmileBufferRecycler<String>> ref = _smileRecyclerRef.get();
+        SmileBufferRecycler<String> br = (ref == null) ? null : ref.get();
 
         if (br == null) {
-            br = new SmileBufferRecycler<SharedStringNode>();
-            _smileRecyclerRef.set(new SoftReference<SmileBufferRecycler<SharedStringNode>>(br));
+            br = new SmileBufferRecycler<String>();
+            _smileRecyclerRef.set(new SoftReference<SmileBufferRecycler<String>>(br));
         }
         return br;
     }
@@ -1162,7 +1314,224 @@ public class SmileGenerator
             _writeBytes(data, offset, len);
         }
     }
+
+    /**
+     * Since length of binary content is included before content itself,
+     * content can only be streamed if its length is known; if not,
+     * content is buffered first.
+     *
+     * @since 1.10
+     */
+    @Override
+    public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength)
+        throws IOException, JsonGenerationException
+    {
+        if (dataLength < 0) {
+            return super.writeBinary(b64variant, data, dataLength);
+        }
+        _verifyValueWrite("write Binary value");
+        int missing;
+        byte[] readBuffer = _ioContext.allocBase64Buffer();
+        try {
+            if (this.isEnabled(Feature.ENCODE_BINARY_AS_7BIT)) {
+                _writeByte((byte) TOKEN_MISC_BINARY_7BIT);
+                _writePositiveVInt(dataLength);
+                missing = _write7BitBinary(data, readBuffer, dataLength);
+            } else {
+                _writeByte((byte) TOKEN_MISC_BINARY_RAW );
+                _writePositiveVInt(dataLength);
+                missing = _writeRawBinary(data, readBuffer, dataLength);
+            }
+        } finally {
+            _ioContext.releaseBase64Buffer(readBuffer);
+        }
+        if (missing > 0) {
+            _reportError("Too few bytes available: missing "+missing+" bytes (out of "+dataLength+")");
+        }
+        return dataLength;
+    }
+
+    /**
+     * Method for writing binary value contained in given {@link ByteBuffer}
+     * (heap or direct), between its current position and limit; position
+     * of the buffer is not modified. If raw binary is written (that is,
+     * {@link Feature#ENCODE_BINARY_AS_7BIT} is disabled), contents of
+     * direct buffers are copied into output buffer using bulk gets,
+     * without intermediate byte arrays.
+     *
+     * @since 1.10
+     */
+    public void writeBinary(ByteBuffer data) throws IOException, JsonGenerationException
+    {
+        if (data == null) {
+            writeNull();
+            return;
+        }
+        if (data.hasArray()) {
+            writeBinary(Base64Variants.getDefaultVariant(), data.array(),
+                    data.arrayOffset() + data.position(), data.remaining());
+            return;
+        }
+        ByteBuffer buf = data.duplicate();
+        if (this.isEnabled(Feature.ENCODE_BINARY_AS_7BIT)) {
+            writeBinary(Base64Variants.getDefaultVariant(), new ByteBufferInputStream(buf), buf.remaining());
+            return;
+        }
+        _verifyValueWrite("write Binary value");
+        _writeByte((byte) TOKEN_MISC_BINARY_RAW );
+        _writePositiveVInt(buf.remaining());
+        while (buf.hasRemaining()) {
+            if (_outputTail >= _outputEnd) {
+                _flushBuffer();
+            }
+            int len = Math.min(buf.remaining(), _outputEnd - _outputTail);
+            buf.get(_outputBuffer, _outputTail, len);
+            _outputTail += len;
+        }
+    }
     
+    /*
+    /**********************************************************
+    /* Output method implementations, packed arrays
+    /**********************************************************
+     */
+
+    /**
+     * Writes array as a packed array if {@link Feature#WRITE_PACKED_ARRAYS}
+     * is enabled; otherwise as a regular Array of separate values.
+     *
+     * @since 1.10
+     */
+    @Override
+    public void writeArray(int[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        if (!isEnabled(Feature.WRITE_PACKED_ARRAYS)) {
+            super.writeArray(array, offset, length);
+            return;
+        }
+        _verifyArrayOffsets(array.length, offset, length);
+        _verifyValueWrite("write packed array");
+        _writeByte(TOKEN_BYTE_PACKED_INT_32);
+        _writePositiveVInt(length);
+        for (int end = offset+length; offset < end; ++offset) {
+            _ensureRoomForOutput(5);
+            _appendUnsignedVInt(SmileUtil.zigzagEncode(array[offset]));
+        }
+    }
+
+    /**
+     * Writes array as a packed array if {@link Feature#WRITE_PACKED_ARRAYS}
+     * is enabled; otherwise as a regular Array of separate values.
+     *
+     * @since 1.10
+     */
+    @Override
+    public void writeArray(long[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        if (!isEnabled(Feature.WRITE_PACKED_ARRAYS)) {
+            super.writeArray(array, offset, length);
+            return;
+        }
+        _verifyArrayOffsets(array.length, offset, length);
+        _verifyValueWrite("write packed array");
+        _writeByte(TOKEN_BYTE_PACKED_INT_64);
+        _writePositiveVInt(length);
+        for (int end = offset+length; offset < end; ++offset) {
+            _ensureRoomForOutput(10);
+            _appendUnsignedVLong(SmileUtil.zigzagEncode(array[offset]));
+        }
+    }
+
+    /**
+     * Writes array as a packed array if {@link Feature#WRITE_PACKED_ARRAYS}
+     * is enabled; otherwise as a regular Array of separate values.
+     *
+     * @since 1.10
+     */
+    @Override
+    public void writeArray(float[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        if (!isEnabled(Feature.WRITE_PACKED_ARRAYS)) {
+            super.writeArray(array, offset, length);
+            return;
+        }
+        _verifyArrayOffsets(array.length, offset, length);
+        _verifyValueWrite("write packed array");
+        _writeByte(TOKEN_BYTE_PACKED_FLOAT_32);
+        _writePositiveVInt(length);
+        for (int end = offset+length; offset < end; ++offset) {
+            _ensureRoomForOutput(5);
+            _appendFloat(Float.floatToRawIntBits(array[offset]));
+        }
+    }
+
+    /**
+     * Writes array as a packed array if {@link Feature#WRITE_PACKED_ARRAYS}
+     * is enabled; otherwise as a regular Array of separate values.
+     *
+     * @since 1.10
+     */
+    @Override
+    public void writeArray(double[] array, int offset, int length)
+        throws IOException, JsonGenerationException
+    {
+        if (!isEnabled(Feature.WRITE_PACKED_ARRAYS)) {
+            super.writeArray(array, offset, length);
+            return;
+        }
+        _verifyArrayOffsets(array.length, offset, length);
+        _verifyValueWrite("write packed array");
+        _writeByte(TOKEN_BYTE_PACKED_FLOAT_64);
+        _writePositiveVInt(length);
+        for (int end = offset+length; offset < end; ++offset) {
+            _ensureRoomForOutput(10);
+            _appendDouble(Double.doubleToRawLongBits(array[offset]));
+        }
+    }
+
+    /**
+     * Helper method for appending an unsigned 32-bit value as a VInt
+     * (1 - 5 bytes); caller must ensure there is enough room in the buffer.
+     */
+    private final void _appendUnsignedVInt(int i)
+    {
+        int len = 1;
+        for (int v = (i >>> 6); v != 0; v >>>= 7) {
+            ++len;
+        }
+        int ptr = _outputTail + len;
+        _outputTail = ptr;
+        _outputBuffer[--ptr] = (byte) (0x80 + (i & 0x3F));
+        i >>>= 6;
+        while (--len > 0) {
+            _outputBuffer[--ptr] = (byte) (i & 0x7F);
+            i >>>= 7;
+        }
+    }
+
+    /**
+     * Helper method for appending an unsigned 64-bit value as a VInt
+     * (1 - 10 bytes); caller must ensure there is enough room in the buffer.
+     */
+    private final void _appendUnsignedVLong(long l)
+    {
+        int len = 1;
+        for (long v = (l >>> 6); v != 0L; v >>>= 7) {
+            ++len;
+        }
+        int ptr = _outputTail + len;
+        _outputTail = ptr;
+        _outputBuffer[--ptr] = (byte) (0x80 + (((int) l) & 0x3F));
+        l >>>= 6;
+        while (--len > 0) {
+            _outputBuffer[--ptr] = (byte) (((int) l) & 0x7F);
+            l >>>= 7;
+        }
+    }
+
     /*
     /**********************************************************
     /* Output method implementations, primitive
@@ -1315,8 +1684,32 @@ public class SmileGenerator
          * where collapsing of NaN was needed (for non-Java clients), this can
          * be changed
          */
-        long l = Double.doubleToRawLongBits(d);
         _outputBuffer[_outputTail++] = TOKEN_BYTE_FLOAT_64;
+        _appendDouble(Double.doubleToRawLongBits(d));
+    }
+
+    @Override
+    public void writeNumber(float f) throws IOException, JsonGenerationException
+    {
+        // Ok, now, we needed token type byte plus 5 data bytes (7 bits each)
+        _ensureRoomForOutput(6);
+        _verifyValueWrite("write number");
+        
+        /* 17-Apr-2010, tatu: could also use 'floatToIntBits', but it seems more accurate to use
+         * exact representation; and possibly faster. However, if there are cases
+         * where collapsing of NaN was needed (for non-Java clients), this can
+         * be changed
+         */
+        _outputBuffer[_outputTail++] = TOKEN_BYTE_FLOAT_32;
+        _appendFloat(Float.floatToRawIntBits(f));
+    }
+
+    /**
+     * Helper method for appending 10 data bytes of a 64-bit floating
+     * point value; caller must ensure there is enough room in the buffer.
+     */
+    private final void _appendDouble(long l)
+    {
         // Handle first 29 bits (single bit first, then 4 x 7 bits)
         int hi5 = (int) (l >>> 35);
         _outputBuffer[_outputTail+4] = (byte) (hi5 & 0x7F);
@@ -1346,20 +1739,12 @@ public class SmileGenerator
         _outputTail += 4;
     }
 
-    @Override
-    public void writeNumber(float f) throws IOException, JsonGenerationException
+    /**
+     * Helper method for appending 5 data bytes of a 32-bit floating
+     * point value; caller must ensure there is enough room in the buffer.
+     */
+    private final void _appendFloat(int i)
     {
-        // Ok, now, we needed token type byte plus 5 data bytes (7 bits each)
-        _ensureRoomForOutput(6);
-        _verifyValueWrite("write number");
-        
-        /* 17-Apr-2010, tatu: could also use 'floatToIntBits', but it seems more accurate to use
-         * exact representation; and possibly faster. However, if there are cases
-         * where collapsing of NaN was needed (for non-Java clients), this can
-         * be changed
-         */
-        int i = Float.floatToRawIntBits(f);
-        _outputBuffer[_outputTail++] = TOKEN_BYTE_FLOAT_32;
         _outputBuffer[_outputTail+4] = (byte) (i & 0x7F);
         i >>= 7;
         _outputBuffer[_outputTail+3] = (byte) (i & 0x7F);
@@ -1432,6 +1817,61 @@ public class SmileGenerator
 
     @Override
     public void close() throws IOException
+    {
+        boolean wasClosed = _closed;
+        super.close();
+        _closeOutput(!wasClosed);
+        // Internal buffer(s) generator has can now be released as well
+        _releaseBuffers();
+        _ioContext.releaseBufferRecycler();
+    }
+
+    /**
+     * Method for reusing this generator instance for writing another
+     * document into given stream. Current document is completed the same
+     * way as by {@link #close} (including closing of the current stream,
+     * if generator owns it or {@link JsonGenerator.Feature#AUTO_CLOSE_TARGET}
+     * is enabled), but buffers are retained for the new document.
+     * Shared String tables are cleared, and document header written
+     * if {@link Feature#WRITE_HEADER} is enabled.
+     *<p>
+     * Generator can be reset any number of times before it is closed;
+     * {@link #close} releases buffers as usual, after which generator
+     * can not be reset.
+     *
+     * @throws IllegalStateException If generator has already been closed
+     *
+     * @since 1.10
+     */
+    public void reset(OutputStream out) throws IOException
+    {
+        if (_closed) {
+            throw new IllegalStateException("Can not reset a closed generator");
+        }
+        _closeOutput(true);
+        _ioContext.resetSource(out, false);
+        _resetForReuse();
+        _out = out;
+        _bytesWritten = 0;
+        if (_seenNameCount > _dictionaryNameCount) {
+            _clearSeenNames();
+        }
+        if (_seenStringValueCount > _dictionaryValueCount) {
+            _clearSeenStringValues();
+        }
+        if (isEnabled(Feature.WRITE_HEADER)) {
+            writeHeader();
+        }
+    }
+
+    /**
+     * Helper method called to complete current document: closes open
+     * scopes (if enabled), writes end marker (if enabled and requested),
+     * flushes buffered content, and closes or flushes the underlying stream.
+     *
+     * @since 1.10
+     */
+    protected void _closeOutput(boolean writeEndMarker) throws IOException
     {
         /* 05-Dec-2008, tatu: To add [JACKSON-27], need to close open
          *   scopes.
@@ -1450,10 +1890,7 @@ public class SmileGenerator
                 }
             }
         }
-        boolean wasClosed = _closed;
-        super.close();
-
-        if (!wasClosed && isEnabled(Feature.WRITE_END_MARKER)) {
+        if (writeEndMarker && isEnabled(Feature.WRITE_END_MARKER)) {
             _writeByte(BYTE_MARKER_END_OF_CONTENT);
         }
         _flushBuffer();
@@ -1464,8 +1901,6 @@ public class SmileGenerator
             // If we can't close it, we should at least flush
             _out.flush();
         }
-        // Internal buffer(s) generator has can now be released as well
-        _releaseBuffers();
     }
     
     /*
@@ -1875,6 +2310,17 @@ public class SmileGenerator
     protected void _write7BitBinaryWithLength(byte[] data, int offset, int len) throws IOException
     {
         _writePositiveVInt(len);
+        _write7BitBinary(data, offset, len);
+    }
+
+    /**
+     * Method for encoding given content using 7-bit encoding, without
+     * length prefix.
+     *
+     * @since 1.10
+     */
+    protected void _write7BitBinary(byte[] data, int offset, int len) throws IOException
+    {
         // first, let's handle full 7-byte chunks
         while (len >= 7) {
             if ((_outputTail + 8) >= _outputEnd) {
@@ -1938,6 +2384,56 @@ public class SmileGenerator
             }
         }
     }
+
+    /**
+     * Method for encoding given number of bytes read from the stream
+     * using 7-bit encoding, without length prefix.
+     *
+     * @return Number of bytes that could not be read (0 if all were)
+     *
+     * @since 1.10
+     */
+    protected int _write7BitBinary(InputStream in, byte[] readBuffer, int bytesLeft) throws IOException
+    {
+        int inputPtr = 0;
+        int inputEnd = 0;
+        while (true) {
+            int left = inputEnd - inputPtr;
+            inputEnd = _readMore(in, readBuffer, inputPtr, inputEnd, bytesLeft, 7);
+            inputPtr = 0;
+            bytesLeft -= (inputEnd - left);
+            if (inputEnd < 7) { // end of content; 0 - 6 bytes left
+                break;
+            }
+            // only full chunks; partial one has to be encoded last
+            inputPtr = inputEnd - (inputEnd % 7);
+            _write7BitBinary(readBuffer, 0, inputPtr);
+        }
+        if (inputEnd > 0) {
+            _write7BitBinary(readBuffer, 0, inputEnd);
+        }
+        return bytesLeft;
+    }
+
+    /**
+     * Method for copying given number of bytes from the stream as is.
+     *
+     * @return Number of bytes that could not be read (0 if all were)
+     *
+     * @since 1.10
+     */
+    protected int _writeRawBinary(InputStream in, byte[] readBuffer, int bytesLeft) throws IOException
+    {
+        while (bytesLeft > 0) {
+            int count = in.read(readBuffer, 0, Math.min(readBuffer.length, bytesLeft));
+            if (count < 0) {
+                break;
+            }
+            _writeBytes(readBuffer, 0, count);
+            bytesLeft -= count;
+        }
+        return bytesLeft;
+    }
     
     /*
     /**********************************************************
@@ -1962,29 +2458,30 @@ public class SmileGenerator
          * let's only recycle default-sized buffers...
          */
         {
-            SharedStringNode[] nameBuf = _seenNames;
-            if (nameBuf != null && nameBuf.length == SmileBufferRecycler.DEFAULT_NAME_BUFFER_LENGTH) {
+            String[] nameBuf = _seenNames;
+            if (nameBuf != null && nameBuf.length == INITIAL_SHARED_AREA_SIZE) {
                 _seenNames = null;
                 /* 28-Jun-2011, tatu: With 1.9, caller needs to clear the buffer; and note
-                 *   that since it's a hash area, must clear all
+                 *   that since it's a hash area, must clear all (entries need not be cleared)
                  */
-                if (_seenNameCount > 0) {
+                if (_seenNamesStored > 0) {
                     Arrays.fill(nameBuf, null);
                 }
                 _smileBufferRecycler.releaseSeenNamesBuffer(nameBuf);
+                _smileBufferRecycler.releaseSeenNamesEntryBuffer(_seenNameEntries);
+                _seenNameEntries = null;
             }
         }
         {
-            SharedStringNode[] valueBuf = _seenStringValues;
-            if (valueBuf != null && valueBuf.length == SmileBufferRecycler.DEFAULT_STRING_VALUE_BUFFER_LENGTH) {
+            String[] valueBuf = _seenStringValues;
+            if (valueBuf != null && valueBuf.length == INITIAL_SHARED_AREA_SIZE) {
                 _seenStringValues = null;
-                /* 28-Jun-2011, tatu: With 1.9, caller needs to clear the buffer; and note
-                 *   that since it's a hash area, must clear all
-                 */
-                if (_seenStringValueCount > 0) {
+                if (_seenStringValuesStored > 0) {
                     Arrays.fill(valueBuf, null);
                 }
                 _smileBufferRecycler.releaseSeenStringValuesBuffer(valueBuf);
+                _smileBufferRecycler.releaseSeenStringValuesEntryBuffer(_seenStringValueEntries);
+                _seenStringValueEntries = null;
             }
         }
     }
@@ -2006,111 +2503,158 @@ public class SmileGenerator
 
     private final int _findSeenName(String name)
     {
-        int hash = name.hashCode();
-        SharedStringNode head = _seenNames[hash & (_seenNames.length-1)];
-        if (head == null) {
-            return -1;
-        }
-        SharedStringNode node = head;
-        // first, identity match; assuming most of the time we get intern()ed String
-        // And do unrolled initial check; 90+% likelihood head node has all info we need:
-        if (node.value == name) {
-            return node.index;
-        }
-        while ((node = node.next) != null) {
-            if (node.value == name) {
-                return node.index;
+        if (_dictionaryNameCount > 0) {
+            int ix = _dictionary.findName(name);
+            if (ix >= 0) {
+                return ix;
             }
         }
-        // If not, equality check; we already know head is not null
-        node = head;
-        do {
-            String value = node.value;
-            if (value.hashCode() == hash && value.equals(name)) {
-                return node.index;
-            }
-            node = node.next;
-        } while (node != null);
-        return -1;
+        return _findShared(_seenNames, _seenNameEntries, name);
     }
-    
+
     private final void _addSeenName(String name)
     {
-        // first: do we need to expand?
-        if (_seenNameCount == _seenNames.length) {
-            if (_seenNameCount == MAX_SHARED_NAMES) { // we are too full, restart from empty
-                Arrays.fill(_seenNames, null);
-                _seenNameCount = 0;
-            } else { // we always start with modest default size (like 64), so expand to full
-                SharedStringNode[] old = _seenNames;
-                _seenNames = new SharedStringNode[MAX_SHARED_NAMES];
-                final int mask = MAX_SHARED_NAMES-1;
-                for (SharedStringNode node : old) {
-                    for (; node != null; node = node.next) {
-                        int ix = node.value.hashCode() & mask;
-                        node.next = _seenNames[ix];
-                        _seenNames[ix] = node;
-                    }
-                }
+        // If all back reference indexes are used, need to restart (from dictionary, if any)
+        if (_seenNameCount == MAX_SHARED_NAMES) {
+            _clearSeenNames();
+        }
+        // only track the first ones within window (but must count all)
+        if (_seenNamesStored < _sharedStringWindow) {
+            // keep load factor at most 50%
+            if ((_seenNamesStored << 1) >= _seenNames.length) {
+                String[] oldKeys = _seenNames;
+                int[] oldEntries = _seenNameEntries;
+                int size = oldKeys.length << 1;
+                _seenNames = new String[size];
+                _seenNameEntries = new int[size];
+                _rehashShared(oldKeys, oldEntries, _seenNames, _seenNameEntries);
             }
+            _addShared(_seenNames, _seenNameEntries, name, _seenNameCount);
+            ++_seenNamesStored;
         }
-        // other than that, just slap it there
-        int ix = name.hashCode() & (_seenNames.length-1);
-        _seenNames[ix] = new SharedStringNode(name, _seenNameCount, _seenNames[ix]);
         ++_seenNameCount;
     }
 
+    private final void _clearSeenNames()
+    {
+        if (_seenNamesStored > 0) {
+            Arrays.fill(_seenNames, null);
+            _seenNamesStored = 0;
+        }
+        _seenNameCount = _dictionaryNameCount;
+    }
+
     private final int _findSeenStringValue(String text)
     {
-        int hash = text.hashCode();
-        SharedStringNode head = _seenStringValues[hash & (_seenStringValues.length-1)];
-        if (head != null) {
-            SharedStringNode node = head;
-            // first, identity match; assuming most of the time we get intern()ed String
-            do {
-                if (node.value == text) {
-                    return node.index;
-                }
-                node = node.next;
-            } while (node != null);
-            // and then comparison, if no match yet
-            node = head;
-            do {
-                String value = node.value;
-                if (value.hashCode() == hash && value.equals(text)) {
-                    return node.index;
-                }
-                node = node.next;
-            } while (node != null);
+        if (_dictionaryValueCount > 0) {
+            int ix = _dictionary.findStringValue(text);
+            if (ix >= 0) {
+                return ix;
+            }
         }
-        return -1;
+        return _findShared(_seenStringValues, _seenStringValueEntries, text);
     }
 
     private final void _addSeenStringValue(String text)
     {
-        // first: do we need to expand?
-        if (_seenStringValueCount == _seenStringValues.length) {
-            if (_seenStringValueCount == MAX_SHARED_STRING_VALUES) { // we are too full, restart from empty
-                Arrays.fill(_seenStringValues, null);
-                _seenStringValueCount = 0;
-            } else { // we always start with modest default size (like 64), so expand to full
-                SharedStringNode[] old = _seenStringValues;
-                _seenStringValues = new SharedStringNode[MAX_SHARED_STRING_VALUES];
-                final int mask = MAX_SHARED_STRING_VALUES-1;
-                for (SharedStringNode node : old) {
-                    for (; node != null; node = node.next) {
-                        int ix = node.value.hashCode() & mask;
-                        node.next = _seenStringValues[ix];
-                        _seenStringValues[ix] = node;
-                    }
-                }
+        if (_seenStringValueCount == MAX_SHARED_STRING_VALUES) {
+            _clearSeenStringValues();
+        }
+        if (_seenStringValuesStored < _sharedStringWindow) {
+            if ((_seenStringValuesStored << 1) >= _seenStringValues.length) {
+                String[] oldKeys = _seenStringValues;
+                int[] oldEntries = _seenStringValueEntries;
+                int size = oldKeys.length << 1;
+                _seenStringValues = new String[size];
+                _seenStringValueEntries = new int[size];
+                _rehashShared(oldKeys, oldEntries, _seenStringValues, _seenStringValueEntries);
             }
+            _addShared(_seenStringValues, _seenStringValueEntries, text, _seenStringValueCount);
+            ++_seenStringValuesStored;
         }
-        // other than that, just slap it there
-        int ix = text.hashCode() & (_seenStringValues.length-1);
-        _seenStringValues[ix] = new SharedStringNode(text, _seenStringValueCount, _seenStringValues[ix]);
         ++_seenStringValueCount;
     }
+
+    private final void _clearSeenStringValues()
+    {
+        if (_seenStringValuesStored > 0) {
+            Arrays.fill(_seenStringValues, null);
+            _seenStringValuesStored = 0;
+        }
+        _seenStringValueCount = _dictionaryValueCount;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, shared String hash areas
+    /**********************************************************
+     */
+
+    /**
+     * Hash function used for shared String hash areas: need to mix
+     * higher bits in, since only lowest ones are used for slot index.
+     */
+    final static int _sharedHash(String str)
+    {
+        int h = str.hashCode();
+        return h ^ (h >>> 16) ^ (h >>> 8);
+    }
+
+    /**
+     * Method for finding back reference index of given String in given
+     * hash area, if one exists.
+     *
+     * @return Back reference index, if String found; -1 if not
+     */
+    final static int _findShared(String[] keys, int[] entries, String str)
+    {
+        final int hash = _sharedHash(str);
+        final int hashBits = hash & ~SHARED_INDEX_MASK;
+        final int mask = keys.length - 1;
+        int ix = hash & mask;
+        while (true) {
+            String key = keys[ix];
+            // identity check first, since most names (and many values) are intern()ed
+            if (key == str) {
+                return entries[ix] & SHARED_INDEX_MASK;
+            }
+            if (key == null) {
+                return -1;
+            }
+            int entry = entries[ix];
+            if ((entry & ~SHARED_INDEX_MASK) == hashBits && key.equals(str)) {
+                return entry & SHARED_INDEX_MASK;
+            }
+            ix = (ix + 1) & mask;
+        }
+    }
+
+    /**
+     * Method for adding given String in hash area; caller must ensure
+     * there is room for it (and that it is not yet included)
+     */
+    final static void _addShared(String[] keys, int[] entries, String str, int index)
+    {
+        final int hash = _sharedHash(str);
+        final int mask = keys.length - 1;
+        int ix = hash & mask;
+        while (keys[ix] != null) {
+            ix = (ix + 1) & mask;
+        }
+        keys[ix] = str;
+        entries[ix] = (hash & ~SHARED_INDEX_MASK) | index;
+    }
+
+    private final static void _rehashShared(String[] oldKeys, int[] oldEntries,
+            String[] keys, int[] entries)
+    {
+        for (int i = 0, len = oldKeys.length; i < len; ++i) {
+            String key = oldKeys[i];
+            if (key != null) {
+                _addShared(keys, entries, key, oldEntries[i] & SHARED_INDEX_MASK);
+            }
+        }
+    }
     
     /*
     /**********************************************************
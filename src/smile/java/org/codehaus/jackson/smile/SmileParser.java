@@ -8,6 +8,7 @@ import java.io.OutputStream;
 import java.lang.ref.SoftReference;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.codehaus.jackson.*;
@@ -62,6 +63,15 @@ public class SmileParser
     private final static int[] NO_INTS = new int[0];
 
     private final static String[] NO_STRINGS = new String[0];
+
+    /**
+     * Maximum number of elements to allocate room for, when reading a
+     * packed array from a stream; bigger arrays are grown as elements
+     * are read, so that a corrupt length can not cause huge allocations.
+     *
+     * @since 1.10
+     */
+    private final static int MAX_PACKED_ARRAY_CHUNK = 4000;
     
     /*
     /**********************************************************
@@ -74,6 +84,15 @@ public class SmileParser
      */
     protected ObjectCodec _objectCodec;
 
+    /**
+     * Bit flag composed of bits that indicate which
+     * {@link org.codehaus.jackson.smile.SmileParser.Feature}s
+     * are enabled.
+     *
+     * @since 1.10
+     */
+    protected final int _smileFeatures;
+
     /**
      * Flag that indicates whether content can legally have raw (unquoted)
      * binary data. Since this information is included both in header and
@@ -83,6 +102,14 @@ public class SmileParser
      */
     protected boolean _mayContainRawBinary;
 
+    /**
+     * Flag that indicates whether header indicated that content may
+     * contain packed primitive arrays.
+     *
+     * @since 1.10
+     */
+    protected boolean _mayContainPackedArrays;
+
     /**
      * Helper object used for low-level recycling of Smile-generator
      * specific buffers.
@@ -119,6 +146,17 @@ public class SmileParser
      * buffer.
      */
     protected boolean _bufferRecyclable;
+
+    /**
+     * Buffer that contains all of input, if parser was constructed for
+     * a {@link ByteBuffer} that does not expose a backing array (in which
+     * case contents are read through {@link #_inputStream}); position 0
+     * of the buffer is the first byte of input. Used for exposing raw
+     * binary values as slices of input, without copying.
+     *
+     * @since 1.10
+     */
+    protected ByteBuffer _inputSourceBuffer;
     
     /*
     /**********************************************************
@@ -138,6 +176,31 @@ public class SmileParser
      */
     protected int _typeByte;
 
+    /**
+     * Raw binary value of the current token as a slice of input, if
+     * accessed using {@link #getBinaryValueAsByteBuffer}.
+     *
+     * @since 1.10
+     */
+    protected ByteBuffer _binaryBuffer;
+
+    /**
+     * Element type of the packed array ({@link SmileConstants#TOKEN_MISC_PACKED_ARRAY})
+     * parser is currently within, if any (one of
+     * <code>SmileConstants.TOKEN_MISC_PACKED_xxx</code>); -1 if none.
+     *
+     * @since 1.10
+     */
+    protected int _packedType = -1;
+
+    /**
+     * Number of elements of the current packed array that have
+     * not yet been returned.
+     *
+     * @since 1.10
+     */
+    protected int _packedRemaining;
+
     /**
      * Specific flag that is set when we encountered a 32-bit
      * floating point value; needed since numeric super classes do
@@ -184,7 +247,15 @@ public class SmileParser
     protected String[] _seenStringValues = null;
 
     protected int _seenStringValueCount = -1;
-    
+
+    /**
+     * Pre-agreed dictionary of names and values that occupy the first
+     * shared name and String value indexes, if any.
+     *
+     * @since 1.10
+     */
+    protected final SmileDictionary _dictionary;
+
     /*
     /**********************************************************
     /* Thread-local recycling
@@ -210,9 +281,26 @@ public class SmileParser
             BytesToNameCanonicalizer sym,
             InputStream in, byte[] inputBuffer, int start, int end,
             boolean bufferRecyclable)
+    {
+        this(ctxt, parserFeatures, smileFeatures, codec, sym, in, inputBuffer, start, end,
+                bufferRecyclable, null);
+    }
+
+    /**
+     * @param dict Pre-agreed dictionary of shared names and String values,
+     *   if any (null if none)
+     *
+     * @since 1.10
+     */
+    public SmileParser(IOContext ctxt, int parserFeatures, int smileFeatures,
+            ObjectCodec codec,
+            BytesToNameCanonicalizer sym,
+            InputStream in, byte[] inputBuffer, int start, int end,
+            boolean bufferRecyclable, SmileDictionary dict)
     {
         super(ctxt, parserFeatures);        
         _objectCodec = codec;
+        _smileFeatures = smileFeatures;
         _symbols = sym;
 
         _inputStream = in;
@@ -223,7 +311,14 @@ public class SmileParser
         
         _tokenInputRow = -1;
         _tokenInputCol = -1;
-        _smileBufferRecycler = _smileBufferRecycler();
+        // Smile buffers are only kept per-thread if core recyclers are too
+        _smileBufferRecycler = ctxt.isBufferRecyclerThreadLocal()
+            ? _smileBufferRecycler() : new SmileBufferRecycler<String>();
+        _dictionary = dict;
+        // shared names are enabled by default, so need to be seeded right away
+        if (dict != null) {
+            _seedSeenNames();
+        }
     }
 
     @Override
@@ -236,6 +331,101 @@ public class SmileParser
         _objectCodec = c;
     }
 
+    /*
+    /**********************************************************
+    /* Reset for reuse
+    /**********************************************************
+     */
+
+    /**
+     * Method for reusing this parser instance for parsing another
+     * document, read from given stream. Current input source is
+     * closed (if parser owns it, or {@link JsonParser.Feature#AUTO_CLOSE_SOURCE}
+     * is enabled), and parsing state is reset; buffers and symbol table
+     * are retained. Document header is handled the same way as when
+     * constructing a new parser.
+     *<p>
+     * Parser can be reset any number of times (including after reaching
+     * end of input) until {@link #close} is called.
+     *
+     * @throws IllegalStateException If parser has been explicitly closed
+     *
+     * @since 1.10
+     */
+    public void reset(InputStream in) throws IOException
+    {
+        _resetForReuse(in, false);
+        _inputStream = in;
+        _inputSourceBuffer = null;
+        // need a new buffer if we didn't own one, or if it was released at end-of-input
+        if (!_bufferRecyclable || _inputBuffer == null) {
+            _inputBuffer = _ioContext.allocReadIOBuffer();
+            _bufferRecyclable = true;
+        }
+        _resetSmileState();
+    }
+
+    /**
+     * Method for reusing this parser instance for parsing another
+     * document, contained in given byte array; see {@link #reset(InputStream)}
+     * for details.
+     *
+     * @throws IllegalStateException If parser has been explicitly closed
+     *
+     * @since 1.10
+     */
+    public void reset(byte[] data, int offset, int len) throws IOException
+    {
+        _resetForReuse(data, true);
+        _inputStream = null;
+        _inputSourceBuffer = null;
+        if (_bufferRecyclable) {
+            // can not keep the read buffer, since we don't use it for input
+            byte[] buf = _inputBuffer;
+            if (buf != null) {
+                _ioContext.releaseReadIOBuffer(buf);
+            }
+            _bufferRecyclable = false;
+        }
+        _inputBuffer = data;
+        _inputPtr = offset;
+        _inputEnd = offset + len;
+        // so that offsets are relative to start of content:
+        _currInputProcessed = -offset;
+        _resetSmileState();
+    }
+
+    private void _resetSmileState() throws IOException
+    {
+        _tokenInputRow = -1;
+        _tokenInputCol = -1;
+        _tokenIncomplete = false;
+        _got32BitFloat = false;
+        _mayContainRawBinary = false;
+        _mayContainPackedArrays = false;
+        _packedType = -1;
+        _packedRemaining = 0;
+        _releaseSharedStringBuffers();
+        _seenNames = NO_STRINGS;
+        _seenNameCount = 0;
+        _seenStringValues = null;
+        _seenStringValueCount = -1;
+        if (_dictionary != null) {
+            _seedSeenNames();
+        }
+
+        // and then header, same as SmileParserBootstrapper does
+        boolean hadSig = false;
+        if (_inputPtr < _inputEnd || loadMore()) {
+            if (_inputBuffer[_inputPtr] == SmileConstants.HEADER_BYTE_1) {
+                hadSig = handleSignature(true, true);
+            }
+        }
+        if (!hadSig && (_smileFeatures & Feature.REQUIRE_HEADER.getMask()) != 0) {
+            _reportError("Input does not start with Smile format header and parser has REQUIRE_HEADER enabled: can not parse");
+        }
+    }
+
     /**
      * Helper method called when it looks like input might contain the signature;
      * and it is necessary to detect and handle signature to get configuration
@@ -289,8 +479,12 @@ public class SmileParser
         if ((ch & SmileConstants.HEADER_BIT_HAS_SHARED_STRING_VALUES) != 0) {
             _seenStringValues = NO_STRINGS;
             _seenStringValueCount = 0;
+            if (_dictionary != null) {
+                _seedSeenStringValues();
+            }
         }
         _mayContainRawBinary = ((ch & SmileConstants.HEADER_BIT_HAS_RAW_BINARY) != 0);
+        _mayContainPackedArrays = ((ch & SmileConstants.HEADER_BIT_HAS_PACKED_ARRAYS) != 0);
         return true;
     }
 
@@ -365,7 +559,7 @@ public class SmileParser
      */
     
     @Override
-    protected final boolean loadMore()
+    protected boolean loadMore()
         throws IOException
     {
         _currInputProcessed += _inputEnd;
@@ -403,8 +597,8 @@ public class SmileParser
         }
         // Need to move remaining data in front?
         int amount = _inputEnd - _inputPtr;
+        _currInputProcessed += _inputPtr;
         if (amount > 0 && _inputPtr > 0) {
-            _currInputProcessed += _inputPtr;
             //_currInputRowStart -= _inputPtr;
             System.arraycopy(_inputBuffer, _inputPtr, _inputBuffer, 0, amount);
             _inputEnd = amount;
@@ -496,6 +690,17 @@ public class SmileParser
                  _ioContext.releaseReadIOBuffer(buf);
              }
          }
+        _releaseSharedStringBuffers();
+    }
+
+    /**
+     * Helper method for returning shared name and String value buffers
+     * to the Smile buffer recycler.
+     *
+     * @since 1.10
+     */
+    protected void _releaseSharedStringBuffers()
+    {
         {
             String[] nameBuf = _seenNames;
             if (nameBuf != null && nameBuf.length > 0) {
@@ -533,6 +738,58 @@ public class SmileParser
     public boolean mayContainRawBinary() {
         return _mayContainRawBinary;
     }
+
+    /**
+     * @since 1.10
+     */
+    public boolean mayContainPackedArrays() {
+        return _mayContainPackedArrays;
+    }
+
+    /**
+     * Method for accessing binary value of the current token
+     * ({@link JsonToken#VALUE_EMBEDDED_OBJECT}) as a {@link ByteBuffer}.
+     * If value is raw (see {@link SmileGenerator.Feature#ENCODE_BINARY_AS_7BIT})
+     * and has not yet been accessed using other methods, and parser reads
+     * input from a byte array or {@link ByteBuffer}, returned buffer is a
+     * slice of input and no content is copied; otherwise returned buffer
+     * wraps decoded value.
+     *<p>
+     * Note that slices share content with input, so they are only valid
+     * as long as input buffer is not modified or reused by caller.
+     *
+     * @since 1.10
+     */
+    public ByteBuffer getBinaryValueAsByteBuffer()
+        throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.VALUE_EMBEDDED_OBJECT ) {
+            _reportError("Current token ("+_currToken+") not VALUE_EMBEDDED_OBJECT, can not access as binary");
+        }
+        if (_tokenIncomplete) {
+            // raw binary can be sliced if all of input is accessible
+            if (((_typeByte & 0x1F) >> 2) == 7
+                    && (_inputSourceBuffer != null || (_inputStream == null && !_bufferRecyclable))) {
+                _tokenIncomplete = false;
+                _binaryBuffer = _sliceRawBinary();
+            } else {
+                _finishToken();
+            }
+        }
+        if (_binaryBuffer != null) {
+            return _binaryBuffer.duplicate();
+        }
+        return (_binaryValue == null) ? null : ByteBuffer.wrap(_binaryValue);
+    }
+
+    /**
+     * Method called by {@link SmileFactory} when constructing parser for
+     * a {@link ByteBuffer} without backing array, to allow exposing raw binary
+     * values as slices.
+     */
+    void _setInputSourceBuffer(ByteBuffer src) {
+        _inputSourceBuffer = src;
+    }
     
     /*
     /**********************************************************
@@ -551,6 +808,11 @@ public class SmileParser
         _tokenInputTotal = _currInputProcessed + _inputPtr;
         // also: clear any data retained so far
         _binaryValue = null;
+        _binaryBuffer = null;
+        // elements of packed arrays have no type bytes
+        if (_packedType >= 0) {
+            return _nextPackedElement();
+        }
         // Two main modes: values, and field names.
         if (_parsingContext.inObject() && _currToken != JsonToken.FIELD_NAME) {
             return (_currToken = _handleFieldName());
@@ -562,7 +824,7 @@ public class SmileParser
                  * since this is "hard" EOF, not a boundary imposed by
                  * header token.
                  */
-                close();
+                _closeAtEOF();
                 return (_currToken = null);
             }
         }
@@ -663,6 +925,17 @@ public class SmileParser
                     loadMoreGuaranteed();
                 }
                 return _handleSharedString(((ch & 0x3) << 8) + (_inputBuffer[_inputPtr++] & 0xFF));
+            case 0x10: // packed arrays
+            case 0x11:
+            case 0x12:
+            case 0x13:
+                _packedRemaining = _readUnsignedVInt();
+                if (_packedRemaining < 0) {
+                    _reportError("Corrupt input: invalid length ("+_packedRemaining+") for packed array");
+                }
+                _packedType = ch & 0x3;
+                _parsingContext = _parsingContext.createChildArrayContext(-1, -1);
+                return (_currToken = JsonToken.START_ARRAY);
             case 0x18: // START_ARRAY
                 _parsingContext = _parsingContext.createChildArrayContext(-1, -1);
                 return (_currToken = JsonToken.START_ARRAY);
@@ -724,7 +997,8 @@ public class SmileParser
             }
         } else if (len == SmileConstants.MAX_SHARED_STRING_VALUES) { // too many? Just flush...
            newShared = oldShared;
-           _seenStringValueCount = 0; // could also clear, but let's not yet bother
+           // could also clear, but let's not yet bother; dictionary entries (if any) are retained
+           _seenStringValueCount = (_dictionary == null) ? 0 : _dictionary.getStringValueCount();
         } else {
             int newSize = (len == SmileBufferRecycler.DEFAULT_NAME_BUFFER_LENGTH) ? 256 : SmileConstants.MAX_SHARED_STRING_VALUES;
             newShared = new String[newSize];
@@ -889,8 +1163,8 @@ public class SmileParser
     public String nextTextValue()
         throws IOException, JsonParseException
     {
-        // can't get text value if expecting name, so
-        if (!_parsingContext.inObject() || _currToken == JsonToken.FIELD_NAME) {
+        // can't get text value if expecting name (or within packed array), so
+        if ((!_parsingContext.inObject() || _currToken == JsonToken.FIELD_NAME) && _packedType < 0) {
             if (_tokenIncomplete) {
                 _skipIncomplete();
             }
@@ -898,7 +1172,7 @@ public class SmileParser
             if (ptr >= _inputEnd) {
                 if (!loadMore()) {
                     _handleEOF();
-                    close();
+                    _closeAtEOF();
                     _currToken = null;
                     return null;
                 }
@@ -909,6 +1183,7 @@ public class SmileParser
 
             // also: clear any data retained so far
             _binaryValue = null;
+            _binaryBuffer = null;
             _typeByte = ch;
 
             switch ((ch >> 5) & 0x7) {
@@ -1184,7 +1459,47 @@ public class SmileParser
             // Todo, maybe: support base64 for text?
             _reportError("Current token ("+_currToken+") not VALUE_EMBEDDED_OBJECT, can not access as binary");
         }
-        return _binaryValue;
+        return _binaryValueFromBuffer();
+    }
+
+    /**
+     * Implementation copies (raw) or decodes (7-bit encoded) content
+     * incrementally if it has not yet been accessed, without buffering
+     * the whole value.
+     *
+     * @since 1.10
+     */
+    @Override
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out)
+        throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.VALUE_EMBEDDED_OBJECT ) {
+            _reportError("Current token ("+_currToken+") not VALUE_EMBEDDED_OBJECT, can not access as binary");
+        }
+        // already decoded? If so, just write out
+        if (!_tokenIncomplete) {
+            byte[] value = _binaryValueFromBuffer();
+            if (value == null) {
+                return 0;
+            }
+            final int len = value.length;
+            out.write(value, 0, len);
+            return len;
+        }
+        _tokenIncomplete = false;
+        int byteLen = _readUnsignedVInt();
+        // raw binary (0xFD) can be copied as is
+        if (((_typeByte & 0x1F) >> 2) == 7) {
+            _copyRawBinary(out, byteLen);
+            return byteLen;
+        }
+        byte[] buf = _ioContext.allocBase64Buffer();
+        try {
+            _read7BitBinary(out, byteLen, buf);
+        } finally {
+            _ioContext.releaseBase64Buffer(buf);
+        }
+        return byteLen;
     }
 
     @Override
@@ -1195,10 +1510,163 @@ public class SmileParser
             _finishToken();
         }
         if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT ) {
-            return _binaryValue;
+            return _binaryValueFromBuffer();
         }
         return super.getEmbeddedObject();
     }
+
+    /**
+     * Helper method for accessing binary value of the current token
+     * as byte array, copying it from the input slice if it was
+     * accessed using {@link #getBinaryValueAsByteBuffer}.
+     */
+    private final byte[] _binaryValueFromBuffer()
+    {
+        if (_binaryValue == null && _binaryBuffer != null) {
+            ByteBuffer buf = _binaryBuffer.duplicate();
+            _binaryValue = new byte[buf.remaining()];
+            buf.get(_binaryValue);
+        }
+        return _binaryValue;
+    }
+    
+    /*
+    /**********************************************************
+    /* Public API, bulk access to packed arrays
+    /**********************************************************
+     */
+
+    /**
+     * Reads packed arrays of ints in bulk; Arrays of other types,
+     * and regular Arrays, have to be read as separate tokens.
+     */
+    @Override
+    public int[] readIntArray()
+        throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_ARRAY || _packedType != SmileConstants.TOKEN_MISC_PACKED_INT_32) {
+            return null;
+        }
+        final int len = _packedRemaining;
+        int[] result = new int[_initialPackedArrayLength(1)];
+        for (int i = 0; i < len; ++i) {
+            if (i == result.length) {
+                result = _growArray(result, len);
+            }
+            result[i] = SmileUtil.zigzagDecode(_readUnsignedVInt());
+        }
+        _finishPackedArray();
+        return result;
+    }
+
+    /**
+     * Reads packed arrays of longs and ints in bulk; Arrays of other types,
+     * and regular Arrays, have to be read as separate tokens.
+     */
+    @Override
+    public long[] readLongArray()
+        throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_ARRAY) {
+            return null;
+        }
+        final int len = _packedRemaining;
+        long[] result;
+        if (_packedType == SmileConstants.TOKEN_MISC_PACKED_INT_64) {
+            result = new long[_initialPackedArrayLength(1)];
+            for (int i = 0; i < len; ++i) {
+                if (i == result.length) {
+                    result = _growArray(result, len);
+                }
+                result[i] = SmileUtil.zigzagDecode(_readUnsignedVLong());
+            }
+        } else if (_packedType == SmileConstants.TOKEN_MISC_PACKED_INT_32) {
+            result = new long[_initialPackedArrayLength(1)];
+            for (int i = 0; i < len; ++i) {
+                if (i == result.length) {
+                    result = _growArray(result, len);
+                }
+                result[i] = SmileUtil.zigzagDecode(_readUnsignedVInt());
+            }
+        } else {
+            return null;
+        }
+        _finishPackedArray();
+        return result;
+    }
+
+    /**
+     * Reads packed arrays of floats and doubles in bulk (latter truncated,
+     * same as when accessed using {@link #getFloatValue}); Arrays of other
+     * types, and regular Arrays, have to be read as separate tokens.
+     */
+    @Override
+    public float[] readFloatArray()
+        throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_ARRAY) {
+            return null;
+        }
+        final int len = _packedRemaining;
+        float[] result;
+        if (_packedType == SmileConstants.TOKEN_MISC_PACKED_FLOAT_32) {
+            result = new float[_initialPackedArrayLength(5)];
+            for (int i = 0; i < len; ++i) {
+                if (i == result.length) {
+                    result = _growArray(result, len);
+                }
+                result[i] = _readPackedFloat();
+            }
+        } else if (_packedType == SmileConstants.TOKEN_MISC_PACKED_FLOAT_64) {
+            result = new float[_initialPackedArrayLength(10)];
+            for (int i = 0; i < len; ++i) {
+                if (i == result.length) {
+                    result = _growArray(result, len);
+                }
+                result[i] = (float) _readPackedDouble();
+            }
+        } else {
+            return null;
+        }
+        _finishPackedArray();
+        return result;
+    }
+
+    /**
+     * Reads packed arrays of doubles and floats in bulk; Arrays of other
+     * types, and regular Arrays, have to be read as separate tokens.
+     */
+    @Override
+    public double[] readDoubleArray()
+        throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.START_ARRAY) {
+            return null;
+        }
+        final int len = _packedRemaining;
+        double[] result;
+        if (_packedType == SmileConstants.TOKEN_MISC_PACKED_FLOAT_64) {
+            result = new double[_initialPackedArrayLength(10)];
+            for (int i = 0; i < len; ++i) {
+                if (i == result.length) {
+                    result = _growArray(result, len);
+                }
+                result[i] = _readPackedDouble();
+            }
+        } else if (_packedType == SmileConstants.TOKEN_MISC_PACKED_FLOAT_32) {
+            result = new double[_initialPackedArrayLength(5)];
+            for (int i = 0; i < len; ++i) {
+                if (i == result.length) {
+                    result = _growArray(result, len);
+                }
+                result[i] = (double) _readPackedFloat();
+            }
+        } else {
+            return null;
+        }
+        _finishPackedArray();
+        return result;
+    }
     
     /* NOTE: must still implement just because 1.9.0 - 1.9.2 did require
      * its implementation (and we'll try to avoid introducing binary
@@ -1343,7 +1811,8 @@ public class SmileParser
             }
         } else if (len == SmileConstants.MAX_SHARED_NAMES) { // too many? Just flush...
       	   newShared = oldShared;
-      	   _seenNameCount = 0; // could also clear, but let's not yet bother
+           // could also clear, but let's not yet bother; dictionary entries (if any) are retained
+           _seenNameCount = (_dictionary == null) ? 0 : _dictionary.getNameCount();
         } else {
             int newSize = (len == SmileBufferRecycler.DEFAULT_STRING_VALUE_BUFFER_LENGTH) ? 256 : SmileConstants.MAX_SHARED_NAMES;
             newShared = new String[newSize];
@@ -1351,6 +1820,55 @@ public class SmileParser
         }
         return newShared;
     }
+
+    /**
+     * Helper method called to initialize shared name buffer with names
+     * from the pre-agreed dictionary.
+     *
+     * @since 1.10
+     */
+    protected final void _seedSeenNames()
+    {
+        String[] names = _dictionary.names();
+        if (names.length > 0) {
+            _seenNames = _seededBuffer(_smileBufferRecycler.allocSeenNamesBuffer(), names);
+            _seenNameCount = names.length;
+        }
+    }
+
+    /**
+     * Helper method called to initialize shared String value buffer with values
+     * from the pre-agreed dictionary.
+     *
+     * @since 1.10
+     */
+    protected final void _seedSeenStringValues()
+    {
+        String[] values = _dictionary.stringValues();
+        if (values.length > 0) {
+            _seenStringValues = _seededBuffer(_smileBufferRecycler.allocSeenStringValuesBuffer(), values);
+            _seenStringValueCount = values.length;
+        }
+    }
+
+    private final String[] _seededBuffer(String[] buf, String[] entries)
+    {
+        final int count = entries.length;
+        if (buf == null || buf.length <= count) {
+            // must use one of sizes that expansion uses: 64, 256 or maximum
+            int size;
+            if (count < SmileBufferRecycler.DEFAULT_NAME_BUFFER_LENGTH) {
+                size = SmileBufferRecycler.DEFAULT_NAME_BUFFER_LENGTH;
+            } else if (count < 256) {
+                size = 256;
+            } else {
+                size = SmileConstants.MAX_SHARED_NAMES;
+            }
+            buf = new String[size];
+        }
+        System.arraycopy(entries, 0, buf, 0, count);
+        return buf;
+    }
     
     private final String _addDecodedToSymbols(int len, String name)
     {
@@ -1992,6 +2510,22 @@ public class SmileParser
         }
     }
 
+    private final long _readUnsignedVLong()
+        throws IOException, JsonParseException
+    {
+        long value = 0L;
+        while (true) {
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            int i = _inputBuffer[_inputPtr++];
+            if (i < 0) { // last byte
+                return (value << 6) + (i & 0x3F);
+            }
+            value = (value << 7) + i;
+        }
+    }
+
     private final byte[] _read7BitBinaryWithLength()
         throws IOException, JsonParseException
     {
@@ -2247,26 +2781,300 @@ public class SmileParser
         _textBuffer.setCurrentLength(outPtr);
     }
 
+    /**
+     * Helper method for copying raw binary content of given length
+     * from input to given stream
+     *
+     * @since 1.10
+     */
+    private final void _copyRawBinary(OutputStream out, int byteLen)
+        throws IOException, JsonParseException
+    {
+        while (byteLen > 0) {
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
+            int toAdd = Math.min(byteLen, _inputEnd - _inputPtr);
+            out.write(_inputBuffer, _inputPtr, toAdd);
+            _inputPtr += toAdd;
+            byteLen -= toAdd;
+        }
+    }
+
+    /**
+     * Helper method for decoding 7-bit encoded binary content of given
+     * length into given stream, using given buffer for temporarily
+     * holding decoded data.
+     *
+     * @since 1.10
+     */
+    private final void _read7BitBinary(OutputStream out, int byteLen, byte[] buffer)
+        throws IOException, JsonParseException
+    {
+        int ptr = 0;
+        final int lastOkPtr = buffer.length - 7;
+
+        // first, read all 7-by-8 byte chunks
+        while (byteLen >= 7) {
+            if (ptr > lastOkPtr) {
+                out.write(buffer, 0, ptr);
+                ptr = 0;
+            }
+            if ((_inputEnd - _inputPtr) < 8) {
+                _loadToHaveAtLeast(8);
+            }
+            int i1 = (_inputBuffer[_inputPtr++] << 25)
+                + (_inputBuffer[_inputPtr++] << 18)
+                + (_inputBuffer[_inputPtr++] << 11)
+                + (_inputBuffer[_inputPtr++] << 4);
+            int x = _inputBuffer[_inputPtr++];
+            i1 += x >> 3;
+            int i2 = ((x & 0x7) << 21)
+                + (_inputBuffer[_inputPtr++] << 14)
+                + (_inputBuffer[_inputPtr++] << 7)
+                + _inputBuffer[_inputPtr++];
+            // Ok: got our 7 bytes, just need to split, copy
+            buffer[ptr++] = (byte)(i1 >> 24);
+            buffer[ptr++] = (byte)(i1 >> 16);
+            buffer[ptr++] = (byte)(i1 >> 8);
+            buffer[ptr++] = (byte)i1;
+            buffer[ptr++] = (byte)(i2 >> 16);
+            buffer[ptr++] = (byte)(i2 >> 8);
+            buffer[ptr++] = (byte)i2;
+            byteLen -= 7;
+        }
+        // and then leftovers: n+1 bytes to decode n bytes
+        if (byteLen > 0) {
+            if (ptr > lastOkPtr) {
+                out.write(buffer, 0, ptr);
+                ptr = 0;
+            }
+            if ((_inputEnd - _inputPtr) < (byteLen+1)) {
+                _loadToHaveAtLeast(byteLen+1);
+            }
+            int value = _inputBuffer[_inputPtr++];
+            for (int i = 1; i < byteLen; ++i) {
+                value = (value << 7) + _inputBuffer[_inputPtr++];
+                buffer[ptr++] = (byte) (value >> (7 - i));
+            }
+            // last byte is different, has remaining 1 - 6 bits, right-aligned
+            value <<= byteLen;
+            buffer[ptr++] = (byte) (value + _inputBuffer[_inputPtr++]);
+        }
+        if (ptr > 0) {
+            out.write(buffer, 0, ptr);
+        }
+    }
+
     private final void _finishRawBinary()
         throws IOException, JsonParseException
     {
         int byteLen = _readUnsignedVInt();
         _binaryValue = new byte[byteLen];
-        if (_inputPtr >= _inputEnd) {
-            loadMoreGuaranteed();
-        }
         int ptr = 0;
-        while (true) {
+        // note: must not require more input for empty content
+        while (byteLen > 0) {
+            if (_inputPtr >= _inputEnd) {
+                loadMoreGuaranteed();
+            }
             int toAdd = Math.min(byteLen, _inputEnd - _inputPtr);
             System.arraycopy(_inputBuffer, _inputPtr, _binaryValue, ptr, toAdd);
             _inputPtr += toAdd;
             ptr += toAdd;
             byteLen -= toAdd;
-            if (byteLen <= 0) {
-                return;
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, packed arrays
+    /**********************************************************
+     */
+
+    /**
+     * Method called to return the next element of the current packed
+     * array, or the closing {@link JsonToken#END_ARRAY} if all elements
+     * have been returned.
+     */
+    private final JsonToken _nextPackedElement()
+        throws IOException, JsonParseException
+    {
+        if (_packedRemaining == 0) {
+            _packedType = -1;
+            _parsingContext = _parsingContext.getParent();
+            return (_currToken = JsonToken.END_ARRAY);
+        }
+        --_packedRemaining;
+        switch (_packedType) {
+        case SmileConstants.TOKEN_MISC_PACKED_INT_32:
+            _numberInt = SmileUtil.zigzagDecode(_readUnsignedVInt());
+            _numTypesValid = NR_INT;
+            return (_currToken = JsonToken.VALUE_NUMBER_INT);
+        case SmileConstants.TOKEN_MISC_PACKED_INT_64:
+            _numberLong = SmileUtil.zigzagDecode(_readUnsignedVLong());
+            _numTypesValid = NR_LONG;
+            return (_currToken = JsonToken.VALUE_NUMBER_INT);
+        case SmileConstants.TOKEN_MISC_PACKED_FLOAT_32:
+            _numberDouble = (double) _readPackedFloat();
+            _numTypesValid = NR_DOUBLE;
+            _got32BitFloat = true;
+            return (_currToken = JsonToken.VALUE_NUMBER_FLOAT);
+        default: // TOKEN_MISC_PACKED_FLOAT_64
+            _numberDouble = _readPackedDouble();
+            _numTypesValid = NR_DOUBLE;
+            _got32BitFloat = false;
+            return (_currToken = JsonToken.VALUE_NUMBER_FLOAT);
+        }
+    }
+
+    /**
+     * Method called to determine size of the array to allocate for reading
+     * elements of the current packed array in bulk. Since element count
+     * comes from input, it can not be trusted as is: if all of input is
+     * in the buffer, count is verified against the remaining content;
+     * otherwise array is allocated in chunks as elements are read.
+     *
+     * @param minElementLength Minimum length of an encoded element, in bytes
+     */
+    private final int _initialPackedArrayLength(int minElementLength)
+        throws JsonParseException
+    {
+        final int len = _packedRemaining;
+        if (_inputStream == null) {
+            int available = _inputEnd - _inputPtr;
+            if (((long) len * minElementLength) > available) {
+                _reportInvalidEOF(" in packed array: length ("+len
+                        +") exceeds remaining content ("+available+" bytes)");
             }
-            loadMoreGuaranteed();
+            return len;
         }
+        return Math.min(len, MAX_PACKED_ARRAY_CHUNK);
+    }
+
+    private final static int[] _growArray(int[] arr, int maxLen)
+    {
+        int[] result = new int[_grownArrayLength(arr.length, maxLen)];
+        System.arraycopy(arr, 0, result, 0, arr.length);
+        return result;
+    }
+
+    private final static long[] _growArray(long[] arr, int maxLen)
+    {
+        long[] result = new long[_grownArrayLength(arr.length, maxLen)];
+        System.arraycopy(arr, 0, result, 0, arr.length);
+        return result;
+    }
+
+    private final static float[] _growArray(float[] arr, int maxLen)
+    {
+        float[] result = new float[_grownArrayLength(arr.length, maxLen)];
+        System.arraycopy(arr, 0, result, 0, arr.length);
+        return result;
+    }
+
+    private final static double[] _growArray(double[] arr, int maxLen)
+    {
+        double[] result = new double[_grownArrayLength(arr.length, maxLen)];
+        System.arraycopy(arr, 0, result, 0, arr.length);
+        return result;
+    }
+
+    private final static int _grownArrayLength(int currLen, int maxLen)
+    {
+        // double the size, but not beyond what was declared
+        return (int) Math.min((long) currLen + currLen, (long) maxLen);
+    }
+
+    /**
+     * Method called after all elements of the current packed array have
+     * been read in bulk, to move to the matching {@link JsonToken#END_ARRAY}.
+     */
+    private final void _finishPackedArray()
+    {
+        _packedRemaining = 0;
+        _packedType = -1;
+        _parsingContext = _parsingContext.getParent();
+        _tokenInputTotal = _currInputProcessed + _inputPtr;
+        _numTypesValid = NR_UNKNOWN;
+        _currToken = JsonToken.END_ARRAY;
+    }
+
+    private final float _readPackedFloat()
+        throws IOException, JsonParseException
+    {
+        if ((_inputEnd - _inputPtr) < 5 && !_loadToHaveAtLeast(5)) {
+            _reportInvalidEOF(" in packed array");
+        }
+        final byte[] buf = _inputBuffer;
+        int ptr = _inputPtr;
+        int i = buf[ptr++];
+        i = (i << 7) + buf[ptr++];
+        i = (i << 7) + buf[ptr++];
+        i = (i << 7) + buf[ptr++];
+        i = (i << 7) + buf[ptr++];
+        _inputPtr = ptr;
+        return Float.intBitsToFloat(i);
+    }
+
+    private final double _readPackedDouble()
+        throws IOException, JsonParseException
+    {
+        if ((_inputEnd - _inputPtr) < 10 && !_loadToHaveAtLeast(10)) {
+            _reportInvalidEOF(" in packed array");
+        }
+        final byte[] buf = _inputBuffer;
+        int ptr = _inputPtr;
+        int hi = buf[ptr++];
+        hi = (hi << 7) + buf[ptr++];
+        hi = (hi << 7) + buf[ptr++];
+        hi = (hi << 7) + buf[ptr++];
+        int lo = buf[ptr++];
+        lo = (lo << 7) + buf[ptr++];
+        lo = (lo << 7) + buf[ptr++];
+        lo = (lo << 7) + buf[ptr++];
+        long value = (((long) hi) << 28) + (long) lo;
+        value = (value << 7) + buf[ptr++];
+        value = (value << 7) + buf[ptr++];
+        _inputPtr = ptr;
+        return Double.longBitsToDouble(value);
+    }
+
+    /**
+     * Helper method for exposing raw binary value as a slice of input,
+     * skipping over its contents. Caller must ensure that all of input
+     * is accessible: either parser reads from a byte array, or
+     * {@link #_inputSourceBuffer} is set.
+     */
+    private final ByteBuffer _sliceRawBinary()
+        throws IOException, JsonParseException
+    {
+        final int byteLen = _readUnsignedVInt();
+        int avail = _inputEnd - _inputPtr;
+        if (_inputSourceBuffer == null) { // byte array, all of which is in input buffer
+            if (byteLen > avail) {
+                _reportInvalidEOF(" in raw binary value");
+            }
+            ByteBuffer result = ByteBuffer.wrap(_inputBuffer, _inputPtr, byteLen).slice();
+            _inputPtr += byteLen;
+            return result;
+        }
+        final int start = (int) (_currInputProcessed + _inputPtr);
+        if (byteLen <= avail) {
+            _inputPtr += byteLen;
+        } else { // skip buffered part, and the rest without reading it in
+            _currInputProcessed += _inputEnd;
+            _inputPtr = _inputEnd = 0;
+            long toSkip = byteLen - avail;
+            long skipped = (_inputStream == null) ? 0L : _inputStream.skip(toSkip);
+            _currInputProcessed += skipped;
+            if (skipped < toSkip) {
+                _reportInvalidEOF(" in raw binary value");
+            }
+        }
+        ByteBuffer result = _inputSourceBuffer.duplicate();
+        result.limit(start + byteLen);
+        result.position(start);
+        return result.slice();
     }
 
     /*
@@ -98,6 +98,16 @@ public class SmileParserBootstrapper
     public SmileParser constructParser(int generalParserFeatures, int smileFeatures,
     		ObjectCodec codec, BytesToNameCanonicalizer rootByteSymbols)
         throws IOException, JsonParseException
+    {
+        return constructParser(generalParserFeatures, smileFeatures, codec, rootByteSymbols, null);
+    }
+
+    /**
+     * @since 1.10
+     */
+    public SmileParser constructParser(int generalParserFeatures, int smileFeatures,
+            ObjectCodec codec, BytesToNameCanonicalizer rootByteSymbols, SmileDictionary dict)
+        throws IOException, JsonParseException
     {
         boolean intern = JsonParser.Feature.INTERN_FIELD_NAMES.enabledIn(generalParserFeatures);
         BytesToNameCanonicalizer can = rootByteSymbols.makeChild(true, intern);
@@ -105,7 +115,7 @@ public class SmileParserBootstrapper
     	ensureLoaded(1);
         SmileParser p =  new SmileParser(_context, generalParserFeatures, smileFeatures,
         		codec, can, 
-        		_in, _inputBuffer, _inputPtr, _inputEnd, _bufferRecyclable);
+        		_in, _inputBuffer, _inputPtr, _inputEnd, _bufferRecyclable, dict);
         boolean hadSig = false;
         if (_inputPtr < _inputEnd) { // only false for empty doc
             if (_inputBuffer[_inputPtr] == SmileConstants.HEADER_BYTE_1) {
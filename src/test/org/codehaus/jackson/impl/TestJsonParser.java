@@ -286,6 +286,85 @@ public class TestJsonParser
         jp.close();
     }
 
+    public void testSkippingWithTrickyContent() throws Exception
+    {
+        _testSkippingWithTrickyContent(true);
+        _testSkippingWithTrickyContent(false);
+    }
+
+    private void _testSkippingWithTrickyContent(boolean useStream) throws Exception
+    {
+        // long enough to span multiple input buffers
+        StringBuilder sb = new StringBuilder("{ \"skip\" : [\n");
+        for (int i = 0; i < 1000; ++i) {
+            sb.append("{\"a]\":\"}\\\"[\\\\\", \"b\\u005D\" : [ 1, -2.5, null, \"\u00e9\u4e00\" ] },\r\n");
+        }
+        sb.append("{ } ],\n \"next\" : true }");
+        String DOC = sb.toString();
+
+        JsonParser jp = useStream ? createParserUsingStream(DOC, "UTF-8") : createParserUsingReader(DOC);
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        jp.skipChildren();
+        assertToken(JsonToken.END_ARRAY, jp.getCurrentToken());
+        // location of end marker should be properly calculated
+        assertEquals(1002, jp.getTokenLocation().getLineNr());
+        assertEquals(5, jp.getTokenLocation().getColumnNr());
+        assertTrue(jp.getParsingContext().inObject());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("next", jp.getCurrentName());
+        assertEquals(1003, jp.getCurrentLocation().getLineNr());
+        assertToken(JsonToken.VALUE_TRUE, jp.nextToken());
+        assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+
+        // and with comments, must use regular skipping
+        JsonFactory f = new JsonFactory();
+        f.enable(JsonParser.Feature.ALLOW_COMMENTS);
+        DOC = "[ [ /* ] */ 1 ], 2 ]";
+        jp = useStream ? createParserUsingStream(f, DOC, "UTF-8") : createParserUsingReader(f, DOC);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        jp.skipChildren();
+        assertToken(JsonToken.END_ARRAY, jp.getCurrentToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(2, jp.getIntValue());
+        jp.close();
+    }
+
+    public void testSkippingInvalid() throws Exception
+    {
+        for (int i = 0; i < 2; ++i) {
+            boolean useStream = (i == 0);
+            JsonParser jp = useStream ? createParserUsingStream("[ [ 1, \"]\" ", "UTF-8")
+                    : createParserUsingReader("[ [ 1, \"]\" ");
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            try {
+                jp.skipChildren();
+                fail("Expected an exception for unclosed array");
+            } catch (JsonParseException e) {
+                verifyException(e, "expected close marker for ARRAY");
+            }
+            jp.close();
+
+            jp = useStream ? createParserUsingStream("{ \"a\" : [ { } } ", "UTF-8")
+                    : createParserUsingReader("{ \"a\" : [ { } } ");
+            assertToken(JsonToken.START_OBJECT, jp.nextToken());
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            try {
+                jp.skipChildren();
+                fail("Expected an exception for mismatched end marker");
+            } catch (JsonParseException e) {
+                verifyException(e, "Unexpected close marker");
+            }
+            jp.close();
+        }
+    }
+
     public void testNameEscaping() throws IOException
     {
         _testNameEscaping(false);
@@ -40,6 +40,70 @@ public class TestJsonParserBinary
         _testEscaped(false);
         _testEscaped(true);
     }
+
+    /**
+     * @since 1.10
+     */
+    public void testStreaming() throws IOException
+    {
+        final Base64Variant[] VARIANTS = new Base64Variant[] {
+            Base64Variants.MIME, Base64Variants.MIME_NO_LINEFEEDS, Base64Variants.MODIFIED_FOR_URL
+        };
+        JsonFactory jf = new JsonFactory();
+        for (int size : new int[] { 0, 1, 2, 3, 4, 5, 57, 1999, 2000, 2001, 6000, 19000, 139001 }) {
+            byte[] data = _generateData(size);
+            for (Base64Variant variant : VARIANTS) {
+                // first, how should output look like?
+                StringWriter sw = new StringWriter();
+                JsonGenerator jg = jf.createJsonGenerator(sw);
+                jg.writeStartArray();
+                jg.writeBinary(variant, data, 0, size);
+                jg.writeEndArray();
+                jg.close();
+                final String EXP = sw.toString();
+
+                for (int len : new int[] { size, -1 }) {
+                    sw = new StringWriter();
+                    jg = jf.createJsonGenerator(sw);
+                    jg.writeStartArray();
+                    assertEquals(size, jg.writeBinary(variant, new ByteArrayInputStream(data), len));
+                    jg.writeEndArray();
+                    jg.close();
+                    assertEquals(EXP, sw.toString());
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    jg = jf.createJsonGenerator(bytes, JsonEncoding.UTF8);
+                    jg.writeStartArray();
+                    assertEquals(size, jg.writeBinary(variant, new ByteArrayInputStream(data), len));
+                    jg.writeEndArray();
+                    jg.close();
+                    assertEquals(EXP, bytes.toString("UTF-8"));
+                }
+
+                for (int i = 0; i < 2; ++i) {
+                    JsonParser jp = _getParser(EXP, i == 0);
+                    assertToken(JsonToken.START_ARRAY, jp.nextToken());
+                    assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+                    ByteArrayOutputStream result = new ByteArrayOutputStream();
+                    assertEquals(size, jp.readBinaryValue(variant, result));
+                    assertArrayEquals(data, result.toByteArray());
+                    assertToken(JsonToken.END_ARRAY, jp.nextToken());
+                    assertNull(jp.nextToken());
+                    jp.close();
+                }
+            }
+        }
+    }
+
+    public void testStreamingWithTooFewBytes() throws IOException
+    {
+        JsonGenerator jg = new JsonFactory().createJsonGenerator(new StringWriter());
+        try {
+            jg.writeBinary(new ByteArrayInputStream(new byte[3]), 4);
+            fail("Should not pass");
+        } catch (JsonGenerationException e) {
+            verifyException(e, "Too few bytes available");
+        }
+    }
     
     /*
     /**********************************************************************
@@ -150,4 +214,13 @@ public class TestJsonParserBinary
         }
         return jf.createJsonParser(new StringReader(doc));
     }
+
+    private byte[] _generateData(int size)
+    {
+        byte[] result = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            result[i] = (byte) (i % 251);
+        }
+        return result;
+    }
 }
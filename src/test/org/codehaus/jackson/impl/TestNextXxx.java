@@ -8,6 +8,7 @@ import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.SerializableString;
 import org.codehaus.jackson.io.SerializedString;
+import org.codehaus.jackson.sym.FieldNameMatcher;
 
 public class TestNextXxx
     extends main.BaseTest
@@ -98,5 +99,106 @@ public class TestNextXxx
 
         jp.close();
     }
-    
+
+    public void testNextFieldNameWithMatcher() throws Exception
+    {
+        _testNextFieldNameWithMatcher(false);
+        _testNextFieldNameWithMatcher(true);
+    }
+
+    public void testMatcherConstruction() throws Exception
+    {
+        FieldNameMatcher matcher = FieldNameMatcher.construct("a", "b", "c");
+        assertEquals(3, matcher.size());
+        assertEquals("b", matcher.nameAt(1));
+        assertEquals(2, matcher.matchName(new String("c")));
+        assertEquals(FieldNameMatcher.MATCH_UNKNOWN_NAME, matcher.matchName("d"));
+        try {
+            FieldNameMatcher.construct("a", "b", "a");
+            fail("Should not allow duplicate names");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "Duplicate name");
+        }
+    }
+
+    // Names of different lengths (and hence, different Name types) from different symbol tables
+    public void testMatcherWithNamesOfDifferentLength() throws Exception
+    {
+        final String[] NAMES = { "", "a", "abcd", "abcde", "abcdefgh", "abcdefghi",
+                "abcdefghijkl", "abcdefghijklm", "a very long name, longer than 16 bytes",
+                "\u00e9t\u00e9", "\u4e2d\u6587" };
+        FieldNameMatcher matcher = FieldNameMatcher.construct(NAMES);
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < NAMES.length; ++i) {
+            sb.append(quote(NAMES[i])).append(":").append(i).append(",");
+            sb.append(quote(NAMES[i]+"x")).append(":-1,");
+        }
+        sb.append("\"abc\":-1}");
+        byte[] doc = sb.toString().getBytes("UTF-8");
+        for (int round = 0; round < 2; ++round) {
+            JsonParser jp = new JsonFactory().createJsonParser(new ByteArrayInputStream(doc));
+            assertToken(JsonToken.START_OBJECT, jp.nextToken());
+            int index;
+            int matched = 0;
+            while ((index = jp.nextFieldName(matcher)) != FieldNameMatcher.MATCH_END_OBJECT) {
+                assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+                if (jp.getIntValue() < 0) {
+                    assertEquals(FieldNameMatcher.MATCH_UNKNOWN_NAME, index);
+                } else {
+                    assertEquals(jp.getIntValue(), index);
+                    assertEquals(NAMES[index], jp.getCurrentName());
+                    ++matched;
+                }
+            }
+            assertEquals(NAMES.length, matched);
+            jp.close();
+        }
+    }
+
+    private void _testNextFieldNameWithMatcher(boolean useStream) throws Exception
+    {
+        final String DOC = "{\"id\":1,\"unknown\" : [ 2 ], \"name\":\"x\",\"id\" :\n3, \"obj\":{}}";
+        JsonFactory jf = new JsonFactory();
+        FieldNameMatcher matcher = FieldNameMatcher.construct("name", "id", "obj");
+        // parse twice, to exercise names already in symbol table as well
+        for (int round = 0; round < 2; ++round) {
+            JsonParser jp = useStream ?
+                jf.createJsonParser(new ByteArrayInputStream(DOC.getBytes("UTF-8")))
+                : jf.createJsonParser(new StringReader(DOC));
+            assertEquals(FieldNameMatcher.MATCH_ODD_TOKEN, jp.nextFieldName(matcher));
+            assertToken(JsonToken.START_OBJECT, jp.getCurrentToken());
+
+            assertEquals(1, jp.nextFieldName(matcher));
+            assertToken(JsonToken.FIELD_NAME, jp.getCurrentToken());
+            assertEquals("id", jp.getCurrentName());
+            assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+            assertEquals(1, jp.getIntValue());
+
+            assertEquals(FieldNameMatcher.MATCH_UNKNOWN_NAME, jp.nextFieldName(matcher));
+            assertEquals("unknown", jp.getCurrentName());
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            jp.skipChildren();
+
+            assertEquals(0, jp.nextFieldName(matcher));
+            assertEquals("name", jp.getCurrentName());
+            // value tokens are not names
+            assertEquals(FieldNameMatcher.MATCH_ODD_TOKEN, jp.nextFieldName(matcher));
+            assertToken(JsonToken.VALUE_STRING, jp.getCurrentToken());
+            assertEquals("x", jp.getText());
+
+            assertEquals(1, jp.nextFieldName(matcher));
+            assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+            assertEquals(3, jp.getIntValue());
+
+            assertEquals(2, jp.nextFieldName(matcher));
+            assertToken(JsonToken.START_OBJECT, jp.nextToken());
+            assertEquals(FieldNameMatcher.MATCH_END_OBJECT, jp.nextFieldName(matcher));
+            assertEquals(FieldNameMatcher.MATCH_END_OBJECT, jp.nextFieldName(matcher));
+            assertToken(JsonToken.END_OBJECT, jp.getCurrentToken());
+
+            assertEquals(FieldNameMatcher.MATCH_ODD_TOKEN, jp.nextFieldName(matcher));
+            assertNull(jp.getCurrentToken());
+            jp.close();
+        }
+    }
 }
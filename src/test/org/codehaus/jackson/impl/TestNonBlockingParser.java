@@ -0,0 +1,227 @@
+package org.codehaus.jackson.impl;
+
+import main.BaseTest;
+
+import org.codehaus.jackson.*;
+
+import java.io.*;
+
+/**
+ * Unit tests for verifying that the non-blocking (feed-driven) UTF-8
+ * parser produces same tokens as blocking parsers, regardless of how
+ * content is split into chunks.
+ */
+public class TestNonBlockingParser
+    extends BaseTest
+{
+    final static int[] CHUNK_SIZES = new int[] { 1, 2, 3, 5, 7, 16, 100, 9999 };
+
+    private final JsonFactory _factory = new JsonFactory();
+
+    public void testSimpleTokens() throws Exception
+    {
+        _verifyAllChunkings("[ true, false, null, 0, -1, 12345, \"abc\", [], {}, -0.25, 1e3, 2.5E-07 ]");
+        _verifyAllChunkings("{\"a\":1,\"bc\" : [ { } ],\"d\":{\"e\":\"f\"}}");
+        _verifyAllChunkings("\"root\" 123 true [1] {\"x\":null}  ");
+    }
+
+    public void testSpecDoc() throws Exception
+    {
+        _verifyAllChunkings(SAMPLE_DOC_JSON_SPEC);
+    }
+
+    public void testLongNamesAndValues() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; ++i) {
+            sb.append((char) ('a' + (i % 26)));
+        }
+        String str = sb.toString();
+        _verifyAllChunkings("{\""+str+"\":\""+str+str+"\",\"x"+str+"\":"+"1234567890123456789012345.5e10}");
+    }
+
+    public void testEscapesAndUnicode() throws Exception
+    {
+        _verifyAllChunkings("{\"n\\u00e4me\\n\":\"\\t\\\"x\\u1234y\\\\\", \"été\":\"© 一 𝄞\"}");
+        _verifyAllChunkings("[\"\\uD834\\uDD1E\", \"\u0080߿ࠀ￮\"]");
+    }
+
+    public void testNotAvailable() throws Exception
+    {
+        JsonParser jp = _factory.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        assertNotNull(feeder);
+        assertTrue(feeder.needMoreInput());
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+
+        byte[] doc = "[ 12".getBytes("UTF-8");
+        feeder.feedInput(doc, 0, doc.length);
+        assertFalse(feeder.needMoreInput());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        // number can not be completed before we see what follows
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        assertTrue(feeder.needMoreInput());
+
+        doc = "3]".getBytes("UTF-8");
+        feeder.feedInput(doc, 0, doc.length);
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(123, jp.getIntValue());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        feeder.endOfInput();
+        assertNull(jp.nextToken());
+        assertTrue(jp.isClosed());
+        jp.close();
+    }
+
+    public void testRootNumberAtEOF() throws Exception
+    {
+        JsonParser jp = _factory.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        byte[] doc = "  -12.5e3".getBytes("UTF-8");
+        feeder.feedInput(doc, 0, doc.length);
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        feeder.endOfInput();
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, jp.nextToken());
+        assertEquals(-12500.0, jp.getDoubleValue());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testFeedWithOffset() throws Exception
+    {
+        JsonParser jp = _factory.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        byte[] doc = "xxx{\"a\":\ntrue}yy".getBytes("UTF-8");
+        feeder.feedInput(doc, 3, 6);
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertEquals(1, jp.getTokenLocation().getColumnNr());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("a", jp.getCurrentName());
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        feeder.feedInput(doc, 9, 5);
+        assertToken(JsonToken.VALUE_TRUE, jp.nextToken());
+        assertEquals(2, jp.getTokenLocation().getLineNr());
+        assertEquals(1, jp.getTokenLocation().getColumnNr());
+        assertEquals(6L, jp.getTokenLocation().getCharOffset());
+        assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        feeder.endOfInput();
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testFeedingTooEarly() throws Exception
+    {
+        JsonParser jp = _factory.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        byte[] doc = "[1, 2]".getBytes("UTF-8");
+        feeder.feedInput(doc, 0, doc.length);
+        try {
+            feeder.feedInput(doc, 0, doc.length);
+            fail("Should not allow feeding before content is consumed");
+        } catch (JsonParseException e) {
+            verifyException(e, "undecoded bytes");
+        }
+        jp.close();
+    }
+
+    public void testInvalidContent() throws Exception
+    {
+        _verifyFailure("[ 1, ]", "expected a value");
+        _verifyFailure("{ \"a\" 1 }", "was expecting a colon");
+        _verifyFailure("[ tru ]", "Unrecognized token 'tru'");
+        _verifyFailure("[ 01 ]", "Leading zeroes");
+        _verifyFailure("[ 1 ", "expected close marker");
+        _verifyFailure("{ \"abc", "in field name");
+        _verifyFailure("[\"abc", "closing quote");
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private void _verifyAllChunkings(String doc) throws IOException
+    {
+        byte[] data = doc.getBytes("UTF-8");
+        for (int chunk : CHUNK_SIZES) {
+            _verifySame(data, chunk);
+        }
+    }
+
+    private void _verifySame(byte[] data, int chunkSize) throws IOException
+    {
+        JsonParser exp = _factory.createJsonParser(new ByteArrayInputStream(data));
+        JsonParser act = _factory.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = act.getNonBlockingInputFeeder();
+        int offset = 0;
+        JsonToken t;
+
+        do {
+            t = exp.nextToken();
+            JsonToken t2;
+            while ((t2 = act.nextToken()) == JsonToken.NOT_AVAILABLE) {
+                assertTrue(feeder.needMoreInput());
+                if (offset < data.length) {
+                    int len = Math.min(chunkSize, data.length - offset);
+                    feeder.feedInput(data, offset, len);
+                    offset += len;
+                } else {
+                    feeder.endOfInput();
+                }
+            }
+            assertToken(t, t2);
+            if (t == null) {
+                break;
+            }
+            switch (t) {
+            case FIELD_NAME:
+                assertEquals(exp.getCurrentName(), act.getCurrentName());
+                break;
+            case VALUE_STRING:
+                assertEquals(exp.getText(), act.getText());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                assertEquals(exp.getNumberType(), act.getNumberType());
+                assertEquals(exp.getNumberValue(), act.getNumberValue());
+                assertEquals(exp.getText(), act.getText());
+                break;
+            }
+        } while (t != null);
+        exp.close();
+        act.close();
+    }
+
+    private void _verifyFailure(String doc, String msg) throws IOException
+    {
+        byte[] data = doc.getBytes("UTF-8");
+        for (int chunk : CHUNK_SIZES) {
+            JsonParser jp = _factory.createNonBlockingJsonParser();
+            NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+            int offset = 0;
+            try {
+                while (true) {
+                    JsonToken t = jp.nextToken();
+                    if (t == null) {
+                        break;
+                    }
+                    if (t == JsonToken.NOT_AVAILABLE) {
+                        if (offset < data.length) {
+                            int len = Math.min(chunk, data.length - offset);
+                            feeder.feedInput(data, offset, len);
+                            offset += len;
+                        } else {
+                            feeder.endOfInput();
+                        }
+                    }
+                }
+                fail("Expected an exception for malformed content: "+doc);
+            } catch (JsonParseException e) {
+                verifyException(e, msg);
+            }
+            jp.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.codehaus.jackson.io;
+
+import java.nio.ByteBuffer;
+
+import org.codehaus.jackson.*;
+
+public class TestByteBufferOutputStream
+    extends main.BaseTest
+{
+    public void testExpansion() throws Exception
+    {
+        _testExpansion(false);
+        _testExpansion(true);
+    }
+
+    private void _testExpansion(boolean direct) throws Exception
+    {
+        ByteBuffer initial = direct ? ByteBuffer.allocateDirect(20) : ByteBuffer.allocate(20);
+        initial.put((byte) 'x');
+        ByteBufferOutputStream out = new ByteBufferOutputStream(initial);
+        JsonGenerator jg = new JsonFactory().createJsonGenerator(out);
+        jg.writeStartArray();
+        for (int i = 0; i < 100; ++i) {
+            jg.writeString("value"+i);
+        }
+        jg.writeEndArray();
+        jg.close();
+
+        ByteBuffer result = out.getBuffer();
+        assertNotSame(initial, result);
+        assertEquals(direct, result.isDirect());
+        result.flip();
+        byte[] data = new byte[result.remaining()];
+        result.get(data);
+        // content before initial position must have been retained
+        assertEquals('x', data[0]);
+        JsonParser jp = new JsonFactory().createJsonParser(data, 1, data.length-1);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        for (int i = 0; i < 100; ++i) {
+            assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+            assertEquals("value"+i, jp.getText());
+        }
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        jp.close();
+    }
+}
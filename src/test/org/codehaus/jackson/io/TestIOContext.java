@@ -88,5 +88,21 @@ public class TestIOContext
         }
         ctxt.releaseNameCopyBuffer(null);
     }
+
+    public void testBigTokenBufferNotRecycled() throws Exception
+    {
+        BufferRecycler br = new BufferRecycler();
+        IOContext ctxt = new IOContext(br, "N/A", true);
+        char[] buf = ctxt.allocTokenBuffer(IOContext.MAX_RECYCLED_TOKEN_BUFFER_LEN);
+        ctxt.releaseTokenBuffer(buf);
+        assertSame(buf, br.allocCharBuffer(BufferRecycler.CharBufferType.TOKEN_BUFFER));
+
+        ctxt = new IOContext(br, "N/A", true);
+        buf = ctxt.allocTokenBuffer(IOContext.MAX_RECYCLED_TOKEN_BUFFER_LEN + 1);
+        ctxt.releaseTokenBuffer(buf);
+        char[] next = br.allocCharBuffer(BufferRecycler.CharBufferType.TOKEN_BUFFER);
+        assertNotSame(buf, next);
+        assertTrue(next.length <= IOContext.MAX_RECYCLED_TOKEN_BUFFER_LEN);
+    }
 }
 
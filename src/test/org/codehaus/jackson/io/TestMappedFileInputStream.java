@@ -0,0 +1,48 @@
+package org.codehaus.jackson.io;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+
+public class TestMappedFileInputStream
+    extends main.BaseTest
+{
+    public void testMultipleWindows() throws Exception
+    {
+        File file = File.createTempFile("jackson-test", null);
+        file.deleteOnExit();
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) i;
+        }
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(data);
+        out.close();
+
+        FileInputStream fin = new FileInputStream(file);
+        FileChannel ch = fin.getChannel();
+        // start from an offset, and use tiny windows to force remapping
+        ch.position(10);
+        MappedFileInputStream in = new MappedFileInputStream(ch, 64);
+        assertEquals(990, in.available());
+        assertEquals(10, in.read());
+        assertEquals(5, in.skip(5));
+        byte[] buffer = new byte[1000];
+        int count = 0;
+        int i;
+        while ((i = in.read(buffer, count, buffer.length - count)) > 0) {
+            // should never get more than a window's worth at a time
+            assertTrue(i <= 64);
+            count += i;
+        }
+        assertEquals(984, count);
+        for (i = 0; i < count; ++i) {
+            assertEquals(data[16+i], buffer[i]);
+        }
+        assertEquals(-1, in.read());
+        assertEquals(0, in.available());
+        in.close();
+        assertFalse(ch.isOpen());
+        fin.close();
+        file.delete();
+    }
+}
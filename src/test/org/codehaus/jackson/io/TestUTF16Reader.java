@@ -0,0 +1,79 @@
+package org.codehaus.jackson.io;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+
+public class TestUTF16Reader
+    extends main.BaseTest
+{
+    public void testDirectDecoding() throws Exception
+    {
+        _testDecoding("UTF-16BE");
+        _testDecoding("UTF-16LE");
+        _testDecoding("UTF-32BE");
+        _testDecoding("UTF-32LE");
+    }
+
+    public void testTruncatedContent() throws Exception
+    {
+        byte[] data = "[1]".getBytes("UTF-16LE");
+        byte[] truncated = new byte[data.length-1];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        JsonFactory f = new JsonFactory();
+        for (int i = 0; i < 2; ++i) {
+            JsonParser jp = (i == 0) ? f.createJsonParser(truncated)
+                    : f.createJsonParser(new ByteArrayInputStream(truncated));
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            try {
+                jp.nextToken();
+                jp.nextToken();
+                fail("Expected an exception for truncated UTF-16 content");
+            } catch (CharConversionException e) {
+                verifyException(e, "Unexpected EOF");
+            }
+        }
+    }
+
+    private void _testDecoding(String enc) throws Exception
+    {
+        // long enough to span multiple input buffers, with non-ASCII and surrogate pairs
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"values\":[");
+        for (int i = 0; i < 3000; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"abc\u00e9\u20ac\ud834\udd1e").append(i).append('"');
+        }
+        sb.append("]}");
+        byte[] data = sb.toString().getBytes(enc);
+        JsonFactory f = new JsonFactory();
+        _verify(f.createJsonParser(data));
+        // and an input stream that returns one byte at a time, to exercise split chars
+        _verify(f.createJsonParser(new FilterInputStream(new ByteArrayInputStream(data)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        }));
+        // original buffer must not have been modified
+        assertEquals(sb.toString(), new String(data, enc));
+    }
+
+    private void _verify(JsonParser jp) throws Exception
+    {
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("values", jp.getCurrentName());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        for (int i = 0; i < 3000; ++i) {
+            assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+            assertEquals("abc\u00e9\u20ac\ud834\udd1e"+i, jp.getText());
+        }
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+}
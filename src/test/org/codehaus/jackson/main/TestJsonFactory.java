@@ -1,6 +1,11 @@
 package org.codehaus.jackson.main;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 
 import org.codehaus.jackson.*;
 
@@ -49,6 +54,56 @@ public class TestJsonFactory
         
     }
     
+    public void testSymbolTableLimits() throws Exception
+    {
+        JsonFactory f = new JsonFactory();
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 20; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"f").append(i).append("\":").append(i);
+        }
+        String doc = sb.append('}').toString();
+
+        // by default, names are shared
+        _parseAll(f.createJsonParser(doc));
+        _parseAll(f.createJsonParser(doc.getBytes("UTF-8")));
+        assertEquals(20, f.getCharSymbolTableStats().getSize());
+        assertEquals(20, f.getByteSymbolTableStats().getSize());
+        assertEquals(0, f.getByteSymbolTableStats().getFlushCount());
+
+        // but not if there are too many
+        f = new JsonFactory().setSymbolTableLimits(0, 10);
+        _parseAll(f.createJsonParser(new StringReader(doc)));
+        _parseAll(f.createJsonParser(new ByteArrayInputStream(doc.getBytes("UTF-8"))));
+        assertEquals(0, f.getCharSymbolTableStats().getSize());
+        assertEquals(1, f.getCharSymbolTableStats().getFlushCount());
+        assertEquals(0, f.getByteSymbolTableStats().getSize());
+        assertEquals(1, f.getByteSymbolTableStats().getFlushCount());
+    }
+
+    public void testPreloadFieldNames() throws Exception
+    {
+        JsonFactory f = new JsonFactory();
+        f.preloadFieldNames(Arrays.asList("a", "abcdefgh", "some.longer.name", "\u00e9t\u00e9", "a"));
+        assertEquals(4, f.getCharSymbolTableStats().getSize());
+        assertEquals(4, f.getByteSymbolTableStats().getSize());
+
+        // names are to be found from the tables, so nothing more gets added
+        String doc = "{\"a\":1,\"abcdefgh\":2,\"some.longer.name\":3,\"\u00e9t\u00e9\":4}";
+        _parseAll(f.createJsonParser(doc.getBytes("UTF-8")));
+        _parseAll(f.createJsonParser(new StringReader(doc)));
+        assertEquals(4, f.getCharSymbolTableStats().getSize());
+        assertEquals(4, f.getByteSymbolTableStats().getSize());
+    }
+
+    private void _parseAll(JsonParser jp) throws IOException
+    {
+        while (jp.nextToken() != null) { }
+        jp.close();
+    }
+
     public void testJsonWithFiles() throws Exception
     {
         File file = File.createTempFile("jackson-test", null);
@@ -80,4 +135,167 @@ public class TestJsonFactory
         // ok, delete once we are done
         file.delete();
     }
+
+    public void testJsonWithByteBuffers() throws Exception
+    {
+        JsonFactory f = new JsonFactory();
+        byte[] doc = "xx[ \"abc\", 123 ]xx".getBytes("UTF-8");
+
+        // First, heap buffer with offset, limit
+        ByteBuffer bb = ByteBuffer.wrap(doc, 2, doc.length - 4).slice();
+        _verifyByteBufferDoc(f.createJsonParser(bb));
+        // should not change position
+        assertEquals(0, bb.position());
+
+        // then direct one
+        bb = ByteBuffer.allocateDirect(doc.length);
+        bb.put(doc);
+        bb.position(2);
+        bb.limit(doc.length - 2);
+        _verifyByteBufferDoc(f.createJsonParser(bb));
+        assertEquals(2, bb.position());
+        // as well as read-only one, which does not expose backing array
+        _verifyByteBufferDoc(f.createJsonParser(ByteBuffer.wrap(doc, 2, doc.length - 4).asReadOnlyBuffer()));
+    }
+
+    public void testJsonWithFileChannel() throws Exception
+    {
+        File file = File.createTempFile("jackson-test", null);
+        file.deleteOnExit();
+        JsonFactory f = new JsonFactory();
+
+        JsonGenerator jg = f.createJsonGenerator(file, JsonEncoding.UTF8);
+        jg.writeStartArray();
+        jg.writeString("abc");
+        jg.writeNumber(123);
+        jg.writeEndArray();
+        jg.close();
+
+        FileInputStream in = new FileInputStream(file);
+        JsonParser jp = f.createJsonParser(in.getChannel());
+        _verifyByteBufferDoc(jp);
+        // auto-close is enabled by default, so:
+        assertFalse(in.getChannel().isOpen());
+        in.close();
+        file.delete();
+    }
+
+    public void testGeneratorWithChannel() throws Exception
+    {
+        JsonFactory f = new JsonFactory();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel ch = Channels.newChannel(bytes);
+        JsonGenerator jg = f.createJsonGenerator(ch);
+        jg.writeStartArray();
+        jg.writeString("abc");
+        jg.writeNumber(123);
+        jg.writeEndArray();
+        jg.close();
+        // auto-close is enabled by default, so:
+        assertFalse(ch.isOpen());
+        _verifyByteBufferDoc(f.createJsonParser(bytes.toByteArray()));
+
+        // and then with non-default encoding, without auto-close
+        bytes = new ByteArrayOutputStream();
+        ch = Channels.newChannel(bytes);
+        f.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        jg = f.createJsonGenerator(ch, JsonEncoding.UTF16_BE);
+        jg.writeStartArray();
+        jg.writeString("abc");
+        jg.writeNumber(123);
+        jg.writeEndArray();
+        jg.close();
+        assertTrue(ch.isOpen());
+        _verifyByteBufferDoc(f.createJsonParser(bytes.toByteArray()));
+    }
+
+    public void testGeneratorWithNonBlockingChannel() throws Exception
+    {
+        JsonFactory f = new JsonFactory();
+        Pipe pipe = Pipe.open();
+        pipe.sink().configureBlocking(false);
+        try {
+            f.createJsonGenerator(pipe.sink());
+            fail("Should not accept non-blocking channel");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "non-blocking channel");
+        }
+        pipe.sink().close();
+        pipe.source().close();
+
+        // and other channels that do not accept content should fail, not spin
+        WritableByteChannel ch = new WritableByteChannel() {
+            public int write(ByteBuffer src) { return 0; }
+            public boolean isOpen() { return true; }
+            public void close() { }
+        };
+        JsonGenerator jg = f.createJsonGenerator(ch);
+        jg.writeStartArray();
+        jg.writeEndArray();
+        try {
+            jg.flush();
+            fail("Should not pass");
+        } catch (IOException e) {
+            verifyException(e, "accepted no content");
+        }
+    }
+
+    public void testJsonWithCharArrays() throws Exception
+    {
+        JsonFactory f = new JsonFactory();
+        char[] doc = "xx[ \"abc\", 123 ]xx".toCharArray();
+        _verifyByteBufferDoc(f.createJsonParser(doc, 2, doc.length - 4));
+        // parsing must not modify the array
+        assertEquals("xx[ \"abc\", 123 ]xx", new String(doc));
+
+        _verifyByteBufferDoc(f.createJsonParser(new StringBuilder("[ \"abc\", 123 ]")));
+        _verifyByteBufferDoc(f.createJsonParser(java.nio.CharBuffer.wrap(doc, 2, doc.length - 4)));
+
+        // locations should be relative to start of content, not array
+        JsonParser jp = f.createJsonParser(doc, 2, doc.length - 4);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        JsonLocation loc = jp.getTokenLocation();
+        assertEquals(2L, loc.getCharOffset());
+        assertEquals(1, loc.getLineNr());
+        assertEquals(3, loc.getColumnNr());
+        jp.close();
+    }
+
+    public void testJsonWithLongString() throws Exception
+    {
+        // longer than the default token buffer, to verify it gets enlarged
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 2000; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(i);
+        }
+        sb.append(']');
+        JsonFactory f = new JsonFactory();
+        for (int round = 0; round < 2; ++round) {
+            JsonParser jp = f.createJsonParser(sb.toString());
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            for (int i = 0; i < 2000; ++i) {
+                assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+                assertEquals(i, jp.getIntValue());
+            }
+            assertToken(JsonToken.END_ARRAY, jp.nextToken());
+            assertNull(jp.nextToken());
+            jp.close();
+        }
+    }
+
+    private void _verifyByteBufferDoc(JsonParser jp) throws IOException
+    {
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertEquals("abc", jp.getText());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(123, jp.getIntValue());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
 }
@@ -79,5 +79,46 @@ public class TestNumberParsing
         assertFalse(NumberInput.inLongRange(cbuf, 0, cbuf.length, true));
         assertFalse(NumberInput.inLongRange(cbuf, 0, cbuf.length, false));
     }
-    
+
+    public void testDoubleParsing() throws Exception
+    {
+        final String[] INPUTS = new String[] {
+            "0", "-0", "0.0", "1", "-1.5", "0.1", "1e22", "1e23", "9007199254740993",
+            "2.6535229E-31", "-6.3308956E19", "3.141592653589793", "1.7976931348623157e308",
+            "2.2250738585072014E-308", "4.9e-324", "1e-400", "1e400",
+            "123456789012345678901234567890", "0.000000000000000000000012345",
+            NumberInput.NASTY_SMALL_DOUBLE,
+            // and ones that are only accepted by JDK
+            "+1.25", " 3.5 ", "1.5d", "Infinity", "NaN"
+        };
+        for (String str : INPUTS) {
+            char[] buf = ("ab"+str+"cd").toCharArray();
+            double exp = NumberInput.parseDouble(str);
+            double act = NumberInput.parseDouble(buf, 2, str.length());
+            assertEquals("Input '"+str+"'", Double.doubleToLongBits(exp), Double.doubleToLongBits(act));
+        }
+        // as well as bigger number of random values
+        java.util.Random r = new java.util.Random(123);
+        for (int i = 0; i < 20000; ++i) {
+            double d = Double.longBitsToDouble(r.nextLong());
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                continue;
+            }
+            String str = ((i & 1) == 0) ? String.valueOf(d) : String.valueOf((float) d);
+            char[] buf = str.toCharArray();
+            assertEquals("Input '"+str+"'", Double.doubleToLongBits(Double.parseDouble(str)),
+                    Double.doubleToLongBits(NumberInput.parseDouble(buf, 0, buf.length)));
+        }
+    }
+
+    public void testInvalidDoubleParsing() throws Exception
+    {
+        for (String str : new String[] { "", "-", "1e", "1.2.3", "abc" }) {
+            char[] buf = str.toCharArray();
+            try {
+                NumberInput.parseDouble(buf, 0, buf.length);
+                fail("Should not parse '"+str+"'");
+            } catch (NumberFormatException e) { }
+        }
+    }
 }
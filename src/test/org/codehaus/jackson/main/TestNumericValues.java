@@ -186,6 +186,36 @@ public class TestNumericValues
         }
     }
 
+    public void testSimpleDoubleWithFastParser()
+        throws Exception
+    {
+        final String[] INPUTS = new String[] {
+            "1234.00", "2.1101567E-16", "1.0e5", "2.5e+5", "9e4", "-12e-3", "0.25",
+            "-6.3308956E19", "1.7976931348623157e308", "123456789012345678901234567890.5"
+        };
+        JsonFactory f = new JsonFactory();
+        f.enable(JsonParser.Feature.USE_FAST_DOUBLE_PARSER);
+        for (int input = 0; input < 2; ++input) {
+            for (int i = 0; i < INPUTS.length; ++i) {
+                String STR = INPUTS[i];
+                String DOC = "["+STR+"]";
+                JsonParser jp;
+                if (input == 0) {
+                    jp = createParserUsingStream(f, DOC, "UTF-8");
+                } else {
+                    jp = createParserUsingReader(f, DOC);
+                }
+                assertTrue(jp.isEnabled(JsonParser.Feature.USE_FAST_DOUBLE_PARSER));
+                assertToken(JsonToken.START_ARRAY, jp.nextToken());
+                assertToken(JsonToken.VALUE_NUMBER_FLOAT, jp.nextToken());
+                assertEquals(Double.parseDouble(STR), jp.getDoubleValue());
+                assertEquals(STR, jp.getText());
+                assertToken(JsonToken.END_ARRAY, jp.nextToken());
+                jp.close();
+            }
+        }
+    }
+
     public void testNumbers()
         throws Exception
     {
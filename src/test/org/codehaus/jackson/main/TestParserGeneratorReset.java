@@ -0,0 +1,170 @@
+package org.codehaus.jackson.main;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.impl.ReaderBasedParser;
+import org.codehaus.jackson.impl.Utf8Generator;
+import org.codehaus.jackson.impl.Utf8StreamParser;
+import org.codehaus.jackson.impl.WriterBasedGenerator;
+import org.codehaus.jackson.util.BufferRecyclerPool;
+
+/**
+ * Unit tests for verifying that parsers and generators can be
+ * reset and reused for multiple documents.
+ */
+public class TestParserGeneratorReset
+    extends main.BaseTest
+{
+    private final JsonFactory _factory = new JsonFactory();
+
+    public void testUtf8ParserReset() throws Exception
+    {
+        Utf8StreamParser jp = (Utf8StreamParser) _factory.createJsonParser(
+                new ByteArrayInputStream("{\"a\":1}".getBytes("UTF-8")));
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+
+        // reset in the middle of a document
+        jp.reset(new ByteArrayInputStream("[\"abc\", true]".getBytes("UTF-8")));
+        assertNull(jp.getCurrentToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertEquals("abc", jp.getText());
+        assertToken(JsonToken.VALUE_TRUE, jp.nextToken());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        // hitting end-of-input closes, but still allows reset
+        assertNull(jp.nextToken());
+        assertTrue(jp.isClosed());
+
+        byte[] doc = "xx\n{\"a\":2}".getBytes("UTF-8");
+        jp.reset(doc, 3, doc.length - 3);
+        assertFalse(jp.isClosed());
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertEquals(1, jp.getTokenLocation().getLineNr());
+        assertEquals(1, jp.getTokenLocation().getColumnNr());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("a", jp.getCurrentName());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(2, jp.getIntValue());
+
+        jp.reset(new ByteArrayInputStream("3".getBytes("UTF-8")));
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(3, jp.getIntValue());
+        jp.close();
+
+        try {
+            jp.reset(new ByteArrayInputStream("4".getBytes("UTF-8")));
+            fail("Should not allow reset after close()");
+        } catch (IllegalStateException e) {
+            verifyException(e, "closed parser");
+        }
+    }
+
+    public void testReaderParserReset() throws Exception
+    {
+        ReaderBasedParser jp = (ReaderBasedParser) _factory.createJsonParser(new StringReader("[1,2]"));
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+
+        jp.reset(new StringReader("{\"b\" : \"x\"}"));
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("b", jp.getCurrentName());
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertEquals("x", jp.getText());
+        assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        assertNull(jp.nextToken());
+
+        char[] doc = "  [null]".toCharArray();
+        jp.reset(doc, 2, doc.length - 2);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertEquals(0L, jp.getTokenLocation().getCharOffset());
+        assertToken(JsonToken.VALUE_NULL, jp.nextToken());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+
+        jp.reset(new StringReader("\"end\""));
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertEquals("end", jp.getText());
+        jp.close();
+    }
+
+    // Reaching end of input must release recycler to the pool; reset acquires one again
+    public void testParserResetWithPool() throws Exception
+    {
+        BufferRecyclerPool.BoundedPool pool = new BufferRecyclerPool.BoundedPool(2);
+        JsonFactory f = new JsonFactory().setBufferRecyclerPool(pool);
+        for (int i = 0; i < 3; ++i) {
+            JsonParser jp = f.createJsonParser(new ByteArrayInputStream("[\"abc\"]".getBytes("UTF-8")));
+            while (jp.nextToken() != null) { }
+            assertTrue(jp.isClosed());
+            jp = f.createJsonParser("{\"x\":\"abc\"}");
+            while (jp.nextToken() != null) { }
+        }
+        assertEquals(1L, pool.getMissCount());
+        assertEquals(5L, pool.getHitCount());
+        assertEquals(1, pool.getPooledCount());
+
+        Utf8StreamParser jp = (Utf8StreamParser) f.createJsonParser(
+                new ByteArrayInputStream("\"a\"".getBytes("UTF-8")));
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertNull(jp.nextToken());
+        assertEquals(1, pool.getPooledCount());
+        // one held by another parser, to verify recycler is not shared
+        JsonParser other = f.createJsonParser(new ByteArrayInputStream("\"other\"".getBytes("UTF-8")));
+        jp.reset(new ByteArrayInputStream("[\"text value\",123]".getBytes("UTF-8")));
+        assertEquals(0, pool.getPooledCount());
+        assertToken(JsonToken.VALUE_STRING, other.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertEquals("text value", jp.getText());
+        assertEquals("other", other.getText());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertNull(jp.nextToken());
+        assertNull(other.nextToken());
+        jp.close();
+        assertEquals(2, pool.getPooledCount());
+    }
+
+    public void testUtf8GeneratorReset() throws Exception
+    {
+        ByteArrayOutputStream out1 = new ByteArrayOutputStream();
+        Utf8Generator jg = (Utf8Generator) _factory.createJsonGenerator(out1, JsonEncoding.UTF8);
+        jg.writeStartArray();
+        jg.writeNumber(1);
+        // reset should auto-close open scopes, flush
+        ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+        jg.reset(out2);
+        assertEquals("[1]", out1.toString("UTF-8"));
+
+        jg.writeStartObject();
+        jg.writeStringField("a", "b");
+        jg.writeEndObject();
+        jg.close();
+        assertEquals("{\"a\":\"b\"}", out2.toString("UTF-8"));
+
+        try {
+            jg.reset(new ByteArrayOutputStream());
+            fail("Should not allow reset after close()");
+        } catch (IllegalStateException e) {
+            verifyException(e, "closed generator");
+        }
+    }
+
+    public void testWriterGeneratorReset() throws Exception
+    {
+        StringWriter w1 = new StringWriter();
+        WriterBasedGenerator jg = (WriterBasedGenerator) _factory.createJsonGenerator(w1);
+        jg.writeNumber(1);
+        jg.writeNumber(2);
+
+        StringWriter w2 = new StringWriter();
+        jg.reset(w2);
+        assertEquals("1 2", w1.toString());
+        // new document; no root-level separator expected
+        jg.writeString("x");
+        jg.close();
+        assertEquals("\"x\"", w2.toString());
+    }
+}
@@ -0,0 +1,172 @@
+package org.codehaus.jackson.main;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.util.FilteringParserDelegate;
+import org.codehaus.jackson.util.JsonPathFilter;
+
+/**
+ * Unit tests for verifying that source representation of values can be
+ * copied using {@link JsonParser#readRawValue(OutputStream)}, and
+ * written using {@link JsonGenerator#writeRawValue(byte[],int,int)}.
+ *
+ * @since 1.10
+ */
+public class TestRawValueCopying
+    extends main.BaseTest
+{
+    final static String DOC = "{ \"a\" : [ 1,  2.50, {\"b\":\"x\\\"}]\" }],\n"
+        +"\"str\" : \"\\u00e9t\\u00E9 €\", \"num\": -1.25e+3, \"t\":true,"
+        +"\"n\" : null, \"o\" : { }, \"c\" : \"abc\" }";
+
+    public void testContainersAndStrings() throws Exception
+    {
+        // try with different read sizes, to ensure content crossing buffer boundaries works
+        for (int chunk : new int[] { 1, 3, 7, 1000 }) {
+            JsonParser jp = _parser(DOC, chunk);
+            assertToken(JsonToken.START_OBJECT, jp.nextToken());
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            assertEquals("[ 1,  2.50, {\"b\":\"x\\\"}]\" }]", _raw(jp));
+            assertToken(JsonToken.END_ARRAY, jp.getCurrentToken());
+
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+            assertEquals("\"\\u00e9t\\u00E9 €\"", _raw(jp));
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertEquals("num", jp.getCurrentName());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, jp.nextToken());
+            assertEquals("-1.25e+3", _raw(jp));
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertToken(JsonToken.VALUE_TRUE, jp.nextToken());
+            assertEquals("true", _raw(jp));
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertToken(JsonToken.VALUE_NULL, jp.nextToken());
+            assertEquals("null", _raw(jp));
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertToken(JsonToken.START_OBJECT, jp.nextToken());
+            assertEquals("{ }", _raw(jp));
+            assertToken(JsonToken.END_OBJECT, jp.getCurrentToken());
+
+            // String already decoded: re-encoded
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+            assertEquals("abc", jp.getText());
+            assertEquals("\"abc\"", _raw(jp));
+            assertToken(JsonToken.END_OBJECT, jp.nextToken());
+            assertNull(jp.nextToken());
+            jp.close();
+        }
+    }
+
+    public void testRootLevelValues() throws Exception
+    {
+        JsonParser jp = _parser("[1,[2]]  {\"x\":[]} 3", 2);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertEquals("[1,[2]]", _raw(jp));
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertEquals("{\"x\":[]}", _raw(jp));
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals("3", _raw(jp));
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testInvalidState() throws Exception
+    {
+        JsonParser jp = _parser("{\"a\":1}", 100);
+        try {
+            jp.readRawValue();
+            fail("Should not pass");
+        } catch (JsonParseException e) {
+            verifyException(e, "not the first token of a value");
+        }
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        try {
+            jp.readRawValue();
+            fail("Should not pass");
+        } catch (JsonParseException e) {
+            verifyException(e, "not the first token of a value");
+        }
+        jp.close();
+    }
+
+    public void testNonByteBasedInput() throws Exception
+    {
+        JsonParser jp = createParserUsingReader("[1]");
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertEquals(-1, jp.readRawValue(new ByteArrayOutputStream()));
+        assertNull(jp.readRawValue());
+        jp.close();
+    }
+
+    public void testWithFilteringParser() throws Exception
+    {
+        JsonParser jp = new FilteringParserDelegate(_parser(DOC, 5),
+                JsonPathFilter.compile("/a/2", "/o"));
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertEquals("{\"b\":\"x\\\"}]\" }", _raw(jp));
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertEquals("{ }", _raw(jp));
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testRawCopy() throws Exception
+    {
+        JsonFactory f = new JsonFactory();
+        JsonParser jp = _parser(DOC, 4);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonGenerator jg = f.createJsonGenerator(bytes, JsonEncoding.UTF8);
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        jg.writeStartArray();
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            jp.nextToken();
+            byte[] raw = jp.readRawValue();
+            jg.writeRawValue(raw, 0, raw.length);
+        }
+        jg.writeEndArray();
+        jg.close();
+        jp.close();
+        assertEquals("[[ 1,  2.50, {\"b\":\"x\\\"}]\" }],\"\\u00e9t\\u00E9 €\",-1.25e+3,true,null,{ },\"abc\"]",
+                bytes.toString("UTF-8"));
+
+        // and with char-based output, decoded
+        StringWriter sw = new StringWriter();
+        jg = f.createJsonGenerator(sw);
+        jg.writeStartObject();
+        byte[] raw = "[\"€\"]".getBytes("UTF-8");
+        jg.writeFieldName("a");
+        jg.writeRawValue(raw, 0, raw.length);
+        jg.writeEndObject();
+        jg.close();
+        assertEquals("{\"a\":[\"€\"]}", sw.toString());
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private String _raw(JsonParser jp) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int count = jp.readRawValue(bytes);
+        assertEquals(bytes.size(), count);
+        return bytes.toString("UTF-8");
+    }
+
+    private JsonParser _parser(String doc, final int chunk) throws IOException
+    {
+        InputStream in = new ByteArrayInputStream(doc.getBytes("UTF-8")) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunk));
+            }
+        };
+        return new JsonFactory().createJsonParser(in);
+    }
+}
@@ -56,6 +56,32 @@ public class TestStringGeneration
         }
     }
 
+    /**
+     * Test to verify that characters needing special handling are
+     * found at any offset, relative to blocks of ASCII content
+     * that are processed as units.
+     */
+    public void testSpecialCharsAtAllOffsets()
+        throws Exception
+    {
+        final String BASE = "abcdefghijklmnop";
+        final String[] SPECIALS = { "\"", "\\", "\n", "\u00e9", "\u20ac", "\ud834\udd1e" };
+        JsonFactory f = new JsonFactory();
+        for (String special : SPECIALS) {
+            for (int i = 0; i <= BASE.length(); ++i) {
+                String value = BASE.substring(0, i) + special + BASE.substring(i);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                JsonGenerator gen = f.createJsonGenerator(bytes, JsonEncoding.UTF8);
+                gen.writeString(value);
+                gen.close();
+                JsonParser jp = f.createJsonParser(bytes.toByteArray());
+                assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+                assertEquals(value, jp.getText());
+                jp.close();
+            }
+        }
+    }
+
     /*
     /**********************************************************
     /* Internal methods
@@ -0,0 +1,147 @@
+package org.codehaus.jackson.main;
+
+import java.io.*;
+import java.util.Random;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Unit tests for verifying that long String values can be streamed
+ * through {@link JsonParser#getText(Writer)} and
+ * {@link JsonGenerator#writeString(Reader,int)}.
+ *
+ * @since 1.10
+ */
+public class TestTextStreaming
+    extends main.BaseTest
+{
+    private final JsonFactory JSON_F = new JsonFactory();
+
+    public void testGetTextWithWriter() throws Exception
+    {
+        for (int len : new int[] { 0, 1, 100, 3999, 4000, 4001, 70000, 250000 }) {
+            String value = _generate(len);
+            String doc = _quote(value);
+            for (int i = 0; i < 2; ++i) {
+                JsonParser jp = _parser(doc, i == 0);
+                assertToken(JsonToken.START_ARRAY, jp.nextToken());
+                assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+                StringWriter sw = new StringWriter();
+                assertEquals(value.length(), jp.getText(sw));
+                assertEquals(value, sw.toString());
+                // non-streamed (already decoded) access too
+                assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+                assertEquals(value, jp.getText());
+                sw = new StringWriter();
+                assertEquals(value.length(), jp.getText(sw));
+                assertEquals(value, sw.toString());
+                // as well as other tokens
+                assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+                sw = new StringWriter();
+                assertEquals(2, jp.getText(sw));
+                assertEquals("12", sw.toString());
+                assertToken(JsonToken.END_ARRAY, jp.nextToken());
+                jp.close();
+            }
+        }
+    }
+
+    public void testWriteStringWithReader() throws Exception
+    {
+        for (int len : new int[] { 0, 1, 100, 1999, 2000, 2001, 70000, 250000 }) {
+            String value = _generate(len);
+            for (int i = 0; i < 2; ++i) {
+                boolean useStream = (i == 0);
+                // first, expected output
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                JsonGenerator jg = _generator(bytes, useStream);
+                jg.writeStartArray();
+                jg.writeString(value);
+                jg.writeEndArray();
+                jg.close();
+                final String EXP = bytes.toString("UTF-8");
+
+                for (int dataLen : new int[] { value.length(), -1 }) {
+                    bytes = new ByteArrayOutputStream();
+                    jg = _generator(bytes, useStream);
+                    jg.writeStartArray();
+                    jg.writeString(new StringReader(value), dataLen);
+                    jg.writeEndArray();
+                    jg.close();
+                    assertEquals(EXP, bytes.toString("UTF-8"));
+                }
+            }
+        }
+    }
+
+    public void testWriteStringWithTooFewChars() throws Exception
+    {
+        for (int i = 0; i < 2; ++i) {
+            JsonGenerator jg = _generator(new ByteArrayOutputStream(), i == 0);
+            try {
+                jg.writeString(new StringReader("abc"), 5);
+                fail("Should not pass");
+            } catch (JsonGenerationException e) {
+                verifyException(e, "Too few characters available");
+            }
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private JsonParser _parser(String doc, boolean useStream) throws IOException
+    {
+        if (useStream) {
+            return JSON_F.createJsonParser(doc.getBytes("UTF-8"));
+        }
+        return JSON_F.createJsonParser(new StringReader(doc));
+    }
+
+    private JsonGenerator _generator(OutputStream out, boolean useStream) throws IOException
+    {
+        if (useStream) {
+            return JSON_F.createJsonGenerator(out, JsonEncoding.UTF8);
+        }
+        return JSON_F.createJsonGenerator(new OutputStreamWriter(out, "UTF-8"));
+    }
+
+    private String _quote(String value) throws IOException
+    {
+        StringWriter sw = new StringWriter();
+        JsonGenerator jg = JSON_F.createJsonGenerator(sw);
+        jg.writeStartArray();
+        jg.writeString(value);
+        jg.writeString(value);
+        jg.writeNumber(12);
+        jg.writeEndArray();
+        jg.close();
+        return sw.toString();
+    }
+
+    private String _generate(int len)
+    {
+        StringBuilder sb = new StringBuilder(len);
+        Random r = new Random(len);
+        while (sb.length() < len) {
+            int type = r.nextInt(10);
+            if (type < 6) {
+                sb.append((char) ('a' + r.nextInt(26)));
+            } else if (type == 6) {
+                sb.append("\"\\\n\t".charAt(r.nextInt(4)));
+            } else if (type == 7) {
+                sb.append((char) (0x80 + r.nextInt(0x700)));
+            } else if (type == 8) {
+                sb.append((char) (0x800 + r.nextInt(0xC000)));
+            } else if (sb.length() < len-1) { // surrogate pair
+                int value = r.nextInt(0x100000);
+                sb.append((char) (0xD800 + (value >> 10)));
+                sb.append((char) (0xDC00 + (value & 0x3FF)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package org.codehaus.jackson.map;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Unit tests for reading and writing newline-delimited JSON
+ * ("JSON Lines") content, using {@link JsonLinesIterator} and
+ * {@link SequenceWriter}.
+ */
+public class TestJsonLines extends BaseMapTest
+{
+    /*
+    /**********************************************************
+    /* Helper types
+    /**********************************************************
+     */
+
+    static class Bean {
+        public int a;
+
+        public Bean() { }
+        public Bean(int a) { this.a = a; }
+    }
+
+    /*
+    /**********************************************************
+    /* Unit tests; reading
+    /**********************************************************
+     */
+
+    private final ObjectMapper MAPPER = new ObjectMapper();
+
+    public void testSimpleRead() throws Exception
+    {
+        // mix of linefeeds, blank lines, missing trailing linefeed
+        final String JSON = "{\"a\":1}\n\n {\"a\":2} \r\n\t\r{\"a\":3}\r{\"a\":4}";
+        JsonLinesIterator<Bean> it = MAPPER.reader(Bean.class).readLines(JSON);
+        for (int i = 1; i <= 4; ++i) {
+            assertTrue(it.hasNextValue());
+            assertEquals(i, it.nextValue().a);
+        }
+        assertEquals(6, it.getLineNumber());
+        assertFalse(it.hasNextValue());
+        assertFalse(it.hasNext());
+    }
+
+    public void testScalarsAndNulls() throws Exception
+    {
+        JsonLinesIterator<Object> it = MAPPER.reader(Object.class).readLines("1\n\"abc\"\nnull\n[true]\n");
+        assertEquals(Integer.valueOf(1), it.next());
+        assertEquals("abc", it.next());
+        assertNull(it.next());
+        assertEquals(Arrays.asList(Boolean.TRUE), it.next());
+        assertFalse(it.hasNext());
+    }
+
+    // Test with lines that span multiple input buffers
+    public void testLongLines() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        List<String> exp = new ArrayList<String>();
+        for (int i = 0; i < 20; ++i) {
+            StringBuilder value = new StringBuilder();
+            for (int j = 0, len = i * 977; j < len; ++j) {
+                value.append((char) ('a' + (j % 26)));
+            }
+            exp.add(value.toString());
+            sb.append('"').append(value).append('"').append((i & 1) == 0 ? "\r\n" : "\n");
+        }
+        // and a Reader that returns content in small chunks
+        JsonLinesIterator<String> it = MAPPER.reader(String.class).readLines(
+                new BufferedReader(new StringReader(sb.toString()), 1) {
+                    @Override
+                    public int read(char[] buf, int offset, int len) throws IOException {
+                        return super.read(buf, offset, Math.min(len, 333));
+                    }
+                });
+        List<String> result = new ArrayList<String>();
+        while (it.hasNextValue()) {
+            result.add(it.nextValue());
+        }
+        assertEquals(exp, result);
+    }
+
+    public void testRecoveryFromInvalidRecords() throws Exception
+    {
+        final String JSON = "{\"a\":1}\n{\"a\":\n{\"a\":3} 4\n{\"a\":\"x\"}\n{\"a\":5}\n";
+        JsonLinesIterator<Bean> it = MAPPER.reader(Bean.class).readLines(JSON);
+        assertEquals(1, it.nextValue().a);
+
+        // truncated record
+        try {
+            it.hasNextValue();
+            fail("Expected exception");
+        } catch (JsonMappingException e) {
+            verifyException(e, "Invalid record at line 2");
+            assertEquals(2, e.getLocation().getLineNr());
+        }
+        assertEquals(2, it.getLineNumber());
+        // trailing content
+        try {
+            it.nextValue();
+            fail("Expected exception");
+        } catch (JsonMappingException e) {
+            verifyException(e, "Unexpected content after record value");
+        }
+        // bad value type
+        try {
+            it.nextValue();
+            fail("Expected exception");
+        } catch (JsonMappingException e) {
+            verifyException(e, "Invalid record at line 4");
+        }
+        assertTrue(it.hasNextValue());
+        assertEquals(5, it.nextValue().a);
+        assertFalse(it.hasNextValue());
+    }
+
+    public void testSkipInvalidRecords() throws Exception
+    {
+        final String JSON = "{\"a\":1}\n{\"a\":\n[]\n{\"a\":4}\n{\"a\":";
+        JsonLinesIterator<Bean> it = MAPPER.reader(Bean.class).readLines(JSON);
+        it.setSkipInvalidRecords(true);
+        assertEquals(1, it.next().a);
+        assertEquals(4, it.next().a);
+        assertFalse(it.hasNext());
+        assertEquals(3, it.getSkippedRecordCount());
+    }
+
+    public void testReadBatch() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 25; ++i) {
+            sb.append("{\"a\":").append(i).append("}\n");
+        }
+        JsonLinesIterator<Bean> it = MAPPER.reader(Bean.class).readLines(
+                new ByteArrayInputStream(sb.toString().getBytes("UTF-8")));
+        List<Bean> batch = new ArrayList<Bean>();
+        int total = 0;
+        int count;
+        while ((count = it.readBatch(batch, 10)) > 0) {
+            assertEquals(count, batch.size());
+            for (Bean b : batch) {
+                assertEquals(total++, b.a);
+            }
+        }
+        assertEquals(25, total);
+        assertEquals(0, batch.size());
+
+        // and same for regular MappingIterator
+        MappingIterator<Bean> it2 = MAPPER.reader(Bean.class).readValues(sb.toString());
+        assertEquals(10, it2.readBatch(batch, 10));
+        assertEquals(10, it2.readBatch(batch, 10));
+        assertEquals(10, batch.get(0).a);
+        assertEquals(5, it2.readBatch(batch, 10));
+        assertEquals(0, it2.readBatch(batch, 10));
+    }
+
+    public void testClose() throws Exception
+    {
+        JsonLinesIterator<Bean> it = MAPPER.reader(Bean.class).readLines("{\"a\":1}\n{\"a\":2}\n");
+        assertTrue(it.hasNext());
+        it.close();
+        assertFalse(it.hasNext());
+    }
+
+    /*
+    /**********************************************************
+    /* Unit tests; writing
+    /**********************************************************
+     */
+
+    public void testSequenceWriter() throws Exception
+    {
+        StringWriter sw = new StringWriter();
+        SequenceWriter w = MAPPER.writer().writeValues(sw);
+        w.write(new Bean(1));
+        w.writeAll(Arrays.asList(new Bean(2), new Bean(3)));
+        w.write("text");
+        w.write(null);
+        assertEquals(5, w.getValueCount());
+        w.close();
+        assertEquals("{\"a\":1}\n{\"a\":2}\n{\"a\":3}\n\"text\"\nnull\n", sw.toString());
+
+        // and should be able to read it back
+        JsonLinesIterator<Object> it = MAPPER.reader(Object.class).readLines(sw.toString());
+        int count = 0;
+        while (it.hasNextValue()) {
+            it.nextValue();
+            ++count;
+        }
+        assertEquals(5, count);
+    }
+
+    public void testSequenceWriterIndentation() throws Exception
+    {
+        // indentation should not be used, as records need to be on single lines
+        ObjectMapper m = new ObjectMapper();
+        m.configure(SerializationConfig.Feature.INDENT_OUTPUT, true);
+        StringWriter sw = new StringWriter();
+        SequenceWriter w = m.writer().writeValues(sw);
+        w.write(Collections.singletonMap("a", 1));
+        w.write(new int[] { 1, 2 });
+        w.close();
+        assertEquals("{\"a\":1}\n[1,2]\n", sw.toString());
+    }
+
+    public void testSequenceWriterSeparatorAndFlush() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SequenceWriter w = MAPPER.writer().writeValues(bytes)
+            .setSeparator(",")
+            .setFlushInterval(2);
+        w.write(1);
+        assertEquals(0, bytes.size());
+        w.write(2);
+        assertEquals("1,2,", bytes.toString("UTF-8"));
+        w.write(3);
+        w.flush();
+        assertEquals("1,2,3,", bytes.toString("UTF-8"));
+        w.close();
+        try {
+            w.write(4);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            verifyException(e, "has been closed");
+        }
+    }
+}
@@ -4,11 +4,29 @@ import java.io.*;
 
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.annotate.JsonCreator;
+import org.codehaus.jackson.annotate.JsonProperty;
 import org.codehaus.jackson.map.type.TypeFactory;
 import org.codehaus.jackson.node.*;
 
 public class TestObjectMapper extends BaseMapTest
 {
+    static class NamedBean {
+        public int x;
+        public String longerPropertyName;
+    }
+
+    static class CreatorBean {
+        protected final int value;
+
+        @JsonCreator
+        public CreatorBean(@JsonProperty("creatorValue") int v) {
+            value = v;
+        }
+
+        public int getOutputOnly() { return value; }
+    }
+
     public void testProps()
     {
         ObjectMapper m = new ObjectMapper();
@@ -77,4 +95,26 @@ public class TestObjectMapper extends BaseMapTest
         assertSame(f, m.getJsonFactory());
         assertSame(m, f.getCodec());
     }
+
+    public void testPreloadFieldNames() throws Exception
+    {
+        ObjectMapper m = new ObjectMapper();
+        TypeFactory tf = m.getTypeFactory();
+        assertTrue(m.canDeserialize(tf.constructType(NamedBean.class)));
+        assertTrue(m.canDeserialize(tf.constructType(CreatorBean.class)));
+        assertTrue(m.canSerialize(CreatorBean.class));
+        m.preloadFieldNames();
+
+        // x, longerPropertyName, creatorValue, outputOnly
+        JsonFactory f = m.getJsonFactory();
+        assertEquals(4, f.getCharSymbolTableStats().getSize());
+        assertEquals(4, f.getByteSymbolTableStats().getSize());
+
+        // and parsing should not need to add any names
+        NamedBean bean = m.readValue("{\"x\":3,\"longerPropertyName\":\"abc\"}".getBytes("UTF-8"),
+                NamedBean.class);
+        assertEquals(3, bean.x);
+        assertEquals("abc", bean.longerPropertyName);
+        assertEquals(4, f.getByteSymbolTableStats().getSize());
+    }
 }
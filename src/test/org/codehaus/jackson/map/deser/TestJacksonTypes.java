@@ -1,10 +1,12 @@
 package org.codehaus.jackson.map.deser;
 
+import java.io.ByteArrayInputStream;
 import java.util.*;
 
 import org.codehaus.jackson.*;
 import org.codehaus.jackson.map.*;
 import org.codehaus.jackson.map.type.TypeFactory;
+import org.codehaus.jackson.map.util.RawJson;
 import org.codehaus.jackson.type.JavaType;
 import org.codehaus.jackson.util.TokenBuffer;
 
@@ -105,4 +107,33 @@ public class TestJacksonTypes
         assertNotNull(t);
         assertEquals(String.class, t.getRawClass());
     }
+
+    static class RawBean {
+        public int id;
+        public RawJson payload;
+    }
+
+    /**
+     * @since 1.10
+     */
+    public void testRawJson() throws Exception
+    {
+        ObjectMapper m = new ObjectMapper();
+        final String PAYLOAD = "{ \"a\" : [1, 2.50, \"\\u00e9\"], \"b\":null }";
+        final String JSON = "{\"id\":3,\"payload\":"+PAYLOAD+"}";
+        // byte-based source: content copied as is
+        RawBean bean = m.readValue(JSON.getBytes("UTF-8"), RawBean.class);
+        assertEquals(3, bean.id);
+        assertEquals(PAYLOAD, bean.payload.toString());
+        assertEquals(JSON, m.writeValueAsString(bean));
+        assertEquals(JSON, new String(m.writeValueAsBytes(bean), "UTF-8"));
+
+        // char-based source: re-encoded
+        bean = m.readValue(JSON, RawBean.class);
+        assertEquals(new RawJson("{\"a\":[1,2.5,\"\u00e9\"],\"b\":null}"), bean.payload);
+
+        // and scalars, root values
+        assertEquals("\"abc\"", m.readValue(new ByteArrayInputStream("\"abc\"".getBytes("UTF-8")),
+                RawJson.class).toString());
+    }
 }
@@ -81,7 +81,7 @@ abstract class SmileTestBase
         JsonFactory jf = new JsonFactory();
     	JsonParser jp = jf.createJsonParser(json);
     	ByteArrayOutputStream out = new ByteArrayOutputStream();
-    	JsonGenerator jg = smileGenerator(out, writeHeader);
+    	JsonGenerator jg = smileGenerator(smileFactory, out, writeHeader);
     	
     	while (jp.nextToken() != null) {
     	    jg.copyCurrentEvent(jp);
@@ -0,0 +1,193 @@
+package org.codehaus.jackson.smile;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.io.ByteBufferOutputStream;
+
+/**
+ * Unit tests for verifying reading and writing of Smile content
+ * using heap and direct {@link ByteBuffer}s.
+ */
+public class TestSmileByteBuffers
+    extends SmileTestBase
+{
+    public void testRawBinarySlices() throws Exception
+    {
+        byte[] data = _data(9000);
+        byte[] doc = _binaryDoc(data, false);
+
+        // heap buffer, with offset
+        byte[] padded = new byte[doc.length + 10];
+        System.arraycopy(doc, 0, padded, 3, doc.length);
+        ByteBuffer heap = ByteBuffer.wrap(padded, 3, doc.length).slice();
+        _verifyBinaryDoc(_smileFactory().createJsonParser(heap), data, padded);
+
+        // and direct buffer, with non-zero position
+        ByteBuffer direct = ByteBuffer.allocateDirect(doc.length + 5);
+        direct.position(5);
+        direct.put(doc);
+        direct.position(5);
+        _verifyBinaryDoc(_smileFactory().createJsonParser(direct), data, null);
+        assertEquals(5, direct.position());
+
+        // byte array input also produces slices
+        _verifyBinaryDoc(_smileFactory().createJsonParser(doc), data, doc);
+    }
+
+    public void testNonSliceableBinary() throws Exception
+    {
+        byte[] data = _data(300);
+        // 7-bit encoded content is always decoded
+        ByteBuffer direct = _direct(_binaryDoc(data, true));
+        SmileParser jp = _smileFactory().createJsonParser(direct);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+        _verifyBytes(data, jp.getBinaryValueAsByteBuffer());
+        jp.close();
+
+        // as is content read from a stream
+        jp = _smileFactory().createJsonParser(new ByteArrayInputStream(_binaryDoc(data, false)));
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+        _verifyBytes(data, jp.getBinaryValueAsByteBuffer());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        jp.close();
+    }
+
+    public void testTruncatedRawBinary() throws Exception
+    {
+        byte[] doc = _binaryDoc(_data(500), false);
+        ByteBuffer direct = ByteBuffer.allocateDirect(doc.length - 100);
+        direct.put(doc, 0, doc.length - 100);
+        direct.flip();
+        SmileParser jp = _smileFactory().createJsonParser(direct);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+        try {
+            jp.getBinaryValueAsByteBuffer();
+            fail("Expected exception");
+        } catch (JsonParseException e) {
+            verifyException(e, "Unexpected end-of-input");
+        }
+        jp.close();
+    }
+
+    public void testWriteFromByteBuffers() throws Exception
+    {
+        byte[] data = _data(7777);
+        for (boolean raw : new boolean[] { false, true }) {
+            SmileFactory f = _smileFactory();
+            f.configure(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT, !raw);
+            ByteBufferOutputStream out = new ByteBufferOutputStream(100, true);
+            SmileGenerator jg = f.createJsonGenerator(out);
+            jg.writeStartArray();
+            ByteBuffer direct = _direct(data);
+            direct.position(7);
+            jg.writeBinary(direct);
+            assertEquals(7, direct.position());
+            jg.writeBinary(ByteBuffer.wrap(data, 3, 10));
+            jg.writeBinary(ByteBuffer.allocateDirect(0));
+            jg.writeEndArray();
+            jg.close();
+
+            ByteBuffer result = out.getBuffer();
+            result.flip();
+            assertTrue(result.isDirect());
+            SmileParser jp = f.createJsonParser(result);
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+            byte[] exp = new byte[data.length - 7];
+            System.arraycopy(data, 7, exp, 0, exp.length);
+            _verifyBytes(exp, jp.getBinaryValueAsByteBuffer());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+            exp = new byte[10];
+            System.arraycopy(data, 3, exp, 0, exp.length);
+            _verifyBytes(exp, ByteBuffer.wrap(jp.getBinaryValue()));
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+            assertEquals(0, jp.getBinaryValueAsByteBuffer().remaining());
+            assertToken(JsonToken.END_ARRAY, jp.nextToken());
+            assertNull(jp.nextToken());
+            jp.close();
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private SmileFactory _smileFactory()
+    {
+        return smileFactory(false, true, false);
+    }
+
+    private byte[] _data(int len)
+    {
+        byte[] data = new byte[len];
+        for (int i = 0; i < len; ++i) {
+            data[i] = (byte) (i * 13);
+        }
+        return data;
+    }
+
+    private ByteBuffer _direct(byte[] data)
+    {
+        ByteBuffer buf = ByteBuffer.allocateDirect(data.length);
+        buf.put(data);
+        buf.flip();
+        return buf;
+    }
+
+    private byte[] _binaryDoc(byte[] data, boolean encode7Bit) throws IOException
+    {
+        SmileFactory f = _smileFactory();
+        f.configure(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT, encode7Bit);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(f, bytes, true);
+        jg.writeStartArray();
+        jg.writeBinary(data);
+        jg.writeNumber(123);
+        jg.writeBinary(data, 0, 5);
+        jg.writeEndArray();
+        jg.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param backing Array that slices should share content with, if any
+     */
+    private void _verifyBinaryDoc(SmileParser jp, byte[] data, byte[] backing) throws IOException
+    {
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+        ByteBuffer slice = jp.getBinaryValueAsByteBuffer();
+        _verifyBytes(data, slice);
+        if (backing != null) {
+            assertSame(backing, slice.array());
+        } else {
+            assertTrue(slice.isDirect());
+        }
+        // other accessors should still work as well
+        _verifyBytes(data, ByteBuffer.wrap(jp.getBinaryValue()));
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(123, jp.getIntValue());
+        assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, jp.nextToken());
+        byte[] exp = new byte[5];
+        System.arraycopy(data, 0, exp, 0, 5);
+        _verifyBytes(exp, jp.getBinaryValueAsByteBuffer());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    private void _verifyBytes(byte[] exp, ByteBuffer act)
+    {
+        assertEquals(exp.length, act.remaining());
+        for (int i = 0; i < exp.length; ++i) {
+            assertEquals(exp[i], act.get(act.position() + i));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.codehaus.jackson.smile;
+
+import java.io.*;
+import java.util.*;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Unit tests for verifying handling of pre-agreed shared name and
+ * String value dictionaries ({@link SmileDictionary}).
+ */
+public class TestSmileDictionary
+    extends SmileTestBase
+{
+    private final SmileDictionary DICT = new SmileDictionary(3,
+            Arrays.asList("id", "status", "name"), Arrays.asList("active", "inactive"));
+
+    public void testSimpleEncoding() throws Exception
+    {
+        SmileFactory f = _factory(DICT);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(f, bytes, true);
+        jg.writeStartObject();
+        jg.writeNumberField("id", 1);
+        jg.writeStringField("status", "inactive");
+        jg.writeEndObject();
+        jg.close();
+        _verifyBytes(bytes.toByteArray(),
+                SmileConstants.HEADER_BYTE_1, SmileConstants.HEADER_BYTE_2, SmileConstants.HEADER_BYTE_3,
+                (byte) 0x03,
+                SmileConstants.TOKEN_LITERAL_START_OBJECT,
+                (byte) 0x40, (byte) 0xC2,
+                (byte) 0x41, (byte) 0x02,
+                SmileConstants.TOKEN_LITERAL_END_OBJECT);
+
+        JsonParser jp = f.createJsonParser(bytes.toByteArray());
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("id", jp.getCurrentName());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(1, jp.getIntValue());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("status", jp.getCurrentName());
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertEquals("inactive", jp.getText());
+        assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testMixedWithSeenNames() throws Exception
+    {
+        // dictionary entries come first, names seen in content after those
+        final String JSON = "[{\"id\":1,\"x\":\"active\",\"y\":\"abc\"},{\"y\":\"abc\",\"x\":\"def\",\"name\":\"def\"}]";
+        SmileFactory f = _factory(DICT);
+        byte[] doc = _smileDoc(f, JSON, true);
+        assertEquals(JSON, _toJson(f, doc));
+        // and should be more compact than without dictionary
+        byte[] plain = _smileDoc(_factory(null), JSON, true);
+        assertTrue(doc.length < plain.length);
+    }
+
+    /**
+     * Test to verify that once shared tables fill up, both generator and
+     * parser restart from the dictionary contents.
+     */
+    public void testTableOverflow() throws Exception
+    {
+        List<String> names = new ArrayList<String>();
+        List<String> values = new ArrayList<String>();
+        for (int i = 0; i < 300; ++i) {
+            names.add("dictName"+i);
+            values.add("dictValue"+i);
+        }
+        SmileDictionary dict = new SmileDictionary(1, names, values);
+        StringBuilder sb = new StringBuilder("[");
+        for (int round = 0; round < 4; ++round) {
+            for (int i = 0; i < 1000; ++i) {
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                int dictIx = (i * 7 + round) % 300;
+                sb.append("{\"name").append(i).append("\":\"value").append(i % 900)
+                    .append("\",\"dictName").append(dictIx).append("\":\"dictValue")
+                    .append((dictIx * 3) % 300).append("\"}");
+            }
+        }
+        sb.append(']');
+        final String JSON = sb.toString();
+        SmileFactory f = _factory(dict);
+        byte[] doc = _smileDoc(f, JSON, true);
+        assertEquals(JSON, _toJson(f, doc));
+    }
+
+    public void testNonBlockingParser() throws Exception
+    {
+        final String JSON = "{\"status\":\"active\",\"name\":\"active\",\"other\":\"inactive\"}";
+        SmileFactory f = _factory(DICT);
+        byte[] doc = _smileDoc(f, JSON, true);
+        JsonParser jp = f.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        StringWriter sw = new StringWriter();
+        JsonGenerator jg = new JsonFactory().createJsonGenerator(sw);
+        int offset = 0;
+        JsonToken t;
+        while ((t = jp.nextToken()) != null) {
+            if (t == JsonToken.NOT_AVAILABLE) {
+                if (offset < doc.length) {
+                    feeder.feedInput(doc, offset, 1);
+                    ++offset;
+                } else {
+                    feeder.endOfInput();
+                }
+                continue;
+            }
+            jg.copyCurrentEvent(jp);
+        }
+        jg.close();
+        assertEquals(JSON, sw.toString());
+    }
+
+    public void testReset() throws Exception
+    {
+        SmileFactory f = _factory(DICT);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(f, bytes, true);
+        jg.writeStartObject();
+        jg.writeStringField("abc", "def");
+        jg.writeEndObject();
+        ByteArrayOutputStream bytes2 = new ByteArrayOutputStream();
+        jg.reset(bytes2);
+        jg.writeStartObject();
+        jg.writeStringField("abc", "name");
+        jg.writeStringField("id", "def");
+        jg.writeEndObject();
+        jg.close();
+
+        SmileParser jp = f.createJsonParser(bytes.toByteArray());
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        jp.reset(new ByteArrayInputStream(bytes2.toByteArray()));
+        StringWriter sw = new StringWriter();
+        JsonGenerator out = new JsonFactory().createJsonGenerator(sw);
+        while (jp.nextToken() != null) {
+            out.copyCurrentEvent(jp);
+        }
+        out.close();
+        jp.close();
+        assertEquals("{\"abc\":\"name\",\"id\":\"def\"}", sw.toString());
+    }
+
+    public void testMismatchedDictionary() throws Exception
+    {
+        byte[] doc = _smileDoc(_factory(DICT), "{\"name\":true}", true);
+        JsonParser jp = _factory(null).createJsonParser(doc);
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        try {
+            jp.nextToken();
+            fail("Expected exception");
+        } catch (JsonParseException e) {
+            verifyException(e, "Invalid shared name reference");
+        }
+        jp.close();
+    }
+
+    public void testInvalidDictionaries() throws Exception
+    {
+        List<String> tooMany = new ArrayList<String>();
+        for (int i = 0; i < SmileConstants.MAX_SHARED_NAMES; ++i) {
+            tooMany.add("n"+i);
+        }
+        try {
+            new SmileDictionary(1, tooMany, null);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "Too many dictionary entries");
+        }
+        try {
+            new SmileDictionary(1, Arrays.asList("a", "b", "a"), null);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "Duplicate dictionary name 'a'");
+        }
+        try {
+            new SmileDictionary(1, null, Arrays.asList("a", ""));
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "can not be null or empty");
+        }
+        char[] longValue = new char[SmileConstants.MAX_SHARED_STRING_LENGTH_BYTES + 1];
+        Arrays.fill(longValue, 'x');
+        try {
+            new SmileDictionary(1, null, Arrays.asList(new String(longValue)));
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "exceeds maximum");
+        }
+        assertEquals(3, DICT.getVersion());
+        assertEquals(3, DICT.getNameCount());
+        assertEquals(Arrays.asList("active", "inactive"), DICT.getStringValues());
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private SmileFactory _factory(SmileDictionary dict)
+    {
+        SmileFactory f = new SmileFactory();
+        f.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        f.setDictionary(dict);
+        return f;
+    }
+
+    private String _toJson(SmileFactory f, byte[] doc) throws IOException
+    {
+        JsonParser jp = f.createJsonParser(doc);
+        StringWriter sw = new StringWriter();
+        JsonGenerator jg = new JsonFactory().createJsonGenerator(sw);
+        while (jp.nextToken() != null) {
+            jg.copyCurrentEvent(jp);
+        }
+        jg.close();
+        jp.close();
+        return sw.toString();
+    }
+}
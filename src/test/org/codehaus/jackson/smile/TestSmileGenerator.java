@@ -172,6 +172,22 @@ public class TestSmileGenerator
         }
     }
     
+    public void testWriteToChannel() throws Exception
+    {
+        SmileFactory f = new SmileFactory();
+        f.configure(SmileGenerator.Feature.WRITE_HEADER, true);
+        f.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        byte[] expected = writeRepeatedString(true, "abc");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SmileGenerator gen = f.createJsonGenerator(java.nio.channels.Channels.newChannel(out));
+        gen.writeStartArray();
+        gen.writeString("abc");
+        gen.writeString("abc");
+        gen.writeEndArray();
+        gen.close();
+        _verifyBytes(out.toByteArray(), expected);
+    }
+
     /*
     /**********************************************************
     /* Helper methods
@@ -87,6 +87,63 @@ public class TestSmileGeneratorSymbols extends SmileTestBase
         _testLongNames(true);
     }
 
+    /**
+     * Test to verify that back references remain consistent with parser
+     * when shared tables fill up (and are cleared), and when only some of
+     * names and values are tracked due to limited window size.
+     */
+    public void testSharedTableOverflowAndWindow() throws Exception
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 3000; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            // mix of repeated and unique names and values
+            int ix = ((i * 17) % 1300);
+            sb.append("{\"n").append(ix).append("\":\"v").append(ix)
+                .append("\",\"id\":\"").append(i % 3).append("\"}");
+        }
+        sb.append("]");
+        final String JSON = sb.toString();
+
+        int prevLength = 0;
+        int fullLength = 0;
+        for (int window : new int[] { 1024, 100, 1 }) {
+            SmileFactory f = new SmileFactory();
+            f.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+            f.setSharedStringWindow(window);
+            byte[] doc = _smileDoc(f, JSON, true);
+            // smaller window, fewer back references
+            assertTrue(doc.length >= prevLength);
+            prevLength = doc.length;
+            if (window == 1024) {
+                fullLength = doc.length;
+            }
+
+            JsonParser jp = f.createJsonParser(doc);
+            java.io.StringWriter sw = new java.io.StringWriter();
+            JsonGenerator jg = new JsonFactory().createJsonGenerator(sw);
+            while (jp.nextToken() != null) {
+                jg.copyCurrentEvent(jp);
+            }
+            jg.close();
+            jp.close();
+            assertEquals(JSON, sw.toString());
+        }
+        assertTrue(prevLength > fullLength);
+    }
+
+    public void testInvalidSharedWindow() throws Exception
+    {
+        try {
+            new SmileFactory().setSharedStringWindow(SmileConstants.MAX_SHARED_NAMES + 1);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "Invalid shared String window size");
+        }
+    }
+
     /*
     /**********************************************************
     /* Secondary methods
@@ -0,0 +1,273 @@
+package org.codehaus.jackson.smile;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Unit tests for verifying that non-blocking Smile parser produces
+ * same tokens and values as the blocking one, regardless of how
+ * content is split into chunks.
+ */
+public class TestSmileNonBlockingParser
+    extends SmileTestBase
+{
+    final static int[] CHUNK_SIZES = new int[] { 1, 2, 3, 5, 7, 16, 100, 9999 };
+
+    public void testSimpleTokens() throws Exception
+    {
+        _verifyAllChunkings(_smileDoc("[ true, false, null, 0, -1, 15, -16, 12345, -999999, \"\", \"abc\", [], {}, -0.25, 1e3 ]"));
+        _verifyAllChunkings(_smileDoc("{\"a\":1,\"bc\":[{}],\"\":{\"e\":\"f\"}}"));
+        // without header, too
+        _verifyAllChunkings(_smileDoc("{\"a\":[1,2,\"x\"]}", false));
+    }
+
+    public void testSpecDoc() throws Exception
+    {
+        _verifyAllChunkings(_smileDoc(SAMPLE_DOC_JSON_SPEC));
+    }
+
+    public void testNumbers() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(bytes, true);
+        jg.writeStartArray();
+        jg.writeNumber(Integer.MIN_VALUE);
+        jg.writeNumber(Integer.MAX_VALUE);
+        jg.writeNumber(Long.MIN_VALUE);
+        jg.writeNumber(1234567890123L);
+        jg.writeNumber(new BigInteger("123456789012345678901234567890"));
+        jg.writeNumber(0.125f);
+        jg.writeNumber(-1234.5678901234);
+        jg.writeNumber(new BigDecimal("-12345678901234567890.0987654321"));
+        jg.writeEndArray();
+        jg.close();
+        _verifyAllChunkings(bytes.toByteArray());
+    }
+
+    public void testLongNamesAndValues() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; ++i) {
+            sb.append((char) ('a' + (i % 26)));
+        }
+        String str = sb.toString();
+        _verifyAllChunkings(_smileDoc("{\""+str+"\":\""+str+str+"\",\"x"+str+"\":\""+str+"éሴ\"}"));
+        _verifyAllChunkings(_smileDoc("{\"été\":\"© 一 \",\"näme-"+str+"\":[\"一"+str+"\"]}"));
+    }
+
+    public void testSharedNamesAndValues() throws Exception
+    {
+        SmileFactory f = new SmileFactory();
+        f.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(f, bytes, true);
+        jg.writeStartArray();
+        // enough distinct names and values to require long back references
+        for (int round = 0; round < 3; ++round) {
+            for (int i = 0; i < 100; ++i) {
+                jg.writeStartObject();
+                jg.writeStringField("name"+i, "value"+i);
+                jg.writeNumberField("x", i);
+                jg.writeEndObject();
+            }
+        }
+        jg.writeEndArray();
+        jg.close();
+        _verifyAllChunkings(bytes.toByteArray());
+    }
+
+    public void testBinary() throws Exception
+    {
+        byte[] data = new byte[777];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i * 7);
+        }
+        for (boolean raw : new boolean[] { false, true }) {
+            SmileFactory f = new SmileFactory();
+            f.configure(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT, !raw);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            SmileGenerator jg = smileGenerator(f, bytes, true);
+            jg.writeStartArray();
+            jg.writeBinary(data);
+            jg.writeBinary(data, 0, 6);
+            jg.writeBinary(new byte[0]);
+            jg.writeBinary(data, 3, 15);
+            jg.writeEndArray();
+            jg.close();
+            _verifyAllChunkings(bytes.toByteArray());
+        }
+    }
+
+    public void testMultipleDocuments() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(_smileDoc("[1,\"a\"]"));
+        bytes.write(_smileDoc("{\"b\":true}"));
+        _verifyAllChunkings(bytes.toByteArray());
+    }
+
+    public void testNotAvailable() throws Exception
+    {
+        SmileFactory f = new SmileFactory();
+        JsonParser jp = f.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        assertNotNull(feeder);
+        assertTrue(feeder.needMoreInput());
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+
+        byte[] doc = _smileDoc("[ 123456, \"abcdef\" ]");
+        // feed header, start array and half of the int
+        feeder.feedInput(doc, 0, 7);
+        assertFalse(feeder.needMoreInput());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        assertTrue(feeder.needMoreInput());
+        // and a bit more, still not enough
+        feeder.feedInput(doc, 7, 1);
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        assertTrue(feeder.needMoreInput());
+
+        feeder.feedInput(doc, 8, doc.length - 8);
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(123456, jp.getIntValue());
+        assertEquals(5L, jp.getTokenLocation().getByteOffset());
+        assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+        assertEquals("abcdef", jp.getText());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        feeder.endOfInput();
+        assertFalse(feeder.needMoreInput());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testFeedWhenNotNeeded() throws Exception
+    {
+        JsonParser jp = new SmileFactory().createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        byte[] doc = _smileDoc("[ 1 ]");
+        feeder.feedInput(doc, 0, doc.length);
+        try {
+            feeder.feedInput(doc, 0, doc.length);
+            fail("Expected exception");
+        } catch (JsonParseException e) {
+            verifyException(e, "should not call 'feedInput'");
+        }
+        jp.close();
+    }
+
+    public void testEOFWithinToken() throws Exception
+    {
+        byte[] doc = _smileDoc("[\"abcdefgh\"]");
+        JsonParser jp = new SmileFactory().createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+        feeder.feedInput(doc, 0, doc.length - 3);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.NOT_AVAILABLE, jp.nextToken());
+        feeder.endOfInput();
+        try {
+            jp.nextToken();
+            fail("Expected exception");
+        } catch (JsonParseException e) {
+            verifyException(e, "Unexpected end-of-input");
+        }
+        jp.close();
+    }
+
+    public void testRequireHeader() throws Exception
+    {
+        SmileFactory f = smileFactory(true, false, false);
+        byte[] doc = _smileDoc("[ 1 ]", false);
+        JsonParser jp = f.createNonBlockingJsonParser();
+        jp.getNonBlockingInputFeeder().feedInput(doc, 0, doc.length);
+        try {
+            jp.nextToken();
+            fail("Expected exception");
+        } catch (JsonParseException e) {
+            verifyException(e, "Input does not start with Smile format header");
+        }
+        jp.close();
+
+        // but with header, fine
+        doc = _smileDoc("[ 1 ]", true);
+        jp = f.createNonBlockingJsonParser();
+        jp.getNonBlockingInputFeeder().feedInput(doc, 0, doc.length);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        jp.close();
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private void _verifyAllChunkings(byte[] data) throws IOException
+    {
+        for (int chunk : CHUNK_SIZES) {
+            _verifySame(data, chunk);
+        }
+    }
+
+    private void _verifySame(byte[] data, int chunkSize) throws IOException
+    {
+        SmileFactory f = smileFactory(false, false, false);
+        JsonParser exp = f.createJsonParser(new ByteArrayInputStream(data));
+        JsonParser act = f.createNonBlockingJsonParser();
+        NonBlockingInputFeeder feeder = act.getNonBlockingInputFeeder();
+        int offset = 0;
+        JsonToken t;
+
+        do {
+            t = exp.nextToken();
+            JsonToken t2;
+            while ((t2 = act.nextToken()) == JsonToken.NOT_AVAILABLE) {
+                assertTrue(feeder.needMoreInput());
+                if (offset < data.length) {
+                    int len = Math.min(chunkSize, data.length - offset);
+                    // copy, to ensure parser does not refer to earlier chunks
+                    byte[] chunk = new byte[len];
+                    System.arraycopy(data, offset, chunk, 0, len);
+                    feeder.feedInput(chunk, 0, len);
+                    offset += len;
+                } else {
+                    feeder.endOfInput();
+                }
+            }
+            assertToken(t, t2);
+            if (t == null) {
+                break;
+            }
+            assertEquals(exp.getTokenLocation().getByteOffset(), act.getTokenLocation().getByteOffset());
+            switch (t) {
+            case FIELD_NAME:
+                assertEquals(exp.getCurrentName(), act.getCurrentName());
+                break;
+            case VALUE_STRING:
+                assertEquals(exp.getText(), act.getText());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                assertEquals(exp.getNumberType(), act.getNumberType());
+                assertEquals(exp.getNumberValue(), act.getNumberValue());
+                break;
+            case VALUE_EMBEDDED_OBJECT:
+                assertArrayEquals(exp.getBinaryValue(), act.getBinaryValue());
+                break;
+            }
+        } while (t != null);
+        exp.close();
+        act.close();
+    }
+
+    private static void assertArrayEquals(byte[] exp, byte[] act)
+    {
+        assertEquals(exp.length, act.length);
+        for (int i = 0; i < exp.length; ++i) {
+            assertEquals(exp[i], act[i]);
+        }
+    }
+}
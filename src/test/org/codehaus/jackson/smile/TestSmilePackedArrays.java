@@ -0,0 +1,319 @@
+package org.codehaus.jackson.smile;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Assert;
+
+/**
+ * Unit tests for verifying handling of packed primitive arrays
+ * ({@link SmileConstants#TOKEN_MISC_PACKED_ARRAY}).
+ */
+public class TestSmilePackedArrays
+    extends SmileTestBase
+{
+    final static int[] INTS = new int[] { 0, 1, -1, 63, -64, 64, 1234567, Integer.MIN_VALUE, Integer.MAX_VALUE };
+
+    final static long[] LONGS = new long[] { 0L, -3L, 1234567890123L, Long.MIN_VALUE, Long.MAX_VALUE, 99L };
+
+    final static float[] FLOATS = new float[] { 0.0f, -0.25f, 1.5e10f, Float.NaN, Float.MIN_VALUE, -Float.MAX_VALUE };
+
+    final static double[] DOUBLES = new double[] { 0.0, -0.0, 0.1, -1234.5678, Double.MAX_VALUE,
+        Double.NEGATIVE_INFINITY };
+
+    static class ArraysBean {
+        public int[] ints;
+        public long[] longs;
+        public float[] floats;
+        public double[] doubles;
+        public String name;
+    }
+
+    public void testSimpleEncoding() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(_factory(true), bytes, false);
+        jg.writeArray(new int[] { 9, 1, -1, 100 }, 1, 3);
+        jg.close();
+        _verifyBytes(bytes.toByteArray(), (byte) 0xF0, (byte) 0x83,
+                (byte) 0x82, (byte) 0x81, (byte) 0x03, (byte) 0x88);
+
+        // and header should indicate packed arrays
+        bytes = new ByteArrayOutputStream();
+        jg = smileGenerator(_factory(true), bytes, true);
+        jg.writeArray(new double[0], 0, 0);
+        jg.close();
+        byte[] doc = bytes.toByteArray();
+        assertEquals(6, doc.length);
+        assertEquals(SmileConstants.HEADER_BIT_HAS_PACKED_ARRAYS,
+                doc[3] & SmileConstants.HEADER_BIT_HAS_PACKED_ARRAYS);
+        SmileParser jp = _factory(true).createJsonParser(doc);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertTrue(jp.mayContainPackedArrays());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testTokensSameAsUnpacked() throws Exception
+    {
+        byte[] packed = _arraysDoc(_factory(true));
+        byte[] unpacked = _arraysDoc(_factory(false));
+        assertTrue(packed.length < unpacked.length);
+        SmileFactory f = _factory(false);
+        assertEquals(_toJson(f.createJsonParser(unpacked)), _toJson(f.createJsonParser(packed)));
+        // as well as with JSON
+        StringWriter sw = new StringWriter();
+        JsonGenerator jg = new JsonFactory().createJsonGenerator(sw);
+        _writeArrays(jg);
+        jg.close();
+        assertEquals(sw.toString(), _toJson(f.createJsonParser(packed)));
+    }
+
+    public void testBulkReads() throws Exception
+    {
+        SmileParser jp = _factory(false).createJsonParser(_arraysDoc(_factory(true)));
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        // wrong type: nothing read
+        assertNull(jp.readDoubleArray());
+        assertToken(JsonToken.START_ARRAY, jp.getCurrentToken());
+        Assert.assertArrayEquals(INTS, jp.readIntArray());
+        assertToken(JsonToken.END_ARRAY, jp.getCurrentToken());
+        assertEquals("ints", jp.getParsingContext().getCurrentName());
+
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertNull(jp.readIntArray());
+        Assert.assertArrayEquals(LONGS, jp.readLongArray());
+        assertToken(JsonToken.END_ARRAY, jp.getCurrentToken());
+
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        // floats can also be read as doubles
+        double[] dbls = jp.readDoubleArray();
+        assertEquals(FLOATS.length, dbls.length);
+        for (int i = 0; i < dbls.length; ++i) {
+            assertEquals(Float.floatToRawIntBits(FLOATS[i]), Float.floatToRawIntBits((float) dbls[i]));
+        }
+
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        // partially read arrays can not be read in bulk
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, jp.nextToken());
+        assertNull(jp.readDoubleArray());
+        assertEquals(DOUBLES[0], jp.getDoubleValue());
+        for (int i = 1; i < DOUBLES.length; ++i) {
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, jp.nextToken());
+            assertEquals(Double.doubleToRawLongBits(DOUBLES[i]), Double.doubleToRawLongBits(jp.getDoubleValue()));
+        }
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+
+        // regular arrays are not packed, either
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertNull(jp.readIntArray());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(3, jp.getIntValue());
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testLongArrays() throws Exception
+    {
+        // big enough to span multiple buffers, when read from a stream
+        long[] values = new long[20000];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (i * 0x123456789L) ^ -(i & 1);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(_factory(true), bytes, true);
+        jg.writeStartArray();
+        jg.writeArray(values, 0, values.length);
+        jg.writeArray(new float[] { 1.25f, 1.75f }, 0, 2);
+        jg.writeEndArray();
+        jg.close();
+
+        SmileParser jp = _factory(true).createJsonParser(new ByteArrayInputStream(bytes.toByteArray()));
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        Assert.assertArrayEquals(values, jp.readLongArray());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        float[] floats = jp.readFloatArray();
+        assertEquals(2, floats.length);
+        assertEquals(1.75f, floats[1]);
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+        jp.close();
+    }
+
+    public void testTruncated() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmileGenerator jg = smileGenerator(_factory(true), bytes, true);
+        jg.writeArray(DOUBLES, 0, DOUBLES.length);
+        jg.close();
+        byte[] doc = bytes.toByteArray();
+        SmileParser jp = _factory(true).createJsonParser(doc, 0, doc.length - 3);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        try {
+            jp.readDoubleArray();
+            fail("Expected exception");
+        } catch (JsonParseException e) {
+            verifyException(e, "Unexpected end-of-input");
+        }
+        jp.close();
+    }
+
+    // Length of packed arrays must not be trusted for allocation
+    public void testCorruptLength() throws Exception
+    {
+        final byte[] doc = new byte[] { ':', ')', '\n', 0x08,
+                (byte) 0xF0, 0x0F, 0x7F, 0x7F, 0x7F, (byte) 0xBF };
+        SmileFactory f = _factory(true);
+        for (int type = 0; type < 4; ++type) {
+            // 2 LSB of the token byte indicate element type
+            doc[4] = (byte) (SmileConstants.TOKEN_MISC_PACKED_ARRAY | type);
+            for (int mode = 0; mode < 2; ++mode) {
+                SmileParser jp = (mode == 0) ? f.createJsonParser(doc)
+                        : f.createJsonParser(new ByteArrayInputStream(doc));
+                assertToken(JsonToken.START_ARRAY, jp.nextToken());
+                try {
+                    switch (type) {
+                    case 0:
+                        jp.readIntArray();
+                        break;
+                    case 1:
+                        jp.readLongArray();
+                        break;
+                    case 2:
+                        jp.readFloatArray();
+                        break;
+                    default:
+                        jp.readDoubleArray();
+                    }
+                    fail("Expected exception");
+                } catch (JsonParseException e) {
+                    verifyException(e, "Unexpected end-of-input");
+                }
+                jp.close();
+            }
+        }
+    }
+
+    public void testMapper() throws Exception
+    {
+        ArraysBean input = new ArraysBean();
+        input.ints = INTS;
+        input.longs = LONGS;
+        input.floats = FLOATS;
+        input.doubles = DOUBLES;
+        input.name = "abc";
+        ObjectMapper packedMapper = new ObjectMapper(_factory(true));
+        ObjectMapper mapper = new ObjectMapper(_factory(false));
+        byte[] packed = packedMapper.writeValueAsBytes(input);
+        byte[] unpacked = mapper.writeValueAsBytes(input);
+        assertTrue(packed.length < unpacked.length);
+
+        for (byte[] doc : new byte[][] { packed, unpacked }) {
+            ArraysBean result = mapper.readValue(doc, ArraysBean.class);
+            Assert.assertArrayEquals(INTS, result.ints);
+            Assert.assertArrayEquals(LONGS, result.longs);
+            Assert.assertArrayEquals(FLOATS, result.floats, 0.0f);
+            Assert.assertArrayEquals(DOUBLES, result.doubles, 0.0);
+            assertEquals("abc", result.name);
+        }
+        // and with conversions between types
+        long[] longs = mapper.readValue(packedMapper.writeValueAsBytes(INTS), long[].class);
+        assertEquals(INTS.length, longs.length);
+        assertEquals((long) Integer.MIN_VALUE, longs[7]);
+        int[] ints = mapper.readValue(packedMapper.writeValueAsBytes(new long[] { 1L, -2L }), int[].class);
+        Assert.assertArrayEquals(new int[] { 1, -2 }, ints);
+    }
+
+    public void testNonBlocking() throws Exception
+    {
+        byte[] doc = _arraysDoc(_factory(true));
+        String exp = _toJson(_factory(false).createJsonParser(doc));
+        for (int chunk : new int[] { 1, 3, 7, 1000 }) {
+            JsonParser jp = _factory(false).createNonBlockingJsonParser();
+            NonBlockingInputFeeder feeder = jp.getNonBlockingInputFeeder();
+            StringWriter sw = new StringWriter();
+            JsonGenerator jg = new JsonFactory().createJsonGenerator(sw);
+            int offset = 0;
+            JsonToken t;
+            while ((t = jp.nextToken()) != null) {
+                if (t == JsonToken.NOT_AVAILABLE) {
+                    if (offset < doc.length) {
+                        int len = Math.min(chunk, doc.length - offset);
+                        feeder.feedInput(doc, offset, len);
+                        offset += len;
+                    } else {
+                        feeder.endOfInput();
+                    }
+                    continue;
+                }
+                assertNull(jp.readIntArray());
+                jg.copyCurrentEvent(jp);
+            }
+            jg.close();
+            jp.close();
+            assertEquals(exp, sw.toString());
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private SmileFactory _factory(boolean packed)
+    {
+        SmileFactory f = new SmileFactory();
+        f.configure(SmileGenerator.Feature.WRITE_PACKED_ARRAYS, packed);
+        return f;
+    }
+
+    private byte[] _arraysDoc(SmileFactory f) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonGenerator jg = f.createJsonGenerator(bytes);
+        _writeArrays(jg);
+        jg.close();
+        return bytes.toByteArray();
+    }
+
+    private void _writeArrays(JsonGenerator jg) throws IOException
+    {
+        jg.writeStartObject();
+        jg.writeFieldName("ints");
+        jg.writeArray(INTS, 0, INTS.length);
+        jg.writeFieldName("longs");
+        jg.writeArray(LONGS, 0, LONGS.length);
+        jg.writeFieldName("floats");
+        jg.writeArray(FLOATS, 0, FLOATS.length);
+        jg.writeFieldName("doubles");
+        jg.writeArray(DOUBLES, 0, DOUBLES.length);
+        jg.writeFieldName("other");
+        jg.writeStartArray();
+        jg.writeNumber(3);
+        jg.writeEndArray();
+        jg.writeEndObject();
+    }
+
+    private String _toJson(JsonParser jp) throws IOException
+    {
+        StringWriter sw = new StringWriter();
+        JsonGenerator jg = new JsonFactory().createJsonGenerator(sw);
+        while (jp.nextToken() != null) {
+            jg.copyCurrentEvent(jp);
+        }
+        jg.close();
+        jp.close();
+        return sw.toString();
+    }
+}
@@ -47,6 +47,49 @@ public class TestSmileParserBinary
     {
         _testBinaryAsRoot(false);
     }
+
+    /**
+     * @since 1.10
+     */
+    public void testStreaming() throws IOException
+    {
+        for (int i = 0; i < 2; ++i) {
+            boolean raw = (i == 0);
+            SmileFactory f = new SmileFactory();
+            f.configure(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT, !raw);
+            for (int size : SIZES) {
+                byte[] data = _generateData(size);
+                ByteArrayOutputStream bo = new ByteArrayOutputStream(size+10);
+                SmileGenerator g = f.createJsonGenerator(bo);
+                g.writeStartArray();
+                g.writeBinary(data);
+                g.writeEndArray();
+                g.close();
+                byte[] exp = bo.toByteArray();
+
+                // streaming output must be identical, with or without known length
+                for (int len : new int[] { size, -1 }) {
+                    bo = new ByteArrayOutputStream(size+10);
+                    g = f.createJsonGenerator(bo);
+                    g.writeStartArray();
+                    assertEquals(size, g.writeBinary(new ByteArrayInputStream(data), len));
+                    g.writeEndArray();
+                    g.close();
+                    assertArrayEquals(exp, bo.toByteArray());
+                }
+
+                SmileParser p = f.createJsonParser(exp);
+                assertToken(JsonToken.START_ARRAY, p.nextToken());
+                assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+                ByteArrayOutputStream result = new ByteArrayOutputStream(size);
+                assertEquals(size, p.readBinaryValue(result));
+                assertArrayEquals(data, result.toByteArray());
+                assertToken(JsonToken.END_ARRAY, p.nextToken());
+                assertNull(p.nextToken());
+                p.close();
+            }
+        }
+    }
     
     /*
     /**********************************************************
@@ -0,0 +1,107 @@
+package org.codehaus.jackson.smile;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+
+/**
+ * Unit tests for verifying that Smile parsers and generators can be
+ * reset and reused for multiple documents.
+ */
+public class TestSmileReset extends SmileTestBase
+{
+    public void testGeneratorAndParserReset() throws Exception
+    {
+        SmileFactory f = smileFactory(true, true, false);
+        f.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+
+        ByteArrayOutputStream out1 = new ByteArrayOutputStream();
+        SmileGenerator jg = f.createJsonGenerator(out1);
+        _writeDoc(jg, "first");
+        ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+        jg.reset(out2);
+        _writeDoc(jg, "second");
+        jg.close();
+
+        // both must be complete documents, with header and no back-references across
+        byte[] doc1 = out1.toByteArray();
+        byte[] doc2 = out2.toByteArray();
+        assertEquals(SmileConstants.HEADER_BYTE_1, doc2[0]);
+
+        SmileParser jp = f.createJsonParser(doc1);
+        _verifyDoc(jp, "first");
+        assertNull(jp.nextToken());
+
+        jp.reset(doc2, 0, doc2.length);
+        _verifyDoc(jp, "second");
+
+        jp.reset(new ByteArrayInputStream(doc1));
+        _verifyDoc(jp, "first");
+        jp.close();
+
+        try {
+            jp.reset(doc2, 0, doc2.length);
+            fail("Should not allow reset after close()");
+        } catch (IllegalStateException e) {
+            verifyException(e, "closed parser");
+        }
+    }
+
+    public void testParserResetWithOffset() throws Exception
+    {
+        SmileFactory f = smileFactory(true, true, false);
+        byte[] doc = _smileDoc("[1]", true);
+        SmileParser jp = f.createJsonParser(doc);
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        long exp = jp.getTokenLocation().getByteOffset();
+
+        byte[] padded = new byte[doc.length + 7];
+        System.arraycopy(doc, 0, padded, 7, doc.length);
+        jp.reset(padded, 7, doc.length);
+        // offsets are relative to start of content
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        assertEquals(exp, jp.getTokenLocation().getByteOffset());
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(1, jp.getIntValue());
+        jp.close();
+    }
+
+    public void testParserResetRequiresHeader() throws Exception
+    {
+        SmileFactory f = smileFactory(true, true, false);
+        byte[] doc = _smileDoc("[1]", true);
+        SmileParser jp = f.createJsonParser(doc);
+        byte[] noHeader = _smileDoc("[1]", false);
+        try {
+            jp.reset(noHeader, 0, noHeader.length);
+            fail("Should require header");
+        } catch (JsonParseException e) {
+            verifyException(e, "REQUIRE_HEADER");
+        }
+    }
+
+    private void _writeDoc(JsonGenerator jg, String value) throws IOException
+    {
+        jg.writeStartArray();
+        for (int i = 0; i < 3; ++i) {
+            jg.writeStartObject();
+            jg.writeStringField("name", value);
+            jg.writeEndObject();
+        }
+        jg.writeEndArray();
+    }
+
+    private void _verifyDoc(JsonParser jp, String value) throws IOException
+    {
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        for (int i = 0; i < 3; ++i) {
+            assertToken(JsonToken.START_OBJECT, jp.nextToken());
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertEquals("name", jp.getCurrentName());
+            assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+            assertEquals(value, jp.getText());
+            assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        }
+        assertToken(JsonToken.END_ARRAY, jp.nextToken());
+    }
+}
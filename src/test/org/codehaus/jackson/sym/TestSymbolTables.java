@@ -38,11 +38,12 @@ public class TestSymbolTables extends main.BaseTest
     
     /**
      * Test to see what happens with pre-computed collisions; should
-     * get an exception.
+     * get an exception. Collisions are computed for the fixed
+     * zero seed, so that is what we need to use.
      */
     public void testCharBasedCollisions()
     {
-        CharsToNameCanonicalizer sym = CharsToNameCanonicalizer.createRoot();
+        CharsToNameCanonicalizer sym = CharsToNameCanonicalizer.createRoot(0);
 
         // first, verify that we'd get a few collisions...
         try {
@@ -67,6 +68,21 @@ public class TestSymbolTables extends main.BaseTest
         }
     }
 
+    /**
+     * And then verify that with a random seed, same names do not
+     * collide any more
+     */
+    public void testCharBasedCollisionsWithRandomSeed()
+    {
+        CharsToNameCanonicalizer sym = CharsToNameCanonicalizer.createRoot();
+        for (String str : CHAR_COLLISIONS) {
+            char[] ch = str.toCharArray();
+            sym.findSymbol(ch, 0, ch.length, sym.calcHash(str));
+        }
+        assertEquals(CHAR_COLLISIONS.length, sym.size());
+        assertTrue(sym.maxCollisionLength() < CharsToNameCanonicalizer.MAX_COLL_CHAIN_FOR_REUSE);
+    }
+
     // Test for verifying stability of hashCode, wrt collisions, using
     // synthetic field name generation and character-based input
     public void testSyntheticWithChars()
@@ -110,9 +126,59 @@ public class TestSymbolTables extends main.BaseTest
 //System.out.printf("Byte stuff: collisions %d, max-coll %d\n", symbols.collisionCount(), symbols.maxCollisionLength());
     
         // Fewer collisions than with chars, but still quite a few
-        assertEquals(1700, symbols.collisionCount());
+        // (exact numbers depend on hash calculation, so just check upper bounds)
+        assertTrue(symbols.collisionCount() <= 1700);
         // but not super long collision chains:
-        assertEquals(10, symbols.maxCollisionLength());
+        assertTrue(symbols.maxCollisionLength() <= 10);
+    }
+
+    // Sequential short names used to produce long probe sequences, with some seeds
+    public void testSequentialShortNamesWithBytes() throws IOException
+    {
+        for (int round = 0; round < 20; ++round) {
+            BytesToNameCanonicalizer symbols = BytesToNameCanonicalizer.createRoot()
+                    .makeChild(true, true);
+            final int COUNT = 40000;
+            for (int i = 0; i < COUNT; ++i) {
+                String id = "x"+i;
+                int[] quads = BytesToNameCanonicalizer.calcQuads(id.getBytes("UTF-8"));
+                symbols.addName(id, quads, quads.length);
+            }
+            assertEquals(COUNT, symbols.size());
+            assertTrue(symbols.maxCollisionLength() < BytesToNameCanonicalizer.MAX_COLL_CHAIN_FOR_REUSE);
+        }
+    }
+
+    public void testByteBasedSizeLimits() throws IOException
+    {
+        BytesToNameCanonicalizer root = BytesToNameCanonicalizer.createRoot(1);
+        // table size limit will be rounded up to 128
+        root.setSizeLimits(100, 50);
+
+        // First: more names than can be shared, so root gets flushed on release
+        BytesToNameCanonicalizer symbols = root.makeChild(true, true);
+        _addNames(symbols, 60);
+        assertEquals(60, symbols.size());
+        symbols.release();
+        SymbolTableStats stats = root.stats();
+        assertEquals(0, stats.getSize());
+        assertEquals(1, stats.getFlushCount());
+
+        // and table itself is not to grow beyond the limit, but is flushed instead
+        symbols = root.makeChild(true, true);
+        _addNames(symbols, 100);
+        assertEquals(128, symbols.bucketCount());
+        assertTrue(symbols.size() < 100);
+    }
+
+    private void _addNames(BytesToNameCanonicalizer symbols, int count) throws IOException
+    {
+        for (int i = 0; i < count; ++i) {
+            String id = fieldNameFor(i);
+            int[] quads = BytesToNameCanonicalizer.calcQuads(id.getBytes("UTF-8"));
+            symbols.addName(id, quads, quads.length);
+            assertEquals(id, symbols.findName(quads, quads.length).getName());
+        }
     }
 
     protected void fieldNameFor(StringBuilder sb, int index)
@@ -0,0 +1,176 @@
+package org.codehaus.jackson.util;
+
+import java.io.*;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.smile.SmileFactory;
+
+/**
+ * Unit tests for verifying that {@link BufferRecyclerPool} implementations
+ * work as expected, both directly and when used via factories.
+ */
+public class TestBufferRecyclerPool
+    extends main.BaseTest
+{
+    public void testThreadLocalPool()
+    {
+        BufferRecyclerPool pool = BufferRecyclerPool.threadLocalPool();
+        assertTrue(pool.isThreadLocal());
+        BufferRecycler br = pool.acquireBufferRecycler();
+        pool.releaseBufferRecycler(br);
+        assertSame(br, pool.acquireBufferRecycler());
+        // reuse is not counted, to avoid updating shared counters
+        assertEquals(-1L, pool.getHitCount());
+        assertTrue(pool.getMissCount() <= 1L);
+    }
+
+    public void testBoundedPool()
+    {
+        BufferRecyclerPool.BoundedPool pool = new BufferRecyclerPool.BoundedPool(2);
+        assertFalse(pool.isThreadLocal());
+        BufferRecycler br1 = pool.acquireBufferRecycler();
+        BufferRecycler br2 = pool.acquireBufferRecycler();
+        BufferRecycler br3 = pool.acquireBufferRecycler();
+        assertNotSame(br1, br2);
+        assertEquals(0L, pool.getHitCount());
+        assertEquals(3L, pool.getMissCount());
+
+        pool.releaseBufferRecycler(br1);
+        pool.releaseBufferRecycler(br2);
+        // full; third one gets dropped
+        pool.releaseBufferRecycler(br3);
+        assertEquals(2, pool.getPooledCount());
+
+        BufferRecycler br = pool.acquireBufferRecycler();
+        assertTrue(br == br1 || br == br2);
+        assertEquals(1L, pool.getHitCount());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    public void testBoundedPoolInvalidSize()
+    {
+        try {
+            BufferRecyclerPool.boundedPool(0);
+            fail("Should not allow empty pool");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "at least 1");
+        }
+    }
+
+    public void testNonRecyclingPool()
+    {
+        BufferRecyclerPool pool = BufferRecyclerPool.nonRecyclingPool();
+        BufferRecycler br = pool.acquireBufferRecycler();
+        pool.releaseBufferRecycler(br);
+        assertNotSame(br, pool.acquireBufferRecycler());
+        assertEquals(0L, pool.getHitCount());
+        assertEquals(2L, pool.getMissCount());
+    }
+
+    public void testBoundedPoolWithJsonFactory() throws Exception
+    {
+        BufferRecyclerPool.BoundedPool pool = new BufferRecyclerPool.BoundedPool(4);
+        JsonFactory f = new JsonFactory().setBufferRecyclerPool(pool);
+        assertSame(pool, f.getBufferRecyclerPool());
+
+        for (int i = 0; i < 3; ++i) {
+            StringWriter sw = new StringWriter();
+            JsonGenerator jg = f.createJsonGenerator(sw);
+            jg.writeStartArray();
+            jg.writeString("abc");
+            jg.writeEndArray();
+            jg.close();
+
+            JsonParser jp = f.createJsonParser(sw.toString());
+            assertToken(JsonToken.START_ARRAY, jp.nextToken());
+            assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+            assertEquals("abc", jp.getText());
+            assertToken(JsonToken.END_ARRAY, jp.nextToken());
+            jp.close();
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            jg = f.createJsonGenerator(bytes, JsonEncoding.UTF8);
+            jg.writeNumber(i);
+            jg.close();
+            jp = f.createJsonParser(new ByteArrayInputStream(bytes.toByteArray()));
+            assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+            assertEquals(i, jp.getIntValue());
+            jp.close();
+        }
+        // only first one needs to construct a recycler; rest get it back
+        assertEquals(1L, pool.getMissCount());
+        assertEquals(11L, pool.getHitCount());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    public void testBoundedPoolWithSmileFactory() throws Exception
+    {
+        BufferRecyclerPool.BoundedPool pool = new BufferRecyclerPool.BoundedPool(4);
+        SmileFactory f = new SmileFactory().setBufferRecyclerPool(pool);
+
+        for (int i = 0; i < 2; ++i) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            JsonGenerator jg = f.createJsonGenerator(bytes, JsonEncoding.UTF8);
+            jg.writeStartObject();
+            jg.writeStringField("name", "value");
+            jg.writeEndObject();
+            jg.close();
+
+            JsonParser jp = f.createJsonParser(new ByteArrayInputStream(bytes.toByteArray()));
+            assertToken(JsonToken.START_OBJECT, jp.nextToken());
+            assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+            assertEquals("name", jp.getCurrentName());
+            assertToken(JsonToken.VALUE_STRING, jp.nextToken());
+            assertEquals("value", jp.getText());
+            assertToken(JsonToken.END_OBJECT, jp.nextToken());
+            jp.close();
+        }
+        assertEquals(1L, pool.getMissCount());
+        assertEquals(3L, pool.getHitCount());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    static class FailingBean {
+        public int getValue() { throw new IllegalStateException("fail"); }
+    }
+
+    public void testBoundedPoolWithObjectMapper() throws Exception
+    {
+        BufferRecyclerPool.BoundedPool pool = new BufferRecyclerPool.BoundedPool(4);
+        ObjectMapper mapper = new ObjectMapper(new JsonFactory().setBufferRecyclerPool(pool));
+        for (int i = 0; i < 3; ++i) {
+            assertEquals("[1,2]", mapper.writeValueAsString(new int[] { 1, 2 }));
+            assertEquals("{}", new String(mapper.writeValueAsBytes(new java.util.HashMap<String,Object>()), "UTF-8"));
+            assertEquals("[3]", mapper.writer().writeValueAsString(new int[] { 3 }));
+        }
+        // one recycler for the result buffer, another for the generator
+        assertEquals(2L, pool.getMissCount());
+        assertEquals(16L, pool.getHitCount());
+        assertEquals(2, pool.getPooledCount());
+
+        // and both must be released even if serialization fails
+        try {
+            mapper.writeValueAsString(new FailingBean());
+            fail("Should not pass");
+        } catch (JsonMappingException e) {
+            verifyException(e, "fail");
+        }
+        try {
+            mapper.writeValueAsBytes(new FailingBean());
+            fail("Should not pass");
+        } catch (JsonMappingException e) {
+            verifyException(e, "fail");
+        }
+        assertEquals(2L, pool.getMissCount());
+        assertEquals(2, pool.getPooledCount());
+
+        // generator comes from the public factory method, so content is Smile
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory().setBufferRecyclerPool(pool));
+        byte[] doc = smileMapper.writeValueAsBytes(new int[] { 1, 2 });
+        assertEquals(":)\n", new String(doc, 0, 3, "UTF-8"));
+        assertEquals(2L, pool.getMissCount());
+        assertEquals(2, pool.getPooledCount());
+    }
+}
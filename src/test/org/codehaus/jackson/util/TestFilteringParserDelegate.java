@@ -0,0 +1,179 @@
+package org.codehaus.jackson.util;
+
+import java.util.*;
+
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Unit tests to verify that {@link FilteringParserDelegate} works
+ * as expected.
+ *
+ * @since 1.10
+ */
+public class TestFilteringParserDelegate
+    extends main.BaseTest
+{
+    final static String DOC = "{\"meta\":{\"id\":3,\"tags\":[\"a\",\"b\"]},"
+        +"\"items\":[{\"name\":\"x\",\"price\":1.5,\"extra\":{\"deep\":[1,2,[3]]}},"
+        +"{\"name\":\"y\",\"price\":2.25},{\"name\":\"z\"}],"
+        +"\"value\":true}";
+
+    static class Meta {
+        public int id;
+        public List<String> tags;
+    }
+
+    private final ObjectMapper MAPPER = new ObjectMapper();
+
+    public void testInvalidPaths() throws Exception
+    {
+        try {
+            JsonPathFilter.compile("meta");
+            fail("Should not pass");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "must start with '/'");
+        }
+        try {
+            JsonPathFilter.compile("/a~2");
+            fail("Should not pass");
+        } catch (IllegalArgumentException e) {
+            verifyException(e, "illegal escape");
+        }
+    }
+
+    public void testSingleMatch() throws Exception
+    {
+        for (int mode = 0; mode < 2; ++mode) {
+            JsonParser jp = _parser(mode == 0, DOC, "/meta/id");
+            assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+            assertEquals(3, jp.getIntValue());
+            assertNull(jp.nextToken());
+            jp.close();
+        }
+    }
+
+    public void testWildcardMatches() throws Exception
+    {
+        JsonParser jp = _parser(true, DOC, "/items/*/price");
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, jp.nextToken());
+        assertEquals(1.5, jp.getDoubleValue());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, jp.nextToken());
+        assertEquals(2.25, jp.getDoubleValue());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testMultiplePaths() throws Exception
+    {
+        JsonParser jp = _parser(false, DOC, "/items/1/name", "/value", "/items/*/extra/deep/2");
+        StringBuilder sb = new StringBuilder();
+        JsonToken t;
+        while ((t = jp.nextToken()) != null) {
+            sb.append(t.asString() == null ? jp.getText() : t.asString()).append(' ');
+        }
+        assertEquals("[ 3 ] y true ", sb.toString());
+        jp.close();
+    }
+
+    public void testBindValue() throws Exception
+    {
+        JsonParser jp = new FilteringParserDelegate(createParserUsingStream(DOC, "UTF-8"),
+                JsonPathFilter.compile("/meta"));
+        Meta meta = MAPPER.readValue(jp, Meta.class);
+        assertEquals(3, meta.id);
+        assertEquals(Arrays.asList("a", "b"), meta.tags);
+        jp.close();
+
+        // and with multiple matches, as root-level sequence
+        jp = new FilteringParserDelegate(createParserUsingStream(DOC, "UTF-8"),
+                JsonPathFilter.compile("/items/*/name"));
+        Iterator<String> it = MAPPER.readValues(jp, String.class);
+        assertEquals("x", it.next());
+        assertEquals("y", it.next());
+        assertEquals("z", it.next());
+        assertFalse(it.hasNext());
+        jp.close();
+    }
+
+    public void testReadTreeWithPath() throws Exception
+    {
+        JsonParser jp = new FilteringParserDelegate(createParserUsingReader(DOC),
+                JsonPathFilter.compile("/meta/tags/1", "/items/*/price", "/value"), true);
+        JsonNode tree = MAPPER.readTree(jp);
+        assertEquals("{\"meta\":{\"tags\":[\"b\"]},\"items\":[{\"price\":1.5},{\"price\":2.25}],\"value\":true}",
+                MAPPER.writeValueAsString(tree));
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    // Parsers other than JSON ones report name of the container itself (null) for start tokens
+    public void testReadTreeWithPathFromTokenBuffer() throws Exception
+    {
+        TokenBuffer buffer = new TokenBuffer(null);
+        JsonParser src = createParserUsingReader("{\"x\":1,\"arr\":[10,20,30],\"obj\":{\"a\":{\"b\":2}}}");
+        while (src.nextToken() != null) {
+            buffer.copyCurrentEvent(src);
+        }
+        src.close();
+        JsonParser jp = new FilteringParserDelegate(buffer.asParser(),
+                JsonPathFilter.compile("/arr/2", "/obj/a/b"), true);
+        JsonNode tree = MAPPER.readTree(jp);
+        assertEquals("{\"arr\":[30],\"obj\":{\"a\":{\"b\":2}}}", MAPPER.writeValueAsString(tree));
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testSkipChildrenWithPath() throws Exception
+    {
+        JsonParser jp = new FilteringParserDelegate(createParserUsingReader(DOC),
+                JsonPathFilter.compile("/items/0/extra", "/value"), true);
+        assertToken(JsonToken.START_OBJECT, jp.nextToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("items", jp.getCurrentName());
+        assertEquals("items", jp.getText());
+        assertToken(JsonToken.START_ARRAY, jp.nextToken());
+        jp.skipChildren();
+        assertToken(JsonToken.END_ARRAY, jp.getCurrentToken());
+        assertToken(JsonToken.FIELD_NAME, jp.nextToken());
+        assertEquals("value", jp.getCurrentName());
+        assertToken(JsonToken.VALUE_TRUE, jp.nextToken());
+        assertToken(JsonToken.END_OBJECT, jp.nextToken());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testRootMatch() throws Exception
+    {
+        JsonParser jp = _parser(false, "[1,{\"a\":2}] 3", "");
+        JsonNode tree = MAPPER.readTree(jp);
+        assertEquals("[1,{\"a\":2}]", MAPPER.writeValueAsString(tree));
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(3, jp.getIntValue());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    public void testEscapedNames() throws Exception
+    {
+        JsonParser jp = _parser(true, "{\"a/b\":{\"~\":1,\"x\":2}}", "/a~1b/~0");
+        assertToken(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+        assertEquals(1, jp.getIntValue());
+        assertNull(jp.nextToken());
+        jp.close();
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    private JsonParser _parser(boolean useStream, String doc, String... paths)
+        throws Exception
+    {
+        JsonParser jp = useStream ? createParserUsingStream(doc, "UTF-8")
+                : createParserUsingReader(doc);
+        return new FilteringParserDelegate(jp, JsonPathFilter.compile(paths));
+    }
+}
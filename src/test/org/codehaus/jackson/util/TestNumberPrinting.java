@@ -59,6 +59,59 @@ public class TestNumberPrinting
         }
     }
 
+    public void testDoublePrinting()
+        throws Exception
+    {
+        // Format must match that of Double.toString()
+        assertEquals("0.0", NumberOutput.toString(0.0));
+        assertEquals("-0.0", NumberOutput.toString(-0.0));
+        assertEquals("1.0", NumberOutput.toString(1.0));
+        assertEquals("-12.5", NumberOutput.toString(-12.5));
+        assertEquals("0.001", NumberOutput.toString(0.001));
+        assertEquals("1.0E-4", NumberOutput.toString(0.0001));
+        assertEquals("1234567.0", NumberOutput.toString(1234567.0));
+        assertEquals("1.2345678E7", NumberOutput.toString(12345678.0));
+        assertEquals("0.1", NumberOutput.toString(0.1));
+        assertEquals("0.30000000000000004", NumberOutput.toString(0.1 + 0.2));
+        assertEquals("1.0E23", NumberOutput.toString(1e23));
+        assertEquals("0.002", NumberOutput.toString(0.002));
+        assertEquals("1.7976931348623157E308", NumberOutput.toString(Double.MAX_VALUE));
+        assertEquals("4.9E-324", NumberOutput.toString(Double.MIN_VALUE));
+        assertEquals("2.2250738585072014E-308", NumberOutput.toString(Double.MIN_NORMAL));
+        assertEquals("NaN", NumberOutput.toString(Double.NaN));
+        assertEquals("-Infinity", NumberOutput.toString(Double.NEGATIVE_INFINITY));
+
+        Random rnd = new Random(12345L);
+        for (int i = 0; i < 250000; ++i) {
+            double d = Double.longBitsToDouble(rnd.nextLong());
+            if (!Double.isNaN(d)) {
+                assertDoublePrint(d);
+            }
+            assertDoublePrint(rnd.nextInt(1000000) / 1000.0);
+        }
+    }
+
+    public void testFloatPrinting()
+        throws Exception
+    {
+        assertEquals("0.0", NumberOutput.toString(0.0f));
+        assertEquals("-1.5", NumberOutput.toString(-1.5f));
+        assertEquals("0.1", NumberOutput.toString(0.1f));
+        assertEquals("1.0E10", NumberOutput.toString(1e10f));
+        assertEquals("3.4028235E38", NumberOutput.toString(Float.MAX_VALUE));
+        assertEquals("1.4E-45", NumberOutput.toString(Float.MIN_VALUE));
+        assertEquals("Infinity", NumberOutput.toString(Float.POSITIVE_INFINITY));
+
+        Random rnd = new Random(12345L);
+        for (int i = 0; i < 250000; ++i) {
+            float f = Float.intBitsToFloat(rnd.nextInt());
+            if (!Float.isNaN(f)) {
+                assertFloatPrint(f);
+            }
+            assertFloatPrint(rnd.nextInt(1000000) / 1000.0f);
+        }
+    }
+
     /*
     ////////////////////////////////////////////////////////
     // Internal methods
@@ -85,6 +138,38 @@ public class TestNumberPrinting
         }
     }
 
+    /**
+     * Output must round-trip, and must not be longer than what JDK produces
+     * (which is not always the shortest representation)
+     */
+    private void assertDoublePrint(double value) throws Exception
+    {
+        char[] cbuf = new char[NumberOutput.MAX_DOUBLE_CHARS];
+        String act = new String(cbuf, 0, NumberOutput.outputDouble(value, cbuf, 0));
+        byte[] bbuf = new byte[NumberOutput.MAX_DOUBLE_CHARS];
+        int len = NumberOutput.outputDouble(value, bbuf, 0);
+        assertEquals(act, new String(bbuf, 0, len, "UTF-8"));
+        assertEquals("Conversion of "+act, value, Double.parseDouble(act));
+        String jdk = Double.toString(value);
+        if (act.length() > jdk.length()) {
+            fail("Output '"+act+"' longer than JDK output '"+jdk+"'");
+        }
+    }
+
+    private void assertFloatPrint(float value) throws Exception
+    {
+        char[] cbuf = new char[NumberOutput.MAX_FLOAT_CHARS];
+        String act = new String(cbuf, 0, NumberOutput.outputFloat(value, cbuf, 0));
+        byte[] bbuf = new byte[NumberOutput.MAX_FLOAT_CHARS];
+        int len = NumberOutput.outputFloat(value, bbuf, 0);
+        assertEquals(act, new String(bbuf, 0, len, "UTF-8"));
+        assertEquals("Conversion of "+act, value, Float.parseFloat(act));
+        String jdk = Float.toString(value);
+        if (act.length() > jdk.length()) {
+            fail("Output '"+act+"' longer than JDK output '"+jdk+"'");
+        }
+    }
+
     private String printToString(int value)
     {
         char[] buffer = new char[12];